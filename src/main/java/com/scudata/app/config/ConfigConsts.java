@@ -108,6 +108,14 @@ public class ConfigConsts {
 	public static String BUF_SIZE = "bufSize";
 	/** Group table block size */
 	public static String BLOCK_SIZE = "blockSize";
+	/** Group table block cache size */
+	public static String BLOCK_CACHE_SIZE = "blockCacheSize";
+	/** Memory size of groups on cursor */
+	public static String GROUPS_MEMORY_SIZE = "groupsMemorySize";
+	/** Whether to run I/O-bound jobs on virtual threads */
+	public static String VIRTUAL_THREAD = "virtualThread";
+	/** Runtime percentile of finished peers beyond which a callx job is speculatively re-executed */
+	public static String SPECULATIVE_PERCENTILE = "speculativePercentile";
 	/** local host */
 	// public static String LOCAL_HOST = "localHost";
 	/** local port */
@@ -411,6 +411,15 @@ public class ConfigHandler extends DefaultHandler {
 			} else if (qName.equalsIgnoreCase(ConfigConsts.BLOCK_SIZE)
 					|| qName.equalsIgnoreCase("simpleTableBlockSize")) {
 				config.setBlockSize(value);
+			} else if (qName.equalsIgnoreCase(ConfigConsts.BLOCK_CACHE_SIZE)) {
+				config.setBlockCacheSize(value);
+			} else if (qName.equalsIgnoreCase(ConfigConsts.GROUPS_MEMORY_SIZE)) {
+				config.setGroupsMemorySize(value);
+			} else if (qName.equalsIgnoreCase(ConfigConsts.VIRTUAL_THREAD)) {
+				config.setVirtualThread(value);
+			} else if (qName
+					.equalsIgnoreCase(ConfigConsts.SPECULATIVE_PERCENTILE)) {
+				config.setSpeculativePercentile(value);
 				// } else if (qName.equalsIgnoreCase(ConfigConsts.LOCAL_HOST)) {
 				// config.setLocalHost(value);
 				// } else if (qName.equalsIgnoreCase(ConfigConsts.LOCAL_PORT)) {
@@ -372,6 +372,10 @@ public class ConfigUtil {
 				}
 			}
 			setEnvBlockSize(config.getBlockSize());
+			setEnvBlockCacheSize(config.getBlockCacheSize());
+			setEnvGroupsMemorySize(config.getGroupsMemorySize());
+			setEnvVirtualThread(config.getVirtualThread());
+			setEnvSpeculativePercentile(config.getSpeculativePercentile());
 			// Env.setLocalHost(config.getLocalHost());
 			// String sPort = config.getLocalPort();
 			// if (StringUtils.isValidString(sPort)) {
@@ -864,6 +868,115 @@ public class ConfigUtil {
 		}
 	}
 
+	/**
+	 * Set group table block cache size to Env
+	 * 
+	 * @param sCacheSize
+	 */
+	public static void setEnvBlockCacheSize(String sCacheSize) {
+		if (!StringUtils.isValidString(sCacheSize)) {
+			return;
+		}
+		long cacheSize = parseMemorySize(sCacheSize);
+		if (cacheSize < 0) {
+			Logger.info("Invalid " + ConfigConsts.BLOCK_CACHE_SIZE + ":"
+					+ sCacheSize + ".");
+		} else {
+			Env.setBlockCacheSize(cacheSize);
+		}
+	}
+
+	/**
+	 * Set memory size of groups on cursor to Env
+	 * 
+	 * @param sMemorySize
+	 */
+	public static void setEnvGroupsMemorySize(String sMemorySize) {
+		if (!StringUtils.isValidString(sMemorySize)) {
+			return;
+		}
+		long memorySize = parseMemorySize(sMemorySize);
+		if (memorySize < 0) {
+			Logger.info("Invalid " + ConfigConsts.GROUPS_MEMORY_SIZE + ":"
+					+ sMemorySize + ".");
+		} else {
+			Env.setGroupsMemorySize(memorySize);
+		}
+	}
+
+	/**
+	 * Set whether to run I/O-bound jobs on virtual threads to Env
+	 * 
+	 * @param sVirtualThread
+	 */
+	public static void setEnvVirtualThread(String sVirtualThread) {
+		if (!StringUtils.isValidString(sVirtualThread)) {
+			return;
+		}
+		Env.setVirtualThread(Boolean.valueOf(sVirtualThread.trim())
+				.booleanValue());
+	}
+
+	/**
+	 * Set runtime percentile of finished peers beyond which a callx job is
+	 * speculatively re-executed to Env
+	 * 
+	 * @param sPercentile
+	 */
+	public static void setEnvSpeculativePercentile(String sPercentile) {
+		if (!StringUtils.isValidString(sPercentile)) {
+			return;
+		}
+		try {
+			int percentile = Integer.parseInt(sPercentile.trim());
+			if (percentile < 0 || percentile > 100) {
+				throw new NumberFormatException();
+			}
+			Env.setSpeculativePercentile(percentile);
+		} catch (NumberFormatException e) {
+			Logger.info("Invalid " + ConfigConsts.SPECULATIVE_PERCENTILE + ":"
+					+ sPercentile + ".");
+		}
+	}
+
+	/**
+	 * Parse memory size such as 512m or 4g. Unlike parseBufferSize, the
+	 * result may exceed 2g.
+	 * 
+	 * @param sNum
+	 * @return the number of bytes, -1 if invalid
+	 */
+	public static long parseMemorySize(String sNum) {
+		sNum = sNum.trim().toLowerCase();
+		if (sNum.endsWith("b")) {
+			sNum = sNum.substring(0, sNum.length() - 1);
+		}
+		if (sNum.length() == 0)
+			return -1;
+
+		char lastChar = sNum.charAt(sNum.length() - 1);
+		long unit = 1;
+		if (lastChar == 'k') {
+			unit = 1024L;
+		} else if (lastChar == 'm') {
+			unit = 1024L * 1024;
+		} else if (lastChar == 'g') {
+			unit = 1024L * 1024 * 1024;
+		} else if (lastChar == 't') {
+			unit = 1024L * 1024 * 1024 * 1024;
+		}
+		if (unit > 1) {
+			sNum = sNum.substring(0, sNum.length() - 1);
+		}
+
+		try {
+			double d = Double.parseDouble(sNum);
+			return d < 0 ? -1 : (long) (d * unit);
+		} catch (Exception ex) {
+			return -1;
+		}
+	}
+
 	/**
 	 * Get file buffer size of the unit
 	 * 
@@ -314,6 +314,13 @@ public class ConfigWriter {
 		writeAttribute(ConfigConsts.CURSOR_PARALLEL_NUM,
 				config.getCursorParallelNum());
 		writeAttribute(ConfigConsts.BLOCK_SIZE, config.getBlockSize());
+		writeAttribute(ConfigConsts.BLOCK_CACHE_SIZE,
+				config.getBlockCacheSize());
+		writeAttribute(ConfigConsts.GROUPS_MEMORY_SIZE,
+				config.getGroupsMemorySize());
+		writeAttribute(ConfigConsts.VIRTUAL_THREAD, config.getVirtualThread());
+		writeAttribute(ConfigConsts.SPECULATIVE_PERCENTILE,
+				config.getSpeculativePercentile());
 		writeAttribute(ConfigConsts.NULL_STRINGS, config.getNullStrings());
 		writeAttribute(ConfigConsts.FETCH_COUNT, config.getFetchCount());
 		writeAttribute(ConfigConsts.EXTLIBS, config.getExtLibsPath());
@@ -52,6 +52,14 @@ public class RaqsoftConfig implements Cloneable, Externalizable {
 	private String cursorParallelNum = null;
 	/** Group table block size */
 	private String blockSize = null;
+	/** Group table block cache size */
+	private String blockCacheSize = null;
+	/** Memory size of groups on cursor */
+	private String groupsMemorySize = null;
+	/** Whether to run I/O-bound jobs on virtual threads */
+	private String virtualThread = null;
+	/** Runtime percentile of finished peers beyond which a callx job is speculatively re-executed */
+	private String speculativePercentile = null;
 	/** Comma separated missing values */
 	private String nullStrings = "nan,null,n/a";
 	/** The number of records fetched from the cursor each time */
@@ -279,6 +287,80 @@ public class RaqsoftConfig implements Cloneable, Externalizable {
 		this.blockSize = blockSize;
 	}
 
+	/**
+	 * Get group table block cache size
+	 * 
+	 * @return
+	 */
+	public String getBlockCacheSize() {
+		return blockCacheSize;
+	}
+
+	/**
+	 * Set group table block cache size
+	 * 
+	 * @param blockCacheSize
+	 */
+	public void setBlockCacheSize(String blockCacheSize) {
+		this.blockCacheSize = blockCacheSize;
+	}
+
+	/**
+	 * Get memory size of groups on cursor
+	 * 
+	 * @return
+	 */
+	public String getGroupsMemorySize() {
+		return groupsMemorySize;
+	}
+
+	/**
+	 * Set memory size of groups on cursor
+	 * 
+	 * @param groupsMemorySize
+	 */
+	public void setGroupsMemorySize(String groupsMemorySize) {
+		this.groupsMemorySize = groupsMemorySize;
+	}
+
+	/**
+	 * Get whether to run I/O-bound jobs on virtual threads
+	 * 
+	 * @return
+	 */
+	public String getVirtualThread() {
+		return virtualThread;
+	}
+
+	/**
+	 * Set whether to run I/O-bound jobs on virtual threads
+	 * 
+	 * @param virtualThread
+	 */
+	public void setVirtualThread(String virtualThread) {
+		this.virtualThread = virtualThread;
+	}
+
+	/**
+	 * Get runtime percentile of finished peers beyond which a callx job is
+	 * speculatively re-executed
+	 * 
+	 * @return
+	 */
+	public String getSpeculativePercentile() {
+		return speculativePercentile;
+	}
+
+	/**
+	 * Set runtime percentile of finished peers beyond which a callx job is
+	 * speculatively re-executed
+	 * 
+	 * @param speculativePercentile
+	 */
+	public void setSpeculativePercentile(String speculativePercentile) {
+		this.speculativePercentile = speculativePercentile;
+	}
+
 	/**
 	 * Get Local host
 	 * 
@@ -724,6 +806,10 @@ public class RaqsoftConfig implements Cloneable, Externalizable {
 		config.setParallelNum(parallelNum);
 		config.setCursorParallelNum(cursorParallelNum);
 		config.setBlockSize(blockSize);
+		config.setBlockCacheSize(blockCacheSize);
+		config.setGroupsMemorySize(groupsMemorySize);
+		config.setVirtualThread(virtualThread);
+		config.setSpeculativePercentile(speculativePercentile);
 		config.setNullStrings(nullStrings);
 		config.setFetchCount(fetchCount);
 		if (importLibs != null) {
@@ -775,7 +861,7 @@ public class RaqsoftConfig implements Cloneable, Externalizable {
 	 */
 	public void writeExternal(ObjectOutput out) throws IOException {
 		/* Version type */
-		out.writeByte(4);
+		out.writeByte(8);
 		out.writeObject(dbList);
 		out.writeObject(mainPath);
 		out.writeObject(splPathList);
@@ -808,6 +894,10 @@ public class RaqsoftConfig implements Cloneable, Externalizable {
 		out.writeObject(customFunctionFile);
 		out.writeObject(springDBList);
 		out.writeObject(esprocSerialNo);
+		out.writeObject(blockCacheSize);
+		out.writeObject(groupsMemorySize);
+		out.writeObject(virtualThread);
+		out.writeObject(speculativePercentile);
 	}
 
 	/**
@@ -857,6 +947,18 @@ public class RaqsoftConfig implements Cloneable, Externalizable {
 		if (version > 3) {
 			esprocSerialNo = (String) in.readObject();
 		}
+		if (version > 4) {
+			blockCacheSize = (String) in.readObject();
+		}
+		if (version > 5) {
+			groupsMemorySize = (String) in.readObject();
+		}
+		if (version > 6) {
+			virtualThread = (String) in.readObject();
+		}
+		if (version > 7) {
+			speculativePercentile = (String) in.readObject();
+		}
 	}
 
 }
@@ -1220,7 +1220,7 @@ public class PgmCellSet extends CellSet {
 				}
 			}
 
-			ThreadPool pool = ThreadPool.newInstance(list.size());
+			ThreadPool pool = ThreadPool.newIOInstance(list.size());
 			try {
 				for (SubForkJob job : list) {
 					pool.submit(job);
@@ -1448,7 +1448,7 @@ public class PgmCellSet extends CellSet {
 
 		ForkJob[] jobs = new ForkJob[mcount];
 		Sequence result = new Sequence(mcount);
-		ThreadPool pool = ThreadPool.newInstance(mcount);
+		ThreadPool pool = ThreadPool.newIOInstance(mcount);
 
 		try {
 			for (int i = 0; i < mcount; ++i) {
@@ -15,6 +15,7 @@ import com.scudata.parallel.XmlUtil;
     <TempTimeOut>12</TempTimeOut>
     <Interval>0</Interval>
     <ProxyTimeOut>12</ProxyTimeOut>
+    <MetricsPort>0</MetricsPort>
     <SplConfig>d:/path/raqsofCofig.xml</SplConfig>
     <LogPath>d:/sp.log</LogPath>
 	<SplHome></SplHome>
@@ -22,7 +23,7 @@ import com.scudata.parallel.XmlUtil;
 </SERVER>
 **/
 public class SplServerConfig {
-	public String tempTimeOut,interval,proxyTimeOut,splConfig,logPath;
+	public String tempTimeOut,interval,proxyTimeOut,metricsPort,splConfig,logPath;
 	public String splHome,JVMArgs;
 	
 	public static SplServerConfig getCfg(InputStream is) throws Exception {
@@ -62,6 +63,10 @@ public class SplServerConfig {
 		if(subNode!=null) {
 			ssc.proxyTimeOut = XmlUtil.getNodeValue(subNode);
 		}
+		subNode = XmlUtil.findSonNode(root, "MetricsPort");
+		if(subNode!=null) {
+			ssc.metricsPort = XmlUtil.getNodeValue(subNode);
+		}
 		subNode = XmlUtil.findSonNode(root, "Interval");
 		if(subNode!=null) {
 			ssc.interval = XmlUtil.getNodeValue(subNode);
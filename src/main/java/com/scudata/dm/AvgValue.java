@@ -1,6 +1,9 @@
 package com.scudata.dm;
 
+import java.io.Externalizable;
 import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import com.scudata.util.Variant;
 
@@ -9,7 +12,9 @@ import com.scudata.util.Variant;
  * @author WangXiaoJun
  *
  */
-public class AvgValue {
+public class AvgValue implements Externalizable {
+	private static final long serialVersionUID = 1L;
+	
 	private Object sumVal; // Ԫػֵ
 	private int count; // Ԫnull
 	
@@ -55,4 +60,14 @@ public class AvgValue {
 		sumVal = in.readObject();
 		count = in.readInt();
 	}
+	
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeObject(sumVal);
+		out.writeInt(count);
+	}
+	
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		sumVal = in.readObject();
+		count = in.readInt();
+	}
 }
@@ -0,0 +1,349 @@
+package com.scudata.dm;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.scudata.array.IArray;
+import com.scudata.common.RQException;
+import com.scudata.dw.LZ4Util;
+import com.scudata.parallel.PerfMonitor;
+
+/**
+ * ʽʱļддм
+ * ݰ¼ֿ飬ڰдţдǰһֵĲдǰһֵ
+ * ѹԭСʱLZ4ѹ
+ * ļʽļͷʶ汾ֶȻݿ飨ԭȡ洢ȡݣԳ0
+ * ֻдУColumnSpillCursorȡ
+ * @author RunQian
+ *
+ */
+public class ColumnSpillWriter {
+	public static final byte []MAGIC = {'r', 'q', 'c', 's'}; // ļʶ
+	public static final int VERSION = 1; // ļ汾
+	public static final int BLOCK_RECORDS = 8192; // ÿļ¼
+
+	// 
+	public static final byte TYPE_NULL = 0; // ȫΪ
+	public static final byte TYPE_INT = 1; // Integer
+	public static final byte TYPE_LONG = 2; // Long
+	public static final byte TYPE_DOUBLE = 3; // Double
+	public static final byte TYPE_STRING = 4; // String
+	public static final byte TYPE_DATE = 5; // java.sql.Date
+	public static final byte TYPE_OBJECT = 6; // ͻͻϣл
+
+	private FileObject file; // ʱļ
+	private OutputStream out; // 
+	private int fcount; // ֶ
+
+	private BlockBuffer block = new BlockBuffer(); // 
+	private BlockBuffer column = new BlockBuffer(); // 
+	private byte []head = new byte[4]; // ĳϢ
+
+	/**
+	 * ݻͬһдظʹ
+	 */
+	private static class BlockBuffer {
+		private byte []buf = new byte[65536];
+		private int count;
+
+		public void reset() {
+			count = 0;
+		}
+
+		private void ensureCapacity(int n) {
+			if (count + n > buf.length) {
+				int newLen = buf.length * 2;
+				if (newLen < count + n) {
+					newLen = count + n;
+				}
+
+				byte []newBuf = new byte[newLen];
+				System.arraycopy(buf, 0, newBuf, 0, count);
+				buf = newBuf;
+			}
+		}
+
+		public void write(int b) {
+			ensureCapacity(1);
+			buf[count++] = (byte)b;
+		}
+
+		public void write(byte []b, int off, int len) {
+			ensureCapacity(len);
+			System.arraycopy(b, off, buf, count, len);
+			count += len;
+		}
+
+		public void writeVarLong(long v) {
+			ensureCapacity(10);
+			while ((v & ~0x7FL) != 0) {
+				buf[count++] = (byte)((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+
+			buf[count++] = (byte)v;
+		}
+
+		// zigzagдзֵСռõֽ
+		public void writeZigzag(long v) {
+			writeVarLong((v << 1) ^ (v >> 63));
+		}
+	}
+
+	/**
+	 * ʽʱļд
+	 * @param file ʱļ
+	 * @param ds ݽṹ
+	 */
+	public ColumnSpillWriter(FileObject file, DataStruct ds) {
+		this.file = file;
+		String []names = ds.getFieldNames();
+		this.fcount = names.length;
+
+		try {
+			out = file.getBufferedOutputStream(false);
+			out.write(MAGIC);
+			out.write(VERSION);
+
+			BlockBuffer header = block;
+			header.reset();
+			header.writeVarLong(fcount);
+			for (String name : names) {
+				byte []bytes = name.getBytes(StandardCharsets.UTF_8);
+				header.writeVarLong(bytes.length);
+				header.write(bytes, 0, bytes.length);
+			}
+
+			out.write(header.buf, 0, header.count);
+		} catch (IOException e) {
+			close();
+			file.delete();
+			throw new RQException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * жǷʽʱļ
+	 * @param data 
+	 * @return trueǴУfalse
+	 */
+	public static boolean canWrite(Sequence data) {
+		return data != null && data.length() > 0 && data.dataStruct() != null;
+	}
+
+	/**
+	 * дʱļдʽʽдɼļ
+	 * @param file ʱļ
+	 * @param data 
+	 */
+	public static void exportTemp(FileObject file, Sequence data) {
+		if (canWrite(data)) {
+			ColumnSpillWriter writer = new ColumnSpillWriter(file, data.dataStruct());
+			try {
+				writer.write(data);
+				writer.close();
+			} catch (RuntimeException e) {
+				writer.close();
+				file.delete();
+				throw e;
+			}
+		} else {
+			file.exportSeries(data, "b", null);
+		}
+
+		PerfMonitor.add(PerfMonitor.SPILL_BYTES, file.size());
+	}
+
+	/**
+	 * дݣԶε
+	 * @param data 
+	 */
+	public void write(Sequence data) {
+		IArray mems = data.getMems();
+		int len = mems.size();
+		try {
+			for (int start = 1; start <= len; start += BLOCK_RECORDS) {
+				int end = start + BLOCK_RECORDS - 1;
+				if (end > len) {
+					end = len;
+				}
+
+				writeBlock(mems, start, end);
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * дɣرļ
+	 */
+	public void close() {
+		if (out != null) {
+			try {
+				writeInt32(0);
+				out.write(head, 0, 4);
+				out.close();
+			} catch (IOException e) {
+				throw new RQException(e.getMessage(), e);
+			} finally {
+				out = null;
+			}
+		}
+	}
+
+	/**
+	 * ȡʱļ
+	 * @return FileObject
+	 */
+	public FileObject getFile() {
+		return file;
+	}
+
+	private void writeInt32(int n) {
+		byte []head = this.head;
+		head[0] = (byte)(n >>> 24);
+		head[1] = (byte)(n >>> 16);
+		head[2] = (byte)(n >>> 8);
+		head[3] = (byte)n;
+	}
+
+	private void writeBlock(IArray mems, int start, int end) throws IOException {
+		BlockBuffer block = this.block;
+		BlockBuffer column = this.column;
+		int count = end - start + 1;
+		block.reset();
+		block.writeVarLong(count);
+
+		for (int f = 0; f < fcount; ++f) {
+			column.reset();
+			byte type = writeColumn(mems, start, end, f, column);
+			block.write(type);
+			block.writeVarLong(column.count);
+			block.write(column.buf, 0, column.count);
+		}
+
+		int rawLen = block.count;
+		LZ4Util lz4 = LZ4Util.instance();
+		byte []bytes = lz4.compress(block.buf, 0, rawLen);
+		int storeLen = lz4.getCount();
+		if (storeLen >= rawLen) {
+			bytes = block.buf;
+			storeLen = rawLen;
+		}
+
+		writeInt32(rawLen);
+		out.write(head, 0, 4);
+		writeInt32(storeLen);
+		out.write(head, 0, 4);
+		out.write(bytes, 0, storeLen);
+	}
+
+	// дһеݣ
+	private static byte writeColumn(IArray mems, int start, int end, int f, BlockBuffer out) throws IOException {
+		// ȷе
+		Class<?> type = null;
+		boolean hasNull = false;
+		for (int i = start; i <= end; ++i) {
+			Object val = ((BaseRecord)mems.get(i)).getNormalFieldValue(f);
+			if (val == null) {
+				hasNull = true;
+			} else if (type == null) {
+				type = val.getClass();
+			} else if (type != val.getClass()) {
+				type = Object.class;
+				break;
+			}
+		}
+
+		if (type == null) {
+			return TYPE_NULL;
+		}
+
+		byte colType;
+		if (type == Integer.class) {
+			colType = TYPE_INT;
+		} else if (type == Long.class) {
+			colType = TYPE_LONG;
+		} else if (type == Double.class) {
+			colType = TYPE_DOUBLE;
+		} else if (type == String.class) {
+			colType = TYPE_STRING;
+		} else if (type == java.sql.Date.class) {
+			colType = TYPE_DATE;
+		} else {
+			colType = TYPE_OBJECT;
+		}
+
+		if (colType == TYPE_OBJECT) {
+			ByteArrayOutputStream bos = new ByteArrayOutputStream();
+			ObjectWriter writer = new ObjectWriter(bos);
+			for (int i = start; i <= end; ++i) {
+				writer.writeObject(((BaseRecord)mems.get(i)).getNormalFieldValue(f));
+			}
+
+			writer.flush();
+			byte []bytes = bos.toByteArray();
+			out.write(bytes, 0, bytes.length);
+			return colType;
+		}
+
+		// пֵʱдֵλͼ
+		out.write(hasNull ? 1 : 0);
+		if (hasNull) {
+			int bits = 0;
+			int bitCount = 0;
+			for (int i = start; i <= end; ++i) {
+				if (((BaseRecord)mems.get(i)).getNormalFieldValue(f) == null) {
+					bits |= 1 << bitCount;
+				}
+
+				if (++bitCount == 8) {
+					out.write(bits);
+					bits = 0;
+					bitCount = 0;
+				}
+			}
+
+			if (bitCount > 0) {
+				out.write(bits);
+			}
+		}
+
+		long prev = 0;
+		for (int i = start; i <= end; ++i) {
+			Object val = ((BaseRecord)mems.get(i)).getNormalFieldValue(f);
+			if (val == null) {
+				continue;
+			}
+
+			switch (colType) {
+			case TYPE_INT:
+			case TYPE_LONG:
+				long v = ((Number)val).longValue();
+				out.writeZigzag(v - prev);
+				prev = v;
+				break;
+			case TYPE_DATE:
+				long t = ((java.util.Date)val).getTime();
+				out.writeZigzag(t - prev);
+				prev = t;
+				break;
+			case TYPE_DOUBLE:
+				// ǰһֵλתβ0ǰ0ռֽ
+				long bits = Double.doubleToLongBits((Double)val);
+				out.writeVarLong(Long.reverse(bits ^ prev));
+				prev = bits;
+				break;
+			default: // TYPE_STRING
+				byte []bytes = ((String)val).getBytes(StandardCharsets.UTF_8);
+				out.writeVarLong(bytes.length);
+				out.write(bytes, 0, bytes.length);
+			}
+		}
+
+		return colType;
+	}
+}
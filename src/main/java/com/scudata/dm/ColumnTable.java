@@ -0,0 +1,326 @@
+package com.scudata.dm;
+
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.scudata.array.BoolArray;
+import com.scudata.array.ConstArray;
+import com.scudata.array.IArray;
+import com.scudata.array.ObjectArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.expression.Expression;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * дŵÿֶεֵһдαܵȰм㴫
+ * ܰмֱȡֵֶ㣬¼зʳԱʱŰﻯɼ¼֮ͨͬ
+ * @author RunQian
+ *
+ */
+public class ColumnTable extends Table {
+	private static final long serialVersionUID = 0x02010005;
+
+	private IArray []columns; // ֵֶ飬ﻯɼ¼Ϊ
+	private int len; // ¼
+
+	/**
+	 * лʱʹ
+	 */
+	public ColumnTable() {
+	}
+
+	/**
+	 * ֵֶ鴴
+	 * @param ds ݽṹ
+	 * @param columns ֵֶ飬ݽṹֶζӦͬ
+	 */
+	public ColumnTable(DataStruct ds, IArray []columns) {
+		super(ds, 0);
+		this.columns = columns;
+		this.len = columns.length > 0 ? columns[0].size() : 0;
+	}
+
+	/**
+	 * Ƿ񻹰дţûﻯɼ¼
+	 * @return trueд
+	 */
+	public boolean hasColumns() {
+		return columns != null;
+	}
+
+	/**
+	 * ֵֶﻯɼ¼
+	 */
+	private void materialize() {
+		IArray []columns = this.columns;
+		if (columns == null) {
+			return;
+		}
+
+		this.columns = null;
+		int len = this.len;
+		int fcount = columns.length;
+		IArray mems = new ObjectArray(len);
+
+		for (int i = 1; i <= len; ++i) {
+			Record r = newRecord(i);
+			for (int f = 0; f < fcount; ++f) {
+				r.setNormalFieldValue(f, columns[f].get(i));
+			}
+
+			mems.add(r);
+		}
+
+		this.mems = mems;
+	}
+
+	/**
+	 * ﻯʱiеļ¼ش˷Ϣļ¼
+	 * @param i кţ1ʼ
+	 * @return Record
+	 */
+	protected Record newRecord(int i) {
+		return new Record(ds);
+	}
+
+	public IArray getMems() {
+		materialize();
+		return mems;
+	}
+
+	public IArray getCurrentMems() {
+		materialize();
+		return mems;
+	}
+
+	public int length() {
+		if (columns != null) {
+			return len;
+		} else {
+			return mems.size();
+		}
+	}
+
+	public Object get(int seq) {
+		materialize();
+		return super.get(seq);
+	}
+
+	public Object getMem(int seq) {
+		materialize();
+		return mems.get(seq);
+	}
+
+	public Object getFieldValue(int row, int field) {
+		if (columns != null) {
+			return columns[field].get(row);
+		} else {
+			return super.getFieldValue(row, field);
+		}
+	}
+
+	public IArray getFieldValueArray(String fieldName) {
+		if (columns != null) {
+			int f = ds.getFieldIndex(fieldName);
+			if (f < 0) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(fieldName + mm.getMessage("ds.fieldNotExist"));
+			}
+
+			return columns[f];
+		} else {
+			return super.getFieldValueArray(fieldName);
+		}
+	}
+
+	public IArray getFieldValueArray(int field) {
+		if (columns != null) {
+			return columns[field];
+		} else {
+			return super.getFieldValueArray(field);
+		}
+	}
+
+	/**
+	 * ѡʶȡֵΪ
+	 * @param signArray ʶ
+	 * @return ûѡеʱؿ
+	 */
+	public Table select(IArray signArray) {
+		BoolArray signs = signArray.isTrue();
+		if (!signs.containTrue()) {
+			return null;
+		}
+
+		IArray []columns = this.columns;
+		if (columns != null) {
+			int fcount = columns.length;
+			IArray []resultColumns = new IArray[fcount];
+			for (int f = 0; f < fcount; ++f) {
+				resultColumns[f] = columns[f].select(signs);
+			}
+
+			return new ColumnTable(ds, resultColumns);
+		} else {
+			IArray mems = this.mems;
+			int len = mems.size();
+			Table result = new Table(ds, len);
+			IArray resultMems = result.getMems();
+			for (int i = 1; i <= len; ++i) {
+				if (signs.isTrue(i)) {
+					resultMems.add(mems.get(i));
+				}
+			}
+
+			return result;
+		}
+	}
+
+	// ʽõֶǷǱֶΣ԰м㣬²ļ¼
+	private boolean canCalculateAll(Expression []exps, Context ctx) {
+		if (columns == null) {
+			return false;
+		}
+
+		List<String> fieldList = new ArrayList<String>();
+		for (Expression exp : exps) {
+			if (exp == null) {
+				return false;
+			}
+
+			exp.getUsedFields(ctx, fieldList);
+		}
+
+		DataStruct ds = this.ds;
+		for (String field : fieldList) {
+			if (ds.getFieldIndex(field) == -1) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	// мʽΪֵֶ
+	private void calculateAll(Expression []exps, IArray []resultColumns, int pos, Context ctx) {
+		ComputeStack stack = ctx.getComputeStack();
+		stack.push(new Current(this));
+
+		try {
+			for (int c = 0; c < exps.length; ++c) {
+				IArray array = exps[c].calculateAll(ctx);
+				if (array.isTemporary()) {
+					// ʱֱܱ޸
+					array.setTemporary(false);
+				}
+
+				resultColumns[pos + c] = array;
+			}
+		} finally {
+			stack.pop();
+		}
+	}
+
+	public Table newTable(DataStruct ds, Expression[] exps, String opt, Context ctx) {
+		if (opt != null || !canCalculateAll(exps, ctx)) {
+			return super.newTable(ds, exps, opt, ctx);
+		}
+
+		IArray []resultColumns = new IArray[exps.length];
+		calculateAll(exps, resultColumns, 0, ctx);
+		return new ColumnTable(ds, resultColumns);
+	}
+
+	public Table derive(DataStruct newDs, Expression []exps, String opt, Context ctx) {
+		if (opt != null || !canCalculateAll(exps, ctx)) {
+			return super.derive(newDs, exps, opt, ctx);
+		}
+
+		int colCount = exps.length;
+		int oldColCount = newDs.getFieldCount() - colCount;
+		IArray []resultColumns = new IArray[oldColCount + colCount];
+		calculateAll(exps, resultColumns, oldColCount, ctx);
+
+		// ʽʱﻯ˼¼ԴֶδgetFieldValueArrayȡ
+		for (int f = 0; f < oldColCount; ++f) {
+			resultColumns[f] = getFieldValueArray(f);
+		}
+
+		return new ColumnTable(newDs, resultColumns);
+	}
+
+	public Sequence append(Sequence seq) {
+		if (columns != null && seq instanceof ColumnTable) {
+			ColumnTable table = (ColumnTable)seq;
+			IArray []columns2 = table.columns;
+			if (columns2 != null && table.ds == ds) {
+				IArray []columns = this.columns;
+				for (int f = 0; f < columns.length; ++f) {
+					columns[f] = concat(columns[f], columns2[f]);
+				}
+
+				len += table.len;
+				return this;
+			}
+		}
+
+		return super.append(seq);
+	}
+
+	/**
+	 * 飬飬Ͳͬʱ
+	 * @param array1 1
+	 * @param array2 2
+	 * @return IArray
+	 */
+	public static IArray concat(IArray array1, IArray array2) {
+		return concat(new IArray[] {array1, array2}, array1.size() + array2.size());
+	}
+
+	/**
+	 * Ӷ飬飬Ͳͬʱ
+	 * @param arrays 
+	 * @param total ܳ
+	 * @return IArray
+	 */
+	public static IArray concat(IArray []arrays, int total) {
+		if (arrays.length == 1) {
+			return arrays[0];
+		}
+
+		boolean isSameType = !(arrays[0] instanceof ConstArray);
+		for (int i = 1; i < arrays.length && isSameType; ++i) {
+			isSameType = arrays[i].getClass() == arrays[0].getClass();
+		}
+
+		IArray result;
+		if (isSameType) {
+			result = arrays[0].newInstance(total);
+			for (IArray array : arrays) {
+				result.addAll(array);
+			}
+		} else {
+			result = new ObjectArray(total);
+			for (IArray array : arrays) {
+				for (int i = 1, size = array.size(); i <= size; ++i) {
+					result.push(array.get(i));
+				}
+			}
+		}
+
+		return result;
+	}
+
+	public byte[] serialize() throws IOException{
+		materialize();
+		return super.serialize();
+	}
+
+	public void writeExternal(ObjectOutput out) throws IOException {
+		materialize();
+		super.writeExternal(out);
+	}
+}
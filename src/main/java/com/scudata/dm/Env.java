@@ -42,6 +42,10 @@ public class Env {
 
 
 	public static int BLOCK_SIZE = 1024 * 1024; // ļСС40962^nn>=16
+	private static long blockCacheSize = 0; // ݿ黺ֽ0ʾ
+	private static long groupsMemorySize = 0; // αܿõڴֽʱмд棬0ʾ
+	private static boolean isVirtualThread = false; // Ƿִ߳I/Oܼ
+	private static int speculativePercentile = 0; // callxҵʱҵʱĴ˰ٷλʱڱķֻƲִи0ʾƲִ
 
 	// ȱʧֵ壬ִСдǴʱͳnull
 	private static String[] nullStrings = new String[] { "nan", "null", "n/a" };
@@ -565,6 +569,79 @@ public class Env {
 		BLOCK_SIZE = size;
 	}
 
+	/**
+	 * ȡݿ黺ĴС
+	 * 
+	 * @return ֽ0ʾ
+	 */
+	public static long getBlockCacheSize() {
+		return blockCacheSize;
+	}
+
+	/**
+	 * ݿ黺ĴСα깲ѹݿ
+	 * 
+	 * @param size ֽ0ʾ
+	 */
+	public static void setBlockCacheSize(long size) {
+		blockCacheSize = size;
+	}
+
+	/**
+	 * ȡαܿõڴС
+	 * 
+	 * @return ֽ0ʾ
+	 */
+	public static long getGroupsMemorySize() {
+		return groupsMemorySize;
+	}
+
+	/**
+	 * αܿõڴСʱмдʱļ
+	 * 
+	 * @param size ֽ0ʾ
+	 */
+	public static void setGroupsMemorySize(long size) {
+		groupsMemorySize = size;
+	}
+
+	/**
+	 * ȡǷִ߳I/Oܼ
+	 * 
+	 * @return truẹ߳falseƽ̨߳
+	 */
+	public static boolean isVirtualThread() {
+		return isVirtualThread;
+	}
+
+	/**
+	 * Ƿִ߳forkcallxI/OܼJVM֧߳ʱƽ̨߳
+	 * 
+	 * @param b truẹ߳falseƽ̨߳
+	 */
+	public static void setVirtualThread(boolean b) {
+		isVirtualThread = b;
+	}
+
+	/**
+	 * ȡcallxƲִеĺʱٷλ
+	 * 
+	 * @return ٷλ0ʾƲִ
+	 */
+	public static int getSpeculativePercentile() {
+		return speculativePercentile;
+	}
+
+	/**
+	 * callxƲִеĺʱٷλҵʱҵʱĴ˰ٷλٳһʱ
+	 * ڱĿзִֻһȡɵĽ
+	 * 
+	 * @param percentile ٷλȡֵ01000ʾƲִ
+	 */
+	public static void setSpeculativePercentile(int percentile) {
+		speculativePercentile = percentile;
+	}
+
 	/**
 	 * ȡȱʧֵ壬ִСдǴʱͳnull
 	 * 
@@ -0,0 +1,339 @@
+package com.scudata.dm;
+
+import com.scudata.array.BoolArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.expression.Expression;
+import com.scudata.resources.EngineMessage;
+import com.scudata.util.Variant;
+
+/**
+ * ֶĿŵַϣΪַʱʹ
+ * ¼λôڻϣż¼λãͻʱ̽⣬ҪΪÿڵ
+ * @author RunQian
+ *
+ */
+public class OpenHashIndexTable extends IndexTable {
+	private static final int MIN_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private Sequence code; // ԴϣŵԪصλãҪλõԴȡԪ
+	private int capacity; // ʱָؽʱ
+	private long []longKeys; // ¼λôţ0λòãΪַʱΪ
+	private String []stringKeys; // ַ¼λôţ0λòãΪʱΪ
+	private int []slots; // ϣۣż¼λã0ʾղ
+	private int mask; // ϣ1
+	private int shift; // ȡϣֵλʱƵλ
+	private int nullPos; // Ϊյļ¼λã0ʾû
+
+	private OpenHashIndexTable(Sequence code, long []longKeys, String []stringKeys, int len, int capacity) {
+		this.code = code;
+		this.longKeys = longKeys;
+		this.stringKeys = stringKeys;
+		this.capacity = capacity;
+
+		// Ǽ2֤̽·϶
+		int n = MIN_CAPACITY;
+		while ((n < len * 2 || n < capacity) && n < MAX_CAPACITY) {
+			n <<= 1;
+		}
+
+		slots = new int[n];
+		mask = n - 1;
+		shift = 64 - Integer.numberOfTrailingZeros(n);
+	}
+
+	/**
+	 * еֶָΪϣȫȫַʱؿգɵ߸HashIndexTable
+	 * @param code Դ
+	 * @param field ֶС0ʱóԱΪ
+	 * @param capacity ϣڴֵ
+	 * @return OpenHashIndexTable
+	 */
+	public static OpenHashIndexTable create(Sequence code, int field, int capacity) {
+		IArray mems = code.getMems();
+		int len = mems.size();
+		OpenHashIndexTable indexTable = new OpenHashIndexTable(code, null, null, len, capacity);
+
+		for (int i = 1; i <= len; ++i) {
+			Object key = mems.get(i);
+			if (field >= 0) {
+				if (!(key instanceof BaseRecord)) {
+					return null;
+				}
+
+				key = ((BaseRecord)key).getNormalFieldValue(field);
+			}
+
+			if (key == null) {
+				indexTable.putNull(i);
+			} else if (key instanceof Integer || key instanceof Long) {
+				if (indexTable.longKeys == null) {
+					if (indexTable.stringKeys != null) {
+						return null;
+					}
+
+					indexTable.longKeys = new long[len + 1];
+				}
+
+				indexTable.longKeys[i] = ((Number)key).longValue();
+				indexTable.put(i);
+			} else if (key instanceof String) {
+				if (indexTable.stringKeys == null) {
+					if (indexTable.longKeys != null) {
+						return null;
+					}
+
+					indexTable.stringKeys = new String[len + 1];
+				}
+
+				indexTable.stringKeys[i] = (String)key;
+				indexTable.put(i);
+			} else {
+				return null;
+			}
+		}
+
+		if (indexTable.longKeys == null && indexTable.stringKeys == null) {
+			// ûзǿյļ
+			indexTable.longKeys = new long[len + 1];
+		}
+
+		return indexTable;
+	}
+
+	/**
+	 * ȡʱָ
+	 * @return
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	// ԻƽָȡλΪϣۺţļҲܷɢ
+	private int hash(long key) {
+		return (int)((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	private int hash(String key) {
+		return hash((long)key.hashCode());
+	}
+
+	private void putNull(int pos) {
+		if (nullPos != 0) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(Variant.toString(null) + mm.getMessage("engine.dupKeys"));
+		}
+
+		nullPos = pos;
+	}
+
+	// ָλõļϣ
+	private void put(int pos) {
+		int []slots = this.slots;
+		int mask = this.mask;
+		if (longKeys != null) {
+			long []longKeys = this.longKeys;
+			long key = longKeys[pos];
+			int i = hash(key);
+			while (slots[i] != 0) {
+				if (longKeys[slots[i]] == key) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException(key + mm.getMessage("engine.dupKeys"));
+				}
+
+				i = (i + 1) & mask;
+			}
+
+			slots[i] = pos;
+		} else {
+			String []stringKeys = this.stringKeys;
+			String key = stringKeys[pos];
+			int i = hash(key);
+			while (slots[i] != 0) {
+				if (stringKeys[slots[i]].equals(key)) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException(key + mm.getMessage("engine.dupKeys"));
+				}
+
+				i = (i + 1) & mask;
+			}
+
+			slots[i] = pos;
+		}
+	}
+
+	// λãҲ0
+	private int findPos(long key) {
+		long []longKeys = this.longKeys;
+		int []slots = this.slots;
+		int mask = this.mask;
+		int i = hash(key);
+
+		while (true) {
+			int pos = slots[i];
+			if (pos == 0 || longKeys[pos] == key) {
+				return pos;
+			}
+
+			i = (i + 1) & mask;
+		}
+	}
+
+	// ַλãҲ0
+	private int findPos(String key) {
+		String []stringKeys = this.stringKeys;
+		int []slots = this.slots;
+		int mask = this.mask;
+		int i = hash(key);
+
+		while (true) {
+			int pos = slots[i];
+			if (pos == 0 || stringKeys[pos].equals(key)) {
+				return pos;
+			}
+
+			i = (i + 1) & mask;
+		}
+	}
+
+	/**
+	 * ɼԪţҲ0
+	 * @param key ֵ
+	 */
+	public int findPos(Object key) {
+		if (key == null) {
+			return nullPos;
+		} else if (longKeys != null) {
+			if (key instanceof Integer || key instanceof Long || key instanceof Short || key instanceof Byte) {
+				return findPos(((Number)key).longValue());
+			} else {
+				return 0;
+			}
+		} else if (key instanceof String) {
+			return findPos((String)key);
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * ɼԪţҲ0
+	 * @param keys Ϊ1ļֵ
+	 */
+	public int findPos(Object []keys) {
+		return findPos(keys[0]);
+	}
+
+	/**
+	 * ɼԪأҲؿ
+	 * @param key ֵ
+	 */
+	public Object find(Object key) {
+		int pos = findPos(key);
+		return pos > 0 ? code.getMem(pos) : null;
+	}
+
+	/**
+	 * ɼԪأҲؿ
+	 * @param keys Ϊ1ļֵ
+	 */
+	public Object find(Object []keys) {
+		return find(keys[0]);
+	}
+
+	public int[] findAllPos(IArray keys) {
+		return findAllPos(keys, null);
+	}
+
+	public int[] findAllPos(IArray[] keys) {
+		return findAllPos(keys[0], null);
+	}
+
+	public int[] findAllPos(IArray keys, BoolArray signArray) {
+		int len = keys.size();
+		int[] pos = new int[len + 1];
+
+		if (longKeys != null && (keys instanceof IntArray || keys instanceof LongArray)) {
+			for (int i = 1; i <= len; ++i) {
+				if (signArray != null && signArray.isFalse(i)) {
+					continue;
+				} else if (keys.isNull(i)) {
+					pos[i] = nullPos;
+				} else {
+					pos[i] = findPos(keys.getLong(i));
+				}
+			}
+		} else {
+			for (int i = 1; i <= len; ++i) {
+				if (signArray == null || !signArray.isFalse(i)) {
+					pos[i] = findPos(keys.get(i));
+				}
+			}
+		}
+
+		return pos;
+	}
+
+	public int[] findAllPos(IArray[] keys, BoolArray signArray) {
+		return findAllPos(keys[0], signArray);
+	}
+
+	/**
+	 * й
+	 * @param exp ˱ʽ
+	 * @param ctx
+	 * @return Table ļ¼ɵ
+	 */
+	public Table select(Expression exp, Context ctx) {
+		Sequence code = this.code;
+		int len = code.length();
+		Table result = new Table(code.dataStruct(), len);
+		IArray mems = result.getMems();
+		long []longKeys = this.longKeys;
+		String []stringKeys = this.stringKeys;
+		long []resultLongKeys = longKeys != null ? new long[len + 1] : null;
+		String []resultStringKeys = stringKeys != null ? new String[len + 1] : null;
+		int nullPos = this.nullPos;
+		int resultNullPos = 0;
+		int newLen = 0;
+
+		ComputeStack stack = ctx.getComputeStack();
+		Current current = new Current(code);
+		stack.push(current);
+
+		try {
+			for (int i = 1; i <= len; ++i) {
+				current.setCurrent(i);
+				if (Variant.isTrue(exp.calculate(ctx))) {
+					mems.add(current.getCurrent());
+					newLen++;
+					if (i == nullPos) {
+						resultNullPos = newLen;
+					} else if (longKeys != null) {
+						resultLongKeys[newLen] = longKeys[i];
+					} else {
+						resultStringKeys[newLen] = stringKeys[i];
+					}
+				}
+			}
+		} finally {
+			stack.pop();
+		}
+
+		result.trimToSize();
+		OpenHashIndexTable indexTable = new OpenHashIndexTable(result, resultLongKeys, resultStringKeys, newLen, capacity);
+		indexTable.nullPos = resultNullPos;
+		for (int i = 1; i <= newLen; ++i) {
+			if (i != resultNullPos) {
+				indexTable.put(i);
+			}
+		}
+
+		result.setIndexTable(indexTable);
+		return result;
+	}
+}
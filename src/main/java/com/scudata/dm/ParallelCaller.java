@@ -8,6 +8,7 @@ import com.scudata.expression.Expression;
 import com.scudata.parallel.*;
 import com.scudata.server.unit.UnitServer;
 import com.scudata.thread.ThreadPool;
+import com.scudata.thread.VirtualThreads;
 
 /**
  * ʵֲúcallx(dfx,;hs;rdfx)Ĳ
@@ -34,6 +35,14 @@ public class ParallelCaller extends ParallelProcess {
 
 	private String opt = null;
 
+	private static final double SPECULATIVE_RATIO = 1.5; // ҵʱٷλʱĴ˱ʱƲִ
+	private static final long MIN_SPECULATIVE_TIME = 1000; // ʱڴ˺ҵƲִ
+	private static final long SPECULATIVE_INTERVAL = 200; // ҵļ
+	private ArrayList<ProcessCaller> backups = new ArrayList<ProcessCaller>(); // Ʋִеĸҵ
+
+	private HashMap<String, UnitLoad> loads; // طʱֻĸؿգʱΪ
+	private HashMap<String, Integer> slotCounts; // ֻͬʱִеҵ
+
 	/**
 	 * һö
 	 * @param dfx 
@@ -187,7 +196,11 @@ public class ParallelCaller extends ParallelProcess {
 			}
 			// ĹأֱǷֻĿ
 			int poolSize = ucList.size();
-			pool = ThreadPool.newSpecifiedInstance(poolSize);
+			if (VirtualThreads.isEnabled()) {
+				pool = ThreadPool.newIOInstance(poolSize);
+			} else {
+				pool = ThreadPool.newSpecifiedInstance(poolSize);
+			}
 			for (int i = 0; i < size; i++) {
 				ProcessCaller pcaller = (ProcessCaller) callers.get(i);
 				UnitClient uc = getClient();
@@ -222,7 +235,7 @@ public class ParallelCaller extends ParallelProcess {
 	public Object execute(byte calcType) {
 		String msg;
 		if(calcType==TYPE_DEFAULT){
-			msg = "Dispatch jobs by sorting order.";
+			msg = "Dispatch jobs by node load.";
 		}else{
 			msg = "Dispatch jobs on random order.";
 		}
@@ -235,17 +248,23 @@ public class ParallelCaller extends ParallelProcess {
 			int size = nodes.length;
 			int maxTaskNum = 0;
 			HashMap<String, Integer> ucTaskMap = new HashMap<String, Integer>();
+			HashMap<String, UnitLoad> ucLoadMap = new HashMap<String, UnitLoad>();
 			// Ҫݴҳķֻݴ
 			for (int i = 0; i < size; i++) {
 				UnitClient uc = nodes[i];
 				if (!uc.isConnected()) {
 					continue;
 				}
-				int maxNum = uc.getUnitMaxNum();
+
+				// Ѿɵķֻֻ1ҵҵڷֻŶӣټĸ
+				UnitLoad load = getLoad(uc);
+				int maxNum = load.getAvailableTaskNum();
 				if (maxNum > maxTaskNum) {
 					maxTaskNum = maxNum;
 				}
 				ucTaskMap.put(uc.toString(), maxNum);
+				ucLoadMap.put(uc.toString(), load);
+				Logger.debug(uc + " " + load);
 				appendClient(uc, false);
 				activeHostCount++;
 			}
@@ -297,20 +316,32 @@ public class ParallelCaller extends ParallelProcess {
 			
 			if(calcType==TYPE_RANDOM){
 				randomUCList();
+			} else {
+				loads = ucLoadMap;
+				slotCounts = ucTaskMap;
 			}
 			
 			// ĹأҵֻҵȡСķ
 			int poolSize = Math.min(size, ucList.size());
-			pool = ThreadPool.newSpecifiedInstance(poolSize);
+			if (VirtualThreads.isEnabled()) {
+				pool = ThreadPool.newIOInstance(poolSize);
+			} else {
+				pool = ThreadPool.newSpecifiedInstance(poolSize);
+			}
 			for (int i = 0; i < size; i++) {
 				ProcessCaller pcaller = (ProcessCaller) callers.get(i);
-				UnitClient uc = getClient();
+				UnitClient uc = getClient(pcaller);
 				if (reduce != null) {
 					pcaller.setReduce(reduce, accumulateLocation,currentLocation);//,ucIndex);
 				}
 				pcaller.setUnitClient(uc);
 				pool.submit(pcaller);
 			}
+			
+			// reduceʱֻϻۻظۻԲƲִ
+			if (reduce == null && size > 1 && Env.getSpeculativePercentile() > 0) {
+				speculate(pool);
+			}
 			joinCallers();
 
 			if (reduce != null) {
@@ -343,12 +374,247 @@ public class ParallelCaller extends ParallelProcess {
 			}
 			throw new RuntimeException(x.getMessage(), x);
 		} finally {
+			finishBackups();
 			if (pool != null) {
 				pool.shutdown();
 			}
 		}
 	}
 
+	// ȡֻĸأȡʱֻҵ
+	private static UnitLoad getLoad(UnitClient uc) {
+		try {
+			UnitLoad load = uc.getLoad();
+			if (load != null) {
+				return load;
+			}
+		} catch (Exception e) {
+			Logger.debug(e);
+		}
+
+		return UnitLoad.getDefault(uc.getUnitMaxNum());
+	}
+
+	/**
+	 * ӷֻΪҵѡһ÷͵Ŀзֻ÷ɷֻĸءѷָҵԼ
+	 * ǷҵҪʵķûпзֻʱȴ
+	 * @param pc ҵ
+	 * @return UnitClient
+	 */
+	private UnitClient getClient(ProcessCaller pc) {
+		if (loads == null) {
+			return getClient();
+		}
+
+		int partition = getPartition(pc.getArgs());
+		synchronized(ucList) {
+			// Ʋִе߳ҲӶȡֻʱֻѱȡ
+			while (ucList.size() == 0) {
+				try {
+					ucList.wait();
+				} catch (InterruptedException e) {
+					// ؿջʹҵڱִУָж״̬׳쳣
+					Logger.debug(e);
+					Thread.currentThread().interrupt();
+					throw new RQException(e);
+				}
+			}
+
+			HashMap<String, Integer> freeCounts = new HashMap<String, Integer>();
+			for (UnitClient uc : ucList) {
+				String key = uc.toString();
+				Integer n = freeCounts.get(key);
+				freeCounts.put(key, n == null ? 1 : n + 1);
+			}
+
+			int bestIndex = 0;
+			double bestScore = 0;
+			int index = 0;
+			for (UnitClient uc : ucList) {
+				String key = uc.toString();
+				UnitLoad load = loads.get(key);
+				if (load != null) {
+					int assigned = slotCounts.get(key) - freeCounts.get(key);
+					double score = load.score(assigned, partition);
+					if (index == 0 || score < bestScore) {
+						bestIndex = index;
+						bestScore = score;
+					}
+				}
+
+				index++;
+			}
+
+			return ucList.remove(bestIndex);
+		}
+	}
+
+	// ȡҵеķţΪļʱΪҵʸ÷ûз0
+	// šȣ
+	private static int getPartition(List<?> args) {
+		if (args == null) {
+			return 0;
+		}
+
+		for (Object arg : args) {
+			if (arg instanceof List) {
+				int p = getPartition((List<?>)arg);
+				if (p > 0) {
+					return p;
+				}
+			} else if (arg instanceof FileObject) {
+				Integer p = ((FileObject)arg).getPartition();
+				if (p != null && p.intValue() > 0) {
+					return p.intValue();
+				}
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * ƲִУҵɺĳҵĺʱҵʱָٷλһ
+	 * ĸ䵽ĿзִֻУȡɵĽɵıȡ
+	 * @param pool ִҵ̳߳
+	 */
+	private void speculate(ThreadPool pool) {
+		int percentile = Env.getSpeculativePercentile();
+		int size = callers.size();
+		long []times = new long[size];
+
+		while (!isCanceled) {
+			int finishCount = 0;
+			for (int i = 0; i < size; i++) {
+				ProcessCaller pc = (ProcessCaller) callers.get(i);
+				if (pc.isFinished()) {
+					times[finishCount++] = pc.getRunTime();
+				}
+			}
+
+			if (finishCount == size) {
+				return;
+			}
+
+			// һҵɺҵĺʱвοֵ
+			if (finishCount * 2 >= size) {
+				Arrays.sort(times, 0, finishCount);
+				int index = (finishCount * percentile + 99) / 100 - 1;
+				if (index < 0) {
+					index = 0;
+				}
+
+				long limit = (long)(times[index] * SPECULATIVE_RATIO);
+				if (limit < MIN_SPECULATIVE_TIME) {
+					limit = MIN_SPECULATIVE_TIME;
+				}
+
+				long now = System.currentTimeMillis();
+				for (int i = 0; i < size; i++) {
+					ProcessCaller pc = (ProcessCaller) callers.get(i);
+					long startTime = pc.getStartTime();
+					if (startTime == 0 || now - startTime <= limit || pc.isFinished() || pc.getBackup() != null) {
+						continue;
+					}
+
+					UnitClient uc = getIdleClient(pc.uc);
+					if (uc == null) {
+						break; // ûпеֻ
+					}
+
+					launchBackup(pc, uc, pool);
+				}
+			}
+
+			try {
+				Thread.sleep(SPECULATIVE_INTERVAL);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * ӷֻȡһеġָֻͬķֻû򷵻ؿգȴ
+	 * @param exclude ҵǰڵķֻ
+	 * @return UnitClient
+	 */
+	private UnitClient getIdleClient(UnitClient exclude) {
+		synchronized(ucList) {
+			Iterator<UnitClient> itr = ucList.iterator();
+			while (itr.hasNext()) {
+				UnitClient uc = itr.next();
+				if (!uc.equals(exclude)) {
+					itr.remove();
+					return uc;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	// ִָֻҵĸԭҵĲб
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void launchBackup(ProcessCaller pc, UnitClient uc, ThreadPool pool) {
+		ProcessCaller backup = new ProcessCaller((List<List>) pc.getArgs());
+		backup.setPositions(pc.argPositions);
+		backup.setDispatchable(true);
+		if (!pc.setBackup(backup)) {
+			releaseClient(uc);
+			return;
+		}
+
+		try {
+			backup.setUnitClient(uc);
+		} catch (Exception e) {
+			Logger.debug(e);
+			releaseClient(uc);
+			return;
+		}
+
+		Logger.info(mm.getMessage("ParallelProcess.speculate", pc, uc));
+		backups.add(backup);
+		pool.submit(backup);
+	}
+
+	/**
+	 * ȴҵƲִʱһȡҵٵȴҪִеһӦȡ
+	 */
+	void joinCallers() throws Throwable {
+		if (backups.size() == 0) {
+			super.joinCallers();
+			return;
+		}
+
+		ArrayList<Caller> callers = this.callers;
+		ArrayList<Caller> winners = new ArrayList<Caller>(callers.size());
+		for (Caller caller : callers) {
+			ProcessCaller pc = (ProcessCaller) caller;
+			ProcessCaller backup = pc.getBackup();
+			if (backup != null && backup.isWinner()) {
+				winners.add(backup);
+			} else {
+				winners.add(pc);
+			}
+		}
+
+		try {
+			this.callers = winners;
+			super.joinCallers();
+		} finally {
+			this.callers = callers;
+		}
+	}
+
+	// ȡûɵĸҵҵٵȴ
+	private void finishBackups() {
+		for (ProcessCaller backup : backups) {
+			backup.cancelRun();
+		}
+
+		backups.clear();
+	}
 
 	/*
 	 * ˳Ŵ1ʼķֻ
@@ -431,6 +697,14 @@ public class ParallelCaller extends ParallelProcess {
 		private Sequence argPositions = null;
 		private boolean isDispatchable = false;
 
+		private ProcessCaller origin = this; // ƲִеĸָԭҵԭҵָԼ
+		private ProcessCaller backup = null; // ԭҵƲִеĸ
+		private boolean isFinished = false; // ԭҵ丱Ƿɲ˽
+		private volatile long startTime = 0; // ʼִеʱ
+		private volatile boolean isWinner = false; // Ƿɴҵ˽
+		private int failCount = 0; // ԭҵ͸гĸʱų
+		private long runTime = 0; // ӿʼִенĺʱ
+
 		Context pcCtx = null;
 		Expression pcExp = null;
 
@@ -482,10 +756,118 @@ public class ParallelCaller extends ParallelProcess {
 			this.argPositions = argPos;
 		}
 
+		long getStartTime() {
+			return startTime;
+		}
+
+		synchronized long getRunTime() {
+			return runTime;
+		}
+
+		synchronized boolean isFinished() {
+			return isFinished;
+		}
+
+		synchronized ProcessCaller getBackup() {
+			return backup;
+		}
+
+		/**
+		 * Ʋִеĸ
+		 * @param backup ҵ
+		 * @return ҵʱfalse
+		 */
+		synchronized boolean setBackup(ProcessCaller backup) {
+			if (isFinished || failCount > 0) {
+				return false;
+			}
+
+			this.backup = backup;
+			backup.origin = this;
+			return true;
+		}
+
+		// ԭҵ븱ɵһȡýȨ
+		private synchronized boolean finish() {
+			if (isFinished) {
+				return false;
+			}
+
+			isFinished = true;
+			runTime = System.currentTimeMillis() - startTime;
+			return true;
+		}
+
+		private boolean isBackup() {
+			return origin != this;
+		}
+
+		/**
+		 * ¼ԭҵ򸱱һݻִʱfalseҵ
+		 * @return ԭҵ͸ʱtrue
+		 */
+		private synchronized boolean fail() {
+			failCount++;
+			return failCount >= (backup == null ? 1 : 2);
+		}
+
+		// ʱƲִеһݻִĽʱж
+		private void onError(Throwable t) {
+			if (origin.isFinished()) {
+				// ѱһȡʱӰ
+				Logger.debug(t);
+			} else if (origin.fail()) {
+				interruptAll(this, t);
+			} else {
+				Logger.info(mm.getMessage("ParallelProcess.speculateFail", this, t.getMessage()));
+			}
+		}
+
+		boolean isWinner() {
+			return isWinner;
+		}
+
+		// Ʋִʱһ
+		private boolean isLoser() {
+			return !isWinner && (isBackup() || getBackup() != null) && origin.isFinished();
+		}
+
+		/**
+		 * ȡִеҵӰҵ
+		 */
+		void cancelRun() {
+			Integer id = taskId;
+			if (!isRunning || id == null) {
+				return;
+			}
+
+			if (canRunOnLocal()) {
+				try {
+					Task t = (Task)TaskManager.getTask(id);
+					t.cancel(TERMINATE);
+				} catch (Exception x) {
+				}
+			} else {
+				uc.cancel(id, TERMINATE);
+			}
+		}
+
 		void setResponseValue(Object rVal) {
 			int index = 0;
 			if (reduce != null) {
 			} else {
+				if (!origin.finish()) {
+					return; // һ
+				}
+
+				isWinner = true;
+
+				// ȡƲִеһ
+				ProcessCaller other = isBackup() ? origin : origin.getBackup();
+				if (other != null) {
+					other.cancelRun();
+				}
+
 				Sequence pos = argPositions;
 				Sequence val = null;
 				if (rVal instanceof Sequence) {
@@ -529,6 +911,10 @@ public class ParallelCaller extends ParallelProcess {
 			}
 
 			isRunning = true;
+			if (startTime == 0) {
+				startTime = System.currentTimeMillis();
+			}
+
 			try {
 				while (true) {
 					if (isCanceled) {
@@ -536,6 +922,9 @@ public class ParallelCaller extends ParallelProcess {
 								this));
 						break;
 					}
+					if (origin.isFinished()) {
+						break; // Ʋִеһ
+					}
 					try {
 						long l1 = System.currentTimeMillis();
 						Logger.debug(mm.getMessage("Task.taskBegin", this));
@@ -551,6 +940,11 @@ public class ParallelCaller extends ParallelProcess {
 								df.format(lastTime)));// this+" ʼ㡣");
 						break;
 					} catch (RetryException re) { // Ҫ·ֻ쳣ʱ
+						if (origin.isFinished()) {
+							break; // ԭҵɺٷ
+						} else if (isBackup()) {
+							throw re; // ·䣬
+						}
 						releaseClient(uc);
 						if (!errorNodes.contains(uc)) {
 							errorNodes.add(uc.clone());
@@ -562,15 +956,20 @@ public class ParallelCaller extends ParallelProcess {
 							Logger.debug(mm.getMessage(
 									"ParallelProcess.reassign", this));
 						} catch (Exception ex) {
-							interruptAll(this, ex);
+							onError(ex);
 							break;
 						}
 					}
 				}
 			} catch (Throwable t) {
-				interruptAll(this, t);
+				onError(t);
 			} finally {
-				releaseClient(uc);
+				if (isLoser()) {
+					// ȡҵʱѾٷŻطֻ
+					uc.close();
+				} else {
+					releaseClient(uc);
+				}
 				isRunning = false;
 			}
 		}
@@ -559,12 +559,15 @@ public class ParallelProcess implements IResource{
 		}
 		
 		synchronized(ucList) {
-			if (ucList.size() == 0) {
+			// Ʋִе߳ҲӶȡֻʱֻѱȡ
+			while (ucList.size() == 0) {
 				try {
 					ucList.wait();
 				} catch (InterruptedException e) {
-					e.printStackTrace();
-					return null;
+					// ؿջʹҵڱִУָж״̬׳쳣
+					Logger.debug(e);
+					Thread.currentThread().interrupt();
+					throw new RQException(e);
 				}
 			}
 			return  ucList.removeFirst();
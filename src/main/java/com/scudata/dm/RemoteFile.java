@@ -39,13 +39,11 @@ public class RemoteFile implements IFile {
 		public RemoteFileInputStream(int bufSize) throws Exception {
 			this.bufSize = bufSize;
 			uc = new UnitClient(host, port);// , Env.FILE_BUFSIZE);
-			uc.connect();
-			Logger.debug(this + " connected.");
 			Request req = new Request(Request.FILE_OPEN);
 			req.setAttr(Request.OPEN_Partition, partition);
 			req.setAttr(Request.OPEN_FileName, fileName);
 			req.setAttr(Request.OPEN_Opt, opt);
-			Response res = uc.send(req);
+			Response res = uc.sendByChannel(req);
 			handle = (Integer) res.getResult();
 		}
 
@@ -59,12 +57,10 @@ public class RemoteFile implements IFile {
 		public RemoteFileInputStream(int fileHandle,int bufSize,long pos) throws Exception {
 			this.bufSize = bufSize;
 			uc = new UnitClient(host, port);// , Env.FILE_BUFSIZE);
-			uc.connect();
-			Logger.debug(this + " connected.");
 			Request req = new Request(Request.FILE_FROM_HANDLE);
 			req.setAttr(Request.FROM_Handle, fileHandle);
 			req.setAttr(Request.FROM_Pos, pos);
-			Response res = uc.send(req);
+			Response res = uc.sendByChannel(req);
 			handle = (Integer) res.getResult();
 			isSubRandomStream = true;
 		}
@@ -84,7 +80,7 @@ public class RemoteFile implements IFile {
 				Request req = new Request(Request.FILE_READ);
 				req.setAttr(Request.READ_Handle, handle);
 				req.setAttr(Request.READ_BufferSize, new Integer(bufSize));
-				Response res = (Response) uc.send(req);
+				Response res = (Response) uc.sendByChannel(req);
 				if (res.getError() != null) {
 					throw res.getError();
 				}
@@ -179,14 +175,12 @@ public class RemoteFile implements IFile {
 			this.bufSize = bufSize;
 			buf = new byte[bufSize];
 			uc = new UnitClient(host, port);// , Env.FILE_BUFSIZE);
-			uc.connect();
-			Logger.debug(this + " connected.");
 			Request req = new Request(Request.FILE_OPEN);
 			req.setAttr(Request.OPEN_Partition, partition);
 			req.setAttr(Request.OPEN_FileName, fileName);
 			req.setAttr(Request.OPEN_Opt, opt);
 			req.setAttr(Request.OPEN_IsAppend, append);
-			Response res = uc.send(req);
+			Response res = uc.sendByChannel(req);
 			handle = (Integer) res.getResult();
 		}
 
@@ -206,7 +200,7 @@ public class RemoteFile implements IFile {
 				Request req = new Request(Request.FILE_WRITE);
 				req.setAttr(Request.WRITE_Handle, handle);
 				req.setAttr(Request.WRITE_Bytes, bytes);
-				Response res = (Response) uc.send(req);
+				Response res = (Response) uc.sendByChannel(req);
 
 				if (res.getError() != null) {
 					Logger.debug(toString() + " block error:"
@@ -269,7 +263,7 @@ public class RemoteFile implements IFile {
 			req.setAttr(Request.SETPOSITION_Handle, handle);
 			req.setAttr(Request.SETPOSITION_Position, newPosition);
 			try {
-				Response res = uc.send(req);
+				Response res = uc.sendByChannel(req);
 				Exception ex = res.getException();
 				if (ex != null) {
 					if (ex instanceof IOException) {
@@ -288,7 +282,7 @@ public class RemoteFile implements IFile {
 			Request req = new Request(Request.FILE_POSITION);
 			req.setAttr(Request.POSITION_Handle, handle);
 			try {
-				Response res = uc.send(req);
+				Response res = uc.sendByChannel(req);
 				Exception ex = res.getException();
 				if (ex != null) {
 					if (ex instanceof IOException) {
@@ -308,7 +302,7 @@ public class RemoteFile implements IFile {
 			Request req = new Request(Request.FILE_TRYLOCK);
 			req.setAttr(Request.TRYLOCK_Handle, handle);
 			try {
-				Response res = uc.send(req);
+				Response res = uc.sendByChannel(req);
 				Exception ex = res.getException();
 				if (ex != null) {
 					if (ex instanceof IOException) {
@@ -331,7 +325,7 @@ public class RemoteFile implements IFile {
 			Request req = new Request(Request.FILE_LOCK);
 			req.setAttr(Request.LOCK_Handle, handle);
 			try {
-				Response res = uc.send(req);
+				Response res = uc.sendByChannel(req);
 				Exception ex = res.getException();
 				if (ex != null) {
 					if (ex instanceof IOException) {
@@ -369,7 +363,7 @@ public class RemoteFile implements IFile {
 		try {
 			Request req = new Request(Request.FILE_CLOSE);
 			req.setAttr(Request.CLOSE_Handle, handle);
-			uc.send(req);
+			uc.sendByChannel(req);
 		} catch (Exception e) {
 			throw new RQException(e);
 		} finally {
@@ -459,11 +453,10 @@ public class RemoteFile implements IFile {
 		if (property == null) {
 			try {
 				UnitClient uc = new UnitClient(host, port);
-				uc.connect();
 				Request req = new Request(Request.FILE_GETPROPERTY);
 				req.setAttr(Request.GETPROPERTY_FileName, fileName);
 				req.setAttr(Request.GETPROPERTY_Opt, opt);
-				Response res = uc.send(req);
+				Response res = uc.sendByChannel(req);
 				property = (HashMap) res.getResult();
 				uc.close();
 			} catch (Exception x) {
@@ -482,10 +475,9 @@ public class RemoteFile implements IFile {
 		UnitClient uc = null;
 		try {
 			uc = new UnitClient(host, port);
-			uc.connect();
 			Request req = new Request(Request.FILE_DELETE);
 			req.setAttr(Request.DELETE_FileName, fileName);
-			Response res = uc.send(req);
+			Response res = uc.sendByChannel(req);
 			if (res.getError() != null) {
 				throw new RQException(res.getError());
 			}
@@ -5914,6 +5914,8 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 				IndexTable index = getIndexTable();
 				if (index instanceof HashIndexTable) {
 					return ((HashIndexTable)index).select(exp, ctx);
+				} else if (index instanceof OpenHashIndexTable) {
+					return ((OpenHashIndexTable)index).select(exp, ctx);
 				} else if (index instanceof HashArrayIndexTable) {
 					return ((HashArrayIndexTable)index).select(exp, ctx);
 				}
@@ -11655,6 +11657,20 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 			}
 		}
 		
+		IndexTable openIndexTable = null;
+		if (this instanceof Table) {
+			int []pkIndex = ((Table)this).dataStruct().getPKIndex();
+			if (pkIndex != null && pkIndex.length == 1) {
+				openIndexTable = OpenHashIndexTable.create(this, pkIndex[0], capacity);
+			}
+		} else if (!(obj instanceof BaseRecord) && !(obj instanceof Sequence)) {
+			openIndexTable = OpenHashIndexTable.create(this, -1, capacity);
+		}
+		
+		if (openIndexTable != null) {
+			return openIndexTable;
+		}
+		
 		HashIndexTable hashIndexTable = new HashIndexTable(capacity);
 		hashIndexTable.create(this);
 		return hashIndexTable;
@@ -11681,6 +11697,16 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 		if (exp == null) {
 			return newIndexTable(capacity);
 		} else {
+			if (this instanceof Table) {
+				int f = exp.getFieldIndex(dataStruct());
+				if (f != -1) {
+					IndexTable openIndexTable = OpenHashIndexTable.create(this, f, capacity);
+					if (openIndexTable != null) {
+						return openIndexTable;
+					}
+				}
+			}
+			
 			HashIndexTable it = new HashIndexTable(capacity);
 			it.create(this, exp, ctx);
 			return it;
@@ -11700,6 +11726,14 @@ public class Sequence implements Externalizable, IRecord, Comparable<Sequence> {
 			if ((ds != null && ds.isSeqKey()) || (opt != null && opt.indexOf('n') != -1)) {
 				return new SeqIndexTable(this, fields[0]);
 			} else {
+				// ΪַʱûżĿŵַϣдʱHashIndexTable
+				if (opt == null || opt.indexOf('m') == -1) {
+					IndexTable openIndexTable = OpenHashIndexTable.create(this, fields[0], capacity);
+					if (openIndexTable != null) {
+						return openIndexTable;
+					}
+				}
+				
 				HashIndexTable it = new HashIndexTable(capacity, opt);
 				it.create(this, fields[0]);
 				return it;
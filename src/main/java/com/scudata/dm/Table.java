@@ -1860,6 +1860,8 @@ public class Table extends Sequence {
 		if (indexTable != null) {
 			if (indexTable instanceof HashIndexTable) {
 				createIndexTable(((HashIndexTable)indexTable).getCapacity(), null);
+			} else if (indexTable instanceof OpenHashIndexTable) {
+				createIndexTable(((OpenHashIndexTable)indexTable).getCapacity(), null);
 			} else { // SerialBytesIndexTable
 				createIndexTable("s");
 			}
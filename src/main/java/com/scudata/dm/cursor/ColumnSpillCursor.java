@@ -0,0 +1,566 @@
+package com.scudata.dm.cursor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.scudata.array.DateArray;
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
+import com.scudata.array.ObjectArray;
+import com.scudata.array.StringArray;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ColumnSpillWriter;
+import com.scudata.dm.Context;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.Env;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.ObjectReader;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dw.LZ4Util;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * ʽʱļα꣬ȡColumnSpillWriterдļ
+ * ÿζһ飬ѡнIArrayûѡֱ
+ * @author RunQian
+ *
+ */
+public class ColumnSpillCursor extends ICursor {
+	private FileObject fileObject; // ļ
+	private String []fields; // ѡֶΣձʾѡֶ
+	private boolean isDeleteFile; // αرպɾԴļ
+	private int fileBufSize = Env.FILE_BUFSIZE; // ļʱĻС
+
+	private InputStream in; // Ϊձʾû
+	private DataStruct ds; // ݽṹ
+	private int []fieldIndex; // ļеڽеţ-1ʾûѡ
+
+	private byte []storeBuf = new byte[0]; // Ĵ洢
+	private byte []rawBuf = new byte[0]; // ѹ
+	private IArray []columns; // ǰѡе
+	private int blockCount; // ǰļ¼
+	private int blockIndex = 1; // ǰһҪļ¼1ʼ
+	private boolean isEnd; // ǷѶ
+	private int startBlock; // ļĿ
+
+	/**
+	 * ʽʱļα
+	 * @param fileObject ļ
+	 * @param fields ѡֶΣձʾѡֶ
+	 * @param opt ѡxαرպɾļ
+	 * @param ctx 
+	 */
+	public ColumnSpillCursor(FileObject fileObject, String []fields, String opt, Context ctx) {
+		this.fileObject = fileObject;
+		this.fields = fields;
+		this.ctx = ctx;
+
+		if (opt != null && opt.indexOf('x') != -1) {
+			if (ctx != null) ctx.addResource(this);
+			isDeleteFile = true;
+		}
+	}
+
+	/**
+	 * жļǷʽʱļ
+	 * @param fileObject ļ
+	 * @return trueǣfalse
+	 */
+	public static boolean isColumnSpillFile(FileObject fileObject) {
+		byte []magic = ColumnSpillWriter.MAGIC;
+		byte []bytes = new byte[magic.length];
+		InputStream is = null;
+		try {
+			is = fileObject.getInputStream();
+			if (is.read(bytes) != bytes.length) {
+				return false;
+			}
+		} catch (IOException e) {
+			return false;
+		} finally {
+			if (is != null) {
+				try {
+					is.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+
+		for (int i = 0; i < magic.length; ++i) {
+			if (bytes[i] != magic[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Ϊʱļα꣬αرպɾļ
+	 * @param fileObject ʱļʽʱļ߼ļ
+	 * @param bufSize ļСС1ʱĬֵ
+	 * @param ctx 
+	 * @return ICursor
+	 */
+	public static ICursor createTempCursor(FileObject fileObject, int bufSize, Context ctx) {
+		if (isColumnSpillFile(fileObject)) {
+			ColumnSpillCursor cursor = new ColumnSpillCursor(fileObject, null, "x", ctx);
+			if (bufSize > 0) {
+				cursor.setFileBufferSize(bufSize);
+			}
+
+			return cursor;
+		} else {
+			BFileCursor cursor = new BFileCursor(fileObject, null, "x", ctx);
+			if (bufSize > 0) {
+				cursor.setFileBufferSize(bufSize);
+			}
+
+			return cursor;
+		}
+	}
+
+	/**
+	 * öļС
+	 * @param size
+	 */
+	public void setFileBufferSize(int size) {
+		this.fileBufSize = size;
+	}
+
+	/**
+	 * ôļĿֻȡļĺһ
+	 * @param startBlock 
+	 */
+	public void setStartBlock(int startBlock) {
+		this.startBlock = startBlock;
+	}
+
+	private void open() throws IOException {
+		in = new ObjectReader(fileObject.getBlockInputStream(fileBufSize), fileBufSize);
+		byte []magic = new byte[ColumnSpillWriter.MAGIC.length + 1];
+		readFully(magic, magic.length);
+		if (magic[magic.length - 1] > ColumnSpillWriter.VERSION) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(mm.getMessage("license.fileFormatError"));
+		}
+
+		int fcount = (int)readVarLong();
+		String []names = new String[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			int len = (int)readVarLong();
+			byte []bytes = new byte[len];
+			readFully(bytes, len);
+			names[f] = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		DataStruct fileDs = new DataStruct(names);
+		fieldIndex = new int[fcount];
+		if (fields == null) {
+			ds = fileDs;
+			for (int f = 0; f < fcount; ++f) {
+				fieldIndex[f] = f;
+			}
+		} else {
+			ds = new DataStruct(fields);
+			for (int f = 0; f < fcount; ++f) {
+				fieldIndex[f] = -1;
+			}
+
+			for (int i = 0; i < fields.length; ++i) {
+				int f = fileDs.getFieldIndex(fields[i]);
+				if (f < 0) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException(fields[i] + mm.getMessage("ds.fieldNotExist"));
+				}
+
+				fieldIndex[f] = i;
+			}
+		}
+
+		columns = new IArray[ds.getFieldCount()];
+		setDataStruct(ds);
+		if (!isDeleteFile && ctx != null) {
+			ctx.addResource(this);
+		}
+
+		// Ŀ鲻Ҫѹ洢
+		for (int b = 0; b < startBlock; ++b) {
+			int rawLen = readInt32();
+			if (rawLen == 0) {
+				isEnd = true;
+				break;
+			}
+
+			long storeLen = readInt32();
+			while (storeLen > 0) {
+				long count = in.skip(storeLen);
+				if (count <= 0) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException(mm.getMessage("license.fileFormatError"));
+				}
+
+				storeLen -= count;
+			}
+		}
+	}
+
+	private void readFully(byte []bytes, int len) throws IOException {
+		int off = 0;
+		while (off < len) {
+			int count = in.read(bytes, off, len - off);
+			if (count < 0) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(mm.getMessage("license.fileFormatError"));
+			}
+
+			off += count;
+		}
+	}
+
+	private long readVarLong() throws IOException {
+		long v = 0;
+		for (int shift = 0; ; shift += 7) {
+			int b = in.read();
+			if (b < 0) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(mm.getMessage("license.fileFormatError"));
+			}
+
+			v |= (long)(b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return v;
+			}
+		}
+	}
+
+	private int readInt32() throws IOException {
+		byte []bytes = new byte[4];
+		readFully(bytes, 4);
+		return ((bytes[0] & 0xFF) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+	}
+
+	// һ鲢ѡУû˷false
+	private boolean readBlock() throws IOException {
+		int rawLen = readInt32();
+		if (rawLen == 0) {
+			isEnd = true;
+			return false;
+		}
+
+		int storeLen = readInt32();
+		if (storeBuf.length < storeLen) {
+			storeBuf = new byte[storeLen];
+		}
+
+		readFully(storeBuf, storeLen);
+		byte []buf;
+		if (storeLen < rawLen) {
+			if (rawBuf.length < rawLen) {
+				rawBuf = new byte[rawLen];
+			}
+
+			LZ4Util.instance().decompress(storeBuf, rawBuf, rawLen);
+			buf = rawBuf;
+		} else {
+			buf = storeBuf;
+		}
+
+		BlockReader reader = new BlockReader(buf);
+		int count = (int)reader.readVarLong();
+		int []fieldIndex = this.fieldIndex;
+		for (int f = 0; f < fieldIndex.length; ++f) {
+			byte type = buf[reader.pos++];
+			int len = (int)reader.readVarLong();
+			if (fieldIndex[f] >= 0) {
+				columns[fieldIndex[f]] = decodeColumn(type, buf, reader.pos, len, count);
+			}
+
+			reader.pos += len;
+		}
+
+		blockCount = count;
+		blockIndex = 1;
+		return true;
+	}
+
+	/**
+	 * ݶȡ
+	 */
+	private static class BlockReader {
+		private byte []buf;
+		private int pos;
+
+		public BlockReader(byte []buf) {
+			this.buf = buf;
+		}
+
+		public long readVarLong() {
+			byte []buf = this.buf;
+			long v = 0;
+			for (int shift = 0; ; shift += 7) {
+				int b = buf[pos++];
+				v |= (long)(b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return v;
+				}
+			}
+		}
+
+		public long readZigzag() {
+			long v = readVarLong();
+			return (v >>> 1) ^ -(v & 1);
+		}
+	}
+
+	private static IArray decodeColumn(byte type, byte []buf, int pos, int len, int count) throws IOException {
+		if (type == ColumnSpillWriter.TYPE_NULL) {
+			ObjectArray array = new ObjectArray(count);
+			for (int i = 0; i < count; ++i) {
+				array.pushNull();
+			}
+
+			return array;
+		} else if (type == ColumnSpillWriter.TYPE_OBJECT) {
+			ObjectReader reader = new ObjectReader(new ByteArrayInputStream(buf, pos, len));
+			ObjectArray array = new ObjectArray(count);
+			for (int i = 0; i < count; ++i) {
+				array.push(reader.readObject());
+			}
+
+			return array;
+		}
+
+		BlockReader reader = new BlockReader(buf);
+		reader.pos = pos;
+		boolean []nulls = null;
+		if (buf[reader.pos++] != 0) {
+			nulls = new boolean[count];
+			for (int i = 0; i < count; ++i) {
+				nulls[i] = (buf[reader.pos + (i >>> 3)] & (1 << (i & 7))) != 0;
+			}
+
+			reader.pos += (count + 7) >>> 3;
+		}
+
+		long prev = 0;
+		switch (type) {
+		case ColumnSpillWriter.TYPE_INT:
+			IntArray intArray = new IntArray(count);
+			for (int i = 0; i < count; ++i) {
+				if (nulls != null && nulls[i]) {
+					intArray.pushNull();
+				} else {
+					prev += reader.readZigzag();
+					intArray.push((int)prev);
+				}
+			}
+
+			return intArray;
+		case ColumnSpillWriter.TYPE_LONG:
+			LongArray longArray = new LongArray(count);
+			for (int i = 0; i < count; ++i) {
+				if (nulls != null && nulls[i]) {
+					longArray.pushNull();
+				} else {
+					prev += reader.readZigzag();
+					longArray.push(prev);
+				}
+			}
+
+			return longArray;
+		case ColumnSpillWriter.TYPE_DATE:
+			DateArray dateArray = new DateArray(count);
+			for (int i = 0; i < count; ++i) {
+				if (nulls != null && nulls[i]) {
+					dateArray.pushNull();
+				} else {
+					prev += reader.readZigzag();
+					dateArray.push(new java.sql.Date(prev));
+				}
+			}
+
+			return dateArray;
+		case ColumnSpillWriter.TYPE_DOUBLE:
+			DoubleArray doubleArray = new DoubleArray(count);
+			for (int i = 0; i < count; ++i) {
+				if (nulls != null && nulls[i]) {
+					doubleArray.pushNull();
+				} else {
+					prev ^= Long.reverse(reader.readVarLong());
+					doubleArray.push(Double.longBitsToDouble(prev));
+				}
+			}
+
+			return doubleArray;
+		case ColumnSpillWriter.TYPE_STRING:
+			StringArray stringArray = new StringArray(count);
+			for (int i = 0; i < count; ++i) {
+				if (nulls != null && nulls[i]) {
+					stringArray.pushNull();
+				} else {
+					int strLen = (int)reader.readVarLong();
+					stringArray.push(new String(buf, reader.pos, strLen, StandardCharsets.UTF_8));
+					reader.pos += strLen;
+				}
+			}
+
+			return stringArray;
+		default:
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(mm.getMessage("license.fileFormatError"));
+		}
+	}
+
+	/**
+	 * ȡָݷ
+	 * @param n 
+	 * @return Sequence
+	 */
+	protected Sequence get(int n) {
+		if (n < 1 || fileObject == null || isEnd) {
+			return null;
+		}
+
+		try {
+			if (in == null) {
+				open();
+				if (isEnd) {
+					return null;
+				}
+			}
+
+			Table table = null;
+			while (n > 0) {
+				if (blockIndex > blockCount && !readBlock()) {
+					break;
+				}
+
+				int count = blockCount - blockIndex + 1;
+				if (count > n) {
+					count = n;
+				}
+
+				if (table == null) {
+					table = new Table(ds, count);
+				}
+
+				IArray []columns = this.columns;
+				int fcount = columns.length;
+				for (int i = blockIndex, end = blockIndex + count; i < end; ++i) {
+					BaseRecord r = table.newLast();
+					for (int f = 0; f < fcount; ++f) {
+						r.setNormalFieldValue(f, columns[f].get(i));
+					}
+				}
+
+				blockIndex += count;
+				n -= count;
+			}
+
+			return table;
+		} catch (IOException e) {
+			close();
+			throw new RQException(e.getMessage(), e);
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * ָ
+	 * @param n 
+	 * @return long ʵ
+	 */
+	protected long skipOver(long n) {
+		if (n < 1 || fileObject == null || isEnd) {
+			return 0;
+		}
+
+		try {
+			if (in == null) {
+				open();
+				if (isEnd) {
+					return 0;
+				}
+			}
+
+			long total = 0;
+			while (total < n) {
+				if (blockIndex > blockCount && !readBlock()) {
+					break;
+				}
+
+				long count = blockCount - blockIndex + 1;
+				if (count > n - total) {
+					count = n - total;
+				}
+
+				blockIndex += count;
+				total += count;
+			}
+
+			return total;
+		} catch (IOException e) {
+			close();
+			throw new RQException(e.getMessage(), e);
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * رα
+	 */
+	public synchronized void close() {
+		super.close();
+
+		if (fileObject != null) {
+			if (ctx != null) ctx.removeResource(this);
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+				}
+
+				in = null;
+			}
+
+			columns = null;
+			if (isDeleteFile) {
+				fileObject.delete();
+				fileObject = null;
+			}
+		}
+	}
+
+	protected void finalize() throws Throwable {
+		close();
+	}
+
+	/**
+	 * α
+	 * @return ǷɹtrueαԴͷȡfalseԴͷȡ
+	 */
+	public boolean reset() {
+		close();
+
+		if (fileObject != null) {
+			blockCount = 0;
+			blockIndex = 1;
+			isEnd = false;
+			return true;
+		} else {
+			return false;
+		}
+	}
+}
@@ -3,6 +3,7 @@ package com.scudata.dm.cursor;
 import com.scudata.dm.Sequence;
 import com.scudata.thread.Job;
 import com.scudata.thread.ThreadPool;
+import com.scudata.thread.VirtualThreads;
 
 /**
  * ڶ̴߳αȡݵ񣬽ȡߺᱻ뵽̳߳Уȡ
@@ -10,7 +11,7 @@ import com.scudata.thread.ThreadPool;
  *
  */
 class CursorReader extends Job {
-	private ThreadPool threadPool; // ̳߳
+	private ThreadPool threadPool; // ̳߳أ߳ȡʱΪ
 	private ICursor cursor; // Ҫȡα
 	private int fetchCount; // ÿζȡ
 	private Sequence table; // ȡ
@@ -22,10 +23,38 @@ class CursorReader extends Job {
 	 * @param fetchCount ÿζȡ
 	 */
 	public CursorReader(ThreadPool threadPool, ICursor cursor, int fetchCount) {
-		this.threadPool = threadPool;
+		// ݿhttpļȡʱ󲿷ʱڵȴI/O߳ʱռ̳߳ص߳
+		if (!isIOCursor(cursor) || !VirtualThreads.isEnabled()) {
+			this.threadPool = threadPool;
+		}
+		
 		this.cursor = cursor;
 		this.fetchCount = fetchCount;
-		threadPool.submit(this);
+		submit();
+	}
+	
+	/**
+	 * αȡǷI/Oܼģݿαhttpļα귵true
+	 * @param cursor α
+	 * @return trueI/Oܼfalse
+	 */
+	static boolean isIOCursor(ICursor cursor) {
+		if (cursor instanceof DBCursor) {
+			return true;
+		} else if (cursor instanceof FileCursor) {
+			return ((FileCursor)cursor).isHttpFile();
+		} else {
+			return false;
+		}
+	}
+	
+	// ύ̳߳أû̳߳ʱִ߳
+	private void submit() {
+		if (threadPool != null) {
+			threadPool.submit(this);
+		} else {
+			VirtualThreads.submit(this);
+		}
 	}
 	
 	/**
@@ -38,7 +67,7 @@ class CursorReader extends Job {
 			Sequence table = this.table;
 			this.table = null;
 
-			threadPool.submit(this);
+			submit();
 			return table;
 		} else {
 			return null;
@@ -2,6 +2,7 @@ package com.scudata.dm.cursor;
 
 import com.scudata.thread.Job;
 import com.scudata.thread.ThreadPool;
+import com.scudata.thread.VirtualThreads;
 
 /**
  * ڶ̴߳αݵ񣬽ȡߺᱻ뵽̳߳У
@@ -24,7 +25,12 @@ class CursorSkipper extends Job {
 		//this.threadPool = threadPool;
 		this.cursor = cursor;
 		this.skipCount = count;
-		threadPool.submit(this);
+		
+		if (CursorReader.isIOCursor(cursor) && VirtualThreads.isEnabled()) {
+			VirtualThreads.submit(this);
+		} else {
+			threadPool.submit(this);
+		}
 	}
 	
 	/**
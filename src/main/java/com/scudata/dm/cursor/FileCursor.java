@@ -9,6 +9,7 @@ import com.scudata.dm.BaseRecord;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.FileObject;
+import com.scudata.dm.HttpFile;
 import com.scudata.dm.KeyWord;
 import com.scudata.dm.LineImporter;
 import com.scudata.dm.Sequence;
@@ -614,6 +615,15 @@ public class FileCursor extends ICursor {
 		}
 	}
 
+	/**
+	 * Ƿȡhttpļ
+	 * @return truehttpļfalse
+	 */
+	boolean isHttpFile() {
+		FileObject fileObject = this.fileObject;
+		return fileObject != null && fileObject.getFile() instanceof HttpFile;
+	}
+
 	protected void finalize() throws Throwable {
 		close();
 	}
@@ -10,6 +10,7 @@ import com.scudata.dm.BaseRecord;
 import com.scudata.dm.ComputeStack;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
+import com.scudata.dm.Env;
 import com.scudata.dm.IResource;
 import com.scudata.dm.Param;
 import com.scudata.dm.Sequence;
@@ -17,6 +18,7 @@ import com.scudata.dm.Table;
 import com.scudata.dm.Current;
 import com.scudata.dm.op.Channel;
 import com.scudata.dm.op.GroupxResult;
+import com.scudata.dm.op.HybridGroups;
 import com.scudata.dm.op.IDResult;
 import com.scudata.dm.op.IGroupsResult;
 import com.scudata.dm.op.Operable;
@@ -268,12 +270,49 @@ abstract public class ICursor extends Operable implements IResource {
 	 * @return Sequence
 	 */
 	public Sequence fuzzyFetch(int n) {
+		return fuzzyFetch(n, false);
+	}
+	
+	/**
+	 * ȡָļ¼ذдŵColumnTableܰмĻ
+	 * ȱʡؼ¼ܰжαڸӵĲܴдŵʱŷColumnTable
+	 * @param n 
+	 * @return Sequence
+	 */
+	public Sequence fuzzyFetchColumns(int n) {
+		return fuzzyFetch(n);
+	}
+	
+	/**
+	 * ظӵĲǷ񶼿ֱӴдŵ
+	 * @return trueԣfalse
+	 */
+	protected boolean canProcessColumns() {
+		ArrayList<Operation> opList = this.opList;
+		if (opList != null) {
+			for (Operation op : opList) {
+				if (!op.canProcessColumns()) {
+					return false;
+				}
+			}
+		}
+		
+		return true;
+	}
+	
+	/**
+	 * ȡָļ¼
+	 * @param n 
+	 * @param isColumns ǷfuzzyGetColumnsȡǰдŵ
+	 * @return Sequence
+	 */
+	protected Sequence fuzzyFetch(int n, boolean isColumns) {
 		if (cache == null) {
 			Sequence result = null;
 			ArrayList<Operation> opList = this.opList;
 			
 			do {
-				Sequence cur = fuzzyGet(n);
+				Sequence cur = isColumns ? fuzzyGetColumns(n) : fuzzyGet(n);
 				if (cur != null) {
 					if (opList != null) {
 						cur = doOperation(cur, opList, ctx);
@@ -975,6 +1014,15 @@ abstract public class ICursor extends Operable implements IResource {
 		return get(n);
 	}
 
+	/**
+	 * ģȡ¼ԷذдŵColumnTableܰжαҪʵִ˷
+	 * @param n Ҫȡļ¼
+	 * @return Sequence
+	 */
+	protected Sequence fuzzyGetColumns(int n) {
+		return fuzzyGet(n);
+	}
+
 	/**
 	 * ָ¼Ҫʵִ˷
 	 * @param n ¼
@@ -1039,6 +1087,12 @@ abstract public class ICursor extends Operable implements IResource {
 	public Table groups(Expression[] exps, String[] names, Expression[] calcExps, String[] calcNames, 
 			String opt, Context ctx) {
 		IGroupsResult groups = IGroupsResult.instance(exps, names, calcExps, calcNames, opt, ctx);
+		long memorySize = Env.getGroupsMemorySize();
+		if (memorySize > 0 && groups.getMemoryGroupCount() != -1) {
+			// ˷ܿõڴ棬ʱмд
+			return HybridGroups.groups(this, groups, memorySize, ctx);
+		}
+		
 		groups.push(this);
 		return groups.getResultTable();
 	}
@@ -0,0 +1,211 @@
+package com.scudata.dm.cursor;
+
+import com.scudata.dm.Context;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.op.Operation;
+import com.scudata.expression.Expression;
+import com.scudata.thread.SortxJob;
+
+/**
+ * ·鲢ʱȡһʱļĳһ·ݣݴ½粢СڵϽ
+ * ʱļѰֶʽʱļ·ݵĿ飬Ͻݺ
+ * ͬһʱļ·α깲ãһαرպɾļ
+ * @author RunQian
+ *
+ */
+public class SortxRangeCursor extends ICursor {
+	private ICursor cursor; // ʱļα
+	private FileObject file; // ʱļͷźΪ
+	private int []refCount; // ʱļα
+
+	private Expression []exps; // ֶαʽ
+	private String opt; // ѡ0null
+	private Object []lower; // ½磬ձʾû½
+	private Object []upper; // Ͻ磬ձʾûϽ
+	private boolean isStarted; // ǷСڵ½
+	private boolean isEnd; // ǷѶ
+
+	/**
+	 * ȡʱļָݵα
+	 * @param file ʱļ
+	 * @param refCount ʱļααĵ߸
+	 * @param startBlock ʽʱļĿ
+	 * @param lower ½磬ձʾû½
+	 * @param upper Ͻ磬ձʾûϽ
+	 * @param exps ֶαʽ
+	 * @param opt ѡ0null
+	 * @param bufSize ļСС1ʱĬֵ
+	 * @param ctx 
+	 */
+	public SortxRangeCursor(FileObject file, int []refCount, int startBlock, Object []lower, Object []upper,
+			Expression []exps, String opt, int bufSize, Context ctx) {
+		this.file = file;
+		this.refCount = refCount;
+		this.lower = lower;
+		this.upper = upper;
+		this.opt = opt;
+		this.ctx = ctx.newComputeContext();
+		this.exps = Operation.dupExpressions(exps, this.ctx);
+		isStarted = lower == null;
+
+		if (ColumnSpillCursor.isColumnSpillFile(file)) {
+			ColumnSpillCursor cs = new ColumnSpillCursor(file, null, null, null);
+			cs.setStartBlock(startBlock);
+			if (bufSize > 0) {
+				cs.setFileBufferSize(bufSize);
+			}
+
+			cursor = cs;
+		} else {
+			BFileCursor cs = new BFileCursor(file, null, null, null);
+			if (bufSize > 0) {
+				cs.setFileBufferSize(bufSize);
+			}
+
+			cursor = cs;
+		}
+
+		ctx.addResource(this);
+	}
+
+	private Object[] getKey(Sequence sequence, int index) {
+		Expression []exps = this.exps;
+		int fcount = exps.length;
+		Object []key = new Object[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			key[f] = sequence.calc(index, exps[f], ctx);
+		}
+
+		return key;
+	}
+
+	// صһֵֶkeyλãû򷵻سȼ1
+	private int upperBound(Sequence sequence, Object []key) {
+		int low = 1;
+		int high = sequence.length();
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (SortxJob.compare(getKey(sequence, mid), key, opt) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * ȡָݷ
+	 * @param n 
+	 * @return Sequence
+	 */
+	protected Sequence get(int n) {
+		if (n < 1 || isEnd) {
+			return null;
+		}
+
+		Sequence result = null;
+		while (!isEnd) {
+			int count = result == null ? n : n - result.length();
+			if (count < 1) {
+				break;
+			}
+
+			Sequence seq = cursor.fetch(count);
+			if (seq == null || seq.length() == 0) {
+				close();
+				break;
+			}
+
+			if (!isStarted) {
+				int pos = upperBound(seq, lower);
+				if (pos > seq.length()) {
+					continue;
+				}
+
+				isStarted = true;
+				if (pos > 1) {
+					seq = seq.split(pos);
+				}
+			}
+
+			int len = seq.length();
+			if (upper != null && SortxJob.compare(getKey(seq, len), upper, opt) > 0) {
+				// һ·
+				int pos = upperBound(seq, upper);
+				close();
+				if (pos == 1) {
+					break;
+				}
+
+				seq.split(pos);
+			}
+
+			if (result == null) {
+				result = seq;
+			} else {
+				result = append(result, seq);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * ָ
+	 * @param n 
+	 * @return long ʵ
+	 */
+	protected long skipOver(long n) {
+		long total = 0;
+		while (total < n) {
+			long count = n - total;
+			Sequence seq = get(count > FETCHCOUNT ? FETCHCOUNT : (int)count);
+			if (seq == null) {
+				break;
+			}
+
+			total += seq.length();
+		}
+
+		return total;
+	}
+
+	/**
+	 * رα꣬ʱļα궼رպɾļ
+	 */
+	public synchronized void close() {
+		super.close();
+		isEnd = true;
+
+		if (cursor != null) {
+			ctx.removeResource(this);
+			cursor.close();
+			cursor = null;
+		}
+
+		FileObject file = this.file;
+		if (file != null) {
+			this.file = null;
+			synchronized(refCount) {
+				if (--refCount[0] == 0) {
+					file.delete();
+				}
+			}
+		}
+	}
+
+	protected void finalize() throws Throwable {
+		close();
+	}
+
+	/**
+	 * α
+	 * @return ǷɹtrueαԴͷȡfalseԴͷȡ
+	 */
+	public boolean reset() {
+		return false;
+	}
+}
@@ -2,6 +2,7 @@ package com.scudata.dm.op;
 
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
+import com.scudata.dm.ColumnTable;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.Sequence;
@@ -21,6 +22,7 @@ public class Derive extends Operation  {
 	
 	private int oldColCount; // Դֶ
 	private DataStruct newDs; // ݽṹ
+	private boolean isRowOnly; // дʱҪ¼ݸΪ¼
 	//private boolean containNull; // Ƿnull
 	
 	private int level = 0;
@@ -87,6 +89,14 @@ public class Derive extends Operation  {
 		return newDs;
 	}
 	
+	/**
+	 * ȡǷֱӴдŵColumnTable¼
+	 * @return trueԣfalse
+	 */
+	public boolean canProcessColumns() {
+		return exps != null && level <= 1 && opt == null && !isRowOnly;
+	}
+	
 	/**
 	 * αܵǰ͵
 	 * @param seq 
@@ -100,7 +110,12 @@ public class Derive extends Operation  {
 			return seq.derive(names, exps, opt, ctx, level);
 		} else {
 			DataStruct newDs = getNewDataStruct(seq);
-			return seq.derive(newDs, exps, opt, ctx);
+			Sequence result = seq.derive(newDs, exps, opt, ctx);
+			if (seq instanceof ColumnTable && !(result instanceof ColumnTable)) {
+				isRowOnly = true;
+			}
+			
+			return result;
 		}
 	}
 }
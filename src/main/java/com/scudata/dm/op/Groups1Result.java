@@ -1,6 +1,8 @@
 package com.scudata.dm.op;
 
 import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.ObjectCache;
 import com.scudata.common.RQException;
@@ -17,8 +19,13 @@ import com.scudata.dm.cursor.ICursor;
 import com.scudata.expression.Expression;
 import com.scudata.expression.Gather;
 import com.scudata.expression.Node;
+import com.scudata.expression.fn.gather.Count;
+import com.scudata.expression.fn.gather.Max;
+import com.scudata.expression.fn.gather.Min;
+import com.scudata.expression.fn.gather.Sum;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.HashUtil;
+import com.scudata.util.LongHashIndex;
 import com.scudata.util.Variant;
 
 /**
@@ -45,6 +52,15 @@ public class Groups1Result extends IGroupsResult {
 	private BaseRecord prevRecord; // һ¼
 	private SortedGroupsLink link; // hѡ 
 	
+	// ֶȡֵΪʱʹÿŵַϣ飬ֵű
+	private static final int KEY_NONE = 0; // ûǿշֵ
+	private static final int KEY_INT = 1; // ֵΪInteger
+	private static final int KEY_LONG = 2; // ֵΪLong
+	
+	private LongHashIndex longIndex; // ֵϣ
+	private IArray []gatherArrays; // ܺĻܽŴ
+	private int keyType = KEY_NONE; // ֵ
+	
 	private boolean oOpt;
 	private boolean iOpt;
 	private boolean nOpt;
@@ -118,6 +134,11 @@ public class Groups1Result extends IGroupsResult {
 		} else if (!oOpt && !iOpt && !nOpt) {
 			hashUtil = new HashUtil(capacity);
 			groups = new ListBase1[hashUtil.getCapacity()];
+			
+			if (canGroupByLong()) {
+				longIndex = new LongHashIndex(Math.min(capacity, Env.getDefaultHashCapacity()));
+				gatherArrays = new IArray[valCount];
+			}
 		}
 		
 		result = new Table(ds, 1024);
@@ -219,6 +240,10 @@ public class Groups1Result extends IGroupsResult {
 	 * @return Table
 	 */
 	public Table getTempResult() {
+		if (longIndex != null) {
+			toRecordGroups(false);
+		}
+		
 		if (hashUtil != null) {
 			this.hashUtil = null;
 			this.groups = null;
@@ -252,6 +277,10 @@ public class Groups1Result extends IGroupsResult {
 	 * @return Table
 	 */
 	public Table getResultTable() {
+		if (longIndex != null) {
+			toRecordGroups(false);
+		}
+		
 		if (hashUtil != null) {	
 			if (opt == null || opt.indexOf('u') == -1) {
 				int []fields = new int[]{0};
@@ -317,6 +346,20 @@ public class Groups1Result extends IGroupsResult {
 		return getResultTable();
 	}
 	
+	/**
+	 * ȡǰڴеķжǷҪмд
+	 * @return ǹϣʱ-1
+	 */
+	public int getMemoryGroupCount() {
+		if (longIndex != null) {
+			return longIndex.size();
+		} else if (hashUtil != null) {
+			return result.length();
+		} else {
+			return -1;
+		}
+	}
+	
 	/**
 	 * ͹ݣۻյĽ
 	 * @param seq 
@@ -325,7 +368,9 @@ public class Groups1Result extends IGroupsResult {
 	public void push(Sequence table, Context ctx) {
 		if (table == null || table.length() == 0) return;
 		
-		if (hashUtil != null) {
+		if (longIndex != null) {
+			addGroups_long(table, ctx);
+		} else if (hashUtil != null) {
 			addGroups(table, ctx);
 		} else if (oOpt) {
 			addGroups_o(table, ctx);
@@ -346,7 +391,20 @@ public class Groups1Result extends IGroupsResult {
 	 */
 	public void push(ICursor cursor) {
 		Context ctx = this.ctx;
-		if (hashUtil != null) {
+		if (longIndex != null) {
+			// ȡͻܱʽм㣬¼
+			while (true) {
+				Sequence src = cursor.fuzzyFetchColumns(ICursor.FETCHCOUNT);
+				if (src == null || src.length() == 0) break;
+				
+				if (this.longIndex != null) {
+					addGroups_long(src, ctx);
+				} else {
+					// ֵ˷ѸΪü¼
+					addGroups(src, ctx);
+				}
+			}
+		} else if (hashUtil != null) {
 			while (true) {
 				// αȡһݡ
 				Sequence src = cursor.fuzzyFetch(ICursor.FETCHCOUNT);
@@ -448,6 +506,153 @@ public class Groups1Result extends IGroupsResult {
 		}
 	}
 
+	// ܺܰмʱſϣ
+	private boolean canGroupByLong() {
+		for (int v = 0; v < valCount; ++v) {
+			Node gather = gathers[v];
+			if (!(gather instanceof Sum) && !(gather instanceof Count) && 
+					!(gather instanceof Max) && !(gather instanceof Min)) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
+	// ϣ飬ֵȫʱתü¼
+	private void addGroups_long(Sequence table, Context ctx) {
+		ComputeStack stack = ctx.getComputeStack();
+		Current current = new Current(table);
+		stack.push(current);
+		
+		try {
+			IArray keyArray = gexp.calculateAll(ctx);
+			int []resultSeqs = getGroupSeqs(keyArray);
+			if (resultSeqs != null) {
+				Node []gathers = this.gathers;
+				IArray []gatherArrays = this.gatherArrays;
+				for (int v = 0, valCount = this.valCount; v < valCount; ++v) {
+					gatherArrays[v] = gathers[v].gather(gatherArrays[v], resultSeqs, ctx);
+				}
+				
+				return;
+			}
+		} finally {
+			stack.pop();
+		}
+		
+		toRecordGroups(true);
+		addGroups(table, ctx);
+	}
+	
+	// ÿ¼ţзķֵʱؿ
+	private int[] getGroupSeqs(IArray keyArray) {
+		int len = keyArray.size();
+		int keyType = this.keyType;
+		LongHashIndex longIndex = this.longIndex;
+		int []resultSeqs = new int[len + 1];
+		
+		if (keyArray instanceof IntArray || keyArray instanceof LongArray) {
+			int type = keyArray instanceof IntArray ? KEY_INT : KEY_LONG;
+			if (keyType == KEY_NONE) {
+				this.keyType = type;
+			} else if (keyType != type) {
+				return null;
+			}
+			
+			for (int i = 1; i <= len; ++i) {
+				if (keyArray.isNull(i)) {
+					resultSeqs[i] = longIndex.putNull();
+				} else {
+					resultSeqs[i] = longIndex.put(keyArray.getLong(i));
+				}
+			}
+		} else {
+			// ȼֵͣϣмһֵתü¼
+			long []values = new long[len + 1];
+			for (int i = 1; i <= len; ++i) {
+				Object key = keyArray.get(i);
+				int type;
+				if (key instanceof Integer) {
+					type = KEY_INT;
+					values[i] = ((Integer)key).intValue();
+				} else if (key instanceof Long) {
+					type = KEY_LONG;
+					values[i] = ((Long)key).longValue();
+				} else if (key == null) {
+					resultSeqs[i] = -1;
+					continue;
+				} else {
+					return null;
+				}
+				
+				if (keyType == KEY_NONE) {
+					keyType = type;
+				} else if (keyType != type) {
+					return null;
+				}
+			}
+			
+			this.keyType = keyType;
+			for (int i = 1; i <= len; ++i) {
+				if (resultSeqs[i] == -1) {
+					resultSeqs[i] = longIndex.putNull();
+				} else {
+					resultSeqs[i] = longIndex.put(values[i]);
+				}
+			}
+		}
+		
+		return resultSeqs;
+	}
+	
+	/**
+	 * ϣеķɽ¼Ϊü¼
+	 * @param addToHash ǷѼ¼뵽ϣУݻûʱҪ
+	 */
+	private void toRecordGroups(boolean addToHash) {
+		LongHashIndex longIndex = this.longIndex;
+		IArray []gatherArrays = this.gatherArrays;
+		this.longIndex = null;
+		this.gatherArrays = null;
+		
+		final int INIT_GROUPSIZE = HashUtil.getInitGroupSize();
+		HashUtil hashUtil = this.hashUtil;
+		ListBase1 []groups = this.groups;
+		Table result = this.result;
+		int valCount = this.valCount;
+		int nullSeq = longIndex.getNullSeq();
+		boolean isInt = keyType == KEY_INT;
+		
+		for (int seq = 1, count = longIndex.size(); seq <= count; ++seq) {
+			Object key;
+			if (seq == nullSeq) {
+				key = null;
+			} else if (isInt) {
+				key = ObjectCache.getInteger((int)longIndex.getKey(seq));
+			} else {
+				key = new Long(longIndex.getKey(seq));
+			}
+			
+			BaseRecord r = result.newLast();
+			r.setNormalFieldValue(0, key);
+			for (int v = 0; v < valCount; ++v) {
+				r.setNormalFieldValue(v + 1, gatherArrays[v].get(seq));
+			}
+			
+			if (addToHash) {
+				int hash = hashUtil.hashCode(key);
+				if (groups[hash] == null) {
+					groups[hash] = new ListBase1(INIT_GROUPSIZE);
+					groups[hash].add(r);
+				} else {
+					int index = HashUtil.bsearch_r(groups[hash], key);
+					groups[hash].add(-index, r);
+				}
+			}
+		}
+	}
+
 	private void addGroups_1(Sequence table, Context ctx) {
 		ComputeStack stack = ctx.getComputeStack();
 		Current current = new Current(table);
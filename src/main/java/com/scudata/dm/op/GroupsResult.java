@@ -365,6 +365,14 @@ public class GroupsResult extends IGroupsResult {
 		return getResultTable();
 	}
 	
+	/**
+	 * ȡǰڴеķжǷҪмд
+	 * @return ǹϣʱ-1
+	 */
+	public int getMemoryGroupCount() {
+		return hashUtil != null ? result.length() : -1;
+	}
+	
 	/**
 	 * ͹ݣۻյĽ
 	 * @param seq 
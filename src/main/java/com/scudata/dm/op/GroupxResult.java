@@ -9,6 +9,7 @@ import com.scudata.common.RQException;
 import com.scudata.dm.BFileWriter;
 import com.scudata.dm.BaseRecord;
 import com.scudata.dm.ComputeStack;
+import com.scudata.dm.ColumnSpillWriter;
 import com.scudata.dm.Context;
 import com.scudata.dm.Current;
 import com.scudata.dm.DataStruct;
@@ -19,6 +20,7 @@ import com.scudata.dm.Record;
 import com.scudata.dm.Sequence;
 import com.scudata.dm.Table;
 import com.scudata.dm.cursor.BFileCursor;
+import com.scudata.dm.cursor.ColumnSpillCursor;
 import com.scudata.dm.cursor.ConjxCursor;
 import com.scudata.dm.cursor.GroupmCursor;
 import com.scudata.dm.cursor.GroupxCursor;
@@ -163,9 +165,8 @@ public class GroupxResult implements IResult {
 						MessageManager mm = EngineMessage.get();
 						Logger.info(mm.getMessage("engine.createTmpFile") + fo.getFileName());
 
-						fo.exportSeries(outTable, "b", null);
-						BFileCursor bfc = new BFileCursor(fo, null, "x", ctx);
-						cursorList.add(bfc);
+						ColumnSpillWriter.exportTemp(fo, outTable);
+						cursorList.add(new ColumnSpillCursor(fo, null, "x", ctx));
 
 						outTable.clear();
 						for (int g = 0, glen = groups.length; g < glen; ++g) {
@@ -191,9 +192,8 @@ public class GroupxResult implements IResult {
 							MessageManager mm = EngineMessage.get();
 							Logger.info(mm.getMessage("engine.createTmpFile") + fo.getFileName());
 
-							fo.exportSeries(outTable, "b", null);
-							BFileCursor bfc = new BFileCursor(fo, null, "x", ctx);
-							cursorList.add(bfc);
+							ColumnSpillWriter.exportTemp(fo, outTable);
+							cursorList.add(new ColumnSpillCursor(fo, null, "x", ctx));
 	
 							outTable.clear();
 							for (int g = 0, glen = groups.length; g < glen; ++g) {
@@ -406,8 +406,8 @@ public class GroupxResult implements IResult {
 		if (size > 0) {
 			int bufSize = Env.getMergeFileBufSize(size);
 			for (int i = 0; i < size; ++i) {
-				BFileCursor bfc = (BFileCursor)cursorList.get(i);
-				bfc.setFileBufferSize(bufSize);
+				ColumnSpillCursor csc = (ColumnSpillCursor)cursorList.get(i);
+				csc.setFileBufferSize(bufSize);
 			}
 		}
 
@@ -0,0 +1,150 @@
+package com.scudata.dm.op;
+
+import java.util.ArrayList;
+
+import com.scudata.common.Logger;
+import com.scudata.common.MessageManager;
+import com.scudata.dm.ColumnSpillWriter;
+import com.scudata.dm.Context;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.Env;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dm.cursor.ColumnSpillCursor;
+import com.scudata.dm.cursor.GroupmCursor;
+import com.scudata.dm.cursor.ICursor;
+import com.scudata.dm.cursor.MemoryCursor;
+import com.scudata.dm.cursor.MergesCursor;
+import com.scudata.expression.Expression;
+import com.scudata.resources.EngineMessage;
+import com.scudata.util.EnvUtil;
+
+/**
+ * ޶ڴα
+ * ڴеķEnv.getGroupsMemorySize()ʱмֶдʱļ
+ * Ȼչϣ飬Ѹʱļڴем鲢жλ
+ * @author RunQian
+ *
+ */
+public final class HybridGroups {
+	private HybridGroups() {
+	}
+
+	/**
+	 * αзܣڴʱмд
+	 * @param cursor α
+	 * @param groups ϣܶgetMemoryGroupCount()ܷ-1
+	 * @param memorySize õڴֽ
+	 * @param ctx 
+	 * @return 
+	 */
+	public static Table groups(ICursor cursor, IGroupsResult groups, long memorySize, Context ctx) {
+		DataStruct ds = groups.getRegatherDataStruct();
+		int keyCount = groups.getExps().length;
+		int maxCount = EnvUtil.getCapacity(memorySize, ds.getFieldCount());
+
+		int []sortFields = new int[keyCount];
+		for (int i = 0; i < keyCount; ++i) {
+			sortFields[i] = i;
+		}
+
+		ArrayList<ICursor> cursorList = new ArrayList<ICursor>();
+		try {
+			while (true) {
+				Sequence src = cursor.fuzzyFetch(ICursor.FETCHCOUNT);
+				if (src == null || src.length() == 0) break;
+
+				groups.push(src, ctx);
+				if (groups.getMemoryGroupCount() >= maxCount) {
+					// ڴеķƣмдʱļµĹϣ
+					Table table = groups.getTempResult();
+					table.sortFields(sortFields);
+					FileObject fo = FileObject.createTempFileObject();
+					MessageManager mm = EngineMessage.get();
+					Logger.info(mm.getMessage("engine.createTmpFile") + fo.getFileName());
+
+					ColumnSpillWriter.exportTemp(fo, table);
+					cursorList.add(new ColumnSpillCursor(fo, null, "x", ctx));
+					groups = IGroupsResult.instance(groups.getExps(), groups.getNames(),
+							groups.getCalcExps(), groups.getCalcNames(), groups.getOption(), ctx);
+				}
+			}
+		} catch (RuntimeException e) {
+			for (ICursor bfc : cursorList) {
+				bfc.close();
+			}
+
+			throw e;
+		}
+
+		int size = cursorList.size();
+		if (size == 0) {
+			return groups.getResultTable();
+		}
+
+		int bufSize = Env.getMergeFileBufSize(size);
+		for (int i = 0; i < size; ++i) {
+			ColumnSpillCursor csc = (ColumnSpillCursor)cursorList.get(i);
+			csc.setFileBufferSize(bufSize);
+		}
+
+		Table table = groups.getTempResult();
+		if (table != null) {
+			table.sortFields(sortFields);
+			cursorList.add(new MemoryCursor(table));
+		}
+
+		ICursor []cursors = new ICursor[cursorList.size()];
+		cursorList.toArray(cursors);
+		Expression []keyExps = new Expression[keyCount];
+		String []names = new String[keyCount];
+		for (int i = 0, q = 1; i < keyCount; ++i, ++q) {
+			keyExps[i] = new Expression(ctx, "#" + q);
+			names[i] = ds.getFieldName(i);
+		}
+
+		Expression []valExps = groups.getRegatherExpressions();
+		String []calcNames = null;
+		if (valExps != null) {
+			calcNames = new String[valExps.length];
+			for (int i = 0; i < valExps.length; ++i) {
+				calcNames[i] = ds.getFieldName(keyCount + i);
+			}
+		}
+
+		// ·мֶ򣬹鲢жλ
+		ICursor mc;
+		if (cursors.length == 1) {
+			mc = cursors[0];
+		} else {
+			mc = new MergesCursor(cursors, keyExps, ctx);
+		}
+		
+		GroupmCursor gc = new GroupmCursor(mc, keyExps, names, valExps, calcNames, ctx);
+		Sequence seq = gc.fetch();
+		Table result;
+		if (seq instanceof Table) {
+			result = (Table)seq;
+		} else {
+			result = new Table(gc.getDataStruct());
+		}
+
+		Expression []newExps = groups.getResultExpressions();
+		if (newExps != null) {
+			result = result.newTable(groups.getResultDataStruct(), newExps, null, ctx);
+		}
+
+		String opt = groups.getOption();
+		if (opt != null && opt.indexOf('0') != -1) {
+			result.deleteNullFieldRecord(0);
+		}
+
+		if (result.length() == 0 && (opt == null || opt.indexOf('t') == -1)) {
+			return null;
+		}
+
+		result.trimToSize();
+		return result;
+	}
+}
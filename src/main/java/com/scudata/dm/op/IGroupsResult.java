@@ -218,6 +218,14 @@ abstract public class IGroupsResult implements IResult {
 	public void setCapacity(int capacity) {
 	}
 	
+	/**
+	 * ȡǰڴеķжǷҪмд
+	 * @return ǹϣʱ-1
+	 */
+	public int getMemoryGroupCount() {
+		return -1;
+	}
+	
 	/**
 	 * ÷@nѡʹ
 	 * @param groupCount
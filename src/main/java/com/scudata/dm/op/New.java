@@ -1,5 +1,6 @@
 package com.scudata.dm.op;
 
+import com.scudata.dm.ColumnTable;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.Sequence;
@@ -17,6 +18,7 @@ public class New extends Operation  {
 	private String []names; // ֶ
 	private String opt; // ѡ
 	private DataStruct newDs; // ṹݽṹ
+	private boolean isRowOnly; // дʱҪ¼ݸΪ¼
 	
 	public New(Expression []newExps, String []names, String opt) {
 		this(null, newExps, names, opt);
@@ -42,6 +44,14 @@ public class New extends Operation  {
 		return new New(function, dupExps, names, opt);
 	}
 
+	/**
+	 * ȡǷֱӴдŵColumnTable¼
+	 * @return trueԣfalse
+	 */
+	public boolean canProcessColumns() {
+		return opt == null && !isRowOnly;
+	}
+	
 	/**
 	 * αܵǰ͵
 	 * @param seq 
@@ -82,6 +92,11 @@ public class New extends Operation  {
 			}
 		}
 		
-		return seq.newTable(newDs, newExps, opt, ctx);
+		Sequence result = seq.newTable(newDs, newExps, opt, ctx);
+		if (seq instanceof ColumnTable && !(result instanceof ColumnTable)) {
+			isRowOnly = true;
+		}
+		
+		return result;
 	}
 }
@@ -67,6 +67,15 @@ public abstract class Operation {
 		return false;
 	}
 	
+	/**
+	 * ȡǷֱӴдŵColumnTable¼
+	 * αֻڸӵĲԴʱŷذдŵ
+	 * @return trueԣfalse
+	 */
+	public boolean canProcessColumns() {
+		return false;
+	}
+	
 	/**
 	 * ȫʱãgroupҪ֪ݽȷһ
 	 * @param ctx 
@@ -1,5 +1,7 @@
 package com.scudata.dm.op;
 
+import com.scudata.array.IArray;
+import com.scudata.dm.ColumnTable;
 import com.scudata.dm.ComputeStack;
 import com.scudata.dm.Context;
 import com.scudata.dm.Current;
@@ -22,6 +24,7 @@ public class Select extends Operation {
 	protected boolean isContinuous; // ļ¼Ƿһ
 	protected boolean isFound; // ǷѾҵ@cʱҵƥĽ
 	protected boolean isOrg; // Ƿıԭ
+	protected boolean isRowOnly; // дʱҪ¼ݸΪ¼
 	
 	public Select(Expression fltExp, String opt) {
 		this(null, fltExp, opt, null);
@@ -68,6 +71,14 @@ public class Select extends Operation {
 		return true;
 	}
 	
+	/**
+	 * ȡǷֱӴдŵColumnTable¼
+	 * @return trueԣfalse
+	 */
+	public boolean canProcessColumns() {
+		return pipe == null && !isContinuous && !isOrg && !isRowOnly;
+	}
+	
 	/**
 	 * ڶ̼߳㣬Ϊʽ̼ܶ߳
 	 * @param ctx 
@@ -85,6 +96,10 @@ public class Select extends Operation {
 	 * @return
 	 */
 	public Sequence process(Sequence seq, Context ctx) {
+		if (seq instanceof ColumnTable && canProcessColumns()) {
+			return select((ColumnTable)seq, ctx);
+		}
+		
 		Expression exp = this.fltExp;
 		int len = seq.length();
 		Sequence result = new Sequence();
@@ -165,6 +180,23 @@ public class Select extends Operation {
 		}
 	}
 	
+	// мǰдŵ
+	private Sequence select(ColumnTable table, Context ctx) {
+		ComputeStack stack = ctx.getComputeStack();
+		stack.push(new Current(table));
+
+		try {
+			IArray signArray = fltExp.calculateAll(ctx);
+			if (!table.hasColumns()) {
+				isRowOnly = true;
+			}
+			
+			return table.select(signArray);
+		} finally {
+			stack.pop();
+		}
+	}
+	
 	public Sequence finish(Context ctx) {
 		if (pipe != null) {
 			pipe.finish(ctx);
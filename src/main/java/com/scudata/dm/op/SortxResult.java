@@ -2,18 +2,15 @@ package com.scudata.dm.op;
 
 import java.util.ArrayList;
 
-import com.scudata.common.Logger;
-import com.scudata.common.MessageManager;
 import com.scudata.dm.BaseRecord;
 import com.scudata.dm.Context;
 import com.scudata.dm.Env;
 import com.scudata.dm.FileObject;
 import com.scudata.dm.Sequence;
-import com.scudata.dm.cursor.BFileCursor;
-import com.scudata.dm.cursor.ICursor;
-import com.scudata.dm.cursor.MergesCursor;
 import com.scudata.expression.Expression;
-import com.scudata.resources.EngineMessage;
+import com.scudata.thread.JobThread;
+import com.scudata.thread.SortxJob;
+import com.scudata.util.CursorUtil;
 import com.scudata.util.EnvUtil;
 
 /**
@@ -23,24 +20,29 @@ import com.scudata.util.EnvUtil;
  */
 public class SortxResult implements IResult {
 	private Expression[] exps; // ֶαʽ
-	private int []orders; // ÿֶε
 	private Context ctx; // 
 	private int capacity; // ڴܹŵļ¼
 	private String opt; // ѡ
+	private boolean isPipeline; // Ƿں̨дʱļ
 
 	private Sequence data = new Sequence(); // 
-	private ArrayList<ICursor> cursorList = new ArrayList<ICursor>();
+	private int pathCount = 1; // ·@mʱķֵֶѽɶ·α
+	private ArrayList<SortxJob> runList = new ArrayList<SortxJob>(); // ɵ
+	private SortxJob prevJob; // ںִ̨е
 	
 	public SortxResult(Expression[] exps, Context ctx, int capacity, String opt) {
 		this.exps = exps;
 		this.ctx = ctx;
 		this.capacity = capacity;
 		this.opt = opt;
+		this.isPipeline = Env.getParallelNum() > 1;
+		if (opt != null && opt.indexOf('m') != -1) {
+			pathCount = Env.getCursorParallelNum();
+		}
 		
-		int fcount = exps.length;
-		orders = new int[fcount];
-		for (int i = 0; i < fcount; ++i) {
-			orders[i] = 1;
+		if (isPipeline && capacity > 1) {
+			// ̨ʱڴлͬʱ
+			this.capacity = (capacity + 1) / 2;
 		}
 	}
 	
@@ -58,27 +60,68 @@ public class SortxResult implements IResult {
 			}
 			
 			capacity = EnvUtil.getCapacity(fcount);
+			if (isPipeline) {
+				// ̨ʱڴлͬʱ
+				capacity = (capacity + 1) / 2;
+			}
 		}
 		
 		data.addAll(table);
 		if (data.length() >= capacity) {
-			Sequence sequence;
-			if (exps.length == 1) {
-				sequence = table.sort(exps[0], null, opt, ctx);
+			sortData(isPipeline);
+			data = new Sequence();
+		}
+	}
+	
+	// Իдʱļ
+	private void sortData(boolean isPipeline) {
+		try {
+			// ڴݣҪǰһд
+			joinPrevJob();
+			
+			Context tmpCtx = ctx.newComputeContext();
+			Expression []tmpExps = Operation.dupExpressions(exps, tmpCtx);
+			SortxJob job = new SortxJob(data, tmpExps, opt, tmpCtx, pathCount > 1);
+			if (isPipeline) {
+				new JobThread(job).start();
+				prevJob = job;
 			} else {
-				sequence = table.sort(exps, orders, null, opt, ctx);
+				job.run();
+				runList.add(job);
+			}
+		} catch (RuntimeException e) {
+			delete();
+			throw e;
+		}
+	}
+	
+	private void joinPrevJob() {
+		if (prevJob != null) {
+			SortxJob job = prevJob;
+			prevJob = null;
+			job.join();
+			runList.add(job);
+		}
+	}
+	
+	// ɾʱļ
+	private void delete() {
+		if (prevJob != null) {
+			try {
+				joinPrevJob();
+			} catch (RuntimeException e) {
+			}
+		}
+		
+		for (SortxJob job : runList) {
+			FileObject fo = job.getFile();
+			if (fo != null) {
+				fo.delete();
 			}
-			
-			FileObject fo = FileObject.createTempFileObject();
-			MessageManager mm = EngineMessage.get();
-			Logger.info(mm.getMessage("engine.createTmpFile") + fo.getFileName());
-			
-			fo.exportSeries(sequence, "b", null);
-			BFileCursor bfc = new BFileCursor(fo, null, "x", ctx);
-			cursorList.add(bfc);
-			
-			data = new Sequence();
 		}
+		
+		runList.clear();
+		data = null;
 	}
 	
 	/**
@@ -98,42 +141,23 @@ public class SortxResult implements IResult {
 		}
 		
 		if (data.length() > 0) {
-			Sequence sequence;
-			if (exps.length == 1) {
-				sequence = data.sort(exps[0], null, null, ctx);
-			} else {
-				sequence = data.sort(exps, orders, null, null, ctx);
-			}
-			
-			FileObject fo = FileObject.createTempFileObject();
-			fo.exportSeries(sequence, "b", null);
-			BFileCursor bfc = new BFileCursor(fo, null, "x", ctx);
-			cursorList.add(bfc);
+			sortData(false);
 		}
 		
 		data = null;
-		
-		int size = cursorList.size();
-		int bufSize = Env.getMergeFileBufSize(size);
-		for (int i = 0; i < size; ++i) {
-			BFileCursor bfc = (BFileCursor)cursorList.get(i);
-			bfc.setFileBufferSize(bufSize);
-		}
-
-		if (size == 1) {
-			return (ICursor)cursorList.get(0);
-		} else {
-			ICursor []cursors = new ICursor[size];
-			cursorList.toArray(cursors);
-			if (opt == null || opt.indexOf('0') == -1) {
-				return new MergesCursor(cursors, exps, ctx);
-			} else {
-				return new MergesCursor(cursors, exps, "0", ctx);
-			}
+		try {
+			joinPrevJob();
+		} catch (RuntimeException e) {
+			delete();
+			throw e;
 		}
+		
+		ArrayList<SortxJob> runList = this.runList;
+		this.runList = null;
+		return CursorUtil.createSortxCursor(runList, exps, opt, pathCount, ctx);
 	}
 
 	public Object combineResult(Object []results) {
 		throw new RuntimeException();
 	}
-}
\ No newline at end of file
+}
@@ -3,6 +3,10 @@ package com.scudata.dw;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import com.scudata.array.BoolArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
 import com.scudata.util.Variant;
 
 /**
@@ -64,7 +68,7 @@ public class AndFilter extends IFilter {
 	 * @param value
 	 */
 	public boolean match(Object value) {
-		if (longValue != 0) {
+		if (longValue != 0 && value != null) {
 			long result = ((Number)value).longValue() & longValue;
 			switch (operator) {
 			case EQUAL:
@@ -81,7 +85,7 @@ public class AndFilter extends IFilter {
 				return result <= longValue;
 			}
 		} else {
-			Number val = Variant.and((Number)value, andValue);
+			Number val = value == null ? null : Variant.and((Number)value, andValue);
 			switch (operator) {
 			case EQUAL:
 				return Variant.isEquals(val, rightValue);
@@ -99,6 +103,65 @@ public class AndFilter extends IFilter {
 		}
 	}
 
+	public void match(IArray values, BoolArray signs) {
+		if (longValue == 0) {
+			super.match(values, signs);
+			return;
+		}
+		
+		// ֱӶԻ㣬ֵ԰Ƚ
+		long longValue = this.longValue;
+		int operator = this.operator;
+		boolean []datas = signs.getDatas();
+		int size = values.size();
+		if (values instanceof IntArray) {
+			IntArray intArray = (IntArray)values;
+			int []ints = intArray.getDatas();
+			for (int i = 1; i <= size; ++i) {
+				if (datas[i]) {
+					boolean b = intArray.isNull(i) ? match(null) : match(ints[i] & longValue, longValue, operator);
+					if (!b) {
+						datas[i] = false;
+					}
+				}
+			}
+		} else if (values instanceof LongArray) {
+			LongArray longArray = (LongArray)values;
+			long []longs = longArray.getDatas();
+			for (int i = 1; i <= size; ++i) {
+				if (datas[i]) {
+					boolean b = longArray.isNull(i) ? match(null) : match(longs[i] & longValue, longValue, operator);
+					if (!b) {
+						datas[i] = false;
+					}
+				}
+			}
+		} else {
+			super.match(values, signs);
+		}
+	}
+	
+	private static boolean match(long result, long longValue, int operator) {
+		switch (operator) {
+		case EQUAL:
+			return result == longValue;
+		case NOT_EQUAL:
+			return result != longValue;
+		case GREATER:
+			return result > longValue;
+		case GREATER_EQUAL:
+			return result >= longValue;
+		case LESS:
+			return result < longValue;
+		default: //LESS_EQUAL:
+			return result <= longValue;
+		}
+	}
+	
+	public boolean canMatchArray() {
+		return true;
+	}
+	
 	/**
 	 * һݵСֵֵжǷзfilter
 	 * עⷵtrueҲֻǱʾзϵ
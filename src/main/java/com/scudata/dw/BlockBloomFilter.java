@@ -0,0 +1,287 @@
+package com.scudata.dw;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Date;
+
+import com.scudata.array.IArray;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ObjectReader;
+import com.scudata.dm.ObjectWriter;
+import com.scudata.dm.Sequence;
+
+/**
+ * пĲ¡ͳϢʱá:bloomָ
+ * ֵcontainswitchʱ¼п飬СֵֵеĲ
+ * @author RunQian
+ *
+ */
+public class BlockBloomFilter {
+	public static final int MAX_PROBE_COUNT = 1024; // ˼ϵĳԱֵʱò¡ж
+
+	private static final int BITS_PER_KEY = 10; // ÿֵͬռõλԼΪ1%
+	private static final int HASH_COUNT = 7; // ϣ
+
+	private int nullCount; // ֵ
+	private int distinctCount; // ͬķǿֵϣֵƣвֵ֧ʱΪ-1
+	private long []bits; // λͼвֵ֧ʱΪnull
+
+	private BlockBloomFilter(int nullCount, int distinctCount, long []bits) {
+		this.nullCount = nullCount;
+		this.distinctCount = distinctCount;
+		this.bits = bits;
+	}
+
+	/**
+	 * ָΧļ¼ֶָβпĲ¡
+	 * @param data 
+	 * @param col к
+	 * @param start ʼλã
+	 * @param end λã
+	 * @return BlockBloomFilter
+	 */
+	public static BlockBloomFilter create(Sequence data, int col, int start, int end) {
+		IArray mems = data.getMems();
+		long []hashs = new long[end - start + 1];
+		int count = 0;
+		int nullCount = 0;
+		boolean canHash = true;
+
+		for (int i = start; i <= end; ++i) {
+			BaseRecord r = (BaseRecord)mems.get(i);
+			Object obj = r.getNormalFieldValue(col);
+			if (obj == null) {
+				nullCount++;
+			} else if (canHash) {
+				if (canHash(obj)) {
+					hashs[count++] = hash(obj);
+				} else {
+					canHash = false;
+				}
+			}
+		}
+
+		if (!canHash) {
+			return new BlockBloomFilter(nullCount, -1, null);
+		}
+
+		// ȥغͳƲֵͬ
+		Arrays.sort(hashs, 0, count);
+		int distinctCount = 0;
+		for (int i = 0; i < count; ++i) {
+			if (i == 0 || hashs[i] != hashs[i - 1]) {
+				hashs[distinctCount++] = hashs[i];
+			}
+		}
+
+		int wordCount = (distinctCount * BITS_PER_KEY + 63) >>> 6;
+		long []bits = new long[wordCount > 0 ? wordCount : 1];
+		for (int i = 0; i < distinctCount; ++i) {
+			add(bits, hashs[i]);
+		}
+
+		return new BlockBloomFilter(nullCount, distinctCount, bits);
+	}
+
+	/**
+	 * ֵǷԲ벼¡㣬ֵʱ
+	 * @param obj ǿֵ
+	 * @return true
+	 */
+	public static boolean canHash(Object obj) {
+		return obj instanceof Integer || obj instanceof Long || obj instanceof Double || obj instanceof String ||
+				obj instanceof Date || obj instanceof Short || obj instanceof Byte || obj instanceof Float;
+	}
+
+	/**
+	 * ֵĹϣֵ͸ͬĹϣcanHashж
+	 * @param obj ǿֵ
+	 * @return 64λϣֵ
+	 */
+	public static long hash(Object obj) {
+		long v;
+		if (obj instanceof String) {
+			String str = (String)obj;
+			v = str.length();
+			for (int i = 0, len = str.length(); i < len; ++i) {
+				v = v * 31 + str.charAt(i);
+			}
+		} else if (obj instanceof Date) {
+			v = ((Date)obj).getTime();
+		} else if (obj instanceof Double || obj instanceof Float) {
+			double d = ((Number)obj).doubleValue();
+			v = (long)d;
+			if (v != d) {
+				v = Double.doubleToLongBits(d);
+			}
+		} else {
+			v = ((Number)obj).longValue();
+		}
+
+		// ϸߵλ
+		v ^= v >>> 33;
+		v *= 0xff51afd7ed558ccdL;
+		v ^= v >>> 33;
+		v *= 0xc4ceb9fe1a85ec53L;
+		v ^= v >>> 33;
+		return v;
+	}
+
+	private static void add(long []bits, long hash) {
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		long bitCount = (long)bits.length << 6;
+		for (int i = 1; i <= HASH_COUNT; ++i) {
+			int h = h1 + i * h2;
+			if (h < 0) {
+				h = ~h;
+			}
+
+			long index = h % bitCount;
+			bits[(int)(index >>> 6)] |= 1L << index;
+		}
+	}
+
+	/**
+	 * ָϣֵֵǷڿ
+	 * @param hash hashĹϣֵ
+	 * @return falseһڣtrue
+	 */
+	public boolean mayContainHash(long hash) {
+		long []bits = this.bits;
+		if (bits == null) {
+			return true;
+		}
+
+		int h1 = (int)hash;
+		int h2 = (int)(hash >>> 32);
+		long bitCount = (long)bits.length << 6;
+		for (int i = 1; i <= HASH_COUNT; ++i) {
+			int h = h1 + i * h2;
+			if (h < 0) {
+				h = ~h;
+			}
+
+			long index = h % bitCount;
+			if ((bits[(int)(index >>> 6)] & (1L << index)) == 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * ֵǷڿ
+	 * @param value ֵ
+	 * @return falseһڣtrue
+	 */
+	public boolean mayContain(Object value) {
+		if (value == null) {
+			return nullCount > 0;
+		} else if (bits == null || !canHash(value)) {
+			return true;
+		} else {
+			return mayContainHash(hash(value));
+		}
+	}
+
+	/**
+	 * ؿǷеֵԱMAX_PROBE_COUNTʱtrue
+	 * @param values ֵ飬1ʼ
+	 * @return falseһûУtrue
+	 */
+	public boolean mayContainAny(IArray values) {
+		int size = values.size();
+		if (bits == null || size > MAX_PROBE_COUNT) {
+			return true;
+		}
+
+		for (int i = 1; i <= size; ++i) {
+			if (mayContain(values.get(i))) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * ȡеĿֵ
+	 * @return int
+	 */
+	public int getNullCount() {
+		return nullCount;
+	}
+
+	/**
+	 * ȡвͬķǿֵвֵ֧ʱ-1
+	 * @return int
+	 */
+	public int getDistinctCount() {
+		return distinctCount;
+	}
+
+	/**
+	 * дĲ¡
+	 * @param filter ¡ΪձʾûͳϢ
+	 * @param writer
+	 * @throws IOException
+	 */
+	public static void writeExternal(BlockBloomFilter filter, ObjectWriter writer) throws IOException {
+		if (filter == null) {
+			writer.writeInt(-1);
+			return;
+		}
+
+		writer.writeInt(filter.nullCount);
+		writer.writeInt(filter.distinctCount);
+		long []bits = filter.bits;
+		if (bits == null) {
+			writer.writeInt(0);
+		} else {
+			writer.writeInt(bits.length);
+			for (long v : bits) {
+				writer.writeLong64(v);
+			}
+		}
+	}
+
+	/**
+	 * Ĳ¡
+	 * @param reader
+	 * @return BlockBloomFilterûͳϢʱnull
+	 * @throws IOException
+	 */
+	public static BlockBloomFilter readExternal(ObjectReader reader) throws IOException {
+		int nullCount = reader.readInt();
+		if (nullCount < 0) {
+			return null;
+		}
+
+		int distinctCount = reader.readInt();
+		int wordCount = reader.readInt();
+		long []bits = null;
+		if (wordCount > 0) {
+			bits = new long[wordCount];
+			for (int i = 0; i < wordCount; ++i) {
+				bits[i] = reader.readLong64();
+			}
+		}
+
+		return new BlockBloomFilter(nullCount, distinctCount, bits);
+	}
+
+	/**
+	 * һĲ¡
+	 * @param reader
+	 * @throws IOException
+	 */
+	public static void skipExternal(ObjectReader reader) throws IOException {
+		if (reader.readInt() >= 0) {
+			reader.readInt();
+			int wordCount = reader.readInt();
+			reader.skip(wordCount * 8L);
+		}
+	}
+}
@@ -0,0 +1,286 @@
+package com.scudata.dw;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.scudata.dm.Env;
+
+/**
+ * ݿ黺棬α깲
+ * ļݿλãBlockLinkReaderѹݿ飬
+ * ɨͬһĲѯлʱٶļͽѹ
+ * 水ֽ޶ССEnv.getBlockCacheSize()趨Ϊ0ʱû
+ * ֳɶΣÿεʹ̭
+ * @author runqian
+ *
+ */
+public final class BlockCache {
+	private static final int SEGMENT_COUNT = 16; // 2^n
+	private static final int ENTRY_OVERHEAD = 64; // ÿռõֽ
+
+	private static final BlockCache instance = new BlockCache();
+
+	private final Segment []segments;
+
+	/**
+	 * ݿļļݿļеλ
+	 */
+	private static class Key {
+		private final Object file;
+		private final long pos;
+		private final int hash;
+
+		public Key(Object file, long pos) {
+			this.file = file;
+			this.pos = pos;
+			this.hash = file.hashCode() * 31 + (int)(pos ^ (pos >>> 32));
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+
+			Key other = (Key)obj;
+			return pos == other.pos && file.equals(other.file);
+		}
+	}
+
+	/**
+	 * ݿ
+	 */
+	public static class CachedBlock {
+		private final byte []data; // ѹ
+		private final long nextPos; // ݿλãһݿλ
+
+		public CachedBlock(byte []data, long nextPos) {
+			this.data = data;
+			this.nextPos = nextPos;
+		}
+
+		public byte[] getData() {
+			return data;
+		}
+
+		public long getNextPos() {
+			return nextPos;
+		}
+
+		private int getMemorySize() {
+			return data.length + ENTRY_OVERHEAD;
+		}
+	}
+
+	/**
+	 * һΣ˳Уʱ̭δʵݿ
+	 */
+	private static class Segment extends LinkedHashMap<Key, CachedBlock> {
+		private static final long serialVersionUID = 1L;
+
+		private long size; // ѻֽ
+		private long hitCount;
+		private long missCount;
+		private long evictionCount;
+
+		public Segment() {
+			super(256, 0.75f, true);
+		}
+
+		public synchronized CachedBlock getEntry(Key key) {
+			CachedBlock entry = get(key);
+			if (entry == null) {
+				missCount++;
+			} else {
+				hitCount++;
+			}
+
+			return entry;
+		}
+
+		public synchronized void putEntry(Key key, CachedBlock entry, long capacity) {
+			CachedBlock old = put(key, entry);
+			if (old != null) {
+				size -= old.getMemorySize();
+			}
+
+			size += entry.getMemorySize();
+			evict(capacity);
+		}
+
+		public synchronized void removeFile(Object file) {
+			Iterator<Map.Entry<Key, CachedBlock>> itr = entrySet().iterator();
+			while (itr.hasNext()) {
+				Map.Entry<Key, CachedBlock> mapEntry = itr.next();
+				if (mapEntry.getKey().file.equals(file)) {
+					size -= mapEntry.getValue().getMemorySize();
+					itr.remove();
+				}
+			}
+		}
+
+		public synchronized void evict(long capacity) {
+			Iterator<CachedBlock> itr = values().iterator();
+			while (size > capacity && itr.hasNext()) {
+				size -= itr.next().getMemorySize();
+				itr.remove();
+				evictionCount++;
+			}
+		}
+
+		public synchronized void clearAll() {
+			clear();
+			size = 0;
+		}
+	}
+
+	private BlockCache() {
+		segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < SEGMENT_COUNT; ++i) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * ȡʵ
+	 * @return BlockCache
+	 */
+	public static BlockCache getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Ƿ˻
+	 * @return
+	 */
+	public boolean isEnabled() {
+		return Env.getBlockCacheSize() > 0;
+	}
+
+	private Segment getSegment(Key key) {
+		int h = key.hash;
+		h ^= (h >>> 16);
+		return segments[h & (SEGMENT_COUNT - 1)];
+	}
+
+	/**
+	 * ȡݿ
+	 * @param file ļĻʶIBlockStorage.getBlockCacheKey()
+	 * @param pos ݿλ
+	 * @return ûлʱnull
+	 */
+	public CachedBlock get(Object file, long pos) {
+		Key key = new Key(file, pos);
+		return getSegment(key).getEntry(key);
+	}
+
+	/**
+	 * ݿ飬ݲٱ޸
+	 * @param file ļĻʶ
+	 * @param pos ݿλ
+	 * @param data ѹ
+	 * @param nextPos ݿλ
+	 */
+	public void put(Object file, long pos, byte []data, long nextPos) {
+		long capacity = Env.getBlockCacheSize() / SEGMENT_COUNT;
+		if (data.length + ENTRY_OVERHEAD > capacity) {
+			return;
+		}
+
+		Key key = new Key(file, pos);
+		getSegment(key).putEntry(key, new CachedBlock(data, nextPos), capacity);
+	}
+
+	/**
+	 * ɾָļлݿ飬ļɾؽʱ
+	 * @param file ļĻʶ
+	 */
+	public void remove(Object file) {
+		for (Segment segment : segments) {
+			segment.removeFile(file);
+		}
+	}
+
+	/**
+	 * ջ
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clearAll();
+		}
+	}
+
+	/**
+	 * ǰõĻС̭ݿ飬СС
+	 */
+	public void trim() {
+		long capacity = Env.getBlockCacheSize() / SEGMENT_COUNT;
+		for (Segment segment : segments) {
+			segment.evict(capacity);
+		}
+	}
+
+	/**
+	 * ȡѻֽ
+	 * @return
+	 */
+	public long getSize() {
+		long size = 0;
+		for (Segment segment : segments) {
+			synchronized(segment) {
+				size += segment.size;
+			}
+		}
+
+		return size;
+	}
+
+	/**
+	 * ȡд
+	 * @return
+	 */
+	public long getHitCount() {
+		long count = 0;
+		for (Segment segment : segments) {
+			synchronized(segment) {
+				count += segment.hitCount;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * ȡδд
+	 * @return
+	 */
+	public long getMissCount() {
+		long count = 0;
+		for (Segment segment : segments) {
+			synchronized(segment) {
+				count += segment.missCount;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * ȡ򳬳̭ݿ
+	 * @return
+	 */
+	public long getEvictionCount() {
+		long count = 0;
+		for (Segment segment : segments) {
+			synchronized(segment) {
+				count += segment.evictionCount;
+			}
+		}
+
+		return count;
+	}
+}
@@ -2,8 +2,10 @@ package com.scudata.dw;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 
 import com.scudata.dm.Sequence;
+import com.scudata.parallel.PerfMonitor;
 
 public class BlockLinkReader extends InputStream {
 	private BlockLink blockLink;
@@ -15,10 +17,12 @@ public class BlockLinkReader extends InputStream {
 	private long currentBlockPos = Long.MAX_VALUE;
 	private byte []block; // ǰĿ
 	private int caret; // blockеλ
+	private long pendingPos = -1; // лλλãʱٶλ-1ʾû
 	
 	private byte[] readBuffer = new byte[32];
 	private LZ4Util lz4 = LZ4Util.instance();
 	private byte []decompressBuffer;
+	private byte []compressBuffer; // ѹݿʱƴѹݣظʹ
 	
 	private boolean isPureStorage;//°汾Ĵд洢ʽ
 	private Sequence dict;
@@ -50,12 +54,26 @@ public class BlockLinkReader extends InputStream {
 	}
 	
 	public void loadBlock(long pos) throws IOException {
+		pendingPos = -1;
 		currentBlockPos = pos;
-		storage.loadBlock(pos, block);
+		loadBlock(pos, block);
 		caret = 0;
 	}
 	
+	private void loadBlock(long pos, byte []block) throws IOException {
+		PerfMonitor.add(PerfMonitor.BLOCKS_READ, 1);
+		storage.loadBlock(pos, block);
+	}
+	
+	// λлݿ֮
+	private void seekPending() throws IOException {
+		if (pendingPos >= 0) {
+			seek(pendingPos);
+		}
+	}
+	
 	public int read() throws IOException {
+		seekPending();
 		if (caret == pointerPos) {
 			loadBlock(readPosition(pointerPos));
 		}
@@ -64,6 +82,7 @@ public class BlockLinkReader extends InputStream {
 	}
 	
 	public int read(byte b[], int off, int len) throws IOException {
+		seekPending();
 		int count = len;
 		while (true) {
 			int freeSize = pointerPos - caret;
@@ -86,6 +105,7 @@ public class BlockLinkReader extends InputStream {
 	}
 	
 	public void readFully(byte []b, int off, int len) throws IOException {
+		seekPending();
 		while (true) {
 			int freeSize = pointerPos - caret;
 			if (len <= freeSize) {
@@ -102,6 +122,7 @@ public class BlockLinkReader extends InputStream {
 	}
 	
 	public int readInt32() throws IOException {
+		seekPending();
 		if (pointerPos - caret >= 4) {
 			byte []data = this.block;
 			int index = this.caret;
@@ -118,30 +139,65 @@ public class BlockLinkReader extends InputStream {
 	
 	// һݿ鲢ѹ
 	public byte[] readDataBlock() throws IOException {
+		BlockCache cache = BlockCache.getInstance();
+		if (!cache.isEnabled() || (pendingPos < 0 && currentBlockPos == Long.MAX_VALUE)) {
+			return readDataBlock(false);
+		}
+		
+		long pos = pendingPos >= 0 ? pendingPos : currentBlockPos + caret;
+		
+		Object cacheKey = storage.getBlockCacheKey();
+		BlockCache.CachedBlock entry = cache.get(cacheKey, pos);
+		if (entry != null) {
+			// л򲻶ļ´ζʱٶλݿ֮
+			pendingPos = entry.getNextPos();
+			return entry.getData();
+		}
+		
+		byte []data = readDataBlock(true);
+		cache.put(cacheKey, pos, data, currentBlockPos + caret);
+		return data;
+	}
+	
+	// һݿ鲢ѹisCopyΪtrueʱعõĽѹǸƳ
+	private byte[] readDataBlock(boolean isCopy) throws IOException {
 		int srcCount = readInt32();
 		if (storage.isCompress()) {
 			int count = readInt32();
 			if (count > 0) {
-				byte []buffer = new byte[count];
-				
-				readFully(buffer, 0, count);
-	
-				if (srcCount > decompressBuffer.length) {
-					decompressBuffer = new byte[srcCount];
+				byte []decompressBuffer = getDecompressBuffer(srcCount);
+				if (count <= pointerPos - caret) {
+					// ѹڵǰڣֱӴӿѹٸѹ
+					lz4.decompress(block, caret, decompressBuffer, srcCount);
+					
+					caret += count;
+				} else {
+					byte []buffer = compressBuffer;
+					if (buffer == null || buffer.length < count) {
+						compressBuffer = buffer = new byte[count];
+					}
+					
+					readFully(buffer, 0, count);
+					lz4.decompress(buffer, decompressBuffer, srcCount);
 				}
 				
-				lz4.decompress(buffer, decompressBuffer, srcCount);
-				return decompressBuffer;
-			} else {
-				byte []buffer = new byte[srcCount];
-				readFully(buffer, 0, srcCount);
-				return buffer;
+				PerfMonitor.add(PerfMonitor.BYTES_DECOMPRESSED, srcCount);
+				return isCopy ? Arrays.copyOf(decompressBuffer, srcCount) : decompressBuffer;
 			}
-		} else {
-			byte []buffer = new byte[srcCount];
-			readFully(buffer, 0, srcCount);
-			return buffer;
 		}
+		
+		byte []buffer = new byte[srcCount];
+		readFully(buffer, 0, srcCount);
+		return buffer;
+	}
+	
+	// ȡѹʱ
+	private byte[] getDecompressBuffer(int size) {
+		if (decompressBuffer == null || decompressBuffer.length < size) {
+			decompressBuffer = new byte[size];
+		}
+		
+		return decompressBuffer;
 	}
 	
 	private long getBlockPos(long pos) {
@@ -149,9 +205,10 @@ public class BlockLinkReader extends InputStream {
 	}
 	
 	public void seek(long pos) throws IOException {
+		pendingPos = -1;
 		long blockPos = getBlockPos(pos);
 		if (blockPos != currentBlockPos) {
-			storage.loadBlock(blockPos, block);
+			loadBlock(blockPos, block);
 			currentBlockPos = blockPos;
 		}
 		
@@ -160,7 +217,13 @@ public class BlockLinkReader extends InputStream {
 	
 	// ָλõݿ鲢ѹ
 	public byte[] readDataBlock(long pos) throws IOException {
-		seek(pos);
+		if (BlockCache.getInstance().isEnabled()) {
+			// ûʱȲ飬ûʱٶλ
+			pendingPos = pos;
+		} else {
+			seek(pos);
+		}
+		
 		return readDataBlock();
 	}
 	
@@ -231,6 +294,7 @@ public class BlockLinkReader extends InputStream {
 	
 	//ѹȡ
 	public RowBufferReader readBlockBuffer() throws IOException {
+		seekPending();
 		int count = readInt32();
 		byte []buffer = new byte[count];
 		readFully(buffer, 0, count);
@@ -246,11 +310,19 @@ public class BlockLinkReader extends InputStream {
 	}
 	
 	public long position() {
-		return currentBlockPos;
+		if (pendingPos >= 0) {
+			return getBlockPos(pendingPos);
+		} else {
+			return currentBlockPos;
+		}
 	}
 	
 	public int getCaret() {
-		return caret;
+		if (pendingPos >= 0) {
+			return (int)(pendingPos - getBlockPos(pendingPos));
+		} else {
+			return caret;
+		}
 	}
 	
 	public IBlockStorage getStorage() {
@@ -13,8 +13,6 @@ public class BlockLinkWriter extends OutputStream {
 	private byte []block; // 
 	private int caret; // ڿеλ
 	
-	private LZ4Util lz4 = LZ4Util.instance();
-	
 	public BlockLinkWriter(BlockLink blockLink, boolean isAppend) throws IOException {
 		this.blockLink = blockLink;
 		storage = blockLink.getBlockStorage();
@@ -86,9 +84,21 @@ public class BlockLinkWriter extends OutputStream {
 	
 	// ׷Ӳѹݿ飬дλ
 	public long writeDataBlock(byte[] bytes) throws IOException {
-		int srcCount = bytes.length;
+		return writeDataBlock(bytes, 0, bytes.length);
+	}
+	
+	// ׷Ӳѹݿָ֣дλ
+	public long writeDataBlock(byte[] bytes, int off, int srcCount) throws IOException {
 		if (storage.isCompress()) {
-			byte []buffer = lz4.compress(bytes);
+			// ѹɵǰ̵߳LZ4Utilṩÿ
+			LZ4Util lz4 = LZ4Util.instance();
+			byte []buffer;
+			if (storage.isHighCompress()) {
+				buffer = lz4.compressHigh(bytes, off, srcCount);
+			} else {
+				buffer = lz4.compress(bytes, off, srcCount);
+			}
+			
 			int count = lz4.getCount();
 			long pos = blockLink.lastBlockPos + caret;
 			
@@ -99,13 +109,13 @@ public class BlockLinkWriter extends OutputStream {
 			} else {
 				writeInt32(srcCount);
 				writeInt32(0);
-				write(bytes, 0, srcCount);
+				write(bytes, off, srcCount);
 			}
 			return pos;
 		} else {
 			long pos = blockLink.lastBlockPos + caret;
 			writeInt32(srcCount);
-			write(bytes, 0, srcCount);
+			write(bytes, off, srcCount);
 			return pos;
 		}
 	}
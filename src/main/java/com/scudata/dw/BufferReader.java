@@ -1215,6 +1215,21 @@ public class BufferReader {
 		array.set(index, innerReadObject());
 	}
 	
+	/**
+	 * countڳɿ
+	 * @param count 
+	 * @return 飬1ʼ
+	 * @throws IOException
+	 */
+	public IArray readArray(int count) throws IOException {
+		Object []datas = new Object[count + 1];
+		for (int i = 1; i <= count; ++i) {
+			datas[i] = readObject();
+		}
+		
+		return new ObjectArray(datas, count);
+	}
+	
 	/**
 	 * ݿͻһ
 	 * @param count
@@ -116,6 +116,25 @@ public class BufferWriter {
 		count = 0;
 		return Arrays.copyOf(buf, len);
 	}
+	
+	// дѽΪһݿдݿλ
+	// ٸƳֽ飬д󱾶Լдһ
+	long finish(BlockLinkWriter blockWriter) throws IOException {
+		if (repeatCount > 0) {
+			writeRepeat();
+		}
+		
+		int len = count;
+		count = 0;
+		return blockWriter.writeDataBlock(buf, 0, len);
+	}
+	
+	// д
+	void reset() {
+		count = 0;
+		repeatCount = 0;
+		repeatValue = null;
+	}
 
 	private void enlargeBuffer() {
 		buf = Arrays.copyOf(buf, buf.length << 1);
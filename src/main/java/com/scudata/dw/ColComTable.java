@@ -51,7 +51,7 @@ public class ColComTable extends ComTable {
 	 * @param file ļ
 	 * @param colNames 
 	 * @param distribute ֲʽ
-	 * @param opt uѹݣpһֶηֶ
+	 * @param opt uѹݣzøѹѹݣpһֶηֶ
 	 * @param ctx 
 	 * @throws IOException
 	 */
@@ -74,6 +74,8 @@ public class ColComTable extends ComTable {
 		// Ƿѹ
 		if (opt != null && opt.indexOf('u') != -1) {
 			setCompress(false);
+		} else if (opt != null && opt.indexOf('z') != -1) {
+			setHighCompress(true);
 		}
 		
 		setBlockSize(Env.getBlockSize());
@@ -134,6 +136,8 @@ public class ColComTable extends ComTable {
 	 * @throws IOException
 	 */
 	protected void reopen() throws IOException {
+		resetBlockCache();
+		
 		// дļͷʱ֧ͬͬʱд
 		raf = new RandomAccessFile(file, "rw");
 		Object syncObj = getSyncObject();
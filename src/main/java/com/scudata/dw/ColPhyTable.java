@@ -108,13 +108,26 @@ public class ColPhyTable extends PhyTable {
 		}
 		
 		for (int i = 0; i < count; ++i) {
-			if (colNames[i].startsWith(KEY_PREFIX)) {
-				String colName = colNames[i].substring(KEY_PREFIX.length());
+			// á:ָб룬á:bloomָɿ鲼¡
+			String colName = colNames[i];
+			String codecNames = null;
+			int sep = colName.indexOf(ColumnMetaData.CODEC_SEPARATOR);
+			if (sep != -1) {
+				codecNames = colName.substring(sep + 1);
+				colName = colName.substring(0, sep);
+			}
+			
+			if (colName.startsWith(KEY_PREFIX)) {
+				colName = colName.substring(KEY_PREFIX.length());
 				columns[i] = new ColumnMetaData(this, colName, true, true);
 			} else if (i < keyStart) {
-				columns[i] = new ColumnMetaData(this, colNames[i], true, false);
+				columns[i] = new ColumnMetaData(this, colName, true, false);
 			} else {
-				columns[i] = new ColumnMetaData(this, colNames[i], false, false);
+				columns[i] = new ColumnMetaData(this, colName, false, false);
+			}
+			
+			if (codecNames != null) {
+				columns[i].setCodecNames(codecNames);
 			}
 		}
 		
@@ -840,6 +853,7 @@ public class ColPhyTable extends PhyTable {
 		BufferWriter bufferWriters[] = new BufferWriter[count];
 		
 		DataBlockWriterJob[] jobs = new DataBlockWriterJob[count];
+		BlockBloomFilter []bloomFilters = new BlockBloomFilter[count];
 		ThreadPool pool = ThreadPool.newInstance(count);
 		
 		int end = data.length();
@@ -858,7 +872,10 @@ public class ColPhyTable extends PhyTable {
 				bufferWriters[i] = columns[i].getColDataBufferWriter();
 				Sequence dict = columns[i].getDict();
 				jobs[i] = new DataBlockWriterJob(bufferWriters[i], data, dict, i, 1, end, 
-						maxValues, minValues, startValues, dataTypeInfo);
+						maxValues, minValues, startValues, dataTypeInfo, columns[i].getCodec());
+				if (columns[i].hasBloomFilter()) {
+					jobs[i].setBloomFilters(bloomFilters);
+				}
 				pool.submit(jobs[i]);
 			}
 			
@@ -886,12 +903,12 @@ public class ColPhyTable extends PhyTable {
 			}
 		}
 		
-		guideColumn.appendColBlock(bufferWriter.finish());
+		guideColumn.appendColBlock(bufferWriter);
 
 		//ύÿпbuffer
 		for (int j = 0; j < count; j++) {
 			if (!isMyCol[j]) continue;
-			columns[j].appendColBlock(bufferWriters[j].finish(), minValues[j], maxValues[j], startValues[j]);
+			columns[j].appendColBlock(bufferWriters[j], minValues[j], maxValues[j], startValues[j], bloomFilters[j]);
 		}
 		
 		//·ֶϢbuffer
@@ -981,13 +998,13 @@ public class ColPhyTable extends PhyTable {
 			}
 		}
 		
-		guideColumn.appendColBlock(bufferWriter.finish());
+		guideColumn.appendColBlock(bufferWriter);
 		
 		if (sortedColumns == null) {
 			//ύÿпbuffer
 			for (int j = 0; j < count; j++) {
 				if (!isMyCol[j]) continue;
-				columns[j].appendColBlock(bufferWriters[j].finish());
+				columns[j].appendColBlock(bufferWriters[j]);
 			}
 			//·ֶϢbuffer
 			appendSegmentBlock(end);
@@ -999,10 +1016,10 @@ public class ColPhyTable extends PhyTable {
 			if (!isMyCol[j]) continue;
 			if (!columns[j].isDim()) {
 				//׷п
-				columns[j].appendColBlock(bufferWriters[j].finish());
+				columns[j].appendColBlock(bufferWriters[j]);
 			} else {
 				//׷ά
-				columns[j].appendColBlock(bufferWriters[j].finish(), minValues[j], maxValues[j], startValues[j]);
+				columns[j].appendColBlock(bufferWriters[j], minValues[j], maxValues[j], startValues[j]);
 			}
 		}
 		
@@ -1027,6 +1044,7 @@ public class ColPhyTable extends PhyTable {
 
 		BufferWriter bufferWriters[] = new BufferWriter[count];
 		DataBlockWriterJob[] jobs = new DataBlockWriterJob[count];
+		BlockBloomFilter []bloomFilters = new BlockBloomFilter[count];
 		ThreadPool pool = ThreadPool.newInstance(count);
 		
 		try {
@@ -1034,7 +1052,10 @@ public class ColPhyTable extends PhyTable {
 				bufferWriters[i] = columns[i].getColDataBufferWriter();
 				Sequence dict = columns[i].getDict();
 				jobs[i] = new DataBlockWriterJob(bufferWriters[i], data, dict, i, start, end, 
-						maxValues, minValues, startValues, dataTypeInfo);
+						maxValues, minValues, startValues, dataTypeInfo, columns[i].getCodec());
+				if (columns[i].hasBloomFilter()) {
+					jobs[i].setBloomFilters(bloomFilters);
+				}
 				pool.submit(jobs[i]);
 			}
 			
@@ -1053,7 +1074,7 @@ public class ColPhyTable extends PhyTable {
 		
 		//ύÿпbuffer
 		for (int j = 0; j < count; j++) {
-			columns[j].appendColBlock(bufferWriters[j].finish(), minValues[j], maxValues[j], startValues[j]);
+			columns[j].appendColBlock(bufferWriters[j], minValues[j], maxValues[j], startValues[j], bloomFilters[j]);
 		}
 		
 		//·ֶϢbuffer
@@ -1127,7 +1148,7 @@ public class ColPhyTable extends PhyTable {
 		if (sortedColumns == null) {
 			//ύÿпbuffer
 			for (int j = 0; j < count; j++) {
-				columns[j].appendColBlock(bufferWriters[j].finish());
+				columns[j].appendColBlock(bufferWriters[j]);
 			}
 			//·ֶϢbuffer
 			appendSegmentBlock(end - start + 1);
@@ -1138,10 +1159,10 @@ public class ColPhyTable extends PhyTable {
 		for (int j = 0; j < count; j++) {
 			if (!columns[j].isDim()) {
 				//׷п
-				columns[j].appendColBlock(bufferWriters[j].finish());
+				columns[j].appendColBlock(bufferWriters[j]);
 			} else {
 				//׷ά
-				columns[j].appendColBlock(bufferWriters[j].finish(), minValues[j], maxValues[j], startValues[j]);
+				columns[j].appendColBlock(bufferWriters[j], minValues[j], maxValues[j], startValues[j]);
 			}
 		}
 		
@@ -3458,8 +3479,9 @@ public class ColPhyTable extends PhyTable {
 		}
 		
 		/**
-		 * Ҫµ
+		 * Ҫµգп齫ԭλдľݿ
 		 */
+		groupTable.resetBlockCache();
 		for (ColumnMetaData col : columns) {
 			BlockLink blockLink = col.getSegmentBlockLink();//ֶϢ
 			blockLink.setFirstBlockPos(blockLink.firstBlockPos);
@@ -3468,6 +3490,12 @@ public class ColPhyTable extends PhyTable {
 			blockLink = col.getDataBlockLink();//ݿ
 			blockLink.setFirstBlockPos(blockLink.firstBlockPos);
 			blockLink.freeIndex = 0;
+			
+			blockLink = col.getBloomBlockLink();//¡飬дп鲻
+			if (blockLink != null) {
+				blockLink.setFirstBlockPos(blockLink.firstBlockPos);
+				blockLink.freeIndex = 0;
+			}
 		}
 		
 		/**
@@ -3524,11 +3552,10 @@ public class ColPhyTable extends PhyTable {
 			 * дݵÿп
 			 */
 			for (int j = 0; j < columnCount; j++) {
-				byte[] buf = bufferWriters[j].finish();
 				if (!columns[j].isDim()) {
-					columns[j].appendColBlock(buf);//׷п
+					columns[j].appendColBlock(bufferWriters[j]);//׷п
 				} else {
-					columns[j].appendColBlock(buf, minValues[j], maxValues[j], startValues[j]);//׷ά
+					columns[j].appendColBlock(bufferWriters[j], minValues[j], maxValues[j], startValues[j]);//׷ά
 				}
 			}
 		}
@@ -4564,15 +4591,17 @@ public class ColPhyTable extends PhyTable {
 		BlockLinkReader rowCountReader = table.getSegmentReader();
 		BlockLinkReader []colReaders = new BlockLinkReader[colCount];
 		ObjectReader []segmentReaders = new ObjectReader[colCount];
+		ObjectReader []bloomReaders = new ObjectReader[colCount];
 		for (int i = 0; i < colCount; ++i) {
 			colReaders[i] = columns2[i].getColReader(true);
 			segmentReaders[i] = columns2[i].getSegmentReader();
+			bloomReaders[i] = columns2[i].getBloomFilterReader();
 		}
 		
 		int blockCount = table.getDataBlockCount();
 		for (int i = 0; i < blockCount; ++i) {
 			for (int j = 0; j < colCount; j++) {
-				columns[j].copyColBlock(colReaders[j], segmentReaders[j]);
+				columns[j].copyColBlock(colReaders[j], segmentReaders[j], bloomReaders[j]);
 			}
 			
 			//·ֶϢbuffer
@@ -4586,6 +4615,9 @@ public class ColPhyTable extends PhyTable {
 		for (int i = 0; i < colCount; ++i) {
 			colReaders[i].close();
 			segmentReaders[i].close();
+			if (bloomReaders[i] != null) {
+				bloomReaders[i].close();
+			}
 		}
 	}
 	
@@ -4683,6 +4715,28 @@ public class ColPhyTable extends PhyTable {
 				blockLink = col.getDataBlockLink();
 				blockLink.freeIndex = (int) (tempPos % blockSize);
 				blockLink.lastBlockPos = tempPos - (tempPos % blockSize);
+				
+				//ضпĲ¡
+				blockLink = col.getBloomBlockLink();
+				if (blockLink != null) {
+					BlockLinkReader bloomReader = new BlockLinkReader(blockLink);
+					try {
+						bloomReader.loadFirstBlock();
+						reader = new ObjectReader(bloomReader, blockSize - ComTable.POS_SIZE);
+						for (int i = 0; i < block; ++i) {
+							BlockBloomFilter.skipExternal(reader);
+						}
+						
+						blockLink.freeIndex = (int) (reader.position() % blockSize);
+						blockLink.lastBlockPos = bloomReader.position();
+						if (resetPos < blockLink.lastBlockPos) {
+							resetPos = blockLink.lastBlockPos;
+						}
+						reader.close();
+					} finally {
+						bloomReader.close();
+					}
+				}
 			}
 
 			if (parent != null) {
@@ -5205,13 +5259,13 @@ public class ColPhyTable extends PhyTable {
 				BufferWriter bufferWriter = col.getColDataBufferWriter();
 				Sequence dict = col.getDict();
 				int len = data.length();
-				DataBlockWriterJob.writeDataBlock(bufferWriter, data, dict, 0, 1, len, maxValues, minValues, startValues, dataTypeInfo);
+				DataBlockWriterJob.writeDataBlock(bufferWriter, data, dict, 0, 1, len, maxValues, minValues, startValues, dataTypeInfo, col.getCodec());
 				
 				//ͳ
 				col.adjustDataType(dataTypeInfo[0]);
 				
 				//ύпbuffer
-				col.appendColBlock(bufferWriter.finish(), minValues[0], maxValues[0], startValues[0]);
+				col.appendColBlock(bufferWriter, minValues[0], maxValues[0], startValues[0]);
 			}
 			
 			col.finishWrite();
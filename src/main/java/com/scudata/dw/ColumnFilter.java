@@ -1,5 +1,7 @@
 package com.scudata.dw;
 
+import com.scudata.array.BoolArray;
+import com.scudata.array.IArray;
 import com.scudata.expression.Expression;
 import com.scudata.expression.Node;
 import com.scudata.util.Variant;
@@ -62,6 +64,23 @@ public class ColumnFilter extends IFilter {
 		}
 	}
 	
+	public void match(IArray values, BoolArray signs) {
+		// IFilterRelationһ
+		values.calcRelations(rightValue, operator, signs, true);
+	}
+	
+	public boolean canMatchArray() {
+		return true;
+	}
+	
+	public boolean matchBloomFilter(BlockBloomFilter bloomFilter) {
+		return bloomFilter.mayContain(rightValue);
+	}
+	
+	public boolean canMatchBloomFilter() {
+		return operator == EQUAL;
+	}
+	
 	/**
 	 * еĶƥ
 	 */
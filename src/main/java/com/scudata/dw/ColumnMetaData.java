@@ -2,14 +2,30 @@ package com.scudata.dw;
 
 import java.io.IOException;
 
+import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.array.LongArray;
 import com.scudata.dm.ObjectReader;
 import com.scudata.dm.ObjectWriter;
 import com.scudata.dm.Sequence;
+import com.scudata.resources.EngineMessage;
 
 // ֶԪ
 public class ColumnMetaData {
+	// б룬ʱá:ָȱʡʱԶѡ
+	public static final int CODEC_NONE = 0;
+	public static final int CODEC_BITPACK = 1; // ׼ֵ+λѹʺֵխ
+	public static final int CODEC_DELTA = 2; // ֵ+λѹʺڣʱ
+	public static final int CODEC_RLE = 3; // γ̱룬ʺĵͻάֶ
+	
+	public static final char CODEC_SEPARATOR = ':';
+	private static final String []CODEC_NAMES = {"", "bitpack", "delta", "rle"};
+	
+	// бá:bloomָΪÿпɲ¡Ϳֵֵͬ
+	public static final String BLOOM_NAME = "bloom";
+	private static final int CODEC_MASK = 0xFF;
+	private static final int BLOOM_FLAG = 0x100; // бϴڰ汾5ıλ
+	
 	protected ComTable groupTable;
 	private String colName; // #ͷʾάа#ȥ
 	private boolean isDim; // Ƿάֶεһֶ֣
@@ -20,15 +36,20 @@ public class ColumnMetaData {
 	
 	private BlockLink dataBlockLink; // п
 	private BlockLink segmentBlockLink; // ֶϢμ¼ÿпλãάֶټСֵֵ
+	private BlockLink bloomBlockLink; // ¡ͷֶϢӦμ¼ÿпĲ¡ûָbloomʱΪ
 
 	private transient BlockLinkWriter colWriter;
 	private transient BlockLinkWriter segmentWriter;
 	private transient ObjectWriter objectWriter;
+	private transient BlockLinkWriter bloomWriter;
+	private transient ObjectWriter bloomObjectWriter;
+	private transient BufferWriter colDataBufferWriter; // дпʱظʹõĻ
 	
 	private Sequence dict;//ֵ汾4
 	private Object dictArray;//ֵʽ
 	private boolean hasMaxMinValues;//汾4
 	private int dataType = DataBlockType.EMPTY;// 汾5
+	private int codec = CODEC_NONE;//б 汾5ıλ
 	
 	public ColumnMetaData() {	
 	}
@@ -47,16 +68,22 @@ public class ColumnMetaData {
 		isKey = src.isKey;
 		hasMaxMinValues = src.hasMaxMinValues;
 		serialBytesLen = src.serialBytesLen;
+		codec = src.codec;
+		if (src.bloomBlockLink != null) {
+			bloomBlockLink = new BlockLink(groupTable);
+		}
 	}
 	
 	public ColumnMetaData(ColumnMetaData src) {
 		groupTable = src.groupTable;
 		dataBlockLink = src.dataBlockLink;
 		segmentBlockLink = src.segmentBlockLink;
+		bloomBlockLink = src.bloomBlockLink;
 		colName = src.colName;
 		isDim = src.isDim;
 		isKey = src.isKey;
 		serialBytesLen = src.serialBytesLen;
+		codec = src.codec;
 	}
 	
 	/**
@@ -89,6 +116,89 @@ public class ColumnMetaData {
 		hasMaxMinValues = true;
 	}
 	
+	/**
+	 * ɱȡб
+	 * @param name 
+	 * @return CODEC_XXX
+	 */
+	public static int getCodec(String name) {
+		for (int i = 1; i < CODEC_NAMES.length; ++i) {
+			if (CODEC_NAMES[i].equalsIgnoreCase(name)) {
+				return i;
+			}
+		}
+		
+		MessageManager mm = EngineMessage.get();
+		throw new RQException(name + mm.getMessage("engine.unknownCodec"));
+	}
+	
+	/**
+	 * 顰[:bloom]ǷϷϷʱ׳쳣
+	 * @param names ðŷָıֻbloom
+	 */
+	public static void checkCodecNames(String names) {
+		boolean hasCodec = false, hasBloom = false;
+		for (String name : names.split(String.valueOf(CODEC_SEPARATOR))) {
+			if (BLOOM_NAME.equalsIgnoreCase(name) && !hasBloom) {
+				hasBloom = true;
+			} else if (!hasCodec && !hasBloom) {
+				getCodec(name);
+				hasCodec = true;
+			} else {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(names + mm.getMessage("engine.unknownCodec"));
+			}
+		}
+	}
+	
+	/**
+	 * ɡ[:bloom]бǷɿ鲼¡ڴʱ
+	 * @param names ðŷָıֻbloom
+	 */
+	public void setCodecNames(String names) {
+		checkCodecNames(names);
+		for (String name : names.split(String.valueOf(CODEC_SEPARATOR))) {
+			if (BLOOM_NAME.equalsIgnoreCase(name)) {
+				if (bloomBlockLink == null) {
+					bloomBlockLink = new BlockLink(groupTable);
+				}
+			} else {
+				codec = getCodec(name);
+			}
+		}
+	}
+	
+	/**
+	 * ȡбв¡ʱ:bloomûָʱnull
+	 * @return
+	 */
+	public String getCodecName() {
+		String name = codec == CODEC_NONE ? null : CODEC_NAMES[codec];
+		if (bloomBlockLink == null) {
+			return name;
+		} else if (name == null) {
+			return BLOOM_NAME;
+		} else {
+			return name + CODEC_SEPARATOR + BLOOM_NAME;
+		}
+	}
+	
+	/**
+	 * пǷв¡
+	 * @return
+	 */
+	public boolean hasBloomFilter() {
+		return bloomBlockLink != null;
+	}
+	
+	public int getCodec() {
+		return codec;
+	}
+	
+	public void setCodec(int codec) {
+		this.codec = codec;
+	}
+	
 	public boolean isSerialBytes() {
 		return serialBytesLen > 0;
 	}
@@ -131,6 +241,10 @@ public class ColumnMetaData {
 		if (dataBlockLink.isEmpty()) {
 			segmentBlockLink.setFirstBlockPos(groupTable.applyNewBlock());
 		}
+		
+		if (bloomBlockLink != null && bloomBlockLink.isEmpty()) {
+			bloomBlockLink.setFirstBlockPos(groupTable.applyNewBlock());
+		}
 	}
 	
 	public boolean isColumn(String name) {
@@ -159,9 +273,15 @@ public class ColumnMetaData {
 			hasMaxMinValues = true;
 		}
 		if (version > 4) {
-			reader.readInt();//reserve
+			int codecs = reader.readInt();
+			codec = codecs & CODEC_MASK;
 			dataType = reader.readInt();
 			initDictArray();
+			
+			if ((codecs & BLOOM_FLAG) != 0) {
+				bloomBlockLink = new BlockLink(groupTable);
+				bloomBlockLink.readExternal(reader);
+			}
 		} else {
 			dataType = DataBlockType.EMPTY;
 		}
@@ -186,14 +306,25 @@ public class ColumnMetaData {
 		writer.flush();
 		
 		// 汾5
-		writer.writeInt(0);
-		writer.writeInt(dataType);
+		if (bloomBlockLink == null) {
+			writer.writeInt(codec);
+			writer.writeInt(dataType);
+		} else {
+			writer.writeInt(codec | BLOOM_FLAG);
+			writer.writeInt(dataType);
+			bloomBlockLink.writeExternal(writer);
+		}
 	}
 	
 	public void prepareWrite() throws IOException {
 		colWriter = new BlockLinkWriter(dataBlockLink, true);
 		segmentWriter = new BlockLinkWriter(segmentBlockLink, true);
 		objectWriter = new ObjectWriter(segmentWriter, groupTable.getBlockSize() - ComTable.POS_SIZE);
+		
+		if (bloomBlockLink != null) {
+			bloomWriter = new BlockLinkWriter(bloomBlockLink, true);
+			bloomObjectWriter = new ObjectWriter(bloomWriter, groupTable.getBlockSize() - ComTable.POS_SIZE);
+		}
 	}
 	
 	public void finishWrite() throws IOException {
@@ -204,12 +335,28 @@ public class ColumnMetaData {
 		segmentWriter.finishWrite();
 		segmentWriter = null;
 		objectWriter = null;
+		colDataBufferWriter = null;
+		
+		if (bloomWriter != null) {
+			bloomObjectWriter.flush();
+			bloomWriter.finishWrite();
+			bloomWriter = null;
+			bloomObjectWriter = null;
+		}
+	}
+	
+	// в¡ʱΪ׷ӵпд¡ûмд
+	private void appendBloomFilter(BlockBloomFilter bloomFilter) throws IOException {
+		if (bloomObjectWriter != null) {
+			BlockBloomFilter.writeExternal(bloomFilter, bloomObjectWriter);
+		}
 	}
 	
 	// ׷һп飬ͬʱҪ޸ķֶϢ
 	public void appendColBlock(byte []bytes) throws IOException {
 		long pos = colWriter.writeDataBlock(bytes);
 		objectWriter.writeLong40(pos);
+		appendBloomFilter(null);
 	}
 	
 	// ׷һάп飬ͬʱҪ޸ķֶϢ
@@ -219,9 +366,44 @@ public class ColumnMetaData {
 		objectWriter.writeObject(minValue);
 		objectWriter.writeObject(maxValue);
 		objectWriter.writeObject(startValue);
+		appendBloomFilter(null);
+	}
+	
+	// bufferWriterΪһп׷ӣݣͬʱҪ޸ķֶϢ
+	public void appendColBlock(BufferWriter bufferWriter) throws IOException {
+		long pos = bufferWriter.finish(colWriter);
+		objectWriter.writeLong40(pos);
+		appendBloomFilter(null);
+	}
+	
+	// bufferWriterΪһάп׷ӣݣͬʱҪ޸ķֶϢ
+	public void appendColBlock(BufferWriter bufferWriter, Object minValue, Object maxValue, Object startValue) throws IOException {
+		appendColBlock(bufferWriter, minValue, maxValue, startValue, null);
+	}
+	
+	// bufferWriterΪһάп׷ӣͬʱдпĲ¡
+	public void appendColBlock(BufferWriter bufferWriter, Object minValue, Object maxValue, Object startValue, 
+			BlockBloomFilter bloomFilter) throws IOException {
+		long pos = bufferWriter.finish(colWriter);
+		objectWriter.writeLong40(pos);
+		objectWriter.writeObject(minValue);
+		objectWriter.writeObject(maxValue);
+		objectWriter.writeObject(startValue);
+		appendBloomFilter(bloomFilter);
 	}
 	
 	public void copyColBlock(BlockLinkReader colReader, ObjectReader segmentReader) throws IOException {
+		copyColBlock(colReader, segmentReader, null);
+	}
+	
+	/**
+	 * һп鼰ֶϢ
+	 * @param colReader Դпȡ
+	 * @param segmentReader ԴֶϢȡ
+	 * @param bloomReader Դ¡ȡԴûв¡ʱΪ
+	 * @throws IOException
+	 */
+	public void copyColBlock(BlockLinkReader colReader, ObjectReader segmentReader, ObjectReader bloomReader) throws IOException {
 		long pos = colWriter.copyDataBlock(colReader);
 		
 		segmentReader.readLong40();
@@ -231,6 +413,12 @@ public class ColumnMetaData {
 			objectWriter.writeObject(segmentReader.readObject());
 			objectWriter.writeObject(segmentReader.readObject());
 		}
+		
+		if (bloomReader != null) {
+			appendBloomFilter(BlockBloomFilter.readExternal(bloomReader));
+		} else {
+			appendBloomFilter(null);
+		}
 	}
 	
 	public BlockLinkReader getColReader(boolean isLoadFirstBlock) {
@@ -261,11 +449,38 @@ public class ColumnMetaData {
 	}
 	
 	/**
-	 * ȡп
+	 * ȡ¡ȡζÿпĲ¡
+	 * @return ObjectReaderûв¡ʱnull
+	 */
+	public ObjectReader getBloomFilterReader() {
+		if (bloomBlockLink == null) {
+			return null;
+		}
+		
+		BlockLinkReader bloomReader = new BlockLinkReader(bloomBlockLink);
+		try {
+			bloomReader.loadFirstBlock();
+			return new ObjectReader(bloomReader, groupTable.getBlockSize() - ComTable.POS_SIZE);
+		} catch (IOException e) {
+			bloomReader.close();
+			throw new RQException(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * ȡпͬһÿظʹͬһ壬дһappendColBlockȡһ
 	 * @return
 	 */
 	public BufferWriter getColDataBufferWriter() {
-		return new BufferWriter(groupTable.getStructManager());
+		BufferWriter writer = colDataBufferWriter;
+		if (writer == null) {
+			writer = new BufferWriter(groupTable.getStructManager());
+			colDataBufferWriter = writer;
+		} else {
+			writer.reset();
+		}
+		
+		return writer;
 	}
 	
 	/**
@@ -281,12 +496,27 @@ public class ColumnMetaData {
 		info.add(dataBlockLink.lastBlockPos);
 		info.add(dataBlockLink.freeIndex);
 		info.add(dataBlockLink.blockCount);
+		
+		if (bloomBlockLink != null) {
+			info.add(bloomBlockLink.firstBlockPos);
+			info.add(bloomBlockLink.lastBlockPos);
+			info.add(bloomBlockLink.freeIndex);
+			info.add(bloomBlockLink.blockCount);
+		}
 	}
 	
 	public BlockLink getSegmentBlockLink() {
 		return segmentBlockLink;
 	}
 	
+	/**
+	 * ȡ¡
+	 * @return BlockLinkûв¡ʱnull
+	 */
+	public BlockLink getBloomBlockLink() {
+		return bloomBlockLink;
+	}
+	
 	public BlockLink getDataBlockLink() {
 		return dataBlockLink;
 	}
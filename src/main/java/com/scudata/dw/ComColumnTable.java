@@ -0,0 +1,79 @@
+package com.scudata.dw;
+
+import com.scudata.array.BoolArray;
+import com.scudata.array.IArray;
+import com.scudata.array.LongArray;
+import com.scudata.dm.ColumnTable;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.Record;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+
+/**
+ * дα갴жÿеļ¼ţﻯʱŵ¼ComTableRecord
+ * @author RunQian
+ *
+ */
+class ComColumnTable extends ColumnTable {
+	private static final long serialVersionUID = 0x02010006;
+
+	private LongArray recordSeqs; // ÿеļ¼
+
+	/**
+	 * лʱʹ
+	 */
+	public ComColumnTable() {
+	}
+
+	/**
+	 * ֵֶͼ¼Ŵ
+	 * @param ds ݽṹ
+	 * @param columns ֵֶ
+	 * @param recordSeqs ¼ţֵֶ鳤ͬ
+	 */
+	public ComColumnTable(DataStruct ds, IArray []columns, LongArray recordSeqs) {
+		super(ds, columns);
+		this.recordSeqs = recordSeqs;
+	}
+
+	protected Record newRecord(int i) {
+		ComTableRecord r = new ComTableRecord(ds);
+		r.setRecordSeq(recordSeqs.getLong(i));
+		return r;
+	}
+
+	public Table select(IArray signArray) {
+		if (!hasColumns()) {
+			return super.select(signArray);
+		}
+
+		BoolArray signs = signArray.isTrue();
+		if (!signs.containTrue()) {
+			return null;
+		}
+
+		int fcount = ds.getFieldCount();
+		IArray []resultColumns = new IArray[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			resultColumns[f] = getFieldValueArray(f).select(signs);
+		}
+
+		return new ComColumnTable(ds, resultColumns, (LongArray)recordSeqs.select(signs));
+	}
+
+	public Sequence append(Sequence seq) {
+		if (hasColumns() && seq instanceof ColumnTable && ((ColumnTable)seq).hasColumns()) {
+			if (seq instanceof ComColumnTable && seq.dataStruct() == ds) {
+				LongArray recordSeqs2 = ((ComColumnTable)seq).recordSeqs;
+				super.append(seq);
+				recordSeqs = (LongArray)concat(recordSeqs, recordSeqs2);
+				return this;
+			} else {
+				// ûм¼ŵݲܰӣﻯɼ¼
+				getMems();
+			}
+		}
+
+		return super.append(seq);
+	}
+}
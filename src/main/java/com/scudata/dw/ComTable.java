@@ -1,11 +1,22 @@
 package com.scudata.dw;
 
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import com.scudata.common.Logger;
 import com.scudata.common.MD5;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
@@ -33,14 +44,14 @@ abstract public class ComTable implements IBlockStorage {
 	public static final String SF_SUFFIX = ".ext"; //ļ׺
 	
 	protected File file;
-	protected RandomAccessFile raf;
+	protected volatile RandomAccessFile raf;
 	protected PhyTable baseTable;
 	
 	protected int blockSize; // С
 	protected transient int enlargeSize; // ļʱ
 	protected BlockLink headerBlockLink;
 	
-	protected byte []reserve = new byte[32]; // ֽ1Ű汾ֽ2Ƿѹ0ѹ1ѹ
+	protected byte []reserve = new byte[32]; // ֽ1Ű汾ֽ2Ƿѹ0ѹ1ѹֽ3Ϊ1ʱøѹѹ
 	protected long freePos = 0; // λ
 	protected long fileSize; // ļܴС
 	
@@ -59,6 +70,15 @@ abstract public class ComTable implements IBlockStorage {
 	private transient ComTable sfGroupTable;
 	private transient Integer partition; // ļ
 	private transient int cursorCount;//򿪵αĸ
+	private transient volatile boolean isClosed; // Ƿѵcloseر
+	
+	private transient MappedByteBuffer []mappedBuffers; // ֻڴӳļ
+	private transient int segmentSize; // ÿӳεĴСС
+	private transient long mappedSize; // ӳļС
+	// ӳڴʱӶȡӳʱд֤ͷӳڴ󲻻̷߳
+	private transient ReentrantReadWriteLock mapLock = new ReentrantReadWriteLock();
+	private transient volatile String blockCacheKey; // ļݿ黺еıʶ
+	private transient int blockCacheVersion; // ݿ鱻ԭλдĴдǰĻ
 	
 	/**
 	 * Ĳļ
@@ -107,6 +127,9 @@ abstract public class ComTable implements IBlockStorage {
 			if (sf.exists()) {
 				try {
 					sfGroupTable = open(sf, ctx);
+					if (mappedBuffers != null) {
+						sfGroupTable.setMemoryMapped(true);
+					}
 					//sfGroupTable.canWrite = canWrite;
 					//sfGroupTable.canRead = canRead;
 				} catch (IOException e) {
@@ -230,6 +253,7 @@ abstract public class ComTable implements IBlockStorage {
 			}
 
 			close();
+			resetBlockCache();
 			file.delete();
 		} catch (IOException e) {
 			throw new RQException(e);
@@ -244,6 +268,8 @@ abstract public class ComTable implements IBlockStorage {
 				table.appendCache();
 			}
 			
+			isClosed = true;
+			unmap();
 			raf.close();
 			if (sfGroupTable != null) {
 				sfGroupTable.close();
@@ -272,12 +298,188 @@ abstract public class ComTable implements IBlockStorage {
 	
 	/**
 	 * ȡһ
+	 * ʹFileChannelĶλıļָ룬αԲȡҪ
+	 * ̱߳жʱFileChannelرչļʱ´ļ߳ضжϵ߳׳쳣
 	 */
-	public synchronized void loadBlock(long pos, byte []block) throws IOException {
-		raf.seek(pos);
-		raf.readFully(block);
+	public void loadBlock(long pos, byte []block) throws IOException {
+		if (mappedBuffers != null) {
+			Lock lock = mapLock.readLock();
+			lock.lock();
+			try {
+				ByteBuffer mappedBlock = getMappedBlock(pos);
+				if (mappedBlock != null) {
+					mappedBlock.get(block);
+					return;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		
+		ByteBuffer buffer = ByteBuffer.wrap(block);
+		while (buffer.hasRemaining()) {
+			RandomAccessFile raf = this.raf;
+			int n;
+			try {
+				n = raf.getChannel().read(buffer, pos + buffer.position());
+			} catch (ClosedChannelException e) {
+				if (!reopenClosedFile(raf) || e instanceof ClosedByInterruptException) {
+					throw e;
+				}
+				
+				continue;
+			}
+			
+			if (n < 0) {
+				throw new EOFException();
+			}
+		}
+	}
+	
+	/**
+	 * ļ̱߳ж϶رʱ´򿪣closeرջļѾʱٴ
+	 * @param raf ʱʹõļ
+	 * @return true´򿪣ضfalseļѹر
+	 * @throws IOException
+	 */
+	private synchronized boolean reopenClosedFile(RandomAccessFile raf) throws IOException {
+		if (isClosed || !file.exists()) {
+			return false;
+		}
+		
+		// ߳ͬʱʧʱֻһ
+		if (this.raf == raf) {
+			this.raf = new RandomAccessFile(file, "rw");
+		}
+		
+		return true;
 	}
 
+	/**
+	 * ȡڴӳ飬鲻ӳ䷶Χʱnull
+	 * صĻӳڴ棬positionΪ0limitΪСֻڳmapLockʱʹ
+	 * @param pos λ
+	 * @return ByteBuffer
+	 */
+	private ByteBuffer getMappedBlock(long pos) {
+		MappedByteBuffer []mappedBuffers = this.mappedBuffers;
+		if (mappedBuffers == null || pos + blockSize > mappedSize) {
+			return null;
+		}
+		
+		// λСδСҲС鲻
+		int seg = (int)(pos / segmentSize);
+		int offset = (int)(pos % segmentSize);
+		ByteBuffer buffer = mappedBuffers[seg].duplicate();
+		buffer.position(offset);
+		buffer.limit(offset + blockSize);
+		return buffer.slice();
+	}
+	
+	/**
+	 * Ƿֻڴӳ䷽ʽȡ
+	 * ӳ鲻Ҫϵͳã̴ͬһʱϵͳҳ
+	 * ӳ֮׷ӵ鳬ӳ䷶ΧԴļȡ
+	 * @param isMapped trueӳ䣬falseȡӳ
+	 */
+	public void setMemoryMapped(boolean isMapped) {
+		// ӳʱͷԭӳ
+		unmap();
+		if (!isMapped) {
+			return;
+		}
+		
+		try {
+			FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			int segmentSize = (Integer.MAX_VALUE / blockSize) * blockSize;
+			int count = (int)((size + segmentSize - 1) / segmentSize);
+			MappedByteBuffer []buffers = new MappedByteBuffer[count];
+			
+			for (int i = 0; i < count; ++i) {
+				long start = (long)i * segmentSize;
+				long len = Math.min(segmentSize, size - start);
+				buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, len);
+			}
+			
+			Lock lock = mapLock.writeLock();
+			lock.lock();
+			try {
+				this.segmentSize = segmentSize;
+				this.mappedSize = size;
+				this.mappedBuffers = buffers;
+			} finally {
+				lock.unlock();
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		if (sfGroupTable != null) {
+			sfGroupTable.setMemoryMapped(true);
+		}
+	}
+	
+	/**
+	 * ȡڴӳ䲢ͷӳڴ棬գӳһֱռõַռ䣬WindowsļҲɾд
+	 * ڶӳڴ̶߳ͷ
+	 */
+	private void unmap() {
+		MappedByteBuffer []buffers;
+		Lock lock = mapLock.writeLock();
+		lock.lock();
+		try {
+			buffers = mappedBuffers;
+			mappedBuffers = null;
+			mappedSize = 0;
+		} finally {
+			lock.unlock();
+		}
+		
+		if (buffers != null) {
+			for (MappedByteBuffer buffer : buffers) {
+				unmap(buffer);
+			}
+		}
+	}
+	
+	/**
+	 * ͷӳڴ棬JDKûйĽӿڣJava 9Unsafe.invokeCleanerJava 8DirectBuffercleaner
+	 * ͷʧʱֻ־ӳڴʱͷ
+	 * @param buffer ӳĻ
+	 */
+	private static void unmap(MappedByteBuffer buffer) {
+		try {
+			try {
+				Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+				Field field = unsafeClass.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				invokeCleaner.invoke(field.get(null), buffer);
+			} catch (NoSuchMethodException e) {
+				// Java 8
+				Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+				cleanerMethod.setAccessible(true);
+				Object cleaner = cleanerMethod.invoke(buffer);
+				if (cleaner != null) {
+					Method clean = cleaner.getClass().getMethod("clean");
+					clean.setAccessible(true);
+					clean.invoke(cleaner);
+				}
+			}
+		} catch (Throwable e) {
+			Logger.debug(e.getMessage(), e);
+		}
+	}
+	
+	/**
+	 * Ƿڴӳ䷽ʽȡ
+	 * @return
+	 */
+	public boolean isMemoryMapped() {
+		return mappedBuffers != null;
+	}
+	
 	public void saveBlock(long pos, byte []block) throws IOException {
 		raf.seek(pos);
 		raf.write(block);
@@ -310,6 +512,39 @@ abstract public class ComTable implements IBlockStorage {
 		return structManager;
 	}
 	
+	/**
+	 * ȡļݿ黺еıʶļ·ʱļ޸ʱд
+	 * ļؽ޸ʱı䣬ݿ鱻ԭλддı䣬оݵĻ
+	 * @return
+	 */
+	public Object getBlockCacheKey() {
+		String key = blockCacheKey;
+		if (key == null) {
+			synchronized(this) {
+				key = blockCacheKey;
+				if (key == null) {
+					key = file.getAbsolutePath() + '|' + file.lastModified() + '|' + blockCacheVersion;
+					blockCacheKey = key;
+				}
+			}
+		}
+		
+		return key;
+	}
+	
+	/**
+	 * áݿ齫ԭλдʱãɾļݿ黺еݿ
+	 * ı仺ʶڶα֮ľݿ鲻ٱ
+	 */
+	public synchronized void resetBlockCache() {
+		if (blockCacheKey != null) {
+			BlockCache.getInstance().remove(blockCacheKey);
+			blockCacheKey = null;
+		}
+		
+		blockCacheVersion++;
+	}
+	
 	int getDataStructID(DataStruct ds) {
 		return structManager.getDataStructID(ds);
 	}
@@ -479,6 +714,11 @@ abstract public class ComTable implements IBlockStorage {
 				} else {
 					colNames[i] = srcColNames[i];
 				}
+				
+				// ±Ϊдʱб
+				if (isCol && col.getCodecName() != null) {
+					colNames[i] += ColumnMetaData.CODEC_SEPARATOR + col.getCodecName();
+				}
 			}
 		} else {
 			boolean[] isDim = ((RowPhyTable)baseTable).getDimIndex();
@@ -519,6 +759,7 @@ abstract public class ComTable implements IBlockStorage {
 					newGroupTable.setCompress(false);
 				} else {
 					newGroupTable.setCompress(isCompress());
+					newGroupTable.setHighCompress(isHighCompress());
 				}
 			} else {
 				newGroupTable = new RowComTable(newFile, colNames, distribute, newOpt, ctx);
@@ -633,6 +874,7 @@ abstract public class ComTable implements IBlockStorage {
 			if (hasQ) {
 				//resetԭֹ
 				long pos, freePos;
+				resetBlockCache();
 				freePos = baseTable.resetByBlock(startBlock);
 				for (PhyTable t : tableList) {
 					pos = t.resetByBlock(startBlock);
@@ -726,6 +968,7 @@ abstract public class ComTable implements IBlockStorage {
 		//ɾɵ
 		String path = this.file.getAbsolutePath();
 		close();
+		resetBlockCache();
 		boolean b = this.file.delete();
 		if (!b) 
 			return Boolean.FALSE;
@@ -793,6 +1036,11 @@ abstract public class ComTable implements IBlockStorage {
 				} else {
 					colNames[i] = srcColNames[i];
 				}
+				
+				// ±Ϊдʱб
+				if (isCol && col.getCodecName() != null) {
+					colNames[i] += ColumnMetaData.CODEC_SEPARATOR + col.getCodecName();
+				}
 			}
 		} else {
 			boolean[] isDim = ((RowPhyTable)baseTable).getDimIndex();
@@ -1139,6 +1387,16 @@ abstract public class ComTable implements IBlockStorage {
 		}
 	}
 	
+	// Ƿøѹ㷨ѹݣں޸ĵݣȡʱĽѹʽ
+	public boolean isHighCompress() {
+		return reserve[1] == 0 && reserve[2] == 1;
+	}
+	
+	// Ƿøѹ㷨ѹ
+	public void setHighCompress(boolean isHighCompress) {
+		reserve[2] = (byte)(isHighCompress ? 1 : 0);
+	}
+	
 	public void setPartition(Integer partition) {
 		this.partition = partition;
 	}
@@ -1,6 +1,11 @@
 package com.scudata.dw;
 
+import java.util.Arrays;
+
+import com.scudata.array.BoolArray;
 import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
 import com.scudata.dm.Sequence;
 import com.scudata.expression.Expression;
 import com.scudata.expression.Node;
@@ -15,6 +20,7 @@ import com.scudata.util.Variant;
 public class ContainFilter extends IFilter {
 	public static final int BINARYSEARCH_COUNT = 3; // Ԫظڴֵöַ
 	private IArray values;
+	private long []longValues; // ϳԱʱתɵlong飬е
 	/**
 	 * 
 	 * @param column ж
@@ -59,6 +65,72 @@ public class ContainFilter extends IFilter {
 		return values.binarySearch(value) > 0;
 	}
 	
+	public void match(IArray values, BoolArray signs) {
+		if (values instanceof IntArray || values instanceof LongArray) {
+			long []longValues = getLongValues();
+			if (longValues != null) {
+				boolean []resultDatas = signs.getDatas();
+				int size = values.size();
+				if (values instanceof IntArray) {
+					IntArray array = (IntArray)values;
+					int []datas = array.getDatas();
+					for (int i = 1; i <= size; ++i) {
+						if (resultDatas[i]) {
+							resultDatas[i] = !array.isNull(i) && Arrays.binarySearch(longValues, datas[i]) >= 0;
+						}
+					}
+				} else {
+					LongArray array = (LongArray)values;
+					long []datas = array.getDatas();
+					for (int i = 1; i <= size; ++i) {
+						if (resultDatas[i]) {
+							resultDatas[i] = !array.isNull(i) && Arrays.binarySearch(longValues, datas[i]) >= 0;
+						}
+					}
+				}
+				
+				return;
+			}
+		}
+		
+		this.values.contains(true, values, signs);
+	}
+	
+	// ϳԱIntegerLongʱlong飬򷵻null
+	private long[] getLongValues() {
+		if (longValues == null) {
+			IArray values = this.values;
+			int len = values.size();
+			long []result = new long[len];
+			for (int i = 1; i <= len; ++i) {
+				Object obj = values.get(i);
+				if (obj instanceof Integer || obj instanceof Long) {
+					result[i - 1] = ((Number)obj).longValue();
+				} else {
+					longValues = new long[0];
+					return null;
+				}
+			}
+			
+			Arrays.sort(result);
+			longValues = result;
+		}
+		
+		return longValues.length > 0 || values.size() == 0 ? longValues : null;
+	}
+	
+	public boolean canMatchArray() {
+		return true;
+	}
+	
+	public boolean matchBloomFilter(BlockBloomFilter bloomFilter) {
+		return bloomFilter.mayContainAny(values);
+	}
+	
+	public boolean canMatchBloomFilter() {
+		return values.size() <= BlockBloomFilter.MAX_PROBE_COUNT;
+	}
+	
 	public boolean match(Object minValue, Object maxValue) {
 		IArray values = this.values;
 		int len = values.size();
@@ -4,9 +4,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 
+import com.scudata.array.BoolArray;
+import com.scudata.array.ConstArray;
 import com.scudata.array.IArray;
+import com.scudata.array.LongArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
+import com.scudata.dm.ColumnTable;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
 import com.scudata.dm.ObjectReader;
@@ -43,6 +47,7 @@ import com.scudata.expression.operator.NotGreater;
 import com.scudata.expression.operator.NotSmaller;
 import com.scudata.expression.operator.Or;
 import com.scudata.expression.operator.Smaller;
+import com.scudata.parallel.PerfMonitor;
 import com.scudata.resources.EngineMessage;
 import com.scudata.util.Variant;
 
@@ -71,6 +76,8 @@ public class Cursor extends IDWCursor {
 	private BlockLinkReader rowCountReader;
 	private BlockLinkReader []colReaders;
 	private ObjectReader []segmentReaders;
+	private ObjectReader []bloomReaders; // еĲ¡ȡõʱŲ
+	private int []bloomBlocks; // ÿ¡ȡѶĿ
 	
 	private int startBlock; // 
 	private int endBlock = -1; // 
@@ -1224,6 +1231,10 @@ public class Cursor extends IDWCursor {
 			seq = getData2(n);
 		}
 		
+		if (seq != null) {
+			PerfMonitor.add(PerfMonitor.ROWS_SCANNED, seq.length());
+		}
+		
 		if (seq != null && seq.length() > n) {
 			Sequence result = seq.split(1, n);
 			cache = seq;
@@ -1382,6 +1393,109 @@ public class Cursor extends IDWCursor {
 						}
 					}
 				}
+			} else if (canMatchArray(filters)) {
+				ColumnMetaData []columns = this.columns;
+				int []seqs = this.seqs;
+				ObjectReader []segmentReaders = this.segmentReaders;
+				int filterCount = filters.length;
+				long []positions = new long[colCount];
+				IArray []fvalues = new IArray[filterCount];
+				
+				while (curBlock < endBlock) {
+					curBlock++;
+					int recordCount = rowCountReader.readInt32();
+					boolean sign = true;
+					int f = 0;
+					for (; f < filterCount; ++f) {
+						positions[f] = segmentReaders[f].readLong40();
+						if (columns[f].hasMaxMinValues()) {
+							Object minValue = segmentReaders[f].readObject();
+							Object maxValue = segmentReaders[f].readObject();
+							segmentReaders[f].skipObject();
+							if (!matchBlock(f, minValue, maxValue, curBlock)) {
+								++f;
+								sign = false;
+								break;
+							}
+						}
+					}
+					
+					for (; f < colCount; ++f) {
+						positions[f] = segmentReaders[f].readLong40();
+						if (columns[f].hasMaxMinValues()) {
+							segmentReaders[f].skipObject();
+							segmentReaders[f].skipObject();
+							segmentReaders[f].skipObject();
+						}
+					}
+					
+					if (!sign) {
+						continue;
+					}
+					
+					// 飬ѡϹˣûѡеʱвٶ
+					BoolArray signs = new BoolArray(true, recordCount);
+					for (f = 0; f < filterCount; ++f) {
+						BufferReader reader = colReaders[f].readBlockData(positions[f], recordCount);
+						fvalues[f] = reader.readArray(recordCount);
+						filters[f].match(fvalues[f], signs);
+						if (!signs.containTrue()) {
+							sign = false;
+							break;
+						}
+					}
+					
+					if (!sign) {
+						continue;
+					}
+					
+					// ֻѡеУûѡе
+					for (f = filterCount; f < colCount; ++f) {
+						bufReaders[f] = null;
+					}
+					
+					boolean []selected = signs.getDatas();
+					int nextRow = 1;
+					for (int i = 1; i <= recordCount; ++i) {
+						if (!selected[i]) {
+							continue;
+						}
+						
+						Record r = new Record(ds);
+						mems.add(r);
+						for (f = 0; f < filterCount; ++f) {
+							if (seqs[f] != -1) {
+								r.setNormalFieldValue(seqs[f], fvalues[f].get(i));
+							}
+						}
+						
+						for (; f < colCount; ++f) {
+							if (bufReaders[f] == null) {
+								bufReaders[f] = colReaders[f].readBlockData(positions[f], recordCount);
+							}
+							
+							for (int j = nextRow; j < i; ++j) {
+								bufReaders[f].skipObject();
+							}
+							
+							if (seqs[f] != -1) {
+								r.setNormalFieldValue(seqs[f], bufReaders[f].readObject());
+							} else {
+								bufReaders[f].skipObject();
+							}
+						}
+						
+						nextRow = i + 1;
+					}
+					
+					int diff = n - cache.length();
+					if (diff < 0) {
+						this.cache = cache.split(n + 1);
+						break;
+					} else if (diff == 0) {
+						break;
+					}
+				}
 			} else if (filters.length == 1) {
 				FindFilter findFilter = null;
 				if (findFilters != null) {
@@ -1412,7 +1526,7 @@ public class Cursor extends IDWCursor {
 						Object minValue = segmentReaders[0].readObject();
 						Object maxValue = segmentReaders[0].readObject();
 						segmentReaders[0].skipObject();
-						if (!filter.match(minValue, maxValue)) {
+						if (!matchBlock(0, minValue, maxValue, curBlock)) {
 							continue;
 						}
 					}
@@ -1486,7 +1600,7 @@ public class Cursor extends IDWCursor {
 							Object minValue = segmentReaders[f].readObject();
 							Object maxValue = segmentReaders[f].readObject();
 							segmentReaders[f].skipObject();
-							if (!filters[f].match(minValue, maxValue)) {
+							if (!matchBlock(f, minValue, maxValue, curBlock)) {
 								++f;
 								sign = false;
 								break;
@@ -1587,6 +1701,234 @@ public class Cursor extends IDWCursor {
 		}
 	}
 	
+	/**
+	 * ȡָļ¼ӵĲܴдŵʱж¼
+	 * @param n 
+	 * @return Sequence
+	 */
+	public Sequence fuzzyFetchColumns(int n) {
+		return fuzzyFetch(n, canProcessColumns());
+	}
+	
+	// жݣذдŵColumnTableвʽֶλswitchʱ¼
+	protected Sequence fuzzyGetColumns(int n) {
+		IFilter []filters = this.filters;
+		if (isClosed || n < 1 || gathers != null || hasModify() || cache != null || 
+				curBlock >= endBlock || (filters != null && !canMatchArray(filters))) {
+			return fuzzyGet(n);
+		}
+		
+		isFirstSkip = false;
+		int curBlock = this.curBlock;
+		int endBlock = this.endBlock;
+		BlockLinkReader rowCountReader = this.rowCountReader;
+		BlockLinkReader []colReaders = this.colReaders;
+		int colCount = colReaders.length;
+		DataStruct ds = this.ds;
+		int fcount = ds.getFieldCount();
+		ArrayList<IArray[]> blockList = new ArrayList<IArray[]>();
+		long prevRecordSeq = this.prevRecordSeq;
+		LongArray recordSeqs = new LongArray(n);
+		int count = 0;
+		
+		try {
+			if (filters == null) {
+				while (curBlock < endBlock && count < n) {
+					curBlock++;
+					int recordCount = rowCountReader.readInt32();
+					for (int i = 0; i < recordCount; ++i) {
+						recordSeqs.addLong(++prevRecordSeq);
+					}
+					
+					IArray []arrays = new IArray[fcount];
+					for (int f = 0; f < colCount; ++f) {
+						BufferReader reader = colReaders[f].readBlockData(recordCount);
+						arrays[f] = reader.readArray(recordCount);
+					}
+					
+					blockList.add(arrays);
+					count += recordCount;
+				}
+			} else {
+				ColumnMetaData []columns = this.columns;
+				int []seqs = this.seqs;
+				ObjectReader []segmentReaders = this.segmentReaders;
+				int filterCount = filters.length;
+				long []positions = new long[colCount];
+				IArray []fvalues = new IArray[filterCount];
+				
+				while (curBlock < endBlock && count < n) {
+					curBlock++;
+					int recordCount = rowCountReader.readInt32();
+					long firstRecordSeq = prevRecordSeq;
+					prevRecordSeq += recordCount;
+					boolean sign = true;
+					int f = 0;
+					for (; f < filterCount; ++f) {
+						positions[f] = segmentReaders[f].readLong40();
+						if (columns[f].hasMaxMinValues()) {
+							Object minValue = segmentReaders[f].readObject();
+							Object maxValue = segmentReaders[f].readObject();
+							segmentReaders[f].skipObject();
+							if (!matchBlock(f, minValue, maxValue, curBlock)) {
+								++f;
+								sign = false;
+								break;
+							}
+						}
+					}
+					
+					for (; f < colCount; ++f) {
+						positions[f] = segmentReaders[f].readLong40();
+						if (columns[f].hasMaxMinValues()) {
+							segmentReaders[f].skipObject();
+							segmentReaders[f].skipObject();
+							segmentReaders[f].skipObject();
+						}
+					}
+					
+					if (!sign) {
+						continue;
+					}
+					
+					BoolArray signs = new BoolArray(true, recordCount);
+					for (f = 0; f < filterCount; ++f) {
+						BufferReader reader = colReaders[f].readBlockData(positions[f], recordCount);
+						fvalues[f] = reader.readArray(recordCount);
+						filters[f].match(fvalues[f], signs);
+						if (!signs.containTrue()) {
+							sign = false;
+							break;
+						}
+					}
+					
+					if (!sign) {
+						continue;
+					}
+					
+					// ѡѡȡѡе
+					IArray []arrays = new IArray[fcount];
+					int selectCount = 0;
+					for (f = 0; f < colCount; ++f) {
+						if (seqs[f] == -1) {
+							continue;
+						}
+						
+						IArray array;
+						if (f < filterCount) {
+							array = fvalues[f];
+						} else {
+							BufferReader reader = colReaders[f].readBlockData(positions[f], recordCount);
+							array = reader.readArray(recordCount);
+						}
+						
+						arrays[seqs[f]] = array.select(signs);
+						selectCount = arrays[seqs[f]].size();
+					}
+					
+					for (f = 0; f < fcount; ++f) {
+						if (arrays[f] == null) {
+							arrays[f] = new ConstArray(null, selectCount);
+						}
+					}
+					
+					for (int i = 1; i <= recordCount; ++i) {
+						if (signs.isTrue(i)) {
+							recordSeqs.addLong(firstRecordSeq + i);
+						}
+					}
+					
+					blockList.add(arrays);
+					count += selectCount;
+				}
+			}
+		} catch (IOException e) {
+			throw new RQException(e.getMessage(), e);
+		}
+		
+		this.curBlock = curBlock;
+		this.prevRecordSeq = prevRecordSeq;
+		if (count == 0) {
+			// Ѷ꣬getֶͬβϵļ¼
+			return fuzzyGet(n);
+		}
+		
+		PerfMonitor.add(PerfMonitor.ROWS_SCANNED, count);
+		int blockCount = blockList.size();
+		IArray []fieldArrays = new IArray[fcount];
+		IArray []arrays = new IArray[blockCount];
+		for (int f = 0; f < fcount; ++f) {
+			for (int b = 0; b < blockCount; ++b) {
+				arrays[b] = blockList.get(b)[f];
+			}
+			
+			fieldArrays[f] = ColumnTable.concat(arrays, count);
+		}
+		
+		return new ComColumnTable(ds, fieldArrays, recordSeqs);
+	}
+	
+	// Ƿ񶼿Գɿ㣬switchҵֶʱҪȡҽܳɿ
+	/**
+	 * пСֵֵͲ¡жϿǷfļ¼
+	 * @param f ţͬ
+	 * @param minValue Сֵ
+	 * @param maxValue ֵ
+	 * @param block ţ1ʼ
+	 * @return falseûУtrue
+	 * @throws IOException
+	 */
+	private boolean matchBlock(int f, Object minValue, Object maxValue, int block) throws IOException {
+		IFilter filter = filters[f];
+		if (!filter.match(minValue, maxValue)) {
+			return false;
+		}
+		
+		ColumnMetaData column = columns[f];
+		if (!column.hasBloomFilter() || filter.getColumn() != column || !filter.canMatchBloomFilter()) {
+			return true;
+		}
+		
+		if (bloomReaders == null) {
+			bloomReaders = new ObjectReader[columns.length];
+			bloomBlocks = new int[columns.length];
+		}
+		
+		// ¡˳ûõĿ飬ضʱ´
+		ObjectReader reader = bloomReaders[f];
+		if (reader == null || bloomBlocks[f] >= block) {
+			if (reader != null) {
+				reader.close();
+			}
+			
+			reader = column.getBloomFilterReader();
+			bloomReaders[f] = reader;
+			bloomBlocks[f] = 0;
+		}
+		
+		for (int b = bloomBlocks[f] + 1; b < block; ++b) {
+			BlockBloomFilter.skipExternal(reader);
+		}
+		
+		BlockBloomFilter bloomFilter = BlockBloomFilter.readExternal(reader);
+		bloomBlocks[f] = block;
+		return bloomFilter == null || filter.matchBloomFilter(bloomFilter);
+	}
+	
+	private boolean canMatchArray(IFilter []filters) {
+		if (findFilters != null) {
+			return false;
+		}
+		
+		for (IFilter filter : filters) {
+			if (!filter.canMatchArray()) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
+	
 	//ֶαʽʱ
 	private Sequence getData2(int n) {
 		if (isClosed || n < 1) {
@@ -1746,7 +2088,7 @@ public class Cursor extends IDWCursor {
 							Object minValue = segmentReaders[f].readObject();
 							Object maxValue = segmentReaders[f].readObject();
 							segmentReaders[f].skipObject();
-							if (!filters[f].match(minValue, maxValue)) {
+							if (!matchBlock(f, minValue, maxValue, curBlock)) {
 								++f;
 								sign = false;
 								break;
@@ -2091,7 +2433,7 @@ public class Cursor extends IDWCursor {
 							Object minValue = segmentReaders[f].readObject();
 							Object maxValue = segmentReaders[f].readObject();
 							segmentReaders[f].skipObject();
-							if (!filters[f].match(minValue, maxValue)) {
+							if (!matchBlock(f, minValue, maxValue, curBlock)) {
 								++f;
 								sign = false;
 								break;
@@ -2502,7 +2844,7 @@ public class Cursor extends IDWCursor {
 							Object minValue = segmentReaders[f].readObject();
 							Object maxValue = segmentReaders[f].readObject();
 							segmentReaders[f].skipObject();
-							if (!filters[f].match(minValue, maxValue)) {
+							if (!matchBlock(f, minValue, maxValue, curBlock)) {
 								++f;
 								sign = false;
 								break;
@@ -2786,7 +3128,7 @@ public class Cursor extends IDWCursor {
 							Object minValue = segmentReader.readObject();
 							Object maxValue = segmentReader.readObject();
 							segmentReader.skipObject();
-							if (!filter.match(minValue, maxValue)) {
+							if (!matchBlock(0, minValue, maxValue, curBlock)) {
 								continue;
 							}
 						}
@@ -2819,7 +3161,7 @@ public class Cursor extends IDWCursor {
 								Object minValue = segmentReaders[f].readObject();
 								Object maxValue = segmentReaders[f].readObject();
 								segmentReaders[f].skipObject();
-								if (!filters[f].match(minValue, maxValue)) {
+								if (!matchBlock(f, minValue, maxValue, curBlock)) {
 									++f;
 									sign = false;
 									break;
@@ -2990,12 +3332,22 @@ public class Cursor extends IDWCursor {
 					}
 				}
 			}
+			
+			if (bloomReaders != null) {
+				for (ObjectReader reader : bloomReaders) {
+					if (reader != null) {
+						reader.close();
+					}
+				}
+			}
 		} catch (Exception e) {
 			throw new RQException(e.getMessage(), e);
 		} finally {
 			rowCountReader = null;
 			colReaders = null;
 			segmentReaders = null;
+			bloomReaders = null;
+			bloomBlocks = null;
 		}
 	}
 	
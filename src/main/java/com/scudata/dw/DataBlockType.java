@@ -43,7 +43,17 @@ public class DataBlockType {
 	public static final int STRING_ASSIC = 0x51;//ASSICַɵַҳС128
 	
 	public static final int CONST = 0x60;
-	
+
+	// ΪָʱĿͣColumnMetaData.CODEC_XXX
+	public static final int BITPACK = 0x70;//׼ֵ+λѹ
+	public static final int DELTA = 0x71;//ֵ+λѹ
+	public static final int RLE = 0x72;//γ̱룬ظֵ
+
+	// ֵ
+	public static final int DATE_KIND_DATE = 0;
+	public static final int DATE_KIND_TIME = 1;
+	public static final int DATE_KIND_TIMESTAMP = 2;
+
 	public static final int OBJECT = 0x7E;
 	public static final int DICT = 0x7F;
 	public static final int EMPTY = 0xFF;
@@ -22,9 +22,16 @@ public class DataBlockWriterJob  extends Job {
 	private Object[] minValues;
 	private Object[] startValues;
 	private int[] dataType;
+	private int codec;
+	private BlockBloomFilter []bloomFilters; // ΪʱͬʱпĲ¡ŵкŶӦλ
 	
 	public DataBlockWriterJob(BufferWriter bufferWriter, Sequence data, Sequence dict, int col,
 			int start, int end, Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType) {
+		this(bufferWriter, data, dict, col, start, end, maxValues, minValues, startValues, dataType, ColumnMetaData.CODEC_NONE);
+	}
+	
+	public DataBlockWriterJob(BufferWriter bufferWriter, Sequence data, Sequence dict, int col,
+			int start, int end, Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType, int codec) {
 		//this.isDim = true;
 		this.bufferWriter = bufferWriter;
 		this.data = data;
@@ -36,12 +43,24 @@ public class DataBlockWriterJob  extends Job {
 		this.minValues = minValues;
 		this.startValues = startValues;
 		this.dataType = dataType;
+		this.codec = codec;
+	}
+	
+	/**
+	 * дпʱͬʱпĲ¡
+	 * @param bloomFilters ¡飬кŴŽ
+	 */
+	public void setBloomFilters(BlockBloomFilter []bloomFilters) {
+		this.bloomFilters = bloomFilters;
 	}
 	
 	public void run() {
 		try {
 			writeDataBlock(bufferWriter, data, dict, col, start, end, 
-						maxValues, minValues, startValues, dataType);
+						maxValues, minValues, startValues, dataType, codec);
+			if (bloomFilters != null) {
+				bloomFilters[col] = BlockBloomFilter.create(data, col, start, end);
+			}
 		} catch (IOException e) {
 			throw new RQException(e);
 		}
@@ -54,11 +73,26 @@ public class DataBlockWriterJob  extends Job {
 	 * @param col к
 	 * @param start ʼλ
 	 * @param end λ
+	 * @param codec б
 	 * @return 
 	 * @throws IOException
 	 */
 	private static void writeDataBlock(BufferWriter bufferWriter, Sequence data, Sequence dict, 
-			int col, int start, int end, int[] dataType) throws IOException {
+			int col, int start, int end, int[] dataType, int codec) throws IOException {
+		if (start > end) {
+			codec = ColumnMetaData.CODEC_NONE;
+		}
+		
+		if (codec == ColumnMetaData.CODEC_RLE) {
+			writeRLEBlock(bufferWriter, data, col, start, end, dataType);
+			return;
+		} else if (codec != ColumnMetaData.CODEC_NONE) {
+			// ݲʺָıʱȱʡʽд
+			if (writeBitPackBlock(bufferWriter, data, col, start, end, dataType, codec == ColumnMetaData.CODEC_DELTA)) {
+				return;
+			}
+		}
+		
 		BaseRecord r;
 		boolean writeNull = false;
 		boolean isConst = false;
@@ -267,6 +301,12 @@ public class DataBlockWriterJob  extends Job {
 	//ҪͳMAXMINʱ
 	public static void writeDataBlock(BufferWriter bufferWriter, Sequence data, Sequence dict, int col, int start, int end, 
 			Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType) throws IOException {
+		writeDataBlock(bufferWriter, data, dict, col, start, end, maxValues, minValues, startValues, dataType, ColumnMetaData.CODEC_NONE);
+	}
+	
+	//ҪͳMAXMINʱбд
+	public static void writeDataBlock(BufferWriter bufferWriter, Sequence data, Sequence dict, int col, int start, int end, 
+			Object[] maxValues, Object[] minValues, Object[] startValues, int[] dataType, int codec) throws IOException {
 		BaseRecord r;
 		IArray mems = data.getMems();
 		for (int i = start; i <= end; ++i) {
@@ -291,7 +331,277 @@ public class DataBlockWriterJob  extends Job {
 				maxValues[col] = null;
 			}
 		}
-		writeDataBlock(bufferWriter, data, dict, col, start, end, dataType);
+		writeDataBlock(bufferWriter, data, dict, col, start, end, dataType, codec);
+	}
+	
+	/**
+	 * û׼ֵ+λѹдп飬deltaΪtrueʱȶֵѹ
+	 * ṹֵ͡͡[][ֵ]׼ֵλѹֵֵ־
+	 * @return Ͳʺʱfalseʱûдκ
+	 * @throws IOException
+	 */
+	private static boolean writeBitPackBlock(BufferWriter bufferWriter, Sequence data, int col, 
+			int start, int end, int[] dataType, boolean delta) throws IOException {
+		IArray mems = data.getMems();
+		int count = end - start + 1;
+		long []values = new long[count];
+		boolean []isNull = null;
+		int valueType = DataBlockType.NULL;
+		int dateKind = -1;
+		
+		for (int i = start, q = 0; i <= end; ++i, ++q) {
+			Object obj = ((BaseRecord) mems.get(i)).getNormalFieldValue(col);
+			int type;
+			if (obj == null) {
+				if (isNull == null) {
+					isNull = new boolean[count];
+				}
+				
+				isNull[q] = true;
+				continue;
+			} else if (obj instanceof Integer) {
+				type = DataBlockType.INT;
+				values[q] = ((Integer)obj).intValue();
+			} else if (obj instanceof Long) {
+				type = DataBlockType.LONG;
+				values[q] = ((Long)obj).longValue();
+			} else if (obj instanceof java.util.Date) {
+				int kind;
+				if (obj instanceof java.sql.Date) {
+					kind = DataBlockType.DATE_KIND_DATE;
+				} else if (obj instanceof java.sql.Time) {
+					kind = DataBlockType.DATE_KIND_TIME;
+				} else {
+					kind = DataBlockType.DATE_KIND_TIMESTAMP;
+				}
+				
+				if (dateKind == -1) {
+					dateKind = kind;
+				} else if (dateKind != kind) {
+					return false;
+				}
+				
+				type = DataBlockType.DATE;
+				values[q] = ((java.util.Date)obj).getTime();
+			} else {
+				return false;
+			}
+			
+			if (valueType == DataBlockType.NULL) {
+				valueType = type;
+			} else if (valueType != type) {
+				return false;
+			}
+		}
+		
+		if (valueType == DataBlockType.NULL) {
+			return false;
+		}
+		
+		// ֵȡǰһǿֵӰֵֵ
+		if (isNull != null) {
+			long prev = 0;
+			for (int q = 0; q < count; ++q) {
+				if (!isNull[q]) {
+					prev = values[q];
+					break;
+				}
+			}
+			
+			for (int q = 0; q < count; ++q) {
+				if (isNull[q]) {
+					values[q] = prev;
+				} else {
+					prev = values[q];
+				}
+			}
+		}
+		
+		long first = values[0];
+		int packStart = 0;
+		try {
+			if (delta) {
+				for (int q = count - 1; q > 0; --q) {
+					values[q] = Math.subtractExact(values[q], values[q - 1]);
+				}
+				
+				packStart = 1;
+			}
+			
+			long base = Long.MAX_VALUE;
+			for (int q = packStart; q < count; ++q) {
+				if (values[q] < base) {
+					base = values[q];
+				}
+			}
+			
+			long unit = 0;
+			long max = 0;
+			for (int q = packStart; q < count; ++q) {
+				long v = Math.subtractExact(values[q], base);
+				values[q] = v;
+				unit = gcd(unit, v);
+				if (v > max) {
+					max = v;
+				}
+			}
+			
+			if (unit == 0) {
+				unit = 1;
+			} else if (unit > 1) {
+				max /= unit;
+				for (int q = packStart; q < count; ++q) {
+					values[q] /= unit;
+				}
+			}
+			
+			int bitWidth = 64 - Long.numberOfLeadingZeros(max);
+			bufferWriter.write(delta ? DataBlockType.DELTA : DataBlockType.BITPACK);
+			bufferWriter.write(valueType);
+			if (valueType == DataBlockType.DATE) {
+				bufferWriter.write(dateKind);
+			}
+			
+			if (delta) {
+				bufferWriter.writeLong64(first);
+			}
+			
+			bufferWriter.writeLong64(base);
+			bufferWriter.writeLong64(unit);
+			bufferWriter.write(bitWidth);
+			if (bitWidth > 0) {
+				bufferWriter.write(pack(values, packStart, count, bitWidth));
+			}
+		} catch (ArithmeticException e) {
+			// ֵ򳬳longķΧ
+			return false;
+		}
+		
+		bufferWriter.writeBoolean(isNull != null);
+		if (isNull != null) {
+			for (int q = 0; q < count; ++q) {
+				bufferWriter.writeBoolean(isNull[q]);
+			}
+		}
+		
+		dataType[col] = valueType;
+		return true;
+	}
+	
+	/**
+	 * γ̱дп飬ֵֻͬдһ
+	 * ṹֵ͡͡γγ̵ֵγ̵ĳ
+	 * @throws IOException
+	 */
+	private static void writeRLEBlock(BufferWriter bufferWriter, Sequence data, int col, 
+			int start, int end, int[] dataType) throws IOException {
+		IArray mems = data.getMems();
+		int count = end - start + 1;
+		Object []runValues = new Object[count];
+		int []runLengths = new int[count];
+		int runCount = 0;
+		int valueType = DataBlockType.NULL;
+		
+		for (int i = start; i <= end; ++i) {
+			Object obj = ((BaseRecord) mems.get(i)).getNormalFieldValue(col);
+			if (runCount > 0 && isSameValue(runValues[runCount - 1], obj)) {
+				runLengths[runCount - 1]++;
+				continue;
+			}
+			
+			runValues[runCount] = obj;
+			runLengths[runCount] = 1;
+			runCount++;
+			if (obj != null) {
+				valueType = getRLEValueType(valueType, obj);
+			}
+		}
+		
+		bufferWriter.write(DataBlockType.RLE);
+		bufferWriter.write(valueType);
+		bufferWriter.writeInt32(runCount);
+		for (int i = 0; i < runCount; ++i) {
+			bufferWriter.writeObject(runValues[i]);
+		}
+		
+		bufferWriter.flush();
+		for (int i = 0; i < runCount; ++i) {
+			bufferWriter.writeInt(runLengths[i]);
+		}
+		
+		dataType[col] = valueType;
+	}
+	
+	private static int getRLEValueType(int valueType, Object obj) {
+		int type;
+		if (obj instanceof Integer) {
+			type = DataBlockType.INT;
+		} else if (obj instanceof Long) {
+			type = DataBlockType.LONG;
+		} else if (obj instanceof Double) {
+			type = DataBlockType.DOUBLE;
+		} else if (obj instanceof java.util.Date) {
+			type = DataBlockType.DATE;
+		} else if (obj instanceof String) {
+			type = DataBlockType.STRING;
+		} else {
+			type = DataBlockType.OBJECT;
+		}
+		
+		if (valueType == DataBlockType.NULL || valueType == type) {
+			return type;
+		} else {
+			return DataBlockType.OBJECT;
+		}
+	}
+	
+	// ֵͶͬͬһγ̣Աֵ֤дʱһ
+	private static boolean isSameValue(Object prev, Object obj) {
+		if (prev == null) {
+			return obj == null;
+		} else {
+			return obj != null && prev.getClass() == obj.getClass() && prev.equals(obj);
+		}
+	}
+	
+	private static long gcd(long a, long b) {
+		while (b != 0) {
+			long t = a % b;
+			a = b;
+			b = t;
+		}
+		
+		return a;
+	}
+	
+	/**
+	 * ѷǸָλУλǰ
+	 * @param values ֵ
+	 * @param start ʼλã
+	 * @param end λã
+	 * @param bitWidth λ
+	 * @return
+	 */
+	static byte[] pack(long []values, int start, int end, int bitWidth) {
+		long bitCount = (long)(end - start) * bitWidth;
+		byte []bytes = new byte[(int)((bitCount + 7) >>> 3)];
+		long bitPos = 0;
+		
+		for (int i = start; i < end; ++i) {
+			long v = values[i];
+			int remain = bitWidth;
+			while (remain > 0) {
+				int index = (int)(bitPos >>> 3);
+				int shift = (int)(bitPos & 7);
+				int n = Math.min(8 - shift, remain);
+				bytes[index] |= (byte)((v & ((1 << n) - 1)) << shift);
+				v >>>= n;
+				remain -= n;
+				bitPos += n;
+			}
+		}
+		
+		return bytes;
 	}
 	
 	/**
@@ -27,6 +27,7 @@ public class FindFilter extends IFilter {
 	protected Sequence code; 
 	protected Expression right;
 	protected int[] pos;
+	private IArray bloomKeys; // άļڲ¡
 	
 	public FindFilter(ColumnMetaData column, int priority, Sequence sequence, Node node) {
 		super(column, priority);
@@ -103,6 +104,45 @@ public class FindFilter extends IFilter {
 		return true;
 	}
 	
+	public boolean matchBloomFilter(BlockBloomFilter bloomFilter) {
+		return bloomFilter.mayContainAny(bloomKeys);
+	}
+	
+	public boolean canMatchBloomFilter() {
+		if (bloomKeys == null) {
+			if (code == null || code.length() > BlockBloomFilter.MAX_PROBE_COUNT) {
+				return false;
+			}
+			
+			bloomKeys = getKeys(code);
+		}
+		
+		return bloomKeys.size() > 0 || code.length() == 0;
+	}
+	
+	// ȡάĵֶμǵֶμʱؿ
+	private static IArray getKeys(Sequence code) {
+		IArray mems = code.getMems();
+		int len = mems.size();
+		ObjectArray keys = new ObjectArray(len);
+		for (int i = 1; i <= len; ++i) {
+			Object obj = mems.get(i);
+			if (obj instanceof BaseRecord) {
+				DataStruct ds = ((BaseRecord)obj).dataStruct();
+				int []pkIndex = ds.getPKIndex();
+				if (pkIndex == null || pkIndex.length != 1 || ds.getTimeKeyCount() > 0) {
+					return new ObjectArray(0);
+				}
+				
+				obj = ((BaseRecord)obj).getNormalFieldValue(pkIndex[0]);
+			}
+			
+			keys.push(obj);
+		}
+		
+		return keys;
+	}
+	
 	public IArray calculateAll(Context ctx) {
 		IArray key = right.calculateAll(ctx);
 		int[] pos = it.findAllPos(key);
@@ -13,6 +13,8 @@ public interface IBlockStorage extends IResource {
 	void saveBlock(long pos, byte []block, int off, int len) throws IOException;
 	long applyNewBlock() throws IOException; // 
 	StructManager getStructManager();
+	Object getBlockCacheKey(); // ȡļݿ黺еıʶ
 	boolean isCompress(); // Ƿѹ洢
+	boolean isHighCompress(); // Ƿøѹ㷨ѹ
 	boolean isPureFormat(); // Ƿд洢
 }
\ No newline at end of file
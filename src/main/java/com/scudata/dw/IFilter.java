@@ -2,6 +2,7 @@ package com.scudata.dw;
 
 import java.util.List;
 
+import com.scudata.array.BoolArray;
 import com.scudata.array.IArray;
 import com.scudata.dm.Context;
 import com.scudata.expression.Expression;
@@ -97,6 +98,45 @@ public abstract class IFilter implements Comparable<IFilter> {
 	 */
 	public abstract boolean match(Object minValue, Object maxValue);
 	
+	/**
+	 * һݳɿˣֻsignsΪУƥΪ
+	 * @param values ֵ飬1ʼ
+	 * @param signs ѡvaluesȳ
+	 */
+	public void match(IArray values, BoolArray signs) {
+		for (int i = 1, size = values.size(); i <= size; ++i) {
+			if (signs.isTrue(i) && !match(values.get(i))) {
+				signs.set(i, false);
+			}
+		}
+	}
+	
+	/**
+	 * Ƿmatch(IArray, BoolArray)ɿ
+	 * ʱҪм״̬Ҫ¼ҽĹ
+	 * @return true
+	 */
+	public boolean canMatchArray() {
+		return false;
+	}
+	
+	/**
+	 * пǷֵƥ˹˱ʽcanMatchBloomFilterΪʱ
+	 * @param bloomFilter пĲ¡
+	 * @return falseһûУtrue
+	 */
+	public boolean matchBloomFilter(BlockBloomFilter bloomFilter) {
+		return true;
+	}
+	
+	/**
+	 * ǷпĲ¡飬ֻеֵĹ
+	 * @return true
+	 */
+	public boolean canMatchBloomFilter() {
+		return false;
+	}
+	
 	public int compareTo(IFilter o) {
 		if (priority < o.priority) {
 			return -1;
@@ -1,5 +1,7 @@
 package com.scudata.dw;
 
+import java.nio.ByteBuffer;
+
 import net.jpountz.lz4.LZ4Compressor;
 import net.jpountz.lz4.LZ4Factory;
 import net.jpountz.lz4.LZ4FastDecompressor;
@@ -19,10 +21,14 @@ public class LZ4Util {
 	//ѹ
 	private LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
 	
+	//ѹѹݣ״ʹʱ
+	private LZ4Compressor highCompressor;
+	
 	//ѹ
 	private LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
 	
 	private int count;
+	private byte []compressBuffer; // ѹõĻͬһ߳ظʹ
 	
 	private LZ4Util() {
 	}
@@ -41,17 +47,78 @@ public class LZ4Util {
 	
 	/**
 	 * ѹֽ飬ֽ鳤ȿܴʵʳȣҪgetCountȡʵʳ
+	 * صǱ̹߳õĻ´ѹʱᱻ
 	 * @param bytes
 	 * @return
 	 */
 	public byte[] compress(byte []bytes) {
-		int maxLen = compressor.maxCompressedLength(bytes.length);
-		byte []buffer = new byte[maxLen];
+		return compress(bytes, 0, bytes.length);
+	}
+	
+	/**
+	 * ѹָֽ֣ر̹߳õĻҪgetCountȡʵʳ
+	 * @param bytes Դ
+	 * @param off ʼλ
+	 * @param len 
+	 * @return ѹݣ´ѹʱᱻ
+	 */
+	public byte[] compress(byte []bytes, int off, int len) {
+		int maxLen = compressor.maxCompressedLength(len);
+		byte []buffer = compressBuffer;
+		if (buffer == null || buffer.length < maxLen) {
+			compressBuffer = buffer = new byte[maxLen];
+		}
+		
+		count = compressor.compress(bytes, off, len, buffer, 0, buffer.length);
+		return buffer;
+	}
+	
+	/**
+	 * øѹ㷨ѹָֽ֣ѹѹٶȲ䣬ʽcompressͬ
+	 * @param bytes Դ
+	 * @param off ʼλ
+	 * @param len 
+	 * @return ѹݣ´ѹʱᱻ
+	 */
+	public byte[] compressHigh(byte []bytes, int off, int len) {
+		LZ4Compressor compressor = highCompressor;
+		if (compressor == null) {
+			highCompressor = compressor = LZ4Factory.fastestInstance().highCompressor();
+		}
+		
+		int maxLen = compressor.maxCompressedLength(len);
+		byte []buffer = compressBuffer;
+		if (buffer == null || buffer.length < maxLen) {
+			compressBuffer = buffer = new byte[maxLen];
+		}
 		
-		count = compressor.compress(bytes, buffer);
+		count = compressor.compress(bytes, off, len, buffer, 0, buffer.length);
 		return buffer;
 	}
 	
+	/**
+	 * ѹByteBufferеݵһByteBufferıposition
+	 * @param src Դ
+	 * @param srcOff Դλ
+	 * @param srcLen Դݳ
+	 * @param dest Ŀ껺ʣռ費СmaxCompressedLength(srcLen)
+	 * @param destOff Ŀλ
+	 * @return ѹĳ
+	 */
+	public int compress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff) {
+		count = compressor.compress(src, srcOff, srcLen, dest, destOff, dest.capacity() - destOff);
+		return count;
+	}
+	
+	/**
+	 * ָȵѹܵ󳤶
+	 * @param len
+	 * @return
+	 */
+	public int maxCompressedLength(int len) {
+		return compressor.maxCompressedLength(len);
+	}
+	
 	/**
 	 * ѹsrcCountΪѹ󳤶
 	 * @param bytes
@@ -65,4 +132,16 @@ public class LZ4Util {
 	public void decompress(byte []bytes, int offset, byte []buffer, int srcCount) {
 		decompressor.decompress(bytes, offset, buffer, 0, srcCount);
 	}
+	
+	/**
+	 * ѹByteBufferıposition
+	 * @param src ѹ
+	 * @param srcOff ѹλ
+	 * @param dest Ŀ껺
+	 * @param destOff Ŀλ
+	 * @param srcCount ѹ󳤶
+	 */
+	public void decompress(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int srcCount) {
+		decompressor.decompress(src, srcOff, dest, destOff, srcCount);
+	}
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.scudata.dw;
 
+import com.scudata.array.BoolArray;
 import com.scudata.array.IArray;
 import com.scudata.dm.Context;
 import com.scudata.expression.Expression;
@@ -43,6 +44,24 @@ public class LogicAnd extends IFilter {
 		return left.match(minValue, maxValue) && right.match(minValue, maxValue);
 	}
 	
+	public void match(IArray values, BoolArray signs) {
+		left.match(values, signs);
+		right.match(values, signs);
+	}
+	
+	public boolean matchBloomFilter(BlockBloomFilter bloomFilter) {
+		return (!left.canMatchBloomFilter() || left.matchBloomFilter(bloomFilter)) &&
+				(!right.canMatchBloomFilter() || right.matchBloomFilter(bloomFilter));
+	}
+	
+	public boolean canMatchBloomFilter() {
+		return left.canMatchBloomFilter() || right.canMatchBloomFilter();
+	}
+	
+	public boolean canMatchArray() {
+		return left.canMatchArray() && right.canMatchArray();
+	}
+	
 	public IArray calculateAll(Context ctx) {
 		IArray leftResult = left.calculateAll(ctx);
 		return right.calculateAnd(ctx, leftResult);
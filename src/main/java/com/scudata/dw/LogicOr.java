@@ -1,5 +1,7 @@
 package com.scudata.dw;
 
+import com.scudata.array.BoolArray;
+import com.scudata.array.IArray;
 import com.scudata.expression.Expression;
 import com.scudata.expression.operator.Or;
 
@@ -33,6 +35,41 @@ public class LogicOr extends IFilter {
 		return left.match(minValue, maxValue) || right.match(minValue, maxValue);
 	}
 	
+	public void match(IArray values, BoolArray signs) {
+		BoolArray leftSigns = (BoolArray)signs.dup();
+		left.match(values, leftSigns);
+		
+		// Ҳֻ಻ƥ
+		boolean []datas = signs.getDatas();
+		boolean []leftDatas = leftSigns.getDatas();
+		int size = signs.size();
+		for (int i = 1; i <= size; ++i) {
+			if (leftDatas[i]) {
+				datas[i] = false;
+			}
+		}
+		
+		right.match(values, signs);
+		for (int i = 1; i <= size; ++i) {
+			if (leftDatas[i]) {
+				datas[i] = true;
+			}
+		}
+	}
+	
+	public boolean matchBloomFilter(BlockBloomFilter bloomFilter) {
+		return (!left.canMatchBloomFilter() || left.matchBloomFilter(bloomFilter)) ||
+				(!right.canMatchBloomFilter() || right.matchBloomFilter(bloomFilter));
+	}
+	
+	public boolean canMatchBloomFilter() {
+		return left.canMatchBloomFilter() && right.canMatchBloomFilter();
+	}
+	
+	public boolean canMatchArray() {
+		return left.canMatchArray() && right.canMatchArray();
+	}
+	
 	public void initExp() {
 		Or and = new Or();
 		and.setLeft(left.exp.getHome());
@@ -55,6 +55,10 @@ public class NotFindFilter extends FindFilter {
 		return it.find(value) == null;
 	}
 	
+	public boolean canMatchBloomFilter() {
+		return false;
+	}
+	
 	public boolean match(Object minValue, Object maxValue) {
 		if (Variant.isEquals(minValue, maxValue)) {
 			return it.find(minValue) == null;
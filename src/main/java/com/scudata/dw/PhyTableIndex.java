@@ -51,6 +51,7 @@ public class PhyTableIndex implements ITableIndex {
 	public static final int MAX_INTER_BLOCK_COUNT = 1000;//м¼
 	public static final int MAX_ROOT_BLOCK_COUNT = 1000;//
 	public static final int MAX_SEC_RECORD_COUNT = 100000;//max count of index2
+	public static final int SEC_RECORD_RATIO = 32;//¼һĴ˷֮һʱ鲢һ
 	
 	public static final int FETCH_SIZE = 20;//һȡ20
 	
@@ -913,6 +914,138 @@ public class PhyTableIndex implements ITableIndex {
 		}
 	}
 	
+	/**
+	 * ˳һļ¼ڰһ׷ӵļ¼鲢µһ
+	 * ¼ֶκ͵ַɣͽʱα귵صļ¼ṹͬ
+	 * @author runqian
+	 *
+	 */
+	protected class IndexRecordCursor extends ICursor {
+		private ObjectReader reader;
+		private DataStruct ds;
+		private Sequence cache;
+		private boolean isEnd = false;
+		
+		public IndexRecordCursor(long indexPos) {
+			int icount = ifields.length;
+			String []fields = Arrays.copyOf(ifields, icount + positionCount + 1);
+			if (positionCount == 0) {
+				fields[icount] = CTableCursor.POS_FIELDNAME;
+			} else {
+				fields[icount] = RTableCursor.SEQ_FIELDNAME;
+				for (int i = 1; i <= positionCount; ++i) {
+					fields[icount + i] = RTableCursor.POS_FIELDNAME + i;
+				}
+			}
+			
+			ds = new DataStruct(fields);
+			if (indexPos <= 0) {
+				isEnd = true;
+				return;
+			}
+			
+			InputStream is = indexFile.getInputStream();
+			reader = new ObjectReader(is, BUFFER_SIZE);
+			try {
+				reader.seek(indexPos);
+				reader.readInt();//BLOCK_START
+			} catch (IOException e) {
+				close();
+				throw new RQException(e.getMessage(), e);
+			}
+		}
+		
+		protected Sequence get(int n) {
+			if (n < 1) {
+				return null;
+			}
+			
+			Sequence cache = this.cache;
+			this.cache = null;
+			if (cache == null) {
+				if (isEnd) {
+					return null;
+				}
+				
+				cache = new Table(ds, n);
+			}
+			
+			ObjectReader reader = this.reader;
+			DataStruct ds = this.ds;
+			int icount = ifields.length;
+			int posCount = positionCount;
+			Object []keys = new Object[icount];
+			IArray mems = cache.getMems();
+			
+			try {
+				while (!isEnd && mems.size() < n) {
+					int count = reader.readInt();
+					if (count == BLOCK_START) {
+						continue;
+					} else if (count < 1) {
+						close();
+						break;
+					}
+					
+					for (int f = 0; f < icount; ++f) {
+						keys[f] = reader.readObject();
+					}
+					
+					for (int j = 0; j < count; ++j) {
+						Record r = new Record(ds);
+						for (int f = 0; f < icount; ++f) {
+							r.setNormalFieldValue(f, keys[f]);
+						}
+						
+						for (int f = 0; f <= posCount; ++f) {
+							r.setNormalFieldValue(icount + f, reader.readObject());
+						}
+						
+						mems.add(r);
+					}
+				}
+			} catch (IOException e) {
+				close();
+				throw new RQException(e.getMessage(), e);
+			}
+			
+			if (mems.size() > n) {
+				this.cache = cache.split(n + 1);
+			}
+			
+			return mems.size() > 0 ? cache : null;
+		}
+		
+		protected long skipOver(long n) {
+			long count = 0;
+			while (count < n) {
+				long diff = n - count;
+				Sequence seq = get(diff > ICursor.FETCHCOUNT ? ICursor.FETCHCOUNT : (int)diff);
+				if (seq == null) {
+					break;
+				}
+				
+				count += seq.length();
+			}
+			
+			return count;
+		}
+		
+		public void close() {
+			super.close();
+			isEnd = true;
+			
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (IOException e) {
+				} finally {
+					reader = null;
+				}
+			}
+		}
+	}
+	
 	public PhyTableIndex(PhyTable table, String indexName) {
 		table.getGroupTable().checkWritable();
 		this.srcTable = table;
@@ -1026,6 +1159,7 @@ public class PhyTableIndex implements ITableIndex {
 		boolean isAppend = false;//׷ӻ½
 		boolean isAdd = true;//ǷҪtable
 		boolean isReset = false;//ؽ
+		boolean isMerge = false;//һͶ鲢µһ
 		
 		if (indexFile.size() > 0) {
 			if ((opt == null) ||(opt != null && opt.indexOf('a') == -1)) {
@@ -1046,7 +1180,7 @@ public class PhyTableIndex implements ITableIndex {
 				if (recordCount == 0) {
 					isReset = true;//ǿյģappend
 				}
-				if (recordCount - index1RecordCount > MAX_SEC_RECORD_COUNT || isReset) {
+				if (isReset) {
 					isAppend = false;
 					rootItPos2 = 0;
 					indexPos2 = 0;
@@ -1061,6 +1195,13 @@ public class PhyTableIndex implements ITableIndex {
 					MessageManager mm = EngineMessage.get();
 					throw new RQException("index" + mm.getMessage("engine.dsNotMatch"));
 				}
+				if (recordCount - index1RecordCount > getMaxSecRecordCount()) {
+					//̫ʱһһ֮ļ¼鲢µһһѾ򣬲ҪԴ
+					isAppend = false;
+					isMerge = true;
+					reader.close();
+					break;
+				}
 				
 				ArrayList <ICursor> cursorList;
 				if (srcTable instanceof RowPhyTable) {
@@ -1117,6 +1258,10 @@ public class PhyTableIndex implements ITableIndex {
 				cursorList = sortCol(fields, ctx, filter);
 			}
 			
+			if (isMerge) {
+				cursorList.add(new IndexRecordCursor(indexPos));
+			}
+			
 			int size = cursorList.size();
 			if (size == 0) {
 				createIndexTable(new MemoryCursor(null), tmpFile, false);
@@ -1150,6 +1295,15 @@ public class PhyTableIndex implements ITableIndex {
 		}
 	}
 
+	/**
+	 * ȡ¼һļ¼ʹ׷ʱƵ鲢
+	 * @return long
+	 */
+	private long getMaxSecRecordCount() {
+		long count = index1RecordCount / SEC_RECORD_RATIO;
+		return count > MAX_SEC_RECORD_COUNT ? count : MAX_SEC_RECORD_COUNT;
+	}
+	
 	/**
 	 * memsͬĸ
 	 * @param mems
@@ -1587,7 +1741,7 @@ public class PhyTableIndex implements ITableIndex {
 				}
 			}
 
-			if (table.length() > 0) {
+			if (table != null && table.length() > 0) {
 				table.sortFields(sortFields);
 				MemoryCursor mc = new MemoryCursor(table);
 				cursorList.add(mc);
@@ -1701,7 +1855,7 @@ public class PhyTableIndex implements ITableIndex {
 				}
 			}
 
-			if (table.length() > 0) {
+			if (table != null && table.length() > 0) {
 				table.sortFields(sortFields);
 				MemoryCursor mc = new MemoryCursor(table);
 				cursorList.add(mc);
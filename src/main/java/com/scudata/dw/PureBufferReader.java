@@ -23,13 +23,20 @@ import com.scudata.dm.SerialBytes;
  */
 public class PureBufferReader extends BufferReader {
 	private int blockType;//
-	private int dataType;//ֵֻͣʱ壩
+	private int dataType;//ֵֻͣͱʱ壩
 	private Sequence dict;
 	private int[] pos;
 	private Object constValue;
 	private boolean[] isNull;
 	private int dataIndex = 0;//άisNull
 	
+	private long[] values;//λѹֵ
+	private int dateKind;//λѹΪʱڵ
+	private Object[] runValues;//γ̱γ̵ֵ
+	private int[] runLengths;//γ̱γ̵ĳ
+	private int runIndex = -1;
+	private int runRemain = 0;
+	
 	public PureBufferReader(StructManager structManager, byte[] buffer, int recordCount, Sequence columnDict) {
 		super(structManager, buffer);
 		init(columnDict, recordCount);
@@ -115,6 +122,26 @@ public class PureBufferReader extends BufferReader {
 				}
 				this.pos = pos;
 				return;
+			case DataBlockType.BITPACK:
+			case DataBlockType.DELTA:
+				initBitPack(recordCount);
+				return;
+			case DataBlockType.RLE:
+				dataType = read();
+				int runCount = readInt32();
+				Object[] runValues = new Object[runCount];
+				for (int i = 0; i < runCount; ++i) {
+					runValues[i] = super.readObject();
+				}
+				
+				int[] runLengths = new int[runCount];
+				for (int i = 0; i < runCount; ++i) {
+					runLengths[i] = readInt();
+				}
+				
+				this.runValues = runValues;
+				this.runLengths = runLengths;
+				return;
 			case DataBlockType.INT:
 			case DataBlockType.LONG:
 			case DataBlockType.DOUBLE:
@@ -137,6 +164,97 @@ public class PureBufferReader extends BufferReader {
 		}
 	}
 	
+	/**
+	 * λѹֵֵ־isNull
+	 * @param recordCount ¼
+	 * @throws IOException
+	 */
+	private void initBitPack(int recordCount) throws IOException {
+		dataType = read();
+		if (dataType == DataBlockType.DATE) {
+			dateKind = read();
+		}
+		
+		boolean isDelta = blockType == DataBlockType.DELTA;
+		long first = isDelta ? readLong64() : 0;
+		long base = readLong64();
+		long unit = readLong64();
+		int bitWidth = read();
+		
+		long[] values = new long[recordCount + 1];
+		int packStart = isDelta ? 2 : 1;
+		if (bitWidth > 0) {
+			byte[] buffer = this.buffer;
+			int offset = index;
+			long bitPos = 0;
+			for (int i = packStart; i <= recordCount; ++i) {
+				long v = 0;
+				int got = 0;
+				while (got < bitWidth) {
+					int shift = (int)(bitPos & 7);
+					int n = Math.min(8 - shift, bitWidth - got);
+					long bits = ((buffer[offset + (int)(bitPos >>> 3)] & 0xff) >>> shift) & ((1 << n) - 1);
+					v |= bits << got;
+					got += n;
+					bitPos += n;
+				}
+				
+				values[i] = base + v * unit;
+			}
+			
+			index = offset + (int)((bitPos + 7) >>> 3);
+		} else {
+			for (int i = packStart; i <= recordCount; ++i) {
+				values[i] = base;
+			}
+		}
+		
+		if (isDelta && recordCount > 0) {
+			values[1] = first;
+			for (int i = 2; i <= recordCount; ++i) {
+				values[i] += values[i - 1];
+			}
+		}
+		
+		if (readBoolean()) {
+			boolean[] isNull = new boolean[recordCount + 1];
+			for (int i = 1; i <= recordCount; i++) {
+				isNull[i] = readBoolean();
+			}
+			
+			this.isNull = isNull;
+		}
+		
+		this.values = values;
+	}
+	
+	private Object getBitPackValue(long v) {
+		switch (dataType) {
+		case DataBlockType.INT:
+			return (int)v;
+		case DataBlockType.LONG:
+			return v;
+		default:
+			if (dateKind == DataBlockType.DATE_KIND_DATE) {
+				return new java.sql.Date(v);
+			} else if (dateKind == DataBlockType.DATE_KIND_TIME) {
+				return new java.sql.Time(v);
+			} else {
+				return new java.sql.Timestamp(v);
+			}
+		}
+	}
+	
+	private Object readRLEValue() {
+		if (runRemain == 0) {
+			runIndex++;
+			runRemain = runLengths[runIndex];
+		}
+		
+		runRemain--;
+		return runValues[runIndex];
+	}
+	
 	private int readLittleEndianInt16() {
 		byte[] in = buffer;
 		int offset = index;
@@ -281,6 +399,15 @@ public class PureBufferReader extends BufferReader {
 		case DataBlockType.DICT:
 			dataIndex++;
 			return dict.get(pos[dataIndex]);
+		case DataBlockType.BITPACK:
+		case DataBlockType.DELTA:
+			dataIndex++;
+			if (isNull != null && isNull[dataIndex]) {
+				return null;
+			}
+			return getBitPackValue(values[dataIndex]);
+		case DataBlockType.RLE:
+			return readRLEValue();
 		case DataBlockType.INT:
 		case DataBlockType.LONG:
 		case DataBlockType.DOUBLE:
@@ -336,8 +463,13 @@ public class PureBufferReader extends BufferReader {
 			}
 			return;
 		case DataBlockType.DICT:
+		case DataBlockType.BITPACK:
+		case DataBlockType.DELTA:
 			dataIndex++;
 			return;
+		case DataBlockType.RLE:
+			readRLEValue();
+			return;
 		case DataBlockType.INT:
 		case DataBlockType.LONG:
 		case DataBlockType.DOUBLE:
@@ -476,6 +608,22 @@ public class PureBufferReader extends BufferReader {
 			dataIndex++;
 			array.set(index, dict.get(pos[dataIndex]));
 			return;
+		case DataBlockType.BITPACK:
+		case DataBlockType.DELTA:
+			dataIndex++;
+			if (isNull != null && isNull[dataIndex]) {
+				array.set(index, null);
+			} else if (dataType == DataBlockType.INT) {
+				((IntArray)array).setInt(index, (int)values[dataIndex]);
+			} else if (dataType == DataBlockType.LONG) {
+				((LongArray)array).setLong(index, values[dataIndex]);
+			} else {
+				array.set(index, getBitPackValue(values[dataIndex]));
+			}
+			return;
+		case DataBlockType.RLE:
+			array.set(index, readRLEValue());
+			return;
 		case DataBlockType.INT:
 			if (super.isNull()) {
 				super.readObject();
@@ -505,14 +653,241 @@ public class PureBufferReader extends BufferReader {
 		}
 	}
 	
+	/**
+	 * countֱӽɻ飬
+	 * @param count 
+	 * @return 飬1ʼ
+	 * @throws IOException
+	 */
+	public IArray readArray(int count) throws IOException {
+		switch (blockType) {
+		case DataBlockType.INT8:
+		case DataBlockType.INT16:
+		case DataBlockType.INT32: {
+			int []datas = new int[count + 1];
+			if (blockType == DataBlockType.INT8) {
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = readByte();
+				}
+			} else if (blockType == DataBlockType.INT16) {
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = readLittleEndianInt16();
+				}
+			} else {
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = readLittleEndianInt32();
+				}
+			}
+			
+			boolean []signs = readNullSigns(count);
+			if (isNull != null) {
+				dataIndex += count;
+			}
+			
+			if (signs != null) {
+				for (int i = 1; i <= count; ++i) {
+					if (signs[i]) {
+						datas[i] = 0;
+					}
+				}
+			}
+			
+			return new IntArray(datas, signs, count);
+		}
+		case DataBlockType.LONG8:
+		case DataBlockType.LONG16:
+		case DataBlockType.LONG32:
+		case DataBlockType.LONG64: {
+			long []datas = new long[count + 1];
+			if (blockType == DataBlockType.LONG8) {
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = readByte();
+				}
+			} else if (blockType == DataBlockType.LONG16) {
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = readLittleEndianInt16();
+				}
+			} else if (blockType == DataBlockType.LONG32) {
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = readLittleEndianInt32();
+				}
+			} else {
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = readLittleEndianLong64();
+				}
+			}
+			
+			boolean []signs = readNullSigns(count);
+			if (isNull != null) {
+				dataIndex += count;
+			}
+			
+			if (signs != null) {
+				for (int i = 1; i <= count; ++i) {
+					if (signs[i]) {
+						datas[i] = 0;
+					}
+				}
+			}
+			
+			return new LongArray(datas, signs, count);
+		}
+		case DataBlockType.DOUBLE64: {
+			double []datas = new double[count + 1];
+			for (int i = 1; i <= count; ++i) {
+				datas[i] = readLittleEndianLongDouble64();
+			}
+			
+			boolean []signs = readNullSigns(count);
+			if (isNull != null) {
+				dataIndex += count;
+			}
+			
+			if (signs != null) {
+				for (int i = 1; i <= count; ++i) {
+					if (signs[i]) {
+						datas[i] = 0;
+					}
+				}
+			}
+			
+			return new DoubleArray(datas, signs, count);
+		}
+		case DataBlockType.BITPACK:
+		case DataBlockType.DELTA:
+			if (dataType == DataBlockType.INT) {
+				int []datas = new int[count + 1];
+				long []values = this.values;
+				int dataIndex = this.dataIndex;
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = (int)values[dataIndex + i];
+				}
+				
+				boolean []signs = readNullSigns(count);
+				this.dataIndex = dataIndex + count;
+				if (signs != null) {
+					for (int i = 1; i <= count; ++i) {
+						if (signs[i]) {
+							datas[i] = 0;
+						}
+					}
+				}
+				
+				return new IntArray(datas, signs, count);
+			} else if (dataType == DataBlockType.LONG) {
+				long []datas = new long[count + 1];
+				long []values = this.values;
+				int dataIndex = this.dataIndex;
+				for (int i = 1; i <= count; ++i) {
+					datas[i] = values[dataIndex + i];
+				}
+				
+				boolean []signs = readNullSigns(count);
+				this.dataIndex = dataIndex + count;
+				if (signs != null) {
+					for (int i = 1; i <= count; ++i) {
+						if (signs[i]) {
+							datas[i] = 0;
+						}
+					}
+				}
+				
+				return new LongArray(datas, signs, count);
+			} else {
+				return super.readArray(count);
+			}
+		case DataBlockType.INT: {
+			int []datas = new int[count + 1];
+			boolean []signs = null;
+			for (int i = 1; i <= count; ++i) {
+				if (super.isNull()) {
+					super.readObject();
+					if (signs == null) {
+						signs = new boolean[count + 1];
+					}
+					
+					signs[i] = true;
+				} else {
+					datas[i] = super.readBaseInt();
+				}
+			}
+			
+			return new IntArray(datas, signs, count);
+		}
+		case DataBlockType.LONG: {
+			long []datas = new long[count + 1];
+			boolean []signs = null;
+			for (int i = 1; i <= count; ++i) {
+				if (super.isNull()) {
+					super.readObject();
+					if (signs == null) {
+						signs = new boolean[count + 1];
+					}
+					
+					signs[i] = true;
+				} else {
+					datas[i] = super.readBaseLong();
+				}
+			}
+			
+			return new LongArray(datas, signs, count);
+		}
+		case DataBlockType.DOUBLE: {
+			double []datas = new double[count + 1];
+			boolean []signs = null;
+			for (int i = 1; i <= count; ++i) {
+				if (super.isNull()) {
+					super.readObject();
+					if (signs == null) {
+						signs = new boolean[count + 1];
+					}
+					
+					signs[i] = true;
+				} else {
+					datas[i] = super.readBaseDouble();
+				}
+			}
+			
+			return new DoubleArray(datas, signs, count);
+		}
+		default:
+			return super.readArray(count);
+		}
+	}
+	
+	// ȡcountֵĿֵ־ûпֵʱؿգdataIndexɵƶ
+	private boolean[] readNullSigns(int count) {
+		boolean []isNull = this.isNull;
+		if (isNull == null) {
+			return null;
+		}
+		
+		int dataIndex = this.dataIndex;
+		boolean []signs = null;
+		for (int i = 1; i <= count; ++i) {
+			if (isNull[dataIndex + i]) {
+				if (signs == null) {
+					signs = new boolean[count + 1];
+				}
+				
+				signs[i] = true;
+			}
+		}
+		
+		return signs;
+	}
+	
 	/**
 	 * ݿͻһ
 	 * @param count
 	 * @return
 	 */
 	public IArray getEmptyArray(int count) {
-		if (blockType == DataBlockType.DICT)
+		if (blockType == DataBlockType.DICT || blockType == DataBlockType.BITPACK || blockType == DataBlockType.DELTA)
 			return getArray(dataType, count);
+		else if (blockType == DataBlockType.RLE)
+			return dataType == DataBlockType.OBJECT || dataType == DataBlockType.NULL ? 
+					new ObjectArray(count) : getArray(dataType, count);
 		else
 			return getArray(blockType, count);
 	}
@@ -127,6 +127,7 @@ public class RowComTable extends ComTable {
 	 * @throws IOException
 	 */
 	protected void reopen() throws IOException {
+		resetBlockCache();
 		raf = new RandomAccessFile(file, "rw");
 		Object syncObj = getSyncObject();
 		synchronized(syncObj) {
@@ -37,6 +37,7 @@ import com.scudata.expression.operator.NotGreater;
 import com.scudata.expression.operator.NotSmaller;
 import com.scudata.expression.operator.Or;
 import com.scudata.expression.operator.Smaller;
+import com.scudata.parallel.PerfMonitor;
 import com.scudata.resources.EngineMessage;
 
 /**
@@ -927,6 +928,15 @@ public class RowCursor extends IDWCursor {
 	}
 	
 	protected Sequence get(int n) {
+		Sequence seq = getRows(n);
+		if (seq != null) {
+			PerfMonitor.add(PerfMonitor.ROWS_SCANNED, seq.length());
+		}
+		
+		return seq;
+	}
+	
+	private Sequence getRows(int n) {
 		if (isClosed || n < 1) {
 			return null;
 		}
@@ -7,6 +7,7 @@ import java.util.Arrays;
 import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
+import com.scudata.dm.BaseRecord;
 import com.scudata.dm.ComputeStack;
 import com.scudata.dm.Context;
 import com.scudata.dm.DataStruct;
@@ -38,10 +39,11 @@ public class TableHashIndex  implements ITableIndex {
 	private static final int BUFFER_SIZE = 1024;
 	private static final int POSITION_SIZE = 5;
 	private static final long MAX_DIRECT_POS_SIZE = 1000000000;//ֱӵַ
-	public static final int MAX_SEC_RECORD_COUNT = 100000;//max count of index2
+	private static final int GARBAGE_POS = 13;//ļͷͰֽλ
+	private static final int MAX_LOAD_FACTOR = 2;//¼ϣȵĴ˱ʱϣ
 	
 	private long recordCount = 0; // Դ¼
-	private long index1RecordCount = 0; // 1¼
+	private long index1RecordCount = 0; // 1¼ϣ׷ʱֱӸдͰΪܼ¼
 	private long index1EndPos = 0; // 1ʱԴļ¼λ
 	private String []ifields; // ֶ
 	
@@ -56,6 +58,7 @@ public class TableHashIndex  implements ITableIndex {
 	
 	private boolean isDirectPos;//ֱӵַã޳ͻʱ
 	private long baseOffset;
+	private long garbageSize;//׷ʱ滻ľͰֽļһʱѹļ
 	private byte [][]cache;
 	private transient int maxRecordLen = 0;
 	
@@ -1040,7 +1043,8 @@ public class TableHashIndex  implements ITableIndex {
 
 		isDirectPos = reader.read() != 0;
 		baseOffset = reader.readLong40();
-		reader.readFully(new byte[32 - 6]);
+		garbageSize = reader.readLong40();
+		reader.readFully(new byte[32 - 11]);
 		recordCount = reader.readLong64();
 		index1EndPos = reader.readLong64();
 		index1RecordCount = reader.readLong64();
@@ -1057,6 +1061,8 @@ public class TableHashIndex  implements ITableIndex {
 	}
 	
 	private void updateHeader(RandomObjectWriter writer) throws IOException {
+		writer.position(GARBAGE_POS);
+		writer.writeLong40(garbageSize);
 		writer.position(39);
 		writer.writeLong64(recordCount);
 		writer.writeLong64(index1EndPos);
@@ -1150,7 +1156,7 @@ public class TableHashIndex  implements ITableIndex {
 				reader.close();
 				filter = this.filter;
 				
-				if (recordCount - index1RecordCount > MAX_SEC_RECORD_COUNT || isReset) {
+				if (isReset) {
 					isAppend = false;
 					index1EndPos = 0;
 					capacity = 0;
@@ -1190,6 +1196,19 @@ public class TableHashIndex  implements ITableIndex {
 					ICursor cursor = new MergesCursor(cursors, exps, ctx);				
 					createIndexTable(cursor, indexFile, true);
 				}
+				
+				if (!isDirectPos && !isDirctPos) {
+					// ¼ԽԽʱϣѴﵽϣʱ
+					int newCapacity = this.capacity;
+					if (index1RecordCount > (long)newCapacity * MAX_LOAD_FACTOR) {
+						newCapacity = getNearCapacity((int)Math.min(index1RecordCount, Integer.MAX_VALUE));
+					}
+					
+					if (newCapacity > this.capacity || garbageSize * 2 > indexFile.size()) {
+						compact(newCapacity, ctx);
+					}
+				}
+				
 				srcTable.getTableMetaDataIndex(indexFile, null, false);//׷ӺҪcache
 			} catch (IOException e) {
 				throw new RQException(e.getMessage(), e);
@@ -1216,6 +1235,7 @@ public class TableHashIndex  implements ITableIndex {
 			}
 			recordCount = 0;
 			index1RecordCount = 0;
+			garbageSize = 0;
 			
 			ArrayList <ICursor> cursorList;
 			setCapacity(h);
@@ -1351,13 +1371,15 @@ public class TableHashIndex  implements ITableIndex {
 			Long hashPos = this.hashPos;
 			Long tempPos;
 			Long endPos = indexFile.size();
+			long count = 0;
 			while (table != null) {
 				IArray mems = table.getMems();
+				count += mems.size(); // ׷ʱaddRecordsͰԭеļ¼ȼ
 				r = (Record)mems.get(1);
 				int hash = (Integer) r.getNormalFieldValue(icount + 1);
 				tempPos = hashPos + hash * POSITION_SIZE;
 				if (isAppends) {
-					addRecords(indexFile, tempPos, table);
+					garbageSize += addRecords(indexFile, tempPos, table);
 				}
 				
 				int len = mems.size();
@@ -1383,6 +1405,12 @@ public class TableHashIndex  implements ITableIndex {
 				if (table == null) break;
 			}
 			index1EndPos = srcTable.totalRecordCount;
+			if (isAppends) {
+				index1RecordCount += count;
+			} else {
+				index1RecordCount = count;
+			}
+			
 			writer.flush();
 			writer.position(0);
 			updateHeader(writer);
@@ -1400,16 +1428,17 @@ public class TableHashIndex  implements ITableIndex {
 	 * @param indexFile
 	 * @param position
 	 * @param table
+	 * @return ͰֽͰΪʱ0
 	 * @throws IOException 
 	 */
-	private void addRecords(FileObject indexFile, long position, Sequence table) throws IOException {
+	private long addRecords(FileObject indexFile, long position, Sequence table) throws IOException {
 		InputStream is = indexFile.getInputStream();
 		ObjectReader reader = new ObjectReader(is, 1024);
 		reader.seek(position);
 		position = reader.readLong40();
 		if (position == 0) {
 			reader.close();
-			return;
+			return 0;
 		}
 		
 		reader.seek(position);
@@ -1429,7 +1458,205 @@ public class TableHashIndex  implements ITableIndex {
 			}
 			table.add(r);
 		}
+		
+		long size = reader.position() - position;
 		reader.close();
+		return size;
+	}
+	
+	/**
+	 * ѹļ׷ʱ¼¼ͰдļĩβͰΪݣ
+	 * ѹϣָͰļе˳ƵļҪ¶Դ
+	 * ϣȸıʱͰļ¼ҪµĹϣֵ·Ͱʱ¹ϣֵؽ
+	 * @param newCapacity µĹϣ
+	 * @param ctx 
+	 * @throws IOException
+	 */
+	private void compact(int newCapacity, Context ctx) throws IOException {
+		int capacity = this.capacity;
+		long bucketStart = hashPos + (long)capacity * POSITION_SIZE;
+		long []bucketPos = new long[1024];
+		int count = 0;
+		
+		// ǿͰλòʹļʱֻǰseek
+		ObjectReader reader = new ObjectReader(indexFile.getInputStream(), BUFFER_SIZE);
+		try {
+			reader.seek(hashPos);
+			for (int i = 0; i < capacity; ++i) {
+				long pos = reader.readLong40();
+				if (pos != 0) {
+					if (count == bucketPos.length) {
+						bucketPos = Arrays.copyOf(bucketPos, count * 2);
+					}
+					
+					bucketPos[count++] = pos;
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		
+		Arrays.sort(bucketPos, 0, count);
+		String tmpFileName = indexFile.createTempFile("tmp");
+		FileObject tmpFile = new FileObject(tmpFileName);
+		tmpFile.delete();
+		garbageSize = 0;
+		
+		if (newCapacity != capacity) {
+			rehash(bucketPos, count, newCapacity, tmpFile, ctx);
+			indexFile.delete();
+			tmpFile.move(indexFile.getFileName(), null);
+			return;
+		}
+		
+		int icount = ifields.length;
+		int fcount = icount + 1 + positionCount;
+		Object []keys = new Object[icount];
+		long recordCount = 0;
+		RandomObjectWriter writer = new RandomObjectWriter(tmpFile.getRandomOutputStream(true));
+		reader = new ObjectReader(indexFile.getInputStream(), BUFFER_SIZE);
+		
+		try {
+			writer.position(0);
+			writeHeader(writer);
+			writer.flush();
+			tmpFile.setFileSize(bucketStart);
+			
+			long endPos = bucketStart;
+			for (int i = 0; i < count; ++i) {
+				reader.seek(bucketPos[i]);
+				int len = reader.readInt();
+				recordCount += len;
+				writer.position(endPos);
+				writer.writeInt(len);
+				for (int j = 0; j < len; ++j) {
+					for (int f = 0; f < fcount; ++f) {
+						Object obj = reader.readObject();
+						if (j == 0 && f < icount) {
+							keys[f] = obj;
+						}
+						
+						writer.writeObject(obj);
+					}
+				}
+				
+				long nextPos = writer.position();
+				writer.position(hashPos + (long)hashCode(keys, capacity) * POSITION_SIZE);
+				writer.writeLong40(endPos);
+				endPos = nextPos;
+			}
+			
+			index1RecordCount = recordCount;
+			writer.flush();
+			updateHeader(writer);
+		} finally {
+			reader.close();
+			writer.close();
+		}
+		
+		indexFile.delete();
+		tmpFile.move(indexFile.getFileName(), null);
+	}
+	
+	/**
+	 * Ͱļ¼µĹϣ·Ͱдļ
+	 * ¼ṹͬʱα꣺ֶΡαšϣֵַ
+	 * @param bucketPos Ͱλã
+	 * @param count Ͱ
+	 * @param newCapacity µĹϣ
+	 * @param tmpFile ļ
+	 * @param ctx 
+	 * @throws IOException
+	 */
+	private void rehash(long []bucketPos, int count, int newCapacity, FileObject tmpFile, Context ctx) throws IOException {
+		int icount = ifields.length;
+		int posCount = positionCount;
+		String []fields = Arrays.copyOf(ifields, icount + 2 + posCount);
+		fields[icount] = CHashCursor.POS_FIELDNAME;
+		fields[icount + 1] = CHashCursor.HASH_FIELDNAME;
+		for (int i = 1; i <= posCount; ++i) {
+			fields[icount + 1 + i] = CHashCursor.POS_FIELDNAME + i;
+		}
+		
+		DataStruct ds = new DataStruct(fields);
+		int []sortFields = new int[icount + 1];
+		sortFields[0] = icount + 1;
+		for (int i = 0; i < icount; ++i) {
+			sortFields[i + 1] = i;
+		}
+		
+		int baseCount = 100000;//ÿ
+		boolean flag = false;//ǷʱļС
+		ArrayList <ICursor>cursorList = new ArrayList<ICursor>();
+		Table table = new Table(ds, baseCount);
+		Object []keys = new Object[icount];
+		ObjectReader reader = new ObjectReader(indexFile.getInputStream(), BUFFER_SIZE);
+		
+		try {
+			for (int i = 0; i < count; ++i) {
+				reader.seek(bucketPos[i]);
+				int len = reader.readInt();
+				for (int j = 0; j < len; ++j) {
+					BaseRecord r = table.newLast();
+					for (int f = 0; f < icount; ++f) {
+						keys[f] = reader.readObject();
+						r.setNormalFieldValue(f, keys[f]);
+					}
+					
+					r.setNormalFieldValue(icount, reader.readObject());
+					r.setNormalFieldValue(icount + 1, hashCode(keys, newCapacity));
+					for (int k = 1; k <= posCount; ++k) {
+						r.setNormalFieldValue(icount + 1 + k, reader.readObject());
+					}
+				}
+				
+				if (table.length() >= baseCount) {
+					table.sortFields(sortFields);
+					FileObject tmp = FileObject.createTempFileObject();
+					tmp.exportSeries(table, "b", null);
+					cursorList.add(new BFileCursor(tmp, null, "x", ctx));
+					if (!flag && tmp.size() < TEMP_FILE_SIZE) {
+						baseCount = (int) (baseCount * (TEMP_FILE_SIZE / tmp.size()));
+						flag = true;
+					}
+					
+					table = new Table(ds, baseCount);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		
+		int size = cursorList.size();
+		if (size > 1) {
+			int bufSize = Env.getMergeFileBufSize(size);
+			for (int i = 0; i < size; ++i) {
+				((BFileCursor)cursorList.get(i)).setFileBufferSize(bufSize);
+			}
+		}
+		
+		if (table.length() > 0) {
+			table.sortFields(sortFields);
+			cursorList.add(new MemoryCursor(table));
+		}
+		
+		this.capacity = newCapacity;
+		size = cursorList.size();
+		ICursor cursor;
+		if (size == 0) {
+			cursor = new MemoryCursor(new Table(ds));
+		} else if (size == 1) {
+			cursor = cursorList.get(0);
+		} else {
+			ICursor []cursors = new ICursor[size];
+			cursorList.toArray(cursors);
+			Expression []exps = new Expression[2];
+			exps[0] = new Expression(ctx, "#" + (icount + 2));//hash ֶ
+			exps[1] = new Expression(ctx, "#" + (icount + 1));//αֶ
+			cursor = new MergesCursor(cursors, exps, ctx);
+		}
+		
+		createIndexTable(cursor, tmpFile, false);
 	}
 	
 	private ArrayList <ICursor> sortCol(String []fields, Context ctx, Expression filter) {
@@ -1530,7 +1757,7 @@ public class TableHashIndex  implements ITableIndex {
 				}
 			}
 
-			if (table.length() > 0) {
+			if (table != null && table.length() > 0) {
 				table.sortFields(sortFields);
 				MemoryCursor mc = new MemoryCursor(table);
 				cursorList.add(mc);
@@ -1641,7 +1868,7 @@ public class TableHashIndex  implements ITableIndex {
 				}
 			}
 
-			if (table.length() > 0) {
+			if (table != null && table.length() > 0) {
 				table.sortFields(sortFields);
 				MemoryCursor mc = new MemoryCursor(table);
 				cursorList.add(mc);
@@ -1750,8 +1977,15 @@ public class TableHashIndex  implements ITableIndex {
 			long pos;
 			long hashPos = this.hashPos;
 			int posCount = positionCount;
+			Object prev = null;
 			
 			for (Object val : vals) {
+				// valsظֵֻһΣѡظļ¼
+				if (prev != null && Variant.compare(val, prev) == 0) {
+					continue;
+				}
+				
+				prev = val;
 				Object[] valArray = null;
 				if (icount == 1) {
 					pos = hash(val.hashCode(), capacity);
@@ -2,6 +2,7 @@ package com.scudata.expression;
 
 import java.util.List;
 
+import com.scudata.array.IArray;
 import com.scudata.cellset.ICellSet;
 import com.scudata.cellset.INormalCell;
 import com.scudata.common.MessageManager;
@@ -222,4 +223,20 @@ public abstract class Function extends Node {
 	public ICellSet getCellSet() {
 		return cs;
 	}
+	
+	/**
+	 * ʽsignArrayΪʱУֻsignArrayȡֵΪsign
+	 * @param exp ʽ
+	 * @param ctx 
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	protected static IArray calculateAll(Expression exp, Context ctx, IArray signArray, boolean sign) {
+		if (signArray == null) {
+			return exp.calculateAll(ctx);
+		} else {
+			return exp.calculateAll(ctx, signArray, sign);
+		}
+	}
 }
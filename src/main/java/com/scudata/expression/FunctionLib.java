@@ -519,6 +519,7 @@ public final class FunctionLib {
 		addMemberFunction("groupn", "com.scudata.expression.mfn.op.AttachGroupn");
 		addMemberFunction("sortx", "com.scudata.expression.mfn.cursor.Sortx");
 		addMemberFunction("sortx", "com.scudata.expression.mfn.channel.Sortx");
+		addMemberFunction("shuffle", "com.scudata.expression.mfn.cursor.Shuffle");
 		addMemberFunction("join", "com.scudata.expression.mfn.op.AttachJoin");
 		addMemberFunction("join", "com.scudata.expression.mfn.sequence.JoinFK");
 		addMemberFunction("joinx", "com.scudata.expression.mfn.cursor.Joinx");
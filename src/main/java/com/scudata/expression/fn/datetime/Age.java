@@ -5,6 +5,10 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.util.Date;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DateArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
 import com.scudata.common.DateFactory;
 import com.scudata.common.DateFormatFactory;
 import com.scudata.common.MessageManager;
@@ -73,6 +77,10 @@ public class Age extends Function {
 			now = new Date();
 		}
 		
+		return ObjectCache.getInteger(age(date, now, option));
+	}
+	
+	private static int age(Date date, Date now, String option) {
 		boolean isYear = false, isMonth = false;
 		if (option != null) {
 			if (option.indexOf('y') != -1) isYear = true;
@@ -85,51 +93,163 @@ public class Age extends Function {
 			int month1 = DateFactory.get().month(date);
 			int month2 = DateFactory.get().month(now);
 			if (month2 >= month1) {
-				return ObjectCache.getInteger(year2 - year1);
+				return year2 - year1;
 			} else {
-				return ObjectCache.getInteger(year2 - year1 - 1);
+				return year2 - year1 - 1;
 			}
 		} else if (isYear) { //
-			return ObjectCache.getInteger(year2 - year1);
+			return year2 - year1;
 		} else { //
 			int month1 = DateFactory.get().month(date);
 			int month2 = DateFactory.get().month(now);
 			if (month2 > month1) {
-				return ObjectCache.getInteger(year2 - year1);
+				return year2 - year1;
 			} else if (month2 < month1) {
-				return ObjectCache.getInteger(year2 - year1 - 1);
+				return year2 - year1 - 1;
 			} else {
 				int day1 = DateFactory.get().day(date);
 				int day2 = DateFactory.get().day(now);
 				if (day2 >= day1) {
-					return ObjectCache.getInteger(year2 - year1);
+					return year2 - year1;
 				} else {
-					return ObjectCache.getInteger(year2 - year1 - 1);
+					return year2 - year1 - 1;
 				}
 			}
 		}
 	}
 	
-	private static Date calcDate(IParam param, Context ctx) {
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		IArray result = calculateAll(ctx, null, true, null);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx);
+		}
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		IArray result = calculateAll(ctx, signArray, sign, signDatas);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx, signArray, sign);
+		}
+	}
+	
+	// ֻǵʽʽʱؿգɵ߰м
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IArray dateArray;
+		IArray nowArray = null;
 		if (param.isLeaf()) {
-			Object date = param.getLeafExpression().calculate(ctx);
-			if (date instanceof Date) {
-				return (Date)date;
-			} else if (date instanceof String) {
-				DateFormat format = DateFormatFactory.get().getDateFormat();
-				format.getCalendar().setLenient(false);
-				try {
-					return format.parse((String)date);
-				} catch (ParseException e) {
-					MessageManager mm = EngineMessage.get();
-					throw new RQException("age" + mm.getMessage("function.invalidParam"), e);
-				}
-			} else if (date == null) {
+			dateArray = calculateAll(param.getLeafExpression(), ctx, signArray, sign);
+		} else if (param.getType() == IParam.Comma) {
+			if (param.getSubSize() != 2) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("age" + mm.getMessage("function.invalidParam"));
+			}
+			
+			IParam sub0 = param.getSub(0);
+			IParam sub1 = param.getSub(1);
+			if (sub0 == null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("age" + mm.getMessage("function.invalidParam"));
+			} else if (!sub0.isLeaf() || (sub1 != null && !sub1.isLeaf())) {
 				return null;
+			}
+			
+			dateArray = calculateAll(sub0.getLeafExpression(), ctx, signArray, sign);
+			if (sub1 != null) {
+				nowArray = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+			}
+		} else {
+			return null;
+		}
+		
+		int size = dateArray.size();
+		Date curDate = new Date();
+		
+		if (signDatas == null && dateArray instanceof ConstArray && (nowArray == null || nowArray instanceof ConstArray)) {
+			Integer value = null;
+			Date date = toDate(dateArray.get(1));
+			if (date != null) {
+				Date now = nowArray == null ? null : toDate(nowArray.get(1));
+				value = ObjectCache.getInteger(age(date, now == null ? curDate : now, option));
+			}
+			
+			return new ConstArray(value, size);
+		}
+		
+		IntArray result = new IntArray(size);
+		result.setTemporary(true);
+		
+		for (int i = 1; i <= size; ++i) {
+			if (signDatas != null && !signDatas[i]) {
+				result.pushNull();
+				continue;
+			}
+			
+			Date date;
+			if (dateArray instanceof DateArray) {
+				date = ((DateArray)dateArray).getDate(i);
 			} else {
+				date = toDate(dateArray.get(i));
+			}
+			
+			if (date == null) {
+				result.pushNull();
+				continue;
+			}
+			
+			Date now = nowArray == null ? null : toDate(nowArray.get(i));
+			result.pushInt(age(date, now == null ? curDate : now, option));
+		}
+		
+		return result;
+	}
+	
+	private static Date toDate(Object date) {
+		if (date instanceof Date) {
+			return (Date)date;
+		} else if (date instanceof String) {
+			DateFormat format = DateFormatFactory.get().getDateFormat();
+			format.getCalendar().setLenient(false);
+			try {
+				return format.parse((String)date);
+			} catch (ParseException e) {
 				MessageManager mm = EngineMessage.get();
-				throw new RQException("age" + mm.getMessage("function.paramTypeError"));
+				throw new RQException("age" + mm.getMessage("function.invalidParam"), e);
 			}
+		} else if (date == null) {
+			return null;
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("age" + mm.getMessage("function.paramTypeError"));
+		}
+	}
+	
+	private static Date calcDate(IParam param, Context ctx) {
+		if (param.isLeaf()) {
+			Object date = param.getLeafExpression().calculate(ctx);
+			return toDate(date);
 		} else if (param.getType() == IParam.Colon) {
 			if (param.getSubSize() != 2) {
 				MessageManager mm = EngineMessage.get();
@@ -5,6 +5,10 @@ import java.text.ParseException;
 import java.util.Calendar;
 import java.util.Date;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DateArray;
+import com.scudata.array.IArray;
+import com.scudata.array.NumberArray;
 import com.scudata.common.DateFactory;
 import com.scudata.common.DateFormatFactory;
 import com.scudata.common.MessageManager;
@@ -34,37 +38,7 @@ public class DateTime extends Function {
 		int size = param.getSubSize();
 		if (size == 0) {
 			Object result1 = param.getLeafExpression().calculate(ctx);
-			if (result1 == null) {
-				return null;
-			} else if (result1 instanceof String) {
-				try {
-					return DateFactory.parseDateTime((String)result1);
-				} catch (ParseException e) {
-					return null;
-					//throw new RQException("datetime " + e.getMessage());
-				}
-			} else if (result1 instanceof Number) {
-				return new java.sql.Timestamp(((Number)result1).longValue());
-			} else if (result1 instanceof Date) {
-				Calendar calendar = Calendar.getInstance();
-				calendar.setTime((Date)result1);
-				if (option != null && option.indexOf('s') != -1) {
-					calendar.set(Calendar.MILLISECOND, 0);
-				} else if (option != null && option.indexOf('m') != -1) {
-					calendar.set(Calendar.SECOND, 0);
-					calendar.set(Calendar.MILLISECOND, 0);
-				} else {
-					calendar.set(Calendar.HOUR_OF_DAY, 0);
-					calendar.set(Calendar.MINUTE, 0);
-					calendar.set(Calendar.SECOND, 0);
-					calendar.set(Calendar.MILLISECOND, 0);
-				}
-
-				return new java.sql.Timestamp(calendar.getTimeInMillis());
-			} else {
-				MessageManager mm = EngineMessage.get();
-				throw new RQException("datetime" + mm.getMessage("function.paramTypeError"));
-			}
+			return toDateTime(result1, option, Calendar.getInstance());
 		} else if (size == 2){
 			IParam sub1 = param.getSub(0);
 			IParam sub2 = param.getSub(1);
@@ -286,4 +260,147 @@ public class DateTime extends Function {
 			throw new RQException("datetime" + mm.getMessage("function.invalidParam"));
 		}
 	}
+	
+	private static Date toDateTime(Object result1, String option, Calendar calendar) {
+		if (result1 == null) {
+			return null;
+		} else if (result1 instanceof String) {
+			try {
+				return DateFactory.parseDateTime((String)result1);
+			} catch (ParseException e) {
+				return null;
+				//throw new RQException("datetime " + e.getMessage());
+			}
+		} else if (result1 instanceof Number) {
+			return new java.sql.Timestamp(((Number)result1).longValue());
+		} else if (result1 instanceof Date) {
+			calendar.setTime((Date)result1);
+			if (option != null && option.indexOf('s') != -1) {
+				calendar.set(Calendar.MILLISECOND, 0);
+			} else if (option != null && option.indexOf('m') != -1) {
+				calendar.set(Calendar.SECOND, 0);
+				calendar.set(Calendar.MILLISECOND, 0);
+			} else {
+				calendar.set(Calendar.HOUR_OF_DAY, 0);
+				calendar.set(Calendar.MINUTE, 0);
+				calendar.set(Calendar.SECOND, 0);
+				calendar.set(Calendar.MILLISECOND, 0);
+			}
+
+			return new java.sql.Timestamp(calendar.getTimeInMillis());
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("datetime" + mm.getMessage("function.paramTypeError"));
+		}
+	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		IArray result = calculateAll(ctx, null, true, null);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx);
+		}
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		IArray result = calculateAll(ctx, signArray, sign, signDatas);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx, signArray, sign);
+		}
+	}
+	
+	// ֻdatetime(x)datetime(y,m,d,h,mi,s)ʽؿգɵ߰м
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		int paramCount = param.getSubSize();
+		Calendar calendar = Calendar.getInstance();
+		
+		if (paramCount == 0) {
+			IArray array = calculateAll(param.getLeafExpression(), ctx, signArray, sign);
+			int size = array.size();
+			if (signDatas == null && array instanceof ConstArray) {
+				return new ConstArray(toDateTime(array.get(1), option, calendar), size);
+			}
+			
+			DateArray result = new DateArray(size);
+			result.setTemporary(true);
+			
+			for (int i = 1; i <= size; ++i) {
+				if (signDatas == null || signDatas[i]) {
+					result.pushDate(toDateTime(array.get(i), option, calendar));
+				} else {
+					result.pushNull();
+				}
+			}
+			
+			return result;
+		} else if (paramCount == 6) {
+			IArray []arrays = new IArray[6];
+			for (int p = 0; p < 6; ++p) {
+				IParam sub = param.getSub(p);
+				if (sub == null) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException("datetime" + mm.getMessage("function.invalidParam"));
+				}
+				
+				arrays[p] = calculateAll(sub.getLeafExpression(), ctx, signArray, sign);
+			}
+			
+			int size = arrays[0].size();
+			DateArray result = new DateArray(size);
+			result.setTemporary(true);
+			
+			for (int i = 1; i <= size; ++i) {
+				if (signDatas != null && !signDatas[i]) {
+					result.pushNull();
+					continue;
+				}
+				
+				calendar.set(getInt(arrays[0], i), getInt(arrays[1], i) - 1, getInt(arrays[2], i),
+						getInt(arrays[3], i), getInt(arrays[4], i), getInt(arrays[5], i));
+				result.pushDate(new java.sql.Timestamp(calendar.getTimeInMillis()));
+			}
+			
+			return result;
+		} else {
+			return null;
+		}
+	}
+	
+	private static int getInt(IArray array, int index) {
+		if (array instanceof NumberArray) {
+			if (!array.isNull(index)) {
+				return array.getInt(index);
+			}
+		} else {
+			Object obj = array.get(index);
+			if (obj instanceof Number) {
+				return ((Number)obj).intValue();
+			}
+		}
+		
+		MessageManager mm = EngineMessage.get();
+		throw new RQException("datetime" + mm.getMessage("function.paramTypeError"));
+	}
 }
@@ -2,6 +2,9 @@ package com.scudata.expression.fn.datetime;
 
 import java.util.Date;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DateArray;
+import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -62,4 +65,87 @@ public class Elapse extends Function {
 
 		return Variant.elapse((Date)result1, ((Number)result2).intValue(), option);
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		return calculateAll(ctx, null, true, null);
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		return calculateAll(ctx, signArray, sign, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IParam sub1 = param.getSub(0);
+		IParam sub2 = param.getSub(1);
+		if (sub2 == null) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("elapse" + mm.getMessage("function.invalidParam"));
+		}
+		
+		IArray array2 = calculateAll(sub2.getLeafExpression(), ctx, signArray, sign);
+		int size = array2.size();
+		IArray array1 = null;
+		Date now = null;
+		
+		if (sub1 != null) {
+			array1 = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+		} else {
+			now = new java.sql.Timestamp(System.currentTimeMillis());
+		}
+		
+		if (signDatas == null && (array1 == null || array1 instanceof ConstArray) && array2 instanceof ConstArray) {
+			Object result1 = array1 == null ? now : array1.get(1);
+			return new ConstArray(elapse(result1, array2.get(1), option), size);
+		}
+		
+		DateArray result = new DateArray(size);
+		result.setTemporary(true);
+		
+		for (int i = 1; i <= size; ++i) {
+			if (signDatas != null && !signDatas[i]) {
+				result.pushNull();
+				continue;
+			}
+			
+			Object result1 = array1 == null ? now : array1.get(i);
+			result.pushDate(elapse(result1, array2.get(i), option));
+		}
+		
+		return result;
+	}
+	
+	private static Date elapse(Object result1, Object result2, String option) {
+		if (result1 == null) {
+			result1 = new java.sql.Timestamp(System.currentTimeMillis());
+		} else if (result1 instanceof String) {
+			result1 = Variant.parseDate((String)result1);
+		}
+		
+		if (!(result1 instanceof Date) || !(result2 instanceof Number)) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("elapse" + mm.getMessage("function.paramTypeError"));
+		}
+		
+		return Variant.elapse((Date)result1, ((Number)result2).intValue(), option);
+	}
 }
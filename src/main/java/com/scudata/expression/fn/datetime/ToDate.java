@@ -5,6 +5,10 @@ import java.text.ParseException;
 import java.util.Calendar;
 import java.util.Date;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DateArray;
+import com.scudata.array.IArray;
+import com.scudata.array.NumberArray;
 import com.scudata.common.DateFactory;
 import com.scudata.common.DateFormatFactory;
 import com.scudata.common.MessageManager;
@@ -34,31 +38,7 @@ public class ToDate extends Function {
 		int size = param.getSubSize();
 		if (size == 0) {
 			Object result1 = param.getLeafExpression().calculate(ctx);
-			if (result1 instanceof String) {
-				try {
-					return DateFactory.parseDate((String)result1);
-				} catch (ParseException e) {
-					return null;
-					//throw new RQException("date:" + e.getMessage(), e);
-				}
-			} else if (result1 instanceof Number) {
-				if (option == null || option.indexOf('o') == -1) {
-					return DateFactory.get().toDate(((Number)result1).longValue());
-				} else {
-					return DateFactory.toDate(((Number)result1).intValue());
-				}
-			} else if (result1 instanceof Date) {
-				if (!(result1 instanceof java.sql.Date)) {
-					return DateFactory.get().toDate((Date)result1);
-				} else {
-					return result1;
-				}
-			} else if (result1 == null) {
-				return null;
-			} else {
-				MessageManager mm = EngineMessage.get();
-				throw new RQException("date" + mm.getMessage("function.paramTypeError"));
-			}
+			return toDate(result1, option);
 		} else if (size == 2){
 			IParam sub1 = param.getSub(0);
 			IParam sub2 = param.getSub(1);
@@ -181,4 +161,145 @@ public class ToDate extends Function {
 			throw new RQException("date" + mm.getMessage("function.invalidParam"));
 		}
 	}
+	
+	private static Object toDate(Object result1, String option) {
+		if (result1 instanceof String) {
+			try {
+				return DateFactory.parseDate((String)result1);
+			} catch (ParseException e) {
+				return null;
+				//throw new RQException("date:" + e.getMessage(), e);
+			}
+		} else if (result1 instanceof Number) {
+			if (option == null || option.indexOf('o') == -1) {
+				return DateFactory.get().toDate(((Number)result1).longValue());
+			} else {
+				return DateFactory.toDate(((Number)result1).intValue());
+			}
+		} else if (result1 instanceof Date) {
+			if (!(result1 instanceof java.sql.Date)) {
+				return DateFactory.get().toDate((Date)result1);
+			} else {
+				return result1;
+			}
+		} else if (result1 == null) {
+			return null;
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("date" + mm.getMessage("function.paramTypeError"));
+		}
+	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		IArray result = calculateAll(ctx, null, true, null);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx);
+		}
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		IArray result = calculateAll(ctx, signArray, sign, signDatas);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx, signArray, sign);
+		}
+	}
+	
+	// ֻdate(x)date(y,m,d)ʽؿգɵ߰м
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		int paramCount = param.getSubSize();
+		if (paramCount == 0) {
+			IArray array = calculateAll(param.getLeafExpression(), ctx, signArray, sign);
+			int size = array.size();
+			if (signDatas == null && array instanceof ConstArray) {
+				return new ConstArray(toDate(array.get(1), option), size);
+			}
+			
+			DateArray result = new DateArray(size);
+			result.setTemporary(true);
+			
+			for (int i = 1; i <= size; ++i) {
+				if (signDatas == null || signDatas[i]) {
+					result.pushDate((Date)toDate(array.get(i), option));
+				} else {
+					result.pushNull();
+				}
+			}
+			
+			return result;
+		} else if (paramCount == 3) {
+			IParam sub1 = param.getSub(0);
+			IParam sub2 = param.getSub(1);
+			IParam sub3 = param.getSub(2);
+			if (sub1 == null || sub2 == null || sub3 == null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("date" + mm.getMessage("function.invalidParam"));
+			}
+			
+			IArray yearArray = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+			IArray monthArray = calculateAll(sub2.getLeafExpression(), ctx, signArray, sign);
+			IArray dayArray = calculateAll(sub3.getLeafExpression(), ctx, signArray, sign);
+			int size = yearArray.size();
+			
+			DateArray result = new DateArray(size);
+			result.setTemporary(true);
+			Calendar calendar = Calendar.getInstance();
+			
+			for (int i = 1; i <= size; ++i) {
+				if (signDatas != null && !signDatas[i]) {
+					result.pushNull();
+					continue;
+				}
+				
+				int year = getInt(yearArray, i);
+				int month = getInt(monthArray, i);
+				int day = getInt(dayArray, i);
+				calendar.set(year, month - 1, day, 0, 0, 0);
+				calendar.set(Calendar.MILLISECOND, 0);
+				result.pushDate(new java.sql.Date(calendar.getTimeInMillis()));
+			}
+			
+			return result;
+		} else {
+			return null;
+		}
+	}
+	
+	private static int getInt(IArray array, int index) {
+		if (array instanceof NumberArray) {
+			if (!array.isNull(index)) {
+				return array.getInt(index);
+			}
+		} else {
+			Object obj = array.get(index);
+			if (obj instanceof Number) {
+				return ((Number)obj).intValue();
+			}
+		}
+		
+		MessageManager mm = EngineMessage.get();
+		throw new RQException("date" + mm.getMessage("function.paramTypeError"));
+	}
 }
@@ -3,6 +3,9 @@ package com.scudata.expression.fn.datetime;
 import java.util.Calendar;
 import java.util.Date;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DateArray;
+import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -69,10 +72,11 @@ public class WorkDay extends Function {
 			}
 		}
 
-		Date date1 = (Date)result1;
-		Calendar calendar = Calendar.getInstance();
+		return workDay((Date)result1, ((Number)result2).intValue(), offDays, Calendar.getInstance());
+	}
+	
+	private static Date workDay(Date date1, int diff, Sequence offDays, Calendar calendar) {
 		calendar.setTime(date1);
-		int diff = ((Number)result2).intValue();
 		int d = 1;
 		if (diff < 0) {
 			d = -1;
@@ -89,7 +93,102 @@ public class WorkDay extends Function {
 		date.setTime(calendar.getTimeInMillis());
 		return date;
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		return calculateAll(ctx, null, true, null);
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		return calculateAll(ctx, signArray, sign, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		int count = param.getSubSize();
+		if (count != 2 && count != 3) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("workday" + mm.getMessage("function.invalidParam"));
+		}
 
+		IParam sub1 = param.getSub(0);
+		IParam sub2 = param.getSub(1);
+		if (sub1 == null || sub2 == null) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("workday" + mm.getMessage("function.invalidParam"));
+		}
+		
+		IArray array1 = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+		IArray array2 = calculateAll(sub2.getLeafExpression(), ctx, signArray, sign);
+		IArray array3 = null;
+		if (count == 3 && param.getSub(2) != null) {
+			array3 = calculateAll(param.getSub(2).getLeafExpression(), ctx, signArray, sign);
+		}
+		
+		// ͨǳֻȡһ
+		Sequence offDays = null;
+		if (array3 instanceof ConstArray) {
+			offDays = toOffDays(array3.get(1));
+			array3 = null;
+		}
+		
+		int size = array1.size();
+		Calendar calendar = Calendar.getInstance();
+		DateArray result = new DateArray(size);
+		result.setTemporary(true);
+		
+		for (int i = 1; i <= size; ++i) {
+			if (signDatas != null && !signDatas[i]) {
+				result.pushNull();
+				continue;
+			}
+			
+			Object result1 = array1.get(i);
+			Object result2 = array2.get(i);
+			if (!(result1 instanceof Date) || !(result2 instanceof Number)) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("workday" + mm.getMessage("function.paramTypeError"));
+			}
+			
+			if (array3 != null) {
+				offDays = toOffDays(array3.get(i));
+			}
+			
+			result.pushDate(workDay((Date)result1, ((Number)result2).intValue(), offDays, calendar));
+		}
+		
+		return result;
+	}
+	
+	private static Sequence toOffDays(Object obj) {
+		if (obj instanceof Sequence) {
+			return (Sequence)obj;
+		} else if (obj == null) {
+			return null;
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("workday" + mm.getMessage("function.paramTypeError"));
+		}
+	}
+	
 	public static boolean isWorkDay(Calendar calendar, Sequence offDays) {
 		int week = calendar.get(Calendar.DAY_OF_WEEK);
 		boolean isWorkDay = week != Calendar.SUNDAY && week != Calendar.SATURDAY;
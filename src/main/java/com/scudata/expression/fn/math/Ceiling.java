@@ -3,6 +3,10 @@ package com.scudata.expression.fn.math;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.NumberArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -80,4 +84,90 @@ public class Ceiling extends Function {
 			}
 		}
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		IArray result = calculateAll(ctx, null, true, null);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx);
+		}
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		IArray result = calculateAll(ctx, signArray, sign, signDatas);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx, signArray, sign);
+		}
+	}
+	
+	// ֻBigDecimalλǳʱؿգɵ߰м
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IArray array;
+		double d = 1;
+		if (param.isLeaf()) {
+			array = calculateAll(param.getLeafExpression(), ctx, signArray, sign);
+		} else {
+			if (param.getSubSize() != 2) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("ceil" + mm.getMessage("function.invalidParam"));
+			}
+			
+			IParam sub1 = param.getSub(0);
+			IParam sub2 = param.getSub(1);
+			if (sub1 == null || sub2 == null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("ceil" + mm.getMessage("function.invalidParam"));
+			}
+			
+			array = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+			IArray array2 = calculateAll(sub2.getLeafExpression(), ctx, signArray, sign);
+			if (!(array2 instanceof ConstArray) || !(array2.get(1) instanceof Number)) {
+				return null;
+			}
+			
+			d = Math.pow(10, ((Number)array2.get(1)).intValue());
+		}
+		
+		if (!(array instanceof NumberArray)) {
+			return null;
+		}
+		
+		int size = array.size();
+		DoubleArray result = new DoubleArray(size);
+		result.setTemporary(true);
+		
+		for (int i = 1; i <= size; ++i) {
+			if ((signDatas != null && !signDatas[i]) || array.isNull(i)) {
+				result.pushNull();
+			} else if (d == 1) {
+				result.pushDouble(Math.ceil(((NumberArray)array).getDouble(i)));
+			} else {
+				result.pushDouble(Math.ceil(((NumberArray)array).getDouble(i) * d) / d);
+			}
+		}
+		
+		return result;
+	}
 }
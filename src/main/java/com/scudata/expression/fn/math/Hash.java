@@ -1,5 +1,8 @@
 package com.scudata.expression.fn.math;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -83,4 +86,129 @@ public class Hash extends Function {
 			return new Integer(hashUtil.hashCode(vals, size) + 1);
 		}
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		IArray result = calculateAll(ctx, null, true, null);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx);
+		}
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		IArray result = calculateAll(ctx, signArray, sign, signDatas);
+		if (result != null) {
+			return result;
+		} else {
+			return super.calculateAll(ctx, signArray, sign);
+		}
+	}
+	
+	// ϣȲǳʱؿգɵ߰м
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IParam param = this.param;
+		HashUtil hashUtil;
+		if (param.getType() == IParam.Semicolon) {
+			if (param.getSubSize() != 2) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("hash" + mm.getMessage("function.invalidParam"));
+			}
+			
+			IParam sub1 = param.getSub(1);
+			if (sub1 == null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("hash" + mm.getMessage("function.invalidParam"));
+			}
+			
+			IArray nArray = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+			if (!(nArray instanceof ConstArray)) {
+				return null;
+			}
+			
+			Object obj = nArray.get(1);
+			if (obj instanceof Number) {
+				int n = ((Number)obj).intValue();
+				if (n <= 1) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException("hash" + mm.getMessage("function.invalidParam"));
+				}
+				
+				hashUtil = new HashUtil(n, false);
+			} else if (obj == null) {
+				hashUtil = new HashUtil();
+			} else {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("hash" + mm.getMessage("function.paramTypeError"));
+			}
+			
+			param = param.getSub(0);
+			if (param == null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("hash" + mm.getMessage("function.invalidParam"));
+			}
+		} else {
+			hashUtil = new HashUtil();
+		}
+		
+		IntArray result;
+		if (param.isLeaf()) {
+			IArray array = calculateAll(param.getLeafExpression(), ctx, signArray, sign);
+			int size = array.size();
+			result = new IntArray(size);
+			
+			for (int i = 1; i <= size; ++i) {
+				if (signDatas == null || signDatas[i]) {
+					result.pushInt(hashUtil.hashCode(array, i) + 1);
+				} else {
+					result.pushNull();
+				}
+			}
+		} else {
+			int count = param.getSubSize();
+			IArray []arrays = new IArray[count];
+			for (int i = 0; i < count; ++i) {
+				IParam sub = param.getSub(i);
+				if (sub == null) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException("hash" + mm.getMessage("function.invalidParam"));
+				}
+				
+				arrays[i] = calculateAll(sub.getLeafExpression(), ctx, signArray, sign);
+			}
+			
+			int size = arrays[0].size();
+			result = new IntArray(size);
+			
+			for (int i = 1; i <= size; ++i) {
+				if (signDatas == null || signDatas[i]) {
+					result.pushInt(hashUtil.hashCode(arrays, i, count) + 1);
+				} else {
+					result.pushNull();
+				}
+			}
+		}
+		
+		result.setTemporary(true);
+		return result;
+	}
 }
@@ -1,5 +1,9 @@
 package com.scudata.expression.fn.math;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.NumberArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -54,5 +58,110 @@ public class Pow extends Function {
 		return new Double(Math.pow(Variant.doubleValue(result1),
 								   Variant.doubleValue(result2)));
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		if (param.isLeaf()) {
+			IArray array = param.getLeafExpression().calculateAll(ctx);
+			return array.memberMultiply(array);
+		}
+		
+		return calculateAll(ctx, null, true, null);
+	}
 
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		if (param.isLeaf()) {
+			return super.calculateAll(ctx, signArray, sign);
+		}
+		
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		return calculateAll(ctx, signArray, sign, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		if (param.getSubSize() != 2) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("power" + mm.getMessage("function.invalidParam"));
+		}
+		
+		IParam sub1 = param.getSub(0);
+		IParam sub2 = param.getSub(1);
+		if (sub1 == null || sub2 == null) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("power" + mm.getMessage("function.invalidParam"));
+		}
+		
+		IArray array1 = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+		IArray array2 = calculateAll(sub2.getLeafExpression(), ctx, signArray, sign);
+		int size = array1.size();
+		
+		if (signDatas == null && array1 instanceof ConstArray && array2 instanceof ConstArray) {
+			Object value = pow(array1.get(1), array2.get(1));
+			return new ConstArray(value, size);
+		}
+		
+		DoubleArray result = new DoubleArray(size);
+		result.setTemporary(true);
+		
+		if (array1 instanceof NumberArray && array2 instanceof NumberArray) {
+			for (int i = 1; i <= size; ++i) {
+				if ((signDatas != null && !signDatas[i]) || array1.isNull(i) || array2.isNull(i)) {
+					result.pushNull();
+				} else {
+					result.pushDouble(Math.pow(((NumberArray)array1).getDouble(i), ((NumberArray)array2).getDouble(i)));
+				}
+			}
+		} else {
+			for (int i = 1; i <= size; ++i) {
+				Object value = null;
+				if (signDatas == null || signDatas[i]) {
+					value = pow(array1.get(i), array2.get(i));
+				}
+				
+				if (value == null) {
+					result.pushNull();
+				} else {
+					result.pushDouble(((Double)value).doubleValue());
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	private static Object pow(Object result1, Object result2) {
+		if (result1 == null) {
+			return null;
+		} else if (!(result1 instanceof Number)) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("power" + mm.getMessage("function.paramTypeError"));
+		}
+		
+		if (result2 == null) {
+			return null;
+		} else if (!(result2 instanceof Number)) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("power" + mm.getMessage("function.paramTypeError"));
+		}
+		
+		return new Double(Math.pow(Variant.doubleValue(result1), Variant.doubleValue(result2)));
+	}
 }
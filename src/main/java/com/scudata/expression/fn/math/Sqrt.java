@@ -1,5 +1,9 @@
 package com.scudata.expression.fn.math;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.NumberArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -60,5 +64,117 @@ public class Sqrt extends Function {
 			throw new RQException("sqrt" + mm.getMessage("function.invalidParam"));
 		}
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		return calculateAll(ctx, null, true, null);
+	}
 
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		return calculateAll(ctx, signArray, sign, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IArray array;
+		IArray rootArray = null;
+		if (param.isLeaf()) {
+			array = calculateAll(param.getLeafExpression(), ctx, signArray, sign);
+		} else if (param.getSubSize() == 2) {
+			IParam sub0 = param.getSub(0);
+			IParam sub1 = param.getSub(1);
+			if (sub0 == null || sub1 == null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("sqrt" + mm.getMessage("function.invalidParam"));
+			}
+			
+			array = calculateAll(sub0.getLeafExpression(), ctx, signArray, sign);
+			rootArray = calculateAll(sub1.getLeafExpression(), ctx, signArray, sign);
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("sqrt" + mm.getMessage("function.invalidParam"));
+		}
+		
+		int size = array.size();
+		if (signDatas == null && array instanceof ConstArray && (rootArray == null || rootArray instanceof ConstArray)) {
+			Object value = rootArray == null ? sqrt(array.get(1)) : sqrt(array.get(1), rootArray.get(1));
+			return new ConstArray(value, size);
+		}
+		
+		DoubleArray result = new DoubleArray(size);
+		result.setTemporary(true);
+		
+		if (rootArray == null && array instanceof NumberArray) {
+			for (int i = 1; i <= size; ++i) {
+				if ((signDatas != null && !signDatas[i]) || array.isNull(i)) {
+					result.pushNull();
+				} else {
+					result.pushDouble(Math.sqrt(((NumberArray)array).getDouble(i)));
+				}
+			}
+		} else {
+			for (int i = 1; i <= size; ++i) {
+				if (signDatas != null && !signDatas[i]) {
+					result.pushNull();
+					continue;
+				}
+				
+				Object value;
+				if (rootArray == null) {
+					value = sqrt(array.get(i));
+				} else {
+					value = sqrt(array.get(i), rootArray.get(i));
+				}
+				
+				if (value == null) {
+					result.pushNull();
+				} else {
+					result.pushDouble(((Double)value).doubleValue());
+				}
+			}
+		}
+		
+		return result;
+	}
+	
+	private static Object sqrt(Object a) {
+		if (a instanceof Number) {
+			return new Double(Math.sqrt(((Number)a).doubleValue()));
+		} else if (a == null) {
+			return null;
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("sqrt" + mm.getMessage("function.paramTypeError"));
+		}
+	}
+	
+	private static Object sqrt(Object a, Object b) {
+		if (a == null) {
+			return null;
+		} else if (!(a instanceof Number) || !(b instanceof Number)) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("sqrt" + mm.getMessage("function.paramTypeError"));
+		}
+		
+		double p = 1 / ((Number)b).doubleValue();
+		return new Double(Math.pow(((Number)a).doubleValue(), p));
+	}
 }
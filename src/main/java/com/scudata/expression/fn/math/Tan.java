@@ -1,5 +1,9 @@
 package com.scudata.expression.fn.math;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.NumberArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -31,4 +35,77 @@ public class Tan extends Function {
 			throw new RQException("tan" + mm.getMessage("function.paramTypeError"));
 		}
 	}
+
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		IArray array = param.getLeafExpression().calculateAll(ctx);
+		return tan(array, null);
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		IArray array = param.getLeafExpression().calculateAll(ctx, signArray, sign);
+		return tan(array, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private static IArray tan(IArray array, boolean []signDatas) {
+		int size = array.size();
+		if (signDatas == null && array instanceof ConstArray) {
+			Object obj = array.get(1);
+			Object value = null;
+			if (obj instanceof Number) {
+				value = new Double(Math.tan(((Number)obj).doubleValue()));
+			} else if (obj != null) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("tan" + mm.getMessage("function.paramTypeError"));
+			}
+			
+			return new ConstArray(value, size);
+		}
+		
+		DoubleArray result = new DoubleArray(size);
+		result.setTemporary(true);
+		
+		if (array instanceof NumberArray) {
+			for (int i = 1; i <= size; ++i) {
+				if ((signDatas != null && !signDatas[i]) || array.isNull(i)) {
+					result.pushNull();
+				} else {
+					result.pushDouble(Math.tan(((NumberArray)array).getDouble(i)));
+				}
+			}
+		} else {
+			for (int i = 1; i <= size; ++i) {
+				Object obj = signDatas == null || signDatas[i] ? array.get(i) : null;
+				if (obj instanceof Number) {
+					result.pushDouble(Math.tan(((Number)obj).doubleValue()));
+				} else if (obj == null) {
+					result.pushNull();
+				} else {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException("tan" + mm.getMessage("function.paramTypeError"));
+				}
+			}
+		}
+		
+		return result;
+	}
 }
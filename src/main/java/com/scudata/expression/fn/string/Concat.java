@@ -1,5 +1,8 @@
 package com.scudata.expression.fn.string;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.IArray;
+import com.scudata.array.StringArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -55,4 +58,88 @@ public class Concat extends Function {
 
 		return sb.toString();
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		return calculateAll(ctx, null, true, null);
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		return calculateAll(ctx, signArray, sign, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IArray []arrays;
+		if (param.isLeaf()) {
+			arrays = new IArray[] {calculateAll(param.getLeafExpression(), ctx, signArray, sign)};
+		} else {
+			int count = param.getSubSize();
+			arrays = new IArray[count];
+			for (int i = 0; i < count; ++i) {
+				IParam sub = param.getSub(i);
+				if (sub == null || !sub.isLeaf()) {
+					MessageManager mm = EngineMessage.get();
+					throw new RQException("concat" + mm.getMessage("function.invalidParam"));
+				}
+				
+				arrays[i] = calculateAll(sub.getLeafExpression(), ctx, signArray, sign);
+			}
+		}
+		
+		int size = arrays[0].size();
+		boolean isConst = signDatas == null;
+		for (IArray array : arrays) {
+			if (!(array instanceof ConstArray)) {
+				isConst = false;
+				break;
+			}
+		}
+		
+		StringBuffer sb = new StringBuffer();
+		if (isConst) {
+			for (IArray array : arrays) {
+				concat(array.get(1), sb);
+			}
+			
+			return new ConstArray(sb.toString(), size);
+		}
+		
+		StringArray result = new StringArray(size);
+		result.setTemporary(true);
+		
+		for (int i = 1; i <= size; ++i) {
+			if (signDatas != null && !signDatas[i]) {
+				result.pushNull();
+				continue;
+			}
+			
+			sb.setLength(0);
+			for (IArray array : arrays) {
+				concat(array.get(i), sb);
+			}
+			
+			result.push(sb.toString());
+		}
+		
+		return result;
+	}
 }
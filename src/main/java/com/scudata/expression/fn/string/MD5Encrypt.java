@@ -1,6 +1,9 @@
 package com.scudata.expression.fn.string;
 
 import com.scudata.common.MD5;
+import com.scudata.array.ConstArray;
+import com.scudata.array.IArray;
+import com.scudata.array.StringArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -38,4 +41,67 @@ public class MD5Encrypt extends Function {
 			throw new RQException("md5" + mm.getMessage("function.paramTypeError"));
 		}
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		return calculateAll(ctx, null, true, null);
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		return calculateAll(ctx, signArray, sign, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IArray array = calculateAll(param.getLeafExpression(), ctx, signArray, sign);
+		int size = array.size();
+		MD5 md5 = new MD5();
+		
+		if (signDatas == null && array instanceof ConstArray) {
+			String str = md5(array.get(1), md5);
+			return new ConstArray(str, size);
+		}
+		
+		StringArray result = new StringArray(size);
+		result.setTemporary(true);
+		
+		for (int i = 1; i <= size; ++i) {
+			if (signDatas == null || signDatas[i]) {
+				result.push(md5(array.get(i), md5));
+			} else {
+				result.pushNull();
+			}
+		}
+		
+		return result;
+	}
+	
+	private static String md5(Object val, MD5 md5) {
+		if (val instanceof String) {
+			return md5.getMD5ofStr((String)val);
+		} else if (val == null) {
+			return null;
+		} else {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("md5" + mm.getMessage("function.paramTypeError"));
+		}
+	}
 }
@@ -1,5 +1,8 @@
 package com.scudata.expression.fn.string;
 
+import com.scudata.array.ConstArray;
+import com.scudata.array.IArray;
+import com.scudata.array.StringArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.Context;
@@ -105,4 +108,66 @@ public class Pad extends Function {
 			}
 		}
 	}
+	
+	/**
+	 * еĽ
+	 * @param ctx 
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx) {
+		return calculateAll(ctx, null, true, null);
+	}
+
+	/**
+	 * signArrayȡֵΪsign
+	 * @param ctx
+	 * @param signArray бʶ
+	 * @param sign ʶ
+	 * @return IArray
+	 */
+	public IArray calculateAll(Context ctx, IArray signArray, boolean sign) {
+		boolean[] signDatas;
+		if (sign) {
+			signDatas = signArray.isTrue().getDatas();
+		} else {
+			signDatas = signArray.isFalse().getDatas();
+		}
+		
+		return calculateAll(ctx, signArray, sign, signDatas);
+	}
+	
+	// signDatasΪʱУֻʶΪtrue
+	private IArray calculateAll(Context ctx, IArray signArray, boolean sign, boolean []signDatas) {
+		IArray array1 = calculateAll(exp1, ctx, signArray, sign);
+		IArray array2 = calculateAll(exp2, ctx, signArray, sign);
+		IArray array3 = calculateAll(exp3, ctx, signArray, sign);
+		int size = array1.size();
+		
+		if (signDatas == null && array1 instanceof ConstArray && array2 instanceof ConstArray && array3 instanceof ConstArray) {
+			String str = pad(array1.get(1), array2.get(1), array3.get(1), option);
+			return new ConstArray(str, size);
+		}
+		
+		StringArray result = new StringArray(size);
+		result.setTemporary(true);
+		
+		for (int i = 1; i <= size; ++i) {
+			if (signDatas == null || signDatas[i]) {
+				result.push(pad(array1.get(i), array2.get(i), array3.get(i), option));
+			} else {
+				result.pushNull();
+			}
+		}
+		
+		return result;
+	}
+	
+	private static String pad(Object o1, Object o2, Object o3, String opt) {
+		if (!(o1 instanceof String) || !(o2 instanceof String) || !(o3 instanceof Number)) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("pad" + mm.getMessage("function.paramTypeError"));
+		}
+		
+		return pad((String)o1, (String)o2, ((Number)o3).intValue(), opt);
+	}
 }
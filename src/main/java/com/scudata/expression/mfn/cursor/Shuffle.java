@@ -0,0 +1,27 @@
+package com.scudata.expression.mfn.cursor;
+
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.Context;
+import com.scudata.expression.CursorFunction;
+import com.scudata.expression.Expression;
+import com.scudata.parallel.ClusterCursor;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * ѼȺα갴ʽĹϣֵ·ֲڵؼȺα
+ * cs.shuffle(x,)
+ * @author RunQian
+ *
+ */
+public class Shuffle extends CursorFunction {
+	public Object calculate(Context ctx) {
+		if (!(cursor instanceof ClusterCursor)) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(mm.getMessage("dw.needClusterCursor"));
+		}
+		
+		Expression []exps = getParamExpressions("shuffle", false);
+		return ((ClusterCursor)cursor).shuffle(exps, ctx);
+	}
+}
@@ -8,6 +8,7 @@ import com.scudata.common.RQException;
 import com.scudata.dm.Context;
 import com.scudata.dm.FileObject;
 import com.scudata.dw.ColComTable;
+import com.scudata.dw.ColumnMetaData;
 import com.scudata.dw.ComTable;
 import com.scudata.dw.RowComTable;
 import com.scudata.expression.Expression;
@@ -18,7 +19,8 @@ import com.scudata.resources.EngineMessage;
 
 /**
  * ļ
- * f.create(C,;x)
+ * f.create(C,;x)CдC:codecָб룬codecΪbitpackdeltarle
+ * дC:bloomC:codec:bloomʱΪÿпɲ¡ڵֵcontainʱ
  * @author RunQian
  *
  */
@@ -54,8 +56,12 @@ public class Create extends FileFunction {
 		}
 		
 		String []cols;
+		boolean hasCodec = false;
 		if (colParam.isLeaf()) {
 			cols = new String[]{colParam.getLeafExpression().getIdentifierName()};
+		} else if (colParam.getType() == IParam.Colon) {
+			cols = new String[]{getColumnName(colParam)};
+			hasCodec = true;
 		} else {
 			int size = colParam.getSubSize();
 			cols = new String[size];
@@ -64,9 +70,25 @@ public class Create extends FileFunction {
 				if (sub == null) {
 					MessageManager mm = EngineMessage.get();
 					throw new RQException("create" + mm.getMessage("function.invalidParam"));
+				} else if (sub.isLeaf()) {
+					cols[i] = sub.getLeafExpression().getIdentifierName();
+				} else {
+					cols[i] = getColumnName(sub);
+					hasCodec = true;
 				}
-				
-				cols[i] = sub.getLeafExpression().getIdentifierName();
+			}
+		}
+		
+		if (option != null) {
+			if (option.indexOf('u') != -1 && option.indexOf('z') != -1) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException(option + mm.getMessage("engine.optConflict"));
+			}
+			
+			// д治֧б
+			if (hasCodec && option.indexOf('r') != -1) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("create" + mm.getMessage("function.invalidParam"));
 			}
 		}
 
@@ -114,4 +136,41 @@ public class Create extends FileFunction {
 			throw new RQException(e.getMessage(), e);
 		}
 	}
+	
+	// вΪC:codec[:bloom]ʱء:[:bloom]ColPhyTable
+	private static String getColumnName(IParam param) {
+		int size = param.getSubSize();
+		if (param.getType() != IParam.Colon || size < 2 || size > 3) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("create" + mm.getMessage("function.invalidParam"));
+		}
+		
+		IParam nameParam = param.getSub(0);
+		if (nameParam == null || !nameParam.isLeaf()) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException("create" + mm.getMessage("function.invalidParam"));
+		}
+		
+		String name = nameParam.getLeafExpression().getIdentifierName();
+		String codec = null;
+		for (int i = 1; i < size; ++i) {
+			IParam codecParam = param.getSub(i);
+			if (codecParam == null) {
+				continue;
+			} else if (!codecParam.isLeaf()) {
+				MessageManager mm = EngineMessage.get();
+				throw new RQException("create" + mm.getMessage("function.invalidParam"));
+			}
+			
+			String str = codecParam.getLeafExpression().getIdentifierName();
+			codec = codec == null ? str : codec + ColumnMetaData.CODEC_SEPARATOR + str;
+		}
+		
+		if (codec == null) {
+			return name;
+		}
+		
+		ColumnMetaData.checkCodecNames(codec); // ǷϷ
+		return name + ColumnMetaData.CODEC_SEPARATOR + codec;
+	}
 }
@@ -11,6 +11,7 @@ import com.scudata.parallel.ClusterFile;
 /**
  * 
  * f.open()
+ * @m ֻڴӳ䷽ʽȡ
  * @author RunQian
  *
  */
@@ -29,6 +30,9 @@ public class Open extends FileFunction {
 			// ļ
 			File f = file.getLocalFile().file();
 			PhyTable table = ComTable.openBaseTable(f, ctx);
+			if (option != null && option.indexOf('m') != -1) {
+				table.getGroupTable().setMemoryMapped(true);
+			}
 			
 			Integer partition = file.getPartition();
 			if (partition != null && partition.intValue() > 0) {
@@ -30,7 +30,7 @@ import com.scudata.parallel.ClusterPhyTable;
 public class Structure extends FileFunction {
 	private static final String FIELD_NAMES[] = { "field", "key", "row", "zip", "seg", "zonex", "index", "cuboid", "attach" };
 	private static final String ATTACH_FIELD_NAMES[] = { "name", "field", "key", "row", "zip", "seg", "zonex", "index", "cuboid", "attach" };
-	private static final String COL_FIELD_FIELD_NAMES[] = {"name", "dim", "type", "type-len", "dict"};
+	private static final String COL_FIELD_FIELD_NAMES[] = {"name", "dim", "type", "type-len", "dict", "codec"};
 	private static final String ROW_FIELD_FIELD_NAMES[] = {"name", "dim"};
 	private static final String CUBOID_FIELD_NAMES[] = { "name", "keys", "aggr" };
 	private static final String CUBOID_AGGR_FIELD_NAMES[] = { "name", "exp" };
@@ -143,6 +143,7 @@ public class Structure extends FileFunction {
 					dict = null;
 				}
 				rec.setNormalFieldValue(4, dict);
+				rec.setNormalFieldValue(5, column.getCodecName());
 				seq.add(rec);
 			}
 		} else {
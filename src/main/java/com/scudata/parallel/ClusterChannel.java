@@ -564,7 +564,9 @@ public class ClusterChannel extends Channel {
  				if (results[i] instanceof Integer) {
  					// αid
  					int id = ((Integer)results[i]).intValue();
- 					results[i] = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id);
+ 					RemoteCursor rc = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id);
+ 					rc.setPrefetch(true);
+ 					results[i] = rc;
  				}
 			} finally {
 				client.close();
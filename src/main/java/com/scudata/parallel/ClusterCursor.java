@@ -2,10 +2,14 @@ package com.scudata.parallel;
 
 import java.util.HashMap;
 
+import com.scudata.array.IArray;
 import com.scudata.common.MessageManager;
 import com.scudata.common.RQException;
 import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ComputeStack;
 import com.scudata.dm.Context;
+import com.scudata.dm.Current;
+import com.scudata.dm.DataStruct;
 import com.scudata.dm.JobSpace;
 import com.scudata.dm.JobSpaceManager;
 import com.scudata.dm.ResourceManager;
@@ -15,7 +19,9 @@ import com.scudata.dm.cursor.GroupmCursor;
 import com.scudata.dm.cursor.ICursor;
 import com.scudata.dm.cursor.IMultipath;
 import com.scudata.dm.cursor.MergesCursor;
+import com.scudata.dm.cursor.MultipathCursors;
 import com.scudata.dm.cursor.PJoinCursor;
+import com.scudata.dm.op.IGroupsResult;
 import com.scudata.dm.op.Operable;
 import com.scudata.dm.op.Operation;
 import com.scudata.dw.Cursor;
@@ -26,6 +32,7 @@ import com.scudata.expression.Function;
 import com.scudata.expression.FunctionLib;
 import com.scudata.expression.Gather;
 import com.scudata.resources.EngineMessage;
+import com.scudata.thread.GroupsJob;
 import com.scudata.thread.ThreadPool;
 import com.scudata.util.CursorUtil;
 
@@ -483,6 +490,14 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 		UnitJob []jobs = new UnitJob[count];
 		ThreadPool pool = TaskManager.getPool();
 		
+		// ڵػܺмֵavgicountȵĽٻܳ
+		// @rڵмֵֶεĹϣֵ֣ɸڵֱһַλ
+		boolean isPartial = isPartialGroups(opt, groupCount);
+		boolean ropt = isPartial && dcount > 0 && count > 1 && opt != null && opt.indexOf('r') != -1;
+		if (copt && !ropt) {
+			isPartial = false;
+		}
+		
 		for (int i = 0; i < count; ++i) {
 			UnitClient client = new UnitClient(cluster.getHost(i), cluster.getPort(i));
 			UnitCommand command = new UnitCommand(UnitCommand.GROUPS);
@@ -496,7 +511,12 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 			command.setAttribute("option", opt);
 			command.setAttribute("groupCount", groupCount);
 			
-			if (copt) {
+			if (isPartial) {
+				command.setAttribute("partial", Boolean.TRUE);
+				if (ropt) {
+					command.setAttribute("partCount", new Integer(count));
+				}
+			} else if (copt) {
 				command.setAttribute("newNames", newNames);
 				command.setAttribute("newExpStrs", newExpStrs);
 			}
@@ -506,6 +526,19 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 			pool.submit(jobs[i]);
 		}
 		
+		if (ropt) {
+			Object result = repartitionGroups(jobs, dexps, names, mexps, calcNames, opt, 
+					newNames, newExpStrs, totalExps, ctx);
+			if (copt) {
+				return result;
+			} else {
+				return finishGroups((Table)result, dcount, opt, newNames, newExps, ctx);
+			}
+		} else if (isPartial) {
+			Table table = mergePartialGroups(jobs, exps, names, calcExps, calcNames, opt, ctx);
+			return finishGroups(table, dcount, opt, newNames, newExps, ctx);
+		}
+		
 		// @cִֻУƴɼȺڱcsֲȺά
 		if (copt) {
 			RemoteMemoryTable []tables = new RemoteMemoryTable[count];
@@ -558,7 +591,21 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 		}
 
 		Table table = result.groups(exps2, names, calcExps2, calcNames, opt, ctx);
-		if (newNames != null) {
+		return finishGroups(table, dcount, opt, newNames, newExps, ctx);
+	}
+	
+	/**
+	 * ϵķ@dʱƵֻƴɼȺдڱ
+	 * @param table 
+	 * @param dcount ֶ
+	 * @param opt ѡ
+	 * @param newNames Էֶ
+	 * @param newExps Էıʽ
+	 * @param ctx 
+	 * @return 
+	 */
+	private Object finishGroups(Table table, int dcount, String opt, String[] newNames, Expression[] newExps, Context ctx) {
+		if (newNames != null && table != null) {
 			int groupFieldCount = 0;
 			if (opt == null || opt.indexOf('b') == -1) {
 				groupFieldCount = dcount;
@@ -571,9 +618,208 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 			return table;
 		} else {
 			// @d ƵֻƴɼȺдڱ
-			return ClusterMemoryTable.dupLocal(cluster, table);
+			return ClusterMemoryTable.dupLocal(getCluster(), table);
+		}
+	}
+	
+	/**
+	 * жϷܷɽڵмֵλ
+	 * @param opt ѡ
+	 * @param groupCount 
+	 * @return true
+	 */
+	private static boolean isPartialGroups(String opt, int groupCount) {
+		if (groupCount >= 1) {
+			return false;
+		} else if (opt == null) {
+			return true;
+		}
+		
+		// 顢@n@i@h@z@XĽֱӶмֵùϣλ
+		return opt.indexOf('o') == -1 && opt.indexOf('n') == -1 && opt.indexOf('i') == -1 && 
+			opt.indexOf('h') == -1 && opt.indexOf('z') == -1 && opt.indexOf('X') == -1;
+	}
+	
+	/**
+	 * ȡڵмֵʱʹõѡмֵҪֶ
+	 * @param opt ѡ
+	 * @return ѡ
+	 */
+	private static String getPartialOption(String opt) {
+		return opt == null ? null : opt.replace("b", "");
+	}
+	
+	/**
+	 * ɷɶмֵλܵķ󣬶λõķprimitiveϣ
+	 * @param groups 
+	 * @param opt λʹõѡ
+	 * @param ctx 
+	 * @return IGroupsResult
+	 */
+	private static IGroupsResult newRegatherGroups(IGroupsResult groups, String opt, Context ctx) {
+		Expression []valExps = groups.getRegatherExpressions();
+		DataStruct ds = groups.getRegatherDataStruct();
+		int fcount = ds.getFieldCount();
+		int keyCount = valExps == null ? fcount : fcount - valExps.length;
+		
+		Expression []keyExps = null;
+		String []keyNames = null;
+		if (keyCount > 0) {
+			keyExps = new Expression[keyCount];
+			keyNames = new String[keyCount];
+			for (int i = 0, q = 1; i < keyCount; ++i, ++q) {
+				keyExps[i] = new Expression(ctx, "#" + q);
+				keyNames[i] = ds.getFieldName(i);
+			}
 		}
-	}	
+
+		String []valNames = null;
+		if (valExps != null) {
+			int valCount = valExps.length;
+			valNames = new String[valCount];
+			for (int i = 0; i < valCount; ++i) {
+				valNames[i] = ds.getFieldName(keyCount + i);
+			}
+		}
+		
+		return IGroupsResult.instance(keyExps, keyNames, valExps, valNames, opt, ctx);
+	}
+	
+	/**
+	 * ԶλܵĽֵavgֳܱsumcountнм
+	 * @param groups 
+	 * @param regather λܵķ
+	 * @param ctx 
+	 * @return ûʱؿ
+	 */
+	private static Table getRegatherResult(IGroupsResult groups, IGroupsResult regather, Context ctx) {
+		Table table = regather.getResultTable();
+		Expression []resultExps = groups.getResultExpressions();
+		if (table != null && resultExps != null) {
+			table = table.newTable(groups.getResultDataStruct(), resultExps, null, ctx);
+		}
+		
+		return table;
+	}
+	
+	/**
+	 * ȴڵطܵмֵ߽ձλ
+	 * @param jobs ڵ
+	 * @param exps ֶαʽ
+	 * @param names ֶ
+	 * @param calcExps ֶαʽ
+	 * @param calcNames ֶ
+	 * @param opt ѡ
+	 * @param ctx 
+	 * @return 
+	 */
+	private static Table mergePartialGroups(UnitJob []jobs, Expression[] exps, String[] names, 
+			Expression[] calcExps, String[] calcNames, String opt, Context ctx) {
+		IGroupsResult groups = IGroupsResult.instance(exps, names, calcExps, calcNames, getPartialOption(opt), ctx);
+		IGroupsResult regather = newRegatherGroups(groups, opt, ctx);
+		
+		for (UnitJob job : jobs) {
+			// ȴִ
+			job.join();
+			PartialGroups part = (PartialGroups)job.getResult();
+			if (part != null) {
+				regather.push(part.toTable(), ctx);
+			}
+		}
+		
+		return getRegatherResult(groups, regather, ctx);
+	}
+	
+	/**
+	 * ڵֶεĹϣֵмֵɸڵֱȡԼĲλ
+	 * @return @cʱؼȺڱ򷵻ƴӺķ
+	 */
+	private Object repartitionGroups(UnitJob []jobs, String []dexps, String []names, String []mexps, 
+			String []calcNames, String opt, String []newNames, String []newExpStrs, Expression []totalExps, Context ctx) {
+		Cluster cluster = getCluster();
+		int count = jobs.length;
+		String []hosts = new String[count];
+		int []ports = new int[count];
+		int []partProxyIds = new int[count];
+		
+		for (int i = 0; i < count; ++i) {
+			// ȴִ
+			jobs[i].join();
+			partProxyIds[i] = ((Integer)jobs[i].getResult()).intValue();
+			hosts[i] = cluster.getHost(i);
+			ports[i] = cluster.getPort(i);
+		}
+		
+		boolean copt = opt.indexOf('c') != -1;
+		ThreadPool pool = TaskManager.getPool();
+		for (int i = 0; i < count; ++i) {
+			UnitClient client = new UnitClient(hosts[i], ports[i]);
+			UnitCommand command = new UnitCommand(UnitCommand.GROUPS_MERGE);
+			command.setAttribute("jobSpaceId", cluster.getJobSpaceId());
+			command.setAttribute("cursorProxyId", new Integer(cursorProxyIds[i]));
+			command.setAttribute("hosts", hosts);
+			command.setAttribute("ports", ports);
+			command.setAttribute("partProxyIds", partProxyIds);
+			command.setAttribute("partIndex", new Integer(i));
+			
+			command.setAttribute("dexps", dexps);
+			command.setAttribute("names", names);
+			command.setAttribute("mexps", mexps);
+			command.setAttribute("calcNames", calcNames);
+			command.setAttribute("option", opt);
+			
+			if (copt) {
+				command.setAttribute("newNames", newNames);
+				command.setAttribute("newExpStrs", newExpStrs);
+			}
+			
+			ClusterUtil.setParams(command, totalExps, ctx);
+			jobs[i] = new UnitJob(client, command);
+			pool.submit(jobs[i]);
+		}
+		
+		if (copt) {
+			RemoteMemoryTable []tables = new RemoteMemoryTable[count];
+			for (int i = 0; i < count; ++i) {
+				jobs[i].join();
+				tables[i] = (RemoteMemoryTable)jobs[i].getResult();
+			}
+			
+			return new ClusterMemoryTable(cluster, tables, true);
+		}
+		
+		Table table = null;
+		for (int i = 0; i < count; ++i) {
+			jobs[i].join();
+			PartialGroups part = (PartialGroups)jobs[i].getResult();
+			if (part == null) {
+				continue;
+			} else if (table == null) {
+				table = part.toTable();
+			} else {
+				part.appendTo(table);
+			}
+		}
+		
+		// ڵķ黥ͬƴӺ󰴷ֶ
+		int keyCount = dexps.length;
+		if (table != null && opt.indexOf('b') == -1) {
+			if (opt.indexOf('u') == -1) {
+				int []fields = new int[keyCount];
+				for (int i = 0; i < keyCount; ++i) {
+					fields[i] = i;
+				}
+				
+				table.sortFields(fields);
+			}
+			
+			String []pk = new String[keyCount];
+			System.arraycopy(table.dataStruct().getFieldNames(), 0, pk, 0, keyCount);
+			table.dataStruct().setPrimary(pk);
+		}
+		
+		return table;
+	}
 
 	/**
 	 * ֶβǵܺʱֶλᱻɶֶΣҪŷnewһ
@@ -658,6 +904,24 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 			ResourceManager rm = js.getResourceManager();
 			CursorProxy cursor = (CursorProxy)rm.getProxy(cursorProxyId.intValue());
 			ICursor cs = cursor.getCursor();
+			if (attributes.get("partial") != null) {
+				// ػܺмֵ@rʱֶεĹϣֵֺڱڵȴڵȡ
+				PartialGroups part = null;
+				if (cs != null) {
+					part = groupsPartial(cs, exps, names, calcExps, calcNames, getPartialOption(opt), ctx);
+				}
+				
+				Integer partCount = (Integer)attributes.get("partCount");
+				if (partCount == null) {
+					return new Response(part);
+				}
+				
+				int count = partCount.intValue();
+				PartialGroupsProxy proxy = new PartialGroupsProxy(part == null ? null : part.split(count), count);
+				rm.addProxy(proxy);
+				return new Response(new Integer(proxy.getProxyId()));
+			}
+			
 			Table result = null;
 			if (cs != null) {
 				result = cs.groups(exps, names, calcExps, calcNames, opt, ctx, groupCount);
@@ -690,6 +954,224 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 		}
 	}
 	
+	/**
+	 * ڵ϶α飬ػܺмֵ
+	 * @param cs α
+	 * @param exps ֶαʽ
+	 * @param names ֶ
+	 * @param calcExps ֶαʽ
+	 * @param calcNames ֶ
+	 * @param opt ѡ
+	 * @param ctx 
+	 * @return мֵûʱؿ
+	 */
+	private static PartialGroups groupsPartial(ICursor cs, Expression[] exps, String[] names, 
+			Expression[] calcExps, String[] calcNames, String opt, Context ctx) {
+		Table table;
+		if (cs instanceof MultipathCursors && ((MultipathCursors)cs).getPathCount() > 1) {
+			// ·αÿ·з飬мֵڱڵһζλ
+			MultipathCursors mcs = (MultipathCursors)cs;
+			int pathCount = mcs.getPathCount();
+			ThreadPool pool = ThreadPool.newInstance(pathCount);
+			GroupsJob []jobs = new GroupsJob[pathCount];
+			IGroupsResult regather = null;
+			
+			try {
+				for (int i = 0; i < pathCount; ++i) {
+					Context tmpCtx = ctx.newComputeContext();
+					Expression []tmpExps = Operation.dupExpressions(exps, tmpCtx);
+					Expression []tmpCalcExps = Operation.dupExpressions(calcExps, tmpCtx);
+					jobs[i] = new GroupsJob(mcs.getPathCursor(i), tmpExps, names, tmpCalcExps, calcNames, opt, tmpCtx);
+					pool.submit(jobs[i]);
+				}
+				
+				for (int i = 0; i < pathCount; ++i) {
+					jobs[i].join();
+					IGroupsResult groups = jobs[i].getGroupsResult();
+					if (regather == null) {
+						regather = newRegatherGroups(groups, opt, ctx);
+					}
+					
+					Table temp = groups.getTempResult();
+					if (temp != null) {
+						regather.push(temp, ctx);
+					}
+				}
+			} finally {
+				pool.shutdown();
+			}
+			
+			table = regather.getTempResult();
+		} else {
+			IGroupsResult groups = cs.getGroupsResult(exps, names, calcExps, calcNames, opt, ctx);
+			groups.push(cs);
+			table = groups.getTempResult();
+		}
+		
+		if (table == null || table.length() == 0) {
+			return null;
+		} else {
+			return new PartialGroups(table, exps == null ? 0 : exps.length);
+		}
+	}
+	
+	/**
+	 * ڵȡ߸ڵڱڵķмֵλ
+	 * @param attributes 
+	 * @return Response ĻӦ
+	 */
+	public static Response executeGroupsMerge(HashMap<String, Object> attributes) {
+		String jobSpaceID = (String)attributes.get("jobSpaceId");
+		Integer cursorProxyId = (Integer)attributes.get("cursorProxyId");
+		String []hosts = (String[])attributes.get("hosts");
+		int []ports = (int[])attributes.get("ports");
+		int []partProxyIds = (int[])attributes.get("partProxyIds");
+		int partIndex = ((Integer)attributes.get("partIndex")).intValue();
+		String []dexps = (String[])attributes.get("dexps");
+		String []names = (String[])attributes.get("names");
+		String []mexps = (String[])attributes.get("mexps");
+		String []calcNames = (String[])attributes.get("calcNames");
+		String opt = (String)attributes.get("option");
+		String []newNames = (String[])attributes.get("newNames");
+		String []newExpStrs = (String[])attributes.get("newExpStrs");
+
+		JobSpace js = JobSpaceManager.getSpace(jobSpaceID);
+		Context ctx = ClusterUtil.createContext(js, attributes);
+		
+		int dcount = dexps.length;
+		Expression[] exps = new Expression[dcount];
+		for (int i = 0; i < dcount; ++i) {
+			exps[i] = new Expression(ctx, dexps[i]);
+		}
+		
+		Expression[] calcExps = null;
+		if (mexps != null) {
+			int mcount = mexps.length;
+			calcExps = new Expression[mcount];
+			for (int i = 0; i < mcount; ++i) {
+				calcExps[i] = new Expression(ctx, mexps[i]);
+			}
+		}
+		
+		Expression[] newExps = null;
+		if (newExpStrs != null) {
+			int count = newExpStrs.length;
+			newExps = new Expression[count];
+			for (int i = 0; i < count; ++i) {
+				newExps[i] = new Expression(ctx, newExpStrs[i]);
+			}
+		}
+		
+		try {
+			ResourceManager rm = js.getResourceManager();
+			IGroupsResult groups = IGroupsResult.instance(exps, names, calcExps, calcNames, getPartialOption(opt), ctx);
+			IGroupsResult regather = newRegatherGroups(groups, opt, ctx);
+			
+			// ڵȡмֵͬʱԱڵмֵλ
+			int count = hosts.length;
+			UnitJob []jobs = new UnitJob[count];
+			ThreadPool pool = TaskManager.getPool();
+			for (int i = 0; i < count; ++i) {
+				if (i == partIndex) {
+					continue;
+				}
+				
+				UnitClient client = new UnitClient(hosts[i], ports[i]);
+				UnitCommand command = new UnitCommand(UnitCommand.GROUPS_PART);
+				command.setAttribute("jobSpaceId", jobSpaceID);
+				command.setAttribute("partProxyId", new Integer(partProxyIds[i]));
+				command.setAttribute("partIndex", new Integer(partIndex));
+				jobs[i] = new UnitJob(client, command);
+				pool.submit(jobs[i]);
+			}
+			
+			PartialGroups part = takePartialGroups(rm, partProxyIds[partIndex], partIndex);
+			if (part != null) {
+				regather.push(part.toTable(), ctx);
+			}
+			
+			for (int i = 0; i < count; ++i) {
+				if (jobs[i] != null) {
+					jobs[i].join();
+					part = (PartialGroups)jobs[i].getResult();
+					if (part != null) {
+						regather.push(part.toTable(), ctx);
+					}
+				}
+			}
+			
+			Table result = getRegatherResult(groups, regather, ctx);
+			if (opt.indexOf('c') == -1) {
+				// д
+				if (result == null || result.length() == 0) {
+					return new Response(null);
+				} else {
+					return new Response(new PartialGroups(result, 0));
+				}
+			}
+			
+			// @cλܽڱڵƴɼȺڱ
+			if (result == null) {
+				result = new Table(regather.getResultDataStruct());
+			}
+			
+			if (newNames != null) {
+				int groupFieldCount = opt.indexOf('b') == -1 ? dcount : 0;
+				result = newGroupsResult(result, newNames, newExps, ctx, groupFieldCount);
+			}
+			
+			CursorProxy cursor = (CursorProxy)rm.getProxy(cursorProxyId.intValue());
+			result = new MemoryTable(result);
+			IProxy proxy = new TableProxy(result, cursor.getUnit());
+			rm.addProxy(proxy);
+			
+			RemoteMemoryTable rmt = ClusterMemoryTable.newRemoteMemoryTable(proxy.getProxyId(), result);
+			return new Response(rmt);
+		} catch (Exception e) {
+			Response response = new Response();
+			response.setException(e);
+			return response;
+		}
+	}
+	
+	/**
+	 * ڵȡ߱ڵϲֺķмֵһ
+	 * @param attributes 
+	 * @return Response ڵĻӦ
+	 */
+	public static Response executeGroupsPart(HashMap<String, Object> attributes) {
+		String jobSpaceID = (String)attributes.get("jobSpaceId");
+		Integer partProxyId = (Integer)attributes.get("partProxyId");
+		Integer partIndex = (Integer)attributes.get("partIndex");
+		
+		try {
+			JobSpace js = JobSpaceManager.getSpace(jobSpaceID);
+			ResourceManager rm = js.getResourceManager();
+			PartialGroups part = takePartialGroups(rm, partProxyId.intValue(), partIndex.intValue());
+			return new Response(part);
+		} catch (Exception e) {
+			Response response = new Response();
+			response.setException(e);
+			return response;
+		}
+	}
+	
+	// ȡֺ߲ķмֵһݣȫȡߺرմ
+	private static PartialGroups takePartialGroups(ResourceManager rm, int proxyId, int partIndex) {
+		PartialGroupsProxy proxy = (PartialGroupsProxy)rm.getProxy(proxyId);
+		if (proxy == null) {
+			MessageManager mm = EngineMessage.get();
+			throw new RQException(mm.getMessage("function.invalidParam"));
+		}
+		
+		PartialGroups part = proxy.take(partIndex);
+		if (proxy.isFinished()) {
+			rm.closeProxy(proxyId);
+		}
+		
+		return part;
+	}
+	
 	/**
 	 * αл
 	 * @param calcExps ܱʽ
@@ -990,7 +1472,9 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 			// ȴִ
 			jobs[i].join();
 			Integer id = (Integer)jobs[i].getResult();
-			cursors[i] = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id.intValue());//, ctx);
+			RemoteCursor rc = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id.intValue());
+			rc.setPrefetch(true);
+			cursors[i] = rc;
 		}
 		
 		Expression []exps2 = null;
@@ -1113,7 +1597,9 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 			// ȴִ
 			jobs[i].join();
 			Integer id = (Integer)jobs[i].getResult();
-			cursors[i] = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id.intValue());//, ctx);
+			RemoteCursor rc = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id.intValue());
+			rc.setPrefetch(true);
+			cursors[i] = rc;
 		}
 
 		return new MergesCursor(cursors, exps, ctx);
@@ -1362,6 +1848,294 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 		}
 	}
 	
+	/**
+	 * ѼȺα갴ʽĹϣֵ·ֲڵֵͬļ¼ֵͬһڵ
+	 * ڶԲֲͬļȺαӻֶ߰
+	 * @param exps ֲʽ
+	 * @param ctx 
+	 * @return Ⱥα
+	 */
+	public ClusterCursor shuffle(Expression []exps, Context ctx) {
+		Cluster cluster = getCluster();
+		int count = cluster.getUnitCount();
+		String jobSpaceId = cluster.getJobSpaceId();
+		String []hosts = new String[count];
+		int []ports = new int[count];
+		int []receiverIds = new int[count];
+		
+		// ڸڵϴջ
+		for (int i = 0; i < count; ++i) {
+			hosts[i] = cluster.getHost(i);
+			ports[i] = cluster.getPort(i);
+			UnitClient client = new UnitClient(hosts[i], ports[i]);
+			
+			try {
+				UnitCommand command = new UnitCommand(UnitCommand.SHUFFLE_RECEIVE);
+				command.setAttribute("jobSpaceId", jobSpaceId);
+				Response response = client.send(command);
+				receiverIds[i] = ((Integer)response.checkResult()).intValue();
+			} finally {
+				client.close();
+			}
+		}
+		
+		int expCount = exps.length;
+		String []expStrs = new String[expCount];
+		for (int i = 0; i < expCount; ++i) {
+			expStrs[i] = exps[i].toString();
+		}
+		
+		// ڵԼα꣬Ѽ¼͸ϣֵӦĽڵ
+		UnitJob []jobs = new UnitJob[count];
+		ThreadPool pool = TaskManager.getPool();
+		for (int i = 0; i < count; ++i) {
+			UnitClient client = new UnitClient(hosts[i], ports[i]);
+			UnitCommand command = new UnitCommand(UnitCommand.SHUFFLE);
+			command.setAttribute("jobSpaceId", jobSpaceId);
+			command.setAttribute("cursorProxyId", new Integer(cursorProxyIds[i]));
+			command.setAttribute("expStrs", expStrs);
+			command.setAttribute("hosts", hosts);
+			command.setAttribute("ports", ports);
+			command.setAttribute("receiverIds", receiverIds);
+			command.setAttribute("unit", new Integer(i));
+			
+			ClusterUtil.setParams(command, exps, ctx);
+			jobs[i] = new UnitJob(client, command);
+			pool.submit(jobs[i]);
+		}
+		
+		for (int i = 0; i < count; ++i) {
+			// ȴִ
+			jobs[i].join();
+			jobs[i].getResult();
+		}
+		
+		// ɸڵյļ¼α
+		int []newCursorProxyIds = new int[count];
+		for (int i = 0; i < count; ++i) {
+			UnitClient client = new UnitClient(hosts[i], ports[i]);
+			
+			try {
+				UnitCommand command = new UnitCommand(UnitCommand.SHUFFLE_CURSOR);
+				command.setAttribute("jobSpaceId", jobSpaceId);
+				command.setAttribute("receiverId", new Integer(receiverIds[i]));
+				command.setAttribute("unit", new Integer(i));
+				Response response = client.send(command);
+				newCursorProxyIds[i] = ((Integer)response.checkResult()).intValue();
+			} finally {
+				client.close();
+			}
+		}
+		
+		return new ClusterCursor(cluster, newCursorProxyIds, true);
+	}
+	
+	/**
+	 * ڵϴطֲĽջ
+	 * @param attributes 
+	 * @return Response ĻӦ
+	 */
+	public static Response executeShuffleReceive(HashMap<String, Object> attributes) {
+		String jobSpaceID = (String)attributes.get("jobSpaceId");
+		
+		try {
+			JobSpace js = JobSpaceManager.getSpace(jobSpaceID);
+			IProxy proxy = new ShuffleProxy();
+			js.getResourceManager().addProxy(proxy);
+			return new Response(new Integer(proxy.getProxyId()));
+		} catch (Exception e) {
+			Response response = new Response();
+			response.setException(e);
+			return response;
+		}
+	}
+	
+	/**
+	 * ڵϱα꣬ʽĹϣֵѼ¼͸ӦĽڵ
+	 * ÿڵͬʱһͣһͬʱһڴ
+	 * @param attributes 
+	 * @return Response ĻӦ
+	 */
+	public static Response executeShuffle(HashMap<String, Object> attributes) {
+		String jobSpaceID = (String)attributes.get("jobSpaceId");
+		Integer cursorProxyId = (Integer)attributes.get("cursorProxyId");
+		String []expStrs = (String[])attributes.get("expStrs");
+		String []hosts = (String[])attributes.get("hosts");
+		int []ports = (int[])attributes.get("ports");
+		int []receiverIds = (int[])attributes.get("receiverIds");
+		int unit = ((Integer)attributes.get("unit")).intValue();
+		
+		int count = hosts.length;
+		UnitJob []jobs = new UnitJob[count];
+		
+		try {
+			JobSpace js = JobSpaceManager.getSpace(jobSpaceID);
+			Context ctx = ClusterUtil.createContext(js, attributes);
+			ResourceManager rm = js.getResourceManager();
+			CursorProxy cursorProxy = (CursorProxy)rm.getProxy(cursorProxyId.intValue());
+			ShuffleProxy local = (ShuffleProxy)rm.getProxy(receiverIds[unit]);
+			ICursor cursor = cursorProxy.getCursor();
+			
+			int expCount = expStrs.length;
+			Expression []exps = new Expression[expCount];
+			for (int i = 0; i < expCount; ++i) {
+				exps[i] = new Expression(ctx, expStrs[i]);
+			}
+			
+			ThreadPool pool = TaskManager.getPool();
+			int batchCount = ICursor.FETCHCOUNT;
+			Sequence []parts = new Sequence[count];
+			for (int p = 0; p < count; ++p) {
+				parts[p] = new Sequence(batchCount);
+			}
+			
+			IArray []keys = new IArray[expCount];
+			ComputeStack stack = ctx.getComputeStack();
+			while (cursor != null) {
+				Sequence data = cursor.fetch(batchCount);
+				if (data == null || data.length() == 0) {
+					break;
+				}
+				
+				Current current = new Current(data);
+				stack.push(current);
+				try {
+					for (int k = 0; k < expCount; ++k) {
+						keys[k] = exps[k].calculateAll(ctx);
+					}
+				} finally {
+					stack.pop();
+				}
+				
+				IArray mems = data.getMems();
+				for (int i = 1, len = mems.size(); i <= len; ++i) {
+					// ͷмͬĹϣֵȵļڸڵϷֵͬһڵ
+					int p = PartialGroups.getPartition(keys, expCount, i, count);
+					Sequence part = parts[p];
+					part.add(mems.get(i));
+					if (part.length() >= batchCount) {
+						pushShuffleData(jobSpaceID, hosts, ports, receiverIds, p, unit, local, part, jobs, pool);
+						parts[p] = new Sequence(batchCount);
+					}
+				}
+			}
+			
+			for (int p = 0; p < count; ++p) {
+				if (parts[p].length() > 0) {
+					pushShuffleData(jobSpaceID, hosts, ports, receiverIds, p, unit, local, parts[p], jobs, pool);
+				}
+			}
+			
+			for (UnitJob job : jobs) {
+				if (job != null) {
+					job.join();
+					job.getResult();
+				}
+			}
+			
+			return new Response(Boolean.TRUE);
+		} catch (Exception e) {
+			for (UnitJob job : jobs) {
+				if (job != null) {
+					job.join();
+				}
+			}
+			
+			Response response = new Response();
+			response.setException(e);
+			return response;
+		}
+	}
+	
+	// һ¼͸pڵڵֱӼӵջ
+	private static void pushShuffleData(String jobSpaceId, String []hosts, int []ports, int []receiverIds, 
+			int p, int unit, ShuffleProxy local, Sequence data, UnitJob []jobs, ThreadPool pool) {
+		if (p == unit) {
+			local.add(data);
+			return;
+		}
+		
+		// ȴһ
+		if (jobs[p] != null) {
+			jobs[p].join();
+			jobs[p].getResult();
+		}
+		
+		// ад
+		Object value = data;
+		DataStruct ds = data.dataStruct();
+		if (ds != null) {
+			Table table = new Table(ds);
+			table.setMems(data.getMems());
+			value = new PartialGroups(table, 0);
+		}
+		
+		UnitClient client = new UnitClient(hosts[p], ports[p]);
+		UnitCommand command = new UnitCommand(UnitCommand.SHUFFLE_PUSH);
+		command.setAttribute("jobSpaceId", jobSpaceId);
+		command.setAttribute("receiverId", new Integer(receiverIds[p]));
+		command.setAttribute("data", value);
+		jobs[p] = new UnitJob(client, command);
+		pool.submit(jobs[p]);
+	}
+	
+	/**
+	 * ڵϽڵ͵ļ¼
+	 * @param attributes 
+	 * @return Response ͽڵĻӦ
+	 */
+	public static Response executeShufflePush(HashMap<String, Object> attributes) {
+		String jobSpaceID = (String)attributes.get("jobSpaceId");
+		Integer receiverId = (Integer)attributes.get("receiverId");
+		Object value = attributes.get("data");
+		
+		try {
+			Sequence data;
+			if (value instanceof PartialGroups) {
+				data = ((PartialGroups)value).toTable();
+			} else {
+				data = (Sequence)value;
+			}
+			
+			JobSpace js = JobSpaceManager.getSpace(jobSpaceID);
+			ShuffleProxy proxy = (ShuffleProxy)js.getResourceManager().getProxy(receiverId.intValue());
+			proxy.add(data);
+			return new Response(Boolean.TRUE);
+		} catch (Exception e) {
+			Response response = new Response();
+			response.setException(e);
+			return response;
+		}
+	}
+	
+	/**
+	 * ڵյļ¼α꣬رսջ
+	 * @param attributes 
+	 * @return Response ĻӦ
+	 */
+	public static Response executeShuffleCursor(HashMap<String, Object> attributes) {
+		String jobSpaceID = (String)attributes.get("jobSpaceId");
+		Integer receiverId = (Integer)attributes.get("receiverId");
+		Integer unit = (Integer)attributes.get("unit");
+		
+		try {
+			JobSpace js = JobSpaceManager.getSpace(jobSpaceID);
+			Context ctx = ClusterUtil.createContext(js, attributes);
+			ResourceManager rm = js.getResourceManager();
+			ShuffleProxy receiver = (ShuffleProxy)rm.getProxy(receiverId.intValue());
+			ICursor cursor = receiver.createCursor(ctx);
+			rm.closeProxy(receiverId.intValue());
+			
+			IProxy proxy = new CursorProxy(cursor, unit);
+			rm.addProxy(proxy);
+			return new Response(new Integer(proxy.getProxyId()));
+		} catch (Exception e) {
+			Response response = new Response();
+			response.setException(e);
+			return response;
+		}
+	}
+	
 	/**
 	 * ·αӿڣȡ·
 	 * @return int ·
@@ -1389,7 +2163,9 @@ public class ClusterCursor extends ICursor implements IClusterObject, IMultipath
 				
  				Response response = client.send(command);
  				Integer id = (Integer)response.checkResult();
-				cursors[i] = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id);
+				RemoteCursor rc = new RemoteCursor(cluster.getHost(i), cluster.getPort(i), id);
+				rc.setPrefetch(true);
+				cursors[i] = rc;
 			} finally {
 				client.close();
 			}
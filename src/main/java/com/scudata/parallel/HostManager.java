@@ -108,6 +108,14 @@ public class HostManager {
 		return PerfMonitor.getConcurrentTasks();
 	}
 
+	/**
+	 * ȡֻĸؿ
+	 * @return 
+	 */
+	public UnitLoad getLoad() {
+		return UnitLoad.local();
+	}
+
 	/**
 	 * ʵtoStringϢ
 	 */
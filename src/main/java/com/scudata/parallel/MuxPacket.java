@@ -0,0 +1,69 @@
+package com.scudata.parallel;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * ·ͨϴݰŰӦӦ
+ * ΪRequestResponseΪձʾWireCodec
+ * @author RunQian
+ *
+ */
+public class MuxPacket implements Externalizable {
+	private static final long serialVersionUID = 2L;
+
+	private long id; // 
+	private Object data; // RequestResponseձʾ
+
+	// лʱʹ
+	public MuxPacket() {
+	}
+
+	/**
+	 * ݰ
+	 * @param id 
+	 * @param data RequestResponseձʾ
+	 */
+	public MuxPacket(long id, Object data) {
+		this.id = id;
+		this.data = data;
+	}
+
+	/**
+	 * ȡ
+	 * @return 
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * ȡ
+	 * @return RequestResponseձʾ
+	 */
+	public Object getData() {
+		return data;
+	}
+
+	/**
+	 * Ƿ
+	 * @return trueǣfalse
+	 */
+	public boolean isHeartbeat() {
+		return data == null;
+	}
+
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(1); // 汾
+		out.writeLong(id);
+		WireCodec.writeData(out, data);
+	}
+
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		in.readByte(); // 汾
+		id = in.readLong();
+		data = WireCodec.readData(in);
+	}
+}
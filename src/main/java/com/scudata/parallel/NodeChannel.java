@@ -0,0 +1,391 @@
+package com.scudata.parallel;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import com.scudata.common.Logger;
+
+/**
+ * ֻĶ·ͨ
+ * ÿֻӣź󷢳̰߳ŰӦ𽻸ȴĵߣ
+ * ߳̿ͬʱһϷʡȥÿӺͶͷĿ
+ * еӶʱʱ߶дʱرӣ´ʱ
+ * ֻǲֶ֧·õϰ汾ʱؿգ߸½ӵķʽһʱٳӣֻ
+ * ʽݵֱӶļļϴȣôͨ
+ * @author RunQian
+ *
+ */
+public class NodeChannel {
+	public static final int CHANNEL_COUNT = 2; // ÿֻ
+	private static final int CONNECT_TIMEOUT = 5000; // ӳʱĺ
+	private static final long HEARTBEAT_INTERVAL = 30000; // ӿг˺ʱ
+	private static final long HEARTBEAT_TIMEOUT = 10000; // Ӧʱĺ
+	private static final long UNSUPPORTED_RETRY_INTERVAL = 300000; // ֶֻ֧·ʱ˺ٳ
+
+	private static HashMap<String, NodeChannel[]> channelMap = new HashMap<String, NodeChannel[]>();
+	private static HashMap<String, Long> unsupportedNodes = new HashMap<String, Long>(); // ֶ֧·õķֻжʱ
+	private static Thread heartbeatThread; // ߳
+
+	private String host;
+	private int port;
+	private SocketData socketData;
+	private Object writeLock = new Object(); // д
+
+	private HashMap<Long, Call> callMap = new HashMap<Long, Call>(); // ȴӦ
+	private long nextId = 1; // һţ0ʱ
+	private volatile boolean isClosed;
+	private volatile long lastActiveTime; // һζдʱ
+
+	/**
+	 * ȴӦ
+	 */
+	private static class Call {
+		private boolean isDone;
+		private Response response;
+		private Exception error;
+
+		public synchronized void finish(Response response, Exception error) {
+			this.response = response;
+			this.error = error;
+			isDone = true;
+			notifyAll();
+		}
+
+		// ȴӦtimeoutΪ0ʱһֱȴʱfalse
+		public synchronized boolean waitDone(long timeout) throws InterruptedException {
+			if (timeout == 0) {
+				while (!isDone) {
+					wait();
+				}
+			} else {
+				long end = System.currentTimeMillis() + timeout;
+				while (!isDone) {
+					long rest = end - System.currentTimeMillis();
+					if (rest <= 0) {
+						return false;
+					}
+
+					wait(rest);
+				}
+			}
+
+			return true;
+		}
+	}
+
+	private NodeChannel(String host, int port) {
+		this.host = host;
+		this.port = port;
+	}
+
+	/**
+	 * ͨ·ͨ󲢵ȴӦ
+	 * @param host ֻIP
+	 * @param port ֻ˿ں
+	 * @param req 
+	 * @return Ӧ𣬷ֶֻ֧·ʱؿ
+	 * @throws Exception ӻ߶дʱ׳쳣
+	 */
+	public static Response send(String host, int port, Request req) throws Exception {
+		NodeChannel channel = getChannel(host, port);
+		if (channel == null) {
+			return null;
+		} else {
+			return channel.send(req);
+		}
+	}
+
+	/**
+	 * رеͨͻJVM˳ͽڵֹͣʱ
+	 */
+	public static void closeAll() {
+		ArrayList<NodeChannel> list = getChannels();
+		synchronized(channelMap) {
+			channelMap.clear();
+		}
+
+		for (NodeChannel channel : list) {
+			channel.close(null);
+		}
+	}
+
+	// ȡֻͨѡûִеӣʱ½
+	private static NodeChannel getChannel(String host, int port) throws Exception {
+		String key = host + ":" + port;
+		NodeChannel []channels;
+		synchronized(channelMap) {
+			if (isUnsupported(key)) {
+				return null;
+			}
+
+			channels = channelMap.get(key);
+			if (channels == null) {
+				channels = new NodeChannel[CHANNEL_COUNT];
+				channelMap.put(key, channels);
+			}
+
+			startHeartbeat();
+		}
+
+		synchronized(channels) {
+			synchronized(channelMap) {
+				if (isUnsupported(key)) {
+					return null;
+				}
+			}
+
+			NodeChannel min = null;
+			int minCount = Integer.MAX_VALUE;
+			int freeSeq = -1;
+			for (int i = 0; i < CHANNEL_COUNT; ++i) {
+				NodeChannel channel = channels[i];
+				if (channel == null || channel.isClosed) {
+					if (freeSeq == -1) {
+						freeSeq = i;
+					}
+				} else {
+					int count = channel.getCallCount();
+					if (count < minCount) {
+						min = channel;
+						minCount = count;
+					}
+				}
+			}
+
+			if (min != null && (minCount == 0 || freeSeq == -1)) {
+				return min;
+			}
+
+			NodeChannel channel = new NodeChannel(host, port);
+			if (!channel.open()) {
+				synchronized(channelMap) {
+					unsupportedNodes.put(key, System.currentTimeMillis());
+					channelMap.remove(key);
+				}
+
+				return null;
+			}
+
+			channels[freeSeq] = channel;
+			return channel;
+		}
+	}
+
+	// طֻǷֶ֧·ãжʱ䳬Լʱɾ¼´³ӣѶchannelMapͬ
+	private static boolean isUnsupported(String key) {
+		Long time = unsupportedNodes.get(key);
+		if (time == null) {
+			return false;
+		} else if (System.currentTimeMillis() - time > UNSUPPORTED_RETRY_INTERVAL) {
+			unsupportedNodes.remove(key);
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	private static ArrayList<NodeChannel> getChannels() {
+		ArrayList<NodeChannel> list = new ArrayList<NodeChannel>();
+		synchronized(channelMap) {
+			Iterator<NodeChannel[]> itr = channelMap.values().iterator();
+			while (itr.hasNext()) {
+				for (NodeChannel channel : itr.next()) {
+					if (channel != null && !channel.isClosed) {
+						list.add(channel);
+					}
+				}
+			}
+		}
+
+		return list;
+	}
+
+	// ̣߳ѶchannelMapͬ
+	private static void startHeartbeat() {
+		if (heartbeatThread != null) {
+			return;
+		}
+
+		heartbeatThread = new Thread("NodeChannelHeartbeat") {
+			public void run() {
+				while (true) {
+					try {
+						sleep(HEARTBEAT_TIMEOUT);
+					} catch (InterruptedException e) {
+					}
+
+					long now = System.currentTimeMillis();
+					for (NodeChannel channel : getChannels()) {
+						// ִʱӦӳ
+						if (now - channel.lastActiveTime > HEARTBEAT_INTERVAL && channel.getCallCount() == 0) {
+							channel.heartbeat();
+						}
+					}
+				}
+			}
+		};
+
+		heartbeatThread.setDaemon(true);
+		heartbeatThread.start();
+
+		// JVM˳ʱرӣֻķ֮߳
+		try {
+			Runtime.getRuntime().addShutdownHook(new Thread() {
+				public void run() {
+					closeAll();
+				}
+			});
+		} catch (IllegalStateException e) {
+		}
+	}
+
+	// Ӳֶֻ֣֧·ʱfalse
+	private boolean open() throws Exception {
+		SocketData sd = new SocketData(new Socket());
+		sd.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT);
+
+		try {
+			// ϰ汾ķֻյRequestʱر
+			sd.getSocket().setSoTimeout((int)HEARTBEAT_TIMEOUT);
+			sd.write(new MuxPacket(0, null));
+			Object obj = sd.read();
+			if (!(obj instanceof MuxPacket) || ((MuxPacket)obj).getId() != 0) {
+				throw new IOException("Unexpected handshake reply: " + obj);
+			}
+
+			sd.getSocket().setSoTimeout(0);
+		} catch (Exception e) {
+			Logger.debug(host + ":" + port + " does not support multiplexed channel.", e);
+			try {
+				sd.serverClose();
+			} catch (Exception x) {
+			}
+
+			return false;
+		}
+
+		socketData = sd;
+		lastActiveTime = System.currentTimeMillis();
+		Thread reader = new Thread("NodeChannelReader[" + host + ":" + port + "]") {
+			public void run() {
+				readLoop();
+			}
+		};
+
+		reader.setDaemon(true);
+		reader.start();
+		return true;
+	}
+
+	// Ӧ̣߳ŰӦ𽻸ȴĵ
+	private void readLoop() {
+		try {
+			while (true) {
+				Object obj = socketData.read();
+				if (!(obj instanceof MuxPacket)) {
+					throw new IOException("Unexpected packet: " + obj);
+				}
+
+				lastActiveTime = System.currentTimeMillis();
+				MuxPacket packet = (MuxPacket)obj;
+				Call call;
+				synchronized(callMap) {
+					call = callMap.remove(packet.getId());
+				}
+
+				if (call != null) {
+					call.finish((Response)packet.getData(), null);
+				}
+			}
+		} catch (Exception e) {
+			close(e);
+		}
+	}
+
+	private int getCallCount() {
+		synchronized(callMap) {
+			return callMap.size();
+		}
+	}
+
+	// 󣬷صȴӦĶ
+	private Call call(Object data) throws IOException {
+		Call call = new Call();
+		long id;
+		synchronized(callMap) {
+			if (isClosed) {
+				throw new IOException(host + ":" + port + " channel is closed.");
+			}
+
+			id = nextId++;
+			callMap.put(id, call);
+		}
+
+		try {
+			synchronized(writeLock) {
+				socketData.write(new MuxPacket(id, data));
+			}
+
+			lastActiveTime = System.currentTimeMillis();
+		} catch (IOException e) {
+			close(e);
+			throw e;
+		}
+
+		return call;
+	}
+
+	private Response send(Request req) throws Exception {
+		Call call = call(req);
+		call.waitDone(0);
+		if (call.error != null) {
+			throw call.error;
+		}
+
+		return call.response;
+	}
+
+	// ʱ߳ʱر
+	private void heartbeat() {
+		try {
+			Call call = call(null);
+			if (!call.waitDone(HEARTBEAT_TIMEOUT)) {
+				close(new IOException(host + ":" + port + " heartbeat timeout."));
+			}
+		} catch (Exception e) {
+			close(e);
+		}
+	}
+
+	// رӣȴӦ쳣
+	private void close(Exception cause) {
+		ArrayList<Call> calls;
+		synchronized(callMap) {
+			if (isClosed) {
+				return;
+			}
+
+			isClosed = true;
+			calls = new ArrayList<Call>(callMap.values());
+			callMap.clear();
+		}
+
+		if (cause != null) {
+			Logger.debug(host + ":" + port + " channel closed.", cause);
+		}
+
+		try {
+			socketData.serverClose();
+		} catch (Exception e) {
+		}
+
+		IOException error = new IOException(host + ":" + port + " channel is closed.", cause);
+		for (Call call : calls) {
+			call.finish(null, error);
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package com.scudata.parallel;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.Table;
+import com.scudata.util.HashUtil;
+
+/**
+ * Ⱥܵмдŷֶκͻܺмֵavgĺicountȥֵȣ
+ * ڵαķмдֶ߰εĹϣֵֺ󴫸ڵλܣ
+ * Ⱥαطֲʱڵ͵ļ¼Ҳд䣬ַȴлʱΪÿ¼д
+ * @author RunQian
+ *
+ */
+public class PartialGroups implements Externalizable {
+	private static final long serialVersionUID = 1L;
+
+	private String []names; // ֶֶǰ
+	private int keyCount; // ֶ
+	private IArray []columns; // ֶεֵ
+
+	// лʱʹ
+	public PartialGroups() {
+	}
+
+	/**
+	 * ɷм
+	 * @param table мǰkeyCountֶΪֶ
+	 * @param keyCount ֶ
+	 */
+	public PartialGroups(Table table, int keyCount) {
+		this.names = table.dataStruct().getFieldNames();
+		this.keyCount = keyCount;
+
+		int fcount = names.length;
+		columns = new IArray[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			columns[f] = table.getFieldValueArray(f);
+		}
+	}
+
+	private PartialGroups(String []names, int keyCount, IArray []columns) {
+		this.names = names;
+		this.keyCount = keyCount;
+		this.columns = columns;
+	}
+
+	/**
+	 * ȡ
+	 * @return 
+	 */
+	public int length() {
+		return columns.length == 0 ? 0 : columns[0].size();
+	}
+
+	/**
+	 * ȡֶ
+	 * @return ֶ
+	 */
+	public int getKeyCount() {
+		return keyCount;
+	}
+
+	/**
+	 * ȡֶ
+	 * @return ֶ
+	 */
+	public String[] getFieldNames() {
+		return names;
+	}
+
+	/**
+	 * תڶλ
+	 * @return Table
+	 */
+	public Table toTable() {
+		Table table = new Table(new DataStruct(names), length());
+		appendTo(table);
+		return table;
+	}
+
+	/**
+	 * ׷ӵֶҪͬ
+	 * @param table 
+	 */
+	public void appendTo(Table table) {
+		int len = length();
+		int fcount = columns.length;
+		IArray []columns = this.columns;
+
+		for (int i = 1; i <= len; ++i) {
+			BaseRecord r = table.newLast();
+			for (int f = 0; f < fcount; ++f) {
+				r.setNormalFieldValue(f, columns[f].get(i));
+			}
+		}
+	}
+
+	/**
+	 * ֶεĹϣֳֵcountݣͬķһͬһ
+	 * @param count 
+	 * @return ֺĽ
+	 */
+	public PartialGroups[] split(int count) {
+		int len = length();
+		int fcount = columns.length;
+		IArray []columns = this.columns;
+		int keyCount = this.keyCount;
+
+		int avg = len / count + 1; // ݵĳʼֲʱᳬaddpush
+		IArray [][]partColumns = new IArray[count][];
+		for (int p = 0; p < count; ++p) {
+			partColumns[p] = new IArray[fcount];
+			for (int f = 0; f < fcount; ++f) {
+				partColumns[p][f] = columns[f].newInstance(avg);
+			}
+		}
+
+		for (int i = 1; i <= len; ++i) {
+			int p = getPartition(columns, keyCount, i, count);
+			IArray []dest = partColumns[p];
+			for (int f = 0; f < fcount; ++f) {
+				dest[f].add(columns[f], i);
+			}
+		}
+
+		PartialGroups []result = new PartialGroups[count];
+		for (int p = 0; p < count; ++p) {
+			result[p] = new PartialGroups(names, keyCount, partColumns[p]);
+		}
+
+		return result;
+	}
+
+	/**
+	 * ֵĹϣֵiӦ÷ָڼݣڽڵ䰴ֶβ
+	 * ͬһֶڲͬڵϿܲIntArrayLongArrayDoubleArrayObjectArray
+	 * ԲhashCodeֵȵ͸ҪõͬĹϣֵ
+	 * @param keys ֵ
+	 * @param keyCount 
+	 * @param i кţ1ʼ
+	 * @param count 
+	 * @return ݵţ0ʼ
+	 */
+	public static int getPartition(IArray []keys, int keyCount, int i, int count) {
+		int hash = 0;
+		for (int k = 0; k < keyCount; ++k) {
+			hash = 31 * hash + hashCode(keys[k], i);
+		}
+
+		int p = (hash + (hash >> 16)) % count;
+		if (p < 0) {
+			return -p;
+		} else {
+			return p;
+		}
+	}
+
+	private static int hashCode(IArray array, int i) {
+		if (array.isNull(i)) {
+			return 0;
+		} else if (array instanceof IntArray || array instanceof LongArray) {
+			return HashUtil.hashCode(array.getLong(i));
+		}
+
+		Object obj = array.get(i);
+		if (obj instanceof Integer || obj instanceof Long || obj instanceof Short || obj instanceof Byte) {
+			return HashUtil.hashCode(((Number)obj).longValue());
+		} else if (obj instanceof BigDecimal) {
+			BigDecimal decimal = (BigDecimal)obj;
+			long n = decimal.longValue();
+			if (decimal.compareTo(BigDecimal.valueOf(n)) == 0) {
+				return HashUtil.hashCode(n);
+			}
+		} else if (obj instanceof BigInteger && ((BigInteger)obj).bitLength() < 64) {
+			return HashUtil.hashCode(((BigInteger)obj).longValue());
+		}
+
+		if (obj instanceof Number) {
+			// ֵĸlong
+			double d = ((Number)obj).doubleValue();
+			long n = (long)d;
+			if (n == d) {
+				return HashUtil.hashCode(n);
+			} else {
+				return Double.valueOf(d).hashCode();
+			}
+		} else {
+			return obj.hashCode();
+		}
+	}
+
+	public void writeExternal(ObjectOutput out) throws IOException {
+		out.writeByte(1); // 汾
+		out.writeObject(names);
+		out.writeInt(keyCount);
+		for (IArray column : columns) {
+			out.writeObject(column);
+		}
+	}
+
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		in.readByte(); // 汾
+		names = (String[])in.readObject();
+		keyCount = in.readInt();
+
+		int fcount = names.length;
+		columns = new IArray[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			columns[f] = (IArray)in.readObject();
+		}
+	}
+}
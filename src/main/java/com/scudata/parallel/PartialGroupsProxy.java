@@ -0,0 +1,50 @@
+package com.scudata.parallel;
+
+/**
+ * ڵϰֶιϣֵֺķм
+ * iɵiڵȡλܣÿȡߺͷţȫȡߺرմ
+ * @author RunQian
+ *
+ */
+public class PartialGroupsProxy extends IProxy {
+	private PartialGroups []parts; // ֺмûʱΪ
+	private int restCount; // ûбȡߵķ
+
+	/**
+	 * 
+	 * @param parts ֺмûʱΪ
+	 * @param count 
+	 */
+	public PartialGroupsProxy(PartialGroups []parts, int count) {
+		this.parts = parts;
+		this.restCount = count;
+	}
+
+	/**
+	 * ȡָݵм
+	 * @param index ݺţ0ʼ
+	 * @return мûʱؿ
+	 */
+	public synchronized PartialGroups take(int index) {
+		restCount--;
+		if (parts == null) {
+			return null;
+		}
+
+		PartialGroups part = parts[index];
+		parts[index] = null;
+		return part;
+	}
+
+	/**
+	 * ȡǷзݶѱȡ
+	 * @return true
+	 */
+	public synchronized boolean isFinished() {
+		return restCount <= 0;
+	}
+
+	public synchronized void close() {
+		parts = null;
+	}
+}
@@ -1,26 +1,190 @@
 package com.scudata.parallel;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 import com.scudata.common.Logger;
 
+/**
+ * ڵܼأȲĽ¼ڵÿܼ
+ * Prometheusıʽڲ鿴ѯʱĸڵ㡢ĸּȺæ
+ * @author RunQian
+ *
+ */
 public class PerfMonitor {
-//ֽҵ/ʺҵ,Ҳı	
+	public static final int ROWS_SCANNED = 0; // αļ¼
+	public static final int BLOCKS_READ = 1; // ļ
+	public static final int BYTES_DECOMPRESSED = 2; // ѹֽ
+	public static final int BYTES_SENT = 3; // 緢͵ֽ
+	public static final int BYTES_RECEIVED = 4; // յֽ
+	public static final int SPILL_BYTES = 5; // дʱļֽ
+	public static final int QUEUE_WAIT = 6; // ̺Ŷӵȴĺ
+	private static final int METRIC_COUNT = 7;
+
+	private static final String PREFIX = "esproc_";
+	private static final String []METRIC_NAMES = new String[] {
+		"rows_scanned_total", "blocks_read_total", "bytes_decompressed_total",
+		"bytes_sent_total", "bytes_received_total", "spill_bytes_total",
+		"queue_wait_milliseconds_total"};
+	private static final String []METRIC_HELPS = new String[] {
+		"Rows read by composite table cursors.",
+		"Blocks read from composite table files.",
+		"Bytes produced by decompressing blocks.",
+		"Bytes written to node sockets.",
+		"Bytes read from node sockets.",
+		"Bytes of temporary files written by external operations.",
+		"Milliseconds processes and tasks waited for a free slot."};
+
+	private static final int MAX_FINISHED_TASKS = 100; // ѽļ
+
+	private static final LongAdder []counters = newCounters(); // ڵ
+	private static final ThreadLocal<TaskMetrics> currentTask = new ThreadLocal<TaskMetrics>(); // ǰ߳ļ
+	private static final Map<Integer, TaskMetrics> runningTasks = new ConcurrentHashMap<Integer, TaskMetrics>();
+	private static final LinkedList<TaskMetrics> finishedTasks = new LinkedList<TaskMetrics>();
+	private static final ConcurrentHashMap<String, LongAdder[]> commands = new ConcurrentHashMap<String, LongAdder[]>(); // ȺĴͺʱ
+
+//ֽҵ/ʺҵ,Ҳı
 	private static Object LOCK1 = new Object();
 	private static volatile int concurrents = 0;
+	private static volatile int waitings = 0; // ҵŶӵȴ
 
 //ҵ
 	private static Object LOCKPROCESS = new Object();
 	private static volatile int processConcurrents = 0;
 
 	static HostManager hm = HostManager.instance();
-	
+
+	/**
+	 * ܼ
+	 */
+	public static class TaskMetrics {
+		private int taskId;
+		private String name;
+		private LongAdder []counters = newCounters();
+
+		private TaskMetrics(int taskId, String name) {
+			this.taskId = taskId;
+			this.name = name;
+		}
+	}
+
+	private static LongAdder[] newCounters() {
+		LongAdder []counters = new LongAdder[METRIC_COUNT];
+		for (int i = 0; i < METRIC_COUNT; ++i) {
+			counters[i] = new LongAdder();
+		}
+
+		return counters;
+	}
+
+	/**
+	 * ۼӼͬʱ뵱ǰ߳
+	 * @param metric ͣROWS_SCANNED
+	 * @param value 
+	 */
+	public static void add(int metric, long value) {
+		counters[metric].add(value);
+		TaskMetrics task = currentTask.get();
+		if (task != null) {
+			task.counters[metric].add(value);
+		}
+	}
+
+	/**
+	 * ȡڵļֵ
+	 * @param metric 
+	 * @return ֵ
+	 */
+	public static long get(int metric) {
+		return counters[metric].sum();
+	}
+
+	/**
+	 * ʼִУ˺ǰ̵߳ļ
+	 * @param taskId 
+	 * @param name 
+	 */
+	public static void beginTask(int taskId, String name) {
+		TaskMetrics task = new TaskMetrics(taskId, name);
+		runningTasks.put(taskId, task);
+		currentTask.set(task);
+	}
+
+	/**
+	 * ִн
+	 * @param taskId 
+	 */
+	public static void endTask(int taskId) {
+		currentTask.remove();
+		TaskMetrics task = runningTasks.remove(taskId);
+		if (task != null) {
+			synchronized(finishedTasks) {
+				finishedTasks.addLast(task);
+				if (finishedTasks.size() > MAX_FINISHED_TASKS) {
+					finishedTasks.removeFirst();
+				}
+			}
+		}
+	}
+
+	/**
+	 * ȡǰ߳ļ̳߳ύҵʱȡִҵ߳
+	 * @return TaskMetricsκʱؿ
+	 */
+	public static TaskMetrics getCurrentTask() {
+		return currentTask.get();
+	}
+
+	/**
+	 * õǰ߳ļ
+	 * @param task ļɿ
+	 * @return ԭ
+	 */
+	public static TaskMetrics setCurrentTask(TaskMetrics task) {
+		TaskMetrics old = currentTask.get();
+		if (task == null) {
+			currentTask.remove();
+		} else {
+			currentTask.set(task);
+		}
+
+		return old;
+	}
+
+	/**
+	 * ¼һμȺִ
+	 * @param command 
+	 * @param nanos ʱ
+	 */
+	public static void addCommand(String command, long nanos) {
+		LongAdder []adders = commands.get(command);
+		if (adders == null) {
+			adders = new LongAdder[] {new LongAdder(), new LongAdder()};
+			LongAdder []old = commands.putIfAbsent(command, adders);
+			if (old != null) {
+				adders = old;
+			}
+		}
+
+		adders[0].increment();
+		adders[1].add(nanos);
+	}
+
 	public static void enterProcess() {
 		synchronized (LOCKPROCESS) {
 			int maxNum = hm.getMaxTaskNum();
 			if (processConcurrents >= maxNum) {
+				long time = System.currentTimeMillis();
 				try {
 					LOCKPROCESS.wait();
 				} catch (InterruptedException e) {
 				}
+				add(QUEUE_WAIT, System.currentTimeMillis() - time);
 			}
 			processConcurrents++;
 		}
@@ -41,18 +205,34 @@ public class PerfMonitor {
 		return processConcurrents;
 	}
 
+	/**
+	 * ȡִֻкŶӵȴںֻĸ
+	 * @return 
+	 */
+	public static int getTaskLoad() {
+		return concurrents + waitings;
+	}
+
 	/**
 	 * 񣬴ȴ
 	 */
 	public static void enterTask(Object mark) {
 		synchronized (LOCK1) {
 			int maxNum = hm.getMaxTaskNum();
-			
+
 			if (concurrents >= maxNum) {
+				long time = System.currentTimeMillis();
+				waitings++;
 				try {
-					LOCK1.wait();
+					while (concurrents >= maxNum) {
+						LOCK1.wait();
+						maxNum = hm.getMaxTaskNum();
+					}
 				} catch (InterruptedException e) {
+				} finally {
+					waitings--;
 				}
+				add(QUEUE_WAIT, System.currentTimeMillis() - time);
 			}
 			concurrents++;
 			if(mark!=null){
@@ -71,4 +251,117 @@ public class PerfMonitor {
 		}
 	}
 
+	/**
+	 * Prometheusıʽڵܼ
+	 * @return ı
+	 */
+	public static String toPrometheusText() {
+		StringBuffer sb = new StringBuffer(4096);
+		String node = "node=\"" + escape(hm.toString()) + "\"";
+
+		for (int i = 0; i < METRIC_COUNT; ++i) {
+			String name = PREFIX + METRIC_NAMES[i];
+			appendHeader(sb, name, METRIC_HELPS[i], "counter");
+			appendSample(sb, name, node, counters[i].sum());
+		}
+
+		// е
+		LinkedList<TaskMetrics> tasks = new LinkedList<TaskMetrics>(runningTasks.values());
+		synchronized(finishedTasks) {
+			tasks.addAll(finishedTasks);
+		}
+
+		for (int i = 0; i < METRIC_COUNT; ++i) {
+			String name = PREFIX + "task_" + METRIC_NAMES[i];
+			appendHeader(sb, name, METRIC_HELPS[i] + " Per task.", "counter");
+			Iterator<TaskMetrics> itr = tasks.iterator();
+			while (itr.hasNext()) {
+				TaskMetrics task = itr.next();
+				String labels = node + ",task=\"" + task.taskId + "\",dfx=\"" + escape(task.name) + "\"";
+				appendSample(sb, name, labels, task.counters[i].sum());
+			}
+		}
+
+		String name = PREFIX + "command_total";
+		appendHeader(sb, name, "Cluster operations executed on the node.", "counter");
+		for (Map.Entry<String, LongAdder[]> entry : commands.entrySet()) {
+			String labels = node + ",command=\"" + entry.getKey() + "\"";
+			appendSample(sb, name, labels, entry.getValue()[0].sum());
+		}
+
+		name = PREFIX + "command_seconds_total";
+		appendHeader(sb, name, "Time spent in cluster operations on the node.", "counter");
+		for (Map.Entry<String, LongAdder[]> entry : commands.entrySet()) {
+			String labels = node + ",command=\"" + entry.getKey() + "\"";
+			appendSample(sb, name, labels, entry.getValue()[1].sum() / 1e9);
+		}
+
+		name = PREFIX + "concurrent_processes";
+		appendHeader(sb, name, "Processes running on the node.", "gauge");
+		appendSample(sb, name, node, processConcurrents);
+
+		name = PREFIX + "concurrent_tasks";
+		appendHeader(sb, name, "Tasks running on the node.", "gauge");
+		appendSample(sb, name, node, concurrents);
+
+		long gcTime = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			long t = gc.getCollectionTime();
+			if (t > 0) {
+				gcTime += t;
+			}
+		}
+
+		long upTime = ManagementFactory.getRuntimeMXBean().getUptime();
+		name = PREFIX + "gc_pause_seconds_total";
+		appendHeader(sb, name, "Time the JVM spent in garbage collection.", "counter");
+		appendSample(sb, name, node, gcTime / 1000.0);
+
+		name = PREFIX + "gc_pause_ratio";
+		appendHeader(sb, name, "Share of JVM uptime spent in garbage collection.", "gauge");
+		appendSample(sb, name, node, upTime > 0 ? (double)gcTime / upTime : 0);
+
+		Runtime rt = Runtime.getRuntime();
+		name = PREFIX + "heap_used_bytes";
+		appendHeader(sb, name, "Heap memory in use.", "gauge");
+		appendSample(sb, name, node, rt.totalMemory() - rt.freeMemory());
+
+		return sb.toString();
+	}
+
+	private static void appendHeader(StringBuffer sb, String name, String help, String type) {
+		sb.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void appendSample(StringBuffer sb, String name, String labels, long value) {
+		sb.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+	}
+
+	private static void appendSample(StringBuffer sb, String name, String labels, double value) {
+		sb.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+	}
+
+	// תǩֵеķбܡźͻ
+	private static String escape(String value) {
+		if (value == null) {
+			return "";
+		}
+
+		StringBuffer sb = new StringBuffer(value.length());
+		for (int i = 0, len = value.length(); i < len; ++i) {
+			char c = value.charAt(i);
+			if (c == '\\') {
+				sb.append("\\\\");
+			} else if (c == '"') {
+				sb.append("\\\"");
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else {
+				sb.append(c);
+			}
+		}
+
+		return sb.toString();
+	}
 }
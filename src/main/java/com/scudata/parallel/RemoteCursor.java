@@ -1,25 +1,264 @@
 package com.scudata.parallel;
 
 import java.io.*;
+import java.util.LinkedList;
 
+import com.scudata.array.IArray;
 import com.scudata.common.*;
 import com.scudata.dm.*;
 import com.scudata.dm.cursor.ICursor;
+import com.scudata.thread.VirtualThreads;
 
 /**
  * Զα
- * 
+ * Ԥȡ̨߳ǰȡŵȡ͵ߵļص
+ * ÿȡݼ¼ĴСȡĺʱMAX_BUFFER_BYTESʱͣȡ
+ *
  * @author Joancy
  *
  */
 public class RemoteCursor extends ICursor implements Serializable {
 	private static final long serialVersionUID = 1L;
+
+	private static final long MAX_BUFFER_BYTES = 32L * 1024 * 1024; // Ԥȡֽ
+	private static final long BATCH_BYTES = 4L * 1024 * 1024; // ÿԤȡĿֽ
+	private static final int MIN_BATCH_SIZE = 1000; // ÿԤȡټ¼
+	private static final int MAX_BATCH_SIZE = 1000000; // ÿԤȡ¼
+	private static final long FAST_FETCH_TIME = 50; // ȡʱڴ˺ʱӴÿȡ
+	private static final long SLOW_FETCH_TIME = 1000; // ȡʱڴ˺ʱСÿȡ
+	private static final int FIELD_BYTES = 16; // ¼Сʱֶεƽֽ
+	private static final int SAMPLE_COUNT = 16; // ¼Сʱļ¼
+
 	String host;
 	int port, taskId, proxyId;
 
 	UnitClient unitClient = null;
 	boolean isClosed = false;
 
+	private transient Prefetcher prefetcher; // ԤȡûԤȡʱΪ
+
+	/**
+	 * Ԥȡһ
+	 */
+	private static class Batch {
+		private Sequence data;
+		private long bytes; // ֽ
+
+		public Batch(Sequence data, long bytes) {
+			this.data = data;
+			this.bytes = bytes;
+		}
+	}
+
+	/**
+	 * ԤȡͬһʱֻһȡִУ֤ȡ˳Ҳֻϵα걻
+	 * ˳ΪremoteLockԤȡ
+	 */
+	private class Prefetcher implements Runnable {
+		private Object remoteLock = new Object(); // ִԶ̷
+		private LinkedList<Batch> batches = new LinkedList<Batch>(); // ȡ
+		private int pos = 1; // һһҪصļ¼
+		private long bufferBytes; // еݹֽ
+		private int batchSize; // ÿȡ
+		private boolean isFetching; // Ƿк̨߳ȡ
+		private volatile boolean isEnd; // ԶαǷȡֹͣԤȡ
+		private RuntimeException error; // ̨ȡʱ쳣
+
+		public void run() {
+			while (true) {
+				int size;
+				synchronized(this) {
+					if (isEnd || bufferBytes >= MAX_BUFFER_BYTES) {
+						isFetching = false;
+						return;
+					}
+
+					size = batchSize;
+				}
+
+				synchronized(remoteLock) {
+					Sequence seq = null;
+					RuntimeException ex = null;
+					long start = System.currentTimeMillis();
+					try {
+						if (!isEnd) {
+							seq = (Sequence) executeMethod("fetch", new Object[] { new Integer(size) });
+						}
+					} catch (RuntimeException e) {
+						ex = e;
+					}
+
+					long time = System.currentTimeMillis() - start;
+					synchronized(this) {
+						if (ex != null) {
+							error = ex;
+							isEnd = true;
+						} else if (!isEnd) {
+							int len = seq == null ? 0 : seq.length();
+							if (len > 0) {
+								long bytes = estimateBytes(seq);
+								batches.add(new Batch(seq, bytes));
+								bufferBytes += bytes;
+								adjustBatchSize(len, bytes, time);
+							}
+
+							if (len < size) {
+								isEnd = true;
+							}
+						}
+
+						notifyAll();
+					}
+				}
+			}
+		}
+
+		// ݼ¼Сȡʱÿȡ
+		private void adjustBatchSize(int len, long bytes, long time) {
+			long size = batchSize;
+			if (time < FAST_FETCH_TIME) {
+				size *= 2;
+			} else if (time > SLOW_FETCH_TIME) {
+				size /= 2;
+			}
+
+			long rowBytes = bytes / len;
+			if (rowBytes > 0 && size > BATCH_BYTES / rowBytes) {
+				size = BATCH_BYTES / rowBytes;
+			}
+
+			if (size < MIN_BATCH_SIZE) {
+				size = MIN_BATCH_SIZE;
+			} else if (size > MAX_BATCH_SIZE) {
+				size = MAX_BATCH_SIZE;
+			}
+
+			batchSize = (int)size;
+		}
+
+		// һʱ̨߳ȡҪѶԤȡͬ
+		private void startFetch() {
+			if (isFetching || isEnd || bufferBytes >= MAX_BUFFER_BYTES / 2) {
+				return;
+			}
+
+			isFetching = true;
+			Thread thread = VirtualThreads.newThread(this);
+			thread.setName("RemoteCursorPrefetch[" + host + ":" + port + "]");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/**
+		 * ȡȡʱصn
+		 * @param n 
+		 * @param isFuzzy ǷԷnͬΪtrueʱصһʣ
+		 * @return Sequence
+		 */
+		public synchronized Sequence get(int n, boolean isFuzzy) {
+			if (batchSize == 0) {
+				batchSize = n > 0 && n < MAXSIZE ? n : FETCHCOUNT;
+				if (batchSize < MIN_BATCH_SIZE) {
+					batchSize = MIN_BATCH_SIZE;
+				} else if (batchSize > MAX_BATCH_SIZE) {
+					batchSize = MAX_BATCH_SIZE;
+				}
+			}
+
+			Sequence result = null;
+			int count = 0;
+			while (count < n) {
+				Batch batch = batches.peekFirst();
+				if (batch == null) {
+					if (error != null) {
+						throw error;
+					} else if (isEnd) {
+						break;
+					}
+
+					startFetch();
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						throw new RQException(e);
+					}
+
+					continue;
+				}
+
+				Sequence data = batch.data;
+				int rest = data.length() - pos + 1;
+				int need = isFuzzy ? rest : n - count;
+				Sequence cur;
+				if (rest <= need) {
+					cur = pos == 1 ? data : subSequence(data, pos, rest);
+					batches.removeFirst();
+					bufferBytes -= batch.bytes;
+					pos = 1;
+				} else {
+					cur = subSequence(data, pos, need);
+					pos += need;
+				}
+
+				result = result == null ? cur : append(result, cur);
+				count = result.length();
+				if (isFuzzy) {
+					break;
+				}
+			}
+
+			startFetch();
+			return result;
+		}
+
+		/**
+		 * ¼еԶαʣ
+		 * @param n 
+		 * @return ʵ
+		 */
+		public long skip(long n) {
+			synchronized(remoteLock) {
+				long count = 0;
+				synchronized(this) {
+					while (count < n && batches.size() > 0) {
+						Batch batch = batches.peekFirst();
+						int rest = batch.data.length() - pos + 1;
+						if (rest <= n - count) {
+							count += rest;
+							batches.removeFirst();
+							bufferBytes -= batch.bytes;
+							pos = 1;
+						} else {
+							pos += (int)(n - count);
+							count = n;
+						}
+					}
+
+					if (count == n || isEnd) {
+						if (error != null && count < n) {
+							throw error;
+						}
+
+						return count;
+					}
+				}
+
+				Long I = (Long) executeMethod("skip", new Object[] { new Long(n - count) });
+				return count + I.longValue();
+			}
+		}
+
+		/**
+		 * ֹͣԤȡ
+		 */
+		public synchronized void stop() {
+			isEnd = true;
+			batches.clear();
+			bufferBytes = 0;
+			notifyAll();
+		}
+	}
+
 	/**
 	 * һԶα
 	 * @param host IP
@@ -33,7 +272,7 @@ public class RemoteCursor extends ICursor implements Serializable {
 		this.taskId = taskId;
 		this.proxyId = proxyId;
 	}
-	
+
 	/**
 	 * Զα
 	 * @param host IP
@@ -44,10 +283,23 @@ public class RemoteCursor extends ICursor implements Serializable {
 		this(host,port,-1,proxyId);
 	}
 
+	/**
+	 * ǷԤȡҪȡǰãлα겻Ԥȡ
+	 * @param isPrefetch truę߳ǰȡfalseʱȡ
+	 */
+	public void setPrefetch(boolean isPrefetch) {
+		if (isPrefetch) {
+			if (prefetcher == null) {
+				prefetcher = new Prefetcher();
+			}
+		} else {
+			prefetcher = null;
+		}
+	}
+
 	UnitClient getUnitClient() throws Exception {
 		if (unitClient == null) {
 			unitClient = new UnitClient(host, port);
-			unitClient.connect();
 		}
 		return unitClient;
 	}
@@ -61,7 +313,7 @@ public class RemoteCursor extends ICursor implements Serializable {
 			req.setAttr(Request.METHOD_MethodName, methodName);
 			req.setAttr(Request.METHOD_ArgValues, argValues);
 
-			Response res = uc.send(req);
+			Response res = uc.sendByChannel(req);
 			if (res.getError() != null) {
 				throw res.getError();
 			}
@@ -77,12 +329,18 @@ public class RemoteCursor extends ICursor implements Serializable {
 
 	protected long skipOver(long n) {
 		if( isClosed ) return 0;
-		Long I = null;
+		long count = -1;
 		try {
-			I = (Long) executeMethod("skip", new Object[] { new Long(n) });
-			return I.longValue();
+			if (prefetcher != null) {
+				count = prefetcher.skip(n);
+			} else {
+				Long I = (Long) executeMethod("skip", new Object[] { new Long(n) });
+				count = I.longValue();
+			}
+
+			return count;
 		} finally {
-			if (I != null && I.longValue() < n) {
+			if (count >= 0 && count < n) {
 				close();
 			}
 		}
@@ -91,10 +349,22 @@ public class RemoteCursor extends ICursor implements Serializable {
 	public synchronized void close() {
 		if( isClosed ) return;
 		try {
-			executeMethod("close", null);
+			if (prefetcher != null) {
+				prefetcher.stop();
+
+				// ȴִеȡ
+				synchronized(prefetcher.remoteLock) {
+					executeMethod("close", null);
+				}
+			} else {
+				executeMethod("close", null);
+			}
 		} catch (Exception x) {
 		} finally {
-			unitClient.close();
+			if (unitClient != null) {
+				unitClient.close();
+			}
+
 			isClosed = true;
 		}
 	}
@@ -103,7 +373,12 @@ public class RemoteCursor extends ICursor implements Serializable {
 		if( isClosed ) return null;
 		Sequence t = null;
 		try {
-			t = (Sequence) executeMethod("fetch", new Object[] { new Integer(n) });
+			if (prefetcher != null) {
+				t = prefetcher.get(n, false);
+			} else {
+				t = (Sequence) executeMethod("fetch", new Object[] { new Integer(n) });
+			}
+
 			return t;
 		} finally {
 			if (t == null || t.length() < n) {
@@ -111,7 +386,24 @@ public class RemoteCursor extends ICursor implements Serializable {
 			}
 		}
 	}
-	
+
+	protected Sequence fuzzyGet(int n) {
+		if (prefetcher == null) {
+			return get(n);
+		}
+
+		if( isClosed ) return null;
+		Sequence t = null;
+		try {
+			t = prefetcher.get(n, true);
+			return t;
+		} finally {
+			if (t == null) {
+				close();
+			}
+		}
+	}
+
 	/**
 	 * ȡαݽṹϢ
 	 * @return ݽṹ
@@ -121,11 +413,69 @@ public class RemoteCursor extends ICursor implements Serializable {
 			return dataStruct;
 		}
 		if( isClosed ) return dataStruct;
-		
-		dataStruct = (DataStruct) executeMethod("getDataStruct", null);
+
+		if (prefetcher != null) {
+			synchronized(prefetcher.remoteLock) {
+				dataStruct = (DataStruct) executeMethod("getDataStruct", null);
+			}
+		} else {
+			dataStruct = (DataStruct) executeMethod("getDataStruct", null);
+		}
+
 		return dataStruct;
 	}
-	
+
+	// ȡдfromʼcountԱ
+	private static Sequence subSequence(Sequence seq, int from, int count) {
+		Sequence result;
+		if (seq instanceof Table) {
+			result = new Table(seq.dataStruct(), count);
+		} else {
+			result = new Sequence(count);
+		}
+
+		IArray mems = seq.getMems();
+		IArray resultMems = result.getMems();
+		for (int i = from, end = from + count; i < end; ++i) {
+			resultMems.push(mems.get(i));
+		}
+
+		return result;
+	}
+
+	// ռõֽ
+	private static long estimateBytes(Sequence seq) {
+		int len = seq.length();
+		int step = len > SAMPLE_COUNT ? len / SAMPLE_COUNT : 1;
+		long bytes = 0;
+		int count = 0;
+		for (int i = 1; i <= len; i += step) {
+			Object obj = seq.getMem(i);
+			if (obj instanceof BaseRecord) {
+				Object []vals = ((BaseRecord)obj).getFieldValues();
+				bytes += FIELD_BYTES;
+				for (Object val : vals) {
+					bytes += estimateBytes(val);
+				}
+			} else {
+				bytes += estimateBytes(obj);
+			}
+
+			count++;
+		}
+
+		return bytes * len / count;
+	}
+
+	private static long estimateBytes(Object obj) {
+		if (obj instanceof String) {
+			return 40 + 2 * ((String)obj).length();
+		} else if (obj instanceof Sequence) {
+			return FIELD_BYTES * (1 + ((Sequence)obj).length());
+		} else {
+			return FIELD_BYTES;
+		}
+	}
 
 	/**
 	 * ʵtoStringı
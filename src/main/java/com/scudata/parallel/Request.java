@@ -34,6 +34,7 @@ public class Request implements Serializable {
 																// spaceId-
 																// Param[]
 	public static final int SERVER_GETCONCURRENTCOUNT = 6 + TYPE_SERVER; // гĿ,ӦInteger
+	public static final int SERVER_GETLOAD = 7 + TYPE_SERVER; // ȡֻĸؿ,ӦUnitLoad
 
 	// ˵(ûûرյĴϵĴ)
 	public static final int SERVER_CLOSESPACE = 10 + TYPE_SERVER; // رշֻıռ
@@ -239,7 +240,7 @@ public class Request implements Serializable {
 	public static final String CLOSE_stateID = EXECUTE_stateID;// stateId
 
 	private int action;
-	private Map attrs = new HashMap();
+	private Map<String, Object> attrs = new HashMap<String, Object>();
 
 	/**
 	 * һ
@@ -306,7 +307,7 @@ public class Request implements Serializable {
 	 * ȡԱ
 	 * @return Ա
 	 */
-	public Map getAttrs() {
+	public Map<String, Object> getAttrs() {
 		return attrs;
 	}
 
@@ -331,11 +332,11 @@ public class Request implements Serializable {
 	private String getAttrString() {
 		if (attrs.isEmpty())
 			return "Attr is empty/";
-		Iterator it = attrs.keySet().iterator();
+		Iterator<String> it = attrs.keySet().iterator();
 		StringBuffer sb = new StringBuffer();
 		while (it.hasNext()) {
 			sb.append("\r\n");
-			String key = (String) it.next();
+			String key = it.next();
 			sb.append(key);
 			sb.append("=");
 			Object val = attrs.get(key);
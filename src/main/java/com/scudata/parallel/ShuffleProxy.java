@@ -0,0 +1,126 @@
+package com.scudata.parallel;
+
+import java.util.ArrayList;
+
+import com.scudata.common.Logger;
+import com.scudata.common.MessageManager;
+import com.scudata.common.RQException;
+import com.scudata.dm.ColumnSpillWriter;
+import com.scudata.dm.Context;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.cursor.ColumnSpillCursor;
+import com.scudata.dm.cursor.ConjxCursor;
+import com.scudata.dm.cursor.ICursor;
+import com.scudata.dm.cursor.MemoryCursor;
+import com.scudata.resources.EngineMessage;
+
+/**
+ * Ⱥα갴ֶιϣطֲʱڵϵĽջ
+ * ڵڱڵļ¼͹ļ¼ʱдʱļ
+ * нڵɻʱļα
+ * @author RunQian
+ *
+ */
+public class ShuffleProxy extends IProxy {
+	public static final int MAX_BUFFER_RECORDS = 500000; // ڴл¼
+
+	private Sequence buffer = new Sequence(); // ûдļ¼
+	private ArrayList<FileObject> files = new ArrayList<FileObject>(); // дʱļ
+	private int spillCount; // дʱļ
+
+	/**
+	 * ͹ļ¼дʱļдļʱڵ͵ݿԼ
+	 * @param data ¼
+	 */
+	public void add(Sequence data) {
+		Sequence spill;
+		synchronized(this) {
+			buffer.addAll(data);
+			if (buffer.length() < MAX_BUFFER_RECORDS) {
+				return;
+			}
+
+			spill = buffer;
+			buffer = new Sequence();
+			spillCount++;
+		}
+
+		FileObject fo = FileObject.createTempFileObject();
+		boolean isSuccess = false;
+		try {
+			MessageManager mm = EngineMessage.get();
+			Logger.info(mm.getMessage("engine.createTmpFile") + fo.getFileName());
+			ColumnSpillWriter.exportTemp(fo, spill);
+			isSuccess = true;
+		} finally {
+			synchronized(this) {
+				spillCount--;
+				if (isSuccess && buffer != null) {
+					files.add(fo);
+				} else {
+					// дʧܻѾر
+					fo.delete();
+				}
+
+				notifyAll();
+			}
+		}
+	}
+
+	// ȴдʱļд
+	private void waitSpill() {
+		try {
+			while (spillCount > 0) {
+				wait();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RQException(e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * յļ¼α꣬ȶʱļٶڴеļ¼ʱļαرʱɾ
+	 * @param ctx 
+	 * @return ICursor
+	 */
+	public synchronized ICursor createCursor(Context ctx) {
+		waitSpill();
+		int fcount = files.size();
+		if (fcount == 0) {
+			ICursor cursor = new MemoryCursor(buffer);
+			buffer = null;
+			return cursor;
+		}
+
+		ArrayList<ICursor> cursorList = new ArrayList<ICursor>(fcount + 1);
+		for (FileObject fo : files) {
+			cursorList.add(ColumnSpillCursor.createTempCursor(fo, 0, ctx));
+		}
+
+		if (buffer.length() > 0) {
+			cursorList.add(new MemoryCursor(buffer));
+		}
+
+		files.clear();
+		buffer = null;
+
+		if (cursorList.size() == 1) {
+			return cursorList.get(0);
+		} else {
+			ICursor []cursors = new ICursor[cursorList.size()];
+			cursorList.toArray(cursors);
+			return new ConjxCursor(cursors);
+		}
+	}
+
+	public synchronized void close() {
+		for (FileObject fo : files) {
+			fo.delete();
+		}
+
+		files.clear();
+		buffer = null;
+	}
+}
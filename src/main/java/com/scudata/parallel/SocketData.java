@@ -2,6 +2,8 @@ package com.scudata.parallel;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
@@ -46,7 +48,7 @@ public class SocketData{
 	 * @throws IOException ʱ׳쳣
 	 */
 	public void holdCommunicateStreamClient() throws IOException{
-		OutputStream os = socket.getOutputStream();
+		OutputStream os = new CountOutputStream(socket.getOutputStream());
 		// ԽsocketĽջԽԭԽ죻ļĶдûлʱ
 		//ٶҲԽ죬Ҷһúܴʱڴע
 		// ڴݷʱл
@@ -54,7 +56,7 @@ public class SocketData{
 		oos = new ObjectOutputStream(bos);
 		oos.flush();//flushдʱ
 		
-		InputStream is = socket.getInputStream();
+		InputStream is = new CountInputStream(socket.getInputStream());
 		BufferedInputStream bis = new BufferedInputStream(is);
 		ois = new ObjectInputStream(bis);
 	}
@@ -64,11 +66,11 @@ public class SocketData{
 	 * @throws IOException ʱ׳쳣
 	 */
 	public void holdCommunicateStreamServer() throws IOException{
-		InputStream is = socket.getInputStream();
+		InputStream is = new CountInputStream(socket.getInputStream());
 		BufferedInputStream bis = new BufferedInputStream(is);
 		ois = new ObjectInputStream(bis);
 
-		OutputStream os = socket.getOutputStream();
+		OutputStream os = new CountOutputStream(socket.getOutputStream());
 		// ԽsocketĽջԽԭԽ죻ļĶдûлʱٶҲԽ죬Ҷһúܴʱڴע
 		// ڴݷʱл
 		BufferedOutputStream bos = new BufferedOutputStream(os);// ,socketBuf,˻sizeòǺܴ
@@ -150,4 +152,46 @@ public class SocketData{
 		write(null);//ص̶߳˵socketͨѶѾж
 		serverClose();
 	}
-}
\ No newline at end of file
+
+	// ͳֽ
+	private static class CountInputStream extends FilterInputStream {
+		public CountInputStream(InputStream in) {
+			super(in);
+		}
+
+		public int read() throws IOException {
+			int b = in.read();
+			if (b != -1) {
+				PerfMonitor.add(PerfMonitor.BYTES_RECEIVED, 1);
+			}
+
+			return b;
+		}
+
+		public int read(byte []b, int off, int len) throws IOException {
+			int n = in.read(b, off, len);
+			if (n > 0) {
+				PerfMonitor.add(PerfMonitor.BYTES_RECEIVED, n);
+			}
+
+			return n;
+		}
+	}
+
+	// ͳ緢ֽ
+	private static class CountOutputStream extends FilterOutputStream {
+		public CountOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		public void write(int b) throws IOException {
+			out.write(b);
+			PerfMonitor.add(PerfMonitor.BYTES_SENT, 1);
+		}
+
+		public void write(byte []b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			PerfMonitor.add(PerfMonitor.BYTES_SENT, len);
+		}
+	}
+}
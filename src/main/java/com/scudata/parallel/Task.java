@@ -65,6 +65,7 @@ public class Task extends Job implements IResource, ITask {
 	transient Object tasker = null;
 	transient boolean isCanceled = false;
 	transient Response res = null;
+	private transient boolean isAdmitted = false; // Ƿռ˷ֻҵ
 
 	private long lastAccessTime = -1;
 	private static List connectedDsNames = null;// IDEִУIDEøñUnitContextConfigBeanȡ
@@ -155,6 +156,7 @@ public class Task extends Job implements IResource, ITask {
 	 */
 	private void beforeExecute() {
 		callTime = System.currentTimeMillis();
+		PerfMonitor.beginTask(taskId, getDfxName());
 	}
 
 	/**
@@ -354,8 +356,22 @@ public class Task extends Job implements IResource, ITask {
 
 	long taskBegin = 0;
 
+	/**
+	 * ֻϵҵʱŶӵȴύִ̳߳еҪύǰãȴʱռ̳߳ص߳
+	 * ڵǶ׵õŶӣռʱͷ
+	 */
+	void admit() {
+		if (!isProcessCaller && !isAdmitted && PerfMonitor.getCurrentTask() == null) {
+			PerfMonitor.enterTask(null);
+			isAdmitted = true;
+		}
+	}
+
 	private Object doExecute(boolean isODBC) {
+		// ûоTaskManagerύڵǰ߳Ŷ
+		admit();
 		beforeExecute();
+
 		try {
 			if (isCanceled) {
 				throw getCancelException();
@@ -435,7 +451,14 @@ public class Task extends Job implements IResource, ITask {
 			if (rcpm == null) { // αʱҪȴα궼رʱɾ
 				TaskManager.delTask(taskId);
 			}
+
+			if (isAdmitted) {
+				isAdmitted = false;
+				PerfMonitor.leaveTask(null, null);
+			}
+
 			access();
+			PerfMonitor.endTask(taskId);
 		}
 	}
 
@@ -66,6 +66,8 @@ public class TaskManager {
 						.intValue();
 				task = (Task)getTask(taskId);
 				
+				// ߳Ŷӵȴҵִֻ̳߳߳Ѿе
+				task.admit();
 				getPool().submit( task );
 				task.join();
 				res = task.getResponse();
@@ -239,7 +239,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.CANCEL_TaskId, taskId);
 		req.setAttr(Request.CANCEL_Reason, reason);
 		try {
-			sendByNewSocket(req);
+			sendByChannel(req);
 		} catch (Exception x) {
 			x.printStackTrace();
 		}
@@ -282,7 +282,7 @@ public class UnitClient implements Serializable {
 		Request req = new Request(Request.SERVER_GETAREANO);
 		req.setAttr(Request.GETAREANO_TaskName, J);
 		try {
-			Response res = sendByNewSocket(req);
+			Response res = sendByChannel(req);
 			return (Integer) res.getResult();
 		} catch (Exception x) {
 			throw new RQException(x);
@@ -297,7 +297,7 @@ public class UnitClient implements Serializable {
 	public Table getEnvParamList() {
 		Request req = new Request(Request.SERVER_LISTPARAM);
 		try {
-			Response res = sendByNewSocket(req);
+			Response res = sendByChannel(req);
 			if (res.getException() != null) {
 				throw res.getException();
 			}
@@ -311,7 +311,7 @@ public class UnitClient implements Serializable {
 	public Table getTaskList() {
 		Request req = new Request(Request.SERVER_LISTTASK);
 		try {
-			Response res = sendByNewSocket(req);
+			Response res = sendByChannel(req);
 			if (res.getException() != null) {
 				throw res.getException();
 			}
@@ -329,7 +329,7 @@ public class UnitClient implements Serializable {
 		Request req = new Request(Request.SERVER_CLOSESPACE);
 		req.setAttr(Request.CLOSESPACE_SpaceId, spaceId);
 		try {
-			Response res = sendByNewSocket(req);
+			Response res = sendByChannel(req);
 			if (res.getException() != null) {
 				throw res.getException();
 			}
@@ -348,7 +348,7 @@ public class UnitClient implements Serializable {
 		args.add(N);
 		args.add(j);
 		req.setAttr(Request.EXECDFX_ArgList, args);
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -360,7 +360,7 @@ public class UnitClient implements Serializable {
 		Request req = new Request(Request.SERVER_GETTABLEMEMBERS);
 		req.setAttr(Request.GETTABLEMEMBERS_SpaceId, spaceId);
 		req.setAttr(Request.GETTABLEMEMBERS_TableName, table);
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -376,7 +376,7 @@ public class UnitClient implements Serializable {
 	public Object getReduceResult(String spaceId) throws Exception {
 		Request req = new Request(Request.DFX_GET_REDUCE);
 		req.setAttr(Request.GET_REDUCE_SpaceId, spaceId);
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -407,6 +407,23 @@ public class UnitClient implements Serializable {
 		return (int[]) res.getResult();
 	}
 
+	/**
+	 * ȡֻĸؿգڰطҵ
+	 * @return 
+	 * @throws Exception
+	 */
+	public UnitLoad getLoad() throws Exception {
+		if (isEqualToLocal()) {
+			return HostManager.instance().getLoad();
+		}
+
+		Response res = send(new Request(Request.SERVER_GETLOAD));
+		if (res.getException() != null) {
+			throw res.getException();
+		}
+		return (UnitLoad) res.getResult();
+	}
+
 	public static Sequence getMemoryTable(String spaceId, String tableName,
 			String nodeDesc) throws Exception {
 		JobSpace space = JobSpaceManager.getSpace(spaceId);
@@ -437,7 +454,7 @@ public class UnitClient implements Serializable {
 		Request req = new Request(Request.SERVER_GETCONCURRENTCOUNT);
 
 		try {
-			Response res = sendByNewSocket(req);
+			Response res = sendByChannel(req);
 			if (res.getException() != null) {
 				throw res.getException();
 			}
@@ -462,6 +479,23 @@ public class UnitClient implements Serializable {
 		}
 	}
 
+	/**
+	 * ֻͨĶ·ͨ󣬷ֻ֧ʱ½
+	 * ʽݵ
+	 * @param req 
+	 * @return Ӧ
+	 * @throws Exception ʱ׳쳣
+	 */
+	public Response sendByChannel(Request req) throws Exception {
+		Response res = NodeChannel.send(host, port, req);
+		if (res == null) {
+			return sendByNewSocket(req);
+		}
+		
+		res.setFromHost(this.toString());
+		return res;
+	}
+
 	public Response send(Request req) throws Exception {
 		// Logger.debug(req);
 		if (socketData == null) {
@@ -477,7 +511,7 @@ public class UnitClient implements Serializable {
 		try {
 			Request req = new Request(Request.UNITCOMMAND_EXE);
 			req.setAttr(Request.EXE_Object, command);
-			Response res = sendByNewSocket(req);
+			Response res = sendByChannel(req);
 			// Logger.debug("after unitcmd");
 			return res;
 		} catch (Exception x) {
@@ -559,7 +593,7 @@ public class UnitClient implements Serializable {
 		Request req = new Request(Request.JDBC_CONNECT);
 		req.setAttr(Request.CONNECT_spaceID, spaceId);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -573,7 +607,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.GETTABLES_tableNamePattern, tableNamePattern);
 		req.setAttr(Request.JDBC_ISPLUS, isPlus);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -588,7 +622,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.GETCOLUMNS_columnNamePattern, columnNamePattern);
 		req.setAttr(Request.JDBC_ISPLUS, isPlus);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -602,7 +636,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.GETPROC_procedureNamePattern, procedureNamePattern);
 		req.setAttr(Request.JDBC_ISPLUS, isPlus);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -619,7 +653,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.GETPROCCOLUMNS_columnNamePattern, columnNamePattern);
 		req.setAttr(Request.JDBC_ISPLUS, isPlus);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -633,7 +667,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.GETSPLPARAMS_splPath, procedureNamePattern);
 		req.setAttr(Request.JDBC_ISPLUS, isPlus);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -648,7 +682,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.PREPARE_Args, args);
 		req.setAttr(Request.PREPARE_ENV, envParams);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -660,7 +694,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.EXECUTE_connID, connId);
 		req.setAttr(Request.EXECUTE_stateID, stateId);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -673,7 +707,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.CANCEL_connID, connId);
 		req.setAttr(Request.CANCEL_stateID, stateId);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -685,7 +719,7 @@ public class UnitClient implements Serializable {
 		req.setAttr(Request.CLOSE_connID, connId);
 		req.setAttr(Request.CLOSE_stateID, stateId);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -696,7 +730,7 @@ public class UnitClient implements Serializable {
 		Request req = new Request(Request.JDBC_CLOSECONNECTION);
 		req.setAttr(Request.CLOSE_connID, connId);
 
-		Response res = sendByNewSocket(req);
+		Response res = sendByChannel(req);
 		if (res.getException() != null) {
 			throw res.getException();
 		}
@@ -1,6 +1,8 @@
 package com.scudata.parallel;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.HashMap;
 
 public class UnitCommand implements Serializable {
@@ -44,6 +46,8 @@ public class UnitCommand implements Serializable {
 	public static final int SORTX = 42;
 	public static final int GROUPX = 43;
 	public static final int TOTAL = 44;
+	public static final int GROUPS_MERGE = 45; // ڵ԰ϣֵķмֵλ
+	public static final int GROUPS_PART = 46; // ȡ߰ϣֵķмֵһ
 	
 	public static final int CHANNEL_CS = 70; // ɼȺα괴Ⱥܵ
 	public static final int CHANNEL_CH = 71; // ɼȺܵȺܵ
@@ -84,22 +88,33 @@ public class UnitCommand implements Serializable {
 	//ļlocalFileʱԶʱļ
 	public static final int CREATE_TMPFILE_FROM = 201;
 	
-	//׼Сֵ¼дӦֻԶʱļظֻӦʱļ
-	//RemoteFileֱдԶ̣дٴ
-	//attr: int proxyId, String firstKey, Object[] segMinValues, String[] hosts, int[] ports
-	//ݸֻʱļreduceαproxyId
+	//ʽĹϣֵαļ¼͸ӦֻĽջ
+	//attr: int cursorProxyId, String[] expStrs, String[] hosts, int[] ports, int[] receiverIds, int unit
 	public static final int SHUFFLE = 202;
 	
+	//ֻͼ¼ĻػproxyId
+	public static final int SHUFFLE_RECEIVE = 203;
+	
+	//ֻ͵һ¼
+	//attr: int receiverId, Sequence data
+	public static final int SHUFFLE_PUSH = 204;
+	
 	//мkeys=null
 	//attr: int csProxyId, String[] keys
 	//return: int 򸽱proxyId
 	public static final int INTERM = 205;
 	
+	//ɽջյļ¼α꣬αproxyId
+	//attr: int receiverId, int unit
+	public static final int SHUFFLE_CURSOR = 206;
+	
 	
 	//private String jobSpaceId; // attributes
 	private int command;
 	private HashMap<String, Object> attributes = new HashMap<String, Object>();
 	
+	private static HashMap<Integer, String> commandNames; // ŶӦĳ
+	
 	public UnitCommand(int command) {
 		this.command = command;
 	}
@@ -107,6 +122,30 @@ public class UnitCommand implements Serializable {
 	public void setAttribute(String name, Object value) {
 		attributes.put(name, value);
 	}
+	
+	/**
+	 * ȡƣ֣ܼ
+	 * @return 
+	 */
+	public String getCommandName() {
+		HashMap<Integer, String> names = commandNames;
+		if (names == null) {
+			names = new HashMap<Integer, String>();
+			for (Field field : UnitCommand.class.getFields()) {
+				if (field.getType() == int.class && Modifier.isStatic(field.getModifiers())) {
+					try {
+						names.put(field.getInt(null), field.getName());
+					} catch (IllegalAccessException e) {
+					}
+				}
+			}
+			
+			commandNames = names;
+		}
+		
+		String name = names.get(command);
+		return name != null ? name : Integer.toString(command);
+	}
 
 	public Response execute() {
 		switch (command) {
@@ -150,6 +189,18 @@ public class UnitCommand implements Serializable {
 				return ClusterCursor.executeSortx(attributes);
 			case TOTAL:
 				return ClusterCursor.executeTotal(attributes);
+			case GROUPS_MERGE:
+				return ClusterCursor.executeGroupsMerge(attributes);
+			case GROUPS_PART:
+				return ClusterCursor.executeGroupsPart(attributes);
+			case SHUFFLE_RECEIVE:
+				return ClusterCursor.executeShuffleReceive(attributes);
+			case SHUFFLE:
+				return ClusterCursor.executeShuffle(attributes);
+			case SHUFFLE_PUSH:
+				return ClusterCursor.executeShufflePush(attributes);
+			case SHUFFLE_CURSOR:
+				return ClusterCursor.executeShuffleCursor(attributes);
 			case CURSOR_GET_MINVALUES:
 				return ClusterCursor.executeGetMinValues(attributes);
 			case CURSOR_TO_REMOTE:
@@ -36,6 +36,7 @@ public class UnitConfig extends ConfigWriter {
 	private int proxyTimeOut = 12; // ļԼαĹʱ䣬Ϊλ0ΪλСʱ
 	private int interval = 30 * 60; // ʱļڵʱ0Ϊڡλ
 	boolean autoStart=false;
+	private int metricsPort = 0; // ܼHTTP˿ڣ0Ϊ
 	private List<Host> hosts = null;
 	
 //	ͻ˰
@@ -150,6 +151,12 @@ public class UnitConfig extends ConfigWriter {
 			}
 		}
 
+		subNode = XmlUtil.findSonNode(root, "metricsPort");
+		buf = XmlUtil.getNodeValue(subNode);
+		if (StringUtils.isValidString(buf)) {
+			metricsPort = Integer.parseInt(buf);
+		}
+
 		Node nodeHosts = XmlUtil.findSonNode(root, "Hosts");
 		NodeList hostsList = nodeHosts.getChildNodes();
 		hosts = new ArrayList<Host>();
@@ -228,6 +235,7 @@ public class UnitConfig extends ConfigWriter {
 		writeAttribute("Interval", interval + "");
 		writeAttribute("AutoStart", autoStart + "");
 		writeAttribute("ProxyTimeOut", proxyTimeOut + "");
+		writeAttribute("MetricsPort", metricsPort + "");
 
 		startElement("Hosts", null);
 		if (hosts != null) {
@@ -336,6 +344,22 @@ public class UnitConfig extends ConfigWriter {
 		this.proxyTimeOut = proxyTimeOutHour;// * 3600;
 	}
 
+	/**
+	 * ȡܼHTTP˿
+	 * @return ˿ںţ0Ϊ
+	 */
+	public int getMetricsPort() {
+		return metricsPort;
+	}
+
+	/**
+	 * ܼHTTP˿ڣڵɴhttp://ip:˿/metricsȡPrometheusʽļ
+	 * @param port ˿ںţ0Ϊ
+	 */
+	public void setMetricsPort(int port) {
+		this.metricsPort = port;
+	}
+
 	/**
 	 * Ƿʱʱ(λΪ)
 	 * @return ʱ
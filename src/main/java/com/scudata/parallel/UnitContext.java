@@ -32,6 +32,7 @@ public class UnitContext {
 	HostManager hostManager = HostManager.instance();
 
 	int tempTimeOut = 0; // ʱļʱ䣬СʱΪλ0Ϊ鳬ʱ
+	private int metricsPort = 0; // ܼHTTP˿ڣ0Ϊ
 	private int interval = 5, proxyTimeOut = 0; // ʱļڵʱ0ΪڡļԼαĹʱ
 	private RaqsoftConfig raqsoftConfig = null;
 	private boolean checkClient = false,autoStart=false;
@@ -282,6 +283,7 @@ public class UnitContext {
 			interval = t;// òȷʱʹȱʡ
 
 		proxyTimeOut = uc.getProxyTimeOut();
+		metricsPort = uc.getMetricsPort();
 	}
 
 
@@ -313,6 +315,10 @@ public class UnitContext {
 		if(StringUtils.isValidString(ssc.interval)) {
 			interval = Integer.parseInt(ssc.interval);
 		}
+
+		if(StringUtils.isValidString(ssc.metricsPort)) {
+			metricsPort = Integer.parseInt(ssc.metricsPort);
+		}
 		
 		if(StringUtils.isValidString(ssc.splConfig)) {
 			InputStream is = new FileInputStream( ssc.splConfig );
@@ -364,6 +370,14 @@ public class UnitContext {
 		return interval;
 	}
 
+	/**
+	 * ȡܼHTTP˿
+	 * @return ˿ںţ0Ϊ
+	 */
+	public int getMetricsPort() {
+		return metricsPort;
+	}
+
 	/**
 	 * ȡʱ
 	 * @return ʱʱ
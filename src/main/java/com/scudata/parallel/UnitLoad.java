@@ -0,0 +1,233 @@
+package com.scudata.parallel;
+
+import java.io.File;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import com.scudata.common.StringUtils;
+import com.scudata.dm.Env;
+
+/**
+ * ֻĸؿգҵʱѡֻ
+ * ҵCPUءڴԼֻϷļķ
+ * @author RunQian
+ *
+ */
+public class UnitLoad implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private static final long PARTITION_CACHE_TIME = 60000; // ŵĻʱ䣬
+	private static final int MAX_SCAN_DEPTH = 2; // ɨļʱĿ¼
+	private static final double LOW_MEMORY_RATIO = 0.1; // ڴڴĴ˱ʱΪڴ
+
+	private static int []cachePartitions; // Ż
+	private static long cacheTime;
+
+	private int preferredTaskNum; // ʺҵ
+	private int maxTaskNum; // ҵ
+	private int currentTasks; // кͶеȴҵ
+	private double cpuLoad; // ϵͳƽسCPUÿ˸أȡʱΪ0
+	private long freeMemory; // ڴ棬ֽ
+	private long maxMemory; // ڴ棬ֽ
+	private int []partitions; // ֻϷļķţѰС
+
+	/**
+	 * ȡĸؿ
+	 * @return UnitLoad
+	 */
+	public static UnitLoad local() {
+		HostManager hm = HostManager.instance();
+		UnitLoad load = new UnitLoad();
+		load.preferredTaskNum = hm.getPreferredTaskNum();
+		load.maxTaskNum = hm.getMaxTaskNum();
+		load.currentTasks = PerfMonitor.getTaskLoad();
+
+		double avg = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+		if (avg > 0) {
+			load.cpuLoad = avg / Runtime.getRuntime().availableProcessors();
+		}
+
+		Runtime rt = Runtime.getRuntime();
+		load.maxMemory = rt.maxMemory();
+		load.freeMemory = rt.maxMemory() - rt.totalMemory() + rt.freeMemory();
+		load.partitions = getLocalPartitions();
+		return load;
+	}
+
+	/**
+	 * ȡļķţļ·Ϊ".ļ"LocalFile(String, String, Integer)
+	 * @return 
+	 */
+	private static synchronized int[] getLocalPartitions() {
+		long now = System.currentTimeMillis();
+		if (cachePartitions != null && now - cacheTime < PARTITION_CACHE_TIME) {
+			return cachePartitions;
+		}
+
+		TreeSet<Integer> set = new TreeSet<Integer>();
+		String mainPath = Env.getMainPath();
+		if (StringUtils.isValidString(mainPath)) {
+			scanPartitions(new File(mainPath), 0, set);
+		}
+
+		int []partitions = new int[set.size()];
+		int i = 0;
+		for (Integer p : set) {
+			partitions[i++] = p;
+		}
+
+		cachePartitions = partitions;
+		cacheTime = now;
+		return partitions;
+	}
+
+	private static void scanPartitions(File dir, int depth, TreeSet<Integer> set) {
+		File []files = dir.listFiles();
+		if (files == null) {
+			return;
+		}
+
+		for (File file : files) {
+			if (file.isDirectory()) {
+				if (depth < MAX_SCAN_DEPTH) {
+					scanPartitions(file, depth + 1, set);
+				}
+				continue;
+			}
+
+			int p = getPartition(file.getName());
+			if (p > 0) {
+				set.add(p);
+			}
+		}
+	}
+
+	/**
+	 * ȡļеķţļɷ.toString()"."ʹչļɣ
+	 * Ųǰ0"2023.csv"ͨļǷļ
+	 * @param name ļ
+	 * @return ţǷļʱ0
+	 */
+	static int getPartition(String name) {
+		int dot = name.indexOf('.');
+		if (dot < 1 || dot > 9 || name.charAt(0) == '0') {
+			return 0;
+		}
+
+		// źļҪչļȷļ
+		int ext = name.lastIndexOf('.');
+		if (ext <= dot + 1 || ext == name.length() - 1) {
+			return 0;
+		}
+
+		int p = 0;
+		for (int i = 0; i < dot; ++i) {
+			char c = name.charAt(i);
+			if (c < '0' || c > '9') {
+				return 0;
+			}
+
+			p = p * 10 + (c - '0');
+		}
+
+		return p;
+	}
+
+	/**
+	 * ֻ޷ȡøʱʹõȱʡ
+	 * @param maxTaskNum ҵ
+	 * @return UnitLoad
+	 */
+	public static UnitLoad getDefault(int maxTaskNum) {
+		UnitLoad load = new UnitLoad();
+		load.preferredTaskNum = maxTaskNum;
+		load.maxTaskNum = maxTaskNum;
+		load.partitions = new int[0];
+		return load;
+	}
+
+	/**
+	 * ȡʺҵ
+	 * @return int
+	 */
+	public int getPreferredTaskNum() {
+		return preferredTaskNum;
+	}
+
+	/**
+	 * ȡҵ
+	 * @return int
+	 */
+	public int getMaxTaskNum() {
+		return maxTaskNum;
+	}
+
+	/**
+	 * ȡкͶеȴҵ
+	 * @return int
+	 */
+	public int getCurrentTasks() {
+		return currentTasks;
+	}
+
+	/**
+	 * ȡÿ˵CPU
+	 * @return double
+	 */
+	public double getCpuLoad() {
+		return cpuLoad;
+	}
+
+	/**
+	 * ȡڴ
+	 * @return ֽ
+	 */
+	public long getFreeMemory() {
+		return freeMemory;
+	}
+
+	/**
+	 * ֻǷָļ
+	 * @param partition 
+	 * @return true
+	 */
+	public boolean hasPartition(int partition) {
+		return Arrays.binarySearch(partitions, partition) >= 0;
+	}
+
+	/**
+	 * ֻɽܵҵҵķֻԸ1ҵҵڷֻŶ
+	 * @return int
+	 */
+	public int getAvailableTaskNum() {
+		int n = maxTaskNum - currentTasks;
+		return n > 0 ? n : 1;
+	}
+
+	/**
+	 * ֻٽһҵĵ÷֣ԽԽ
+	 * @param assigned εѷ䵽÷ֻδɵҵ
+	 * @param partition ҵҪʵķţûΪ0
+	 * @return ÷
+	 */
+	public double score(int assigned, int partition) {
+		int preferred = preferredTaskNum > 0 ? preferredTaskNum : 1;
+		double score = (double)(currentTasks + assigned) / preferred + cpuLoad;
+		if (maxMemory > 0 && freeMemory < maxMemory * LOW_MEMORY_RATIO) {
+			score += 1;
+		}
+
+		if (partition > 0 && hasPartition(partition)) {
+			score -= 1; // ݱصҵȷ䵽ڵķֻ
+		}
+
+		return score;
+	}
+
+	public String toString() {
+		return "tasks=" + currentTasks + "/" + maxTaskNum + ", cpu=" + cpuLoad +
+			", free=" + (freeMemory >> 20) + "M, partitions=" + Arrays.toString(partitions);
+	}
+}
@@ -1,10 +1,12 @@
 package com.scudata.parallel;
 
+import com.scudata.common.Logger;
 import com.scudata.common.MessageManager;
 import com.scudata.dm.Env;
 import com.scudata.dm.ZoneManager;
 import com.scudata.resources.ParallelMessage;
 import com.scudata.server.unit.UnitServer;
+import com.scudata.thread.VirtualThreads;
 
 /**
  * ڵҵ߳
@@ -48,73 +50,19 @@ public class UnitWorker extends Thread {
 	 */
 	public void run() {
 		try {
-			Response response = null;
 			while (!stop) {
 				Object obj = socketData.read();
-
-				if (obj == null || !(obj instanceof Request)) {
+				if (obj instanceof MuxPacket) {
+					// ͻʹö·ͨ
+					serveMux((MuxPacket)obj);
 					break;
 				}
-				Request req = (Request) obj;
-				switch (req.getActionType()) {
-				case Request.TYPE_DFX:
-					setName("UnitWorker[execute dfx]:"+req);
-					if(errorCheck){
-						response = new Response();
-						MessageManager mm = ParallelMessage.get();
-						Exception error = new Exception(mm.getMessage("UnitWorker.errorcheck",clientIP));
-						response.setException(error);
-						break;
-					}else{
-						response = TaskManager.execute(req);
-					}
-					break;
-				case Request.TYPE_CURSOR:
-					setName("UnitWorker[serve cursor]:"+req);
-					int taskId = ((Number) req.getAttr(Request.METHOD_TaskId)).intValue();
-					try {
-						RemoteCursorProxyManager rcpm;
-						if(taskId==-1){
-//							Ⱥαûţʹþ̬α
-							rcpm = RemoteCursorProxyManager.getInstance();
-						}else{
-							ITask t = TaskManager.getTask(taskId);
-							rcpm = t.getCursorManager();
-						}
-						response = rcpm.execute(req);
-					} catch (Exception x) {
-						response = new Response();
-						response.setException(x);
-					}
-					break;
-				case Request.TYPE_FILE:
-					setName("UnitWorker[serve file]:"+req);
-					//Ϊ߶ȡļٶȲڶļĹвrequest,responseʴʽҪ
-					//socketDataдļݣҪsocketDataӦ·partitionͬ
-					response = RemoteFileProxyManager.execute(req, socketData);
-					break;
-				case Request.TYPE_PARTITION:
-					setName("UnitWorker[serve partition]:"+req);
-					response = PartitionManager.execute(req, socketData);
-					break;
-				case Request.TYPE_ZONE:
-					setName("UnitWorker[ZONE]:"+req);
-					response = ZoneManager.execute(req);
-					break;
-				case Request.TYPE_UNITCOMMAND:
-					setName("UnitWorker[UnitCommand]:"+req);
-					UnitCommand uc = (UnitCommand)req.getAttr(Request.EXE_Object);
-					response = uc.execute();
-					break;
-				case Request.TYPE_JDBC:
-					setName("UnitWorker[JDBC]:"+req);
-					response = com.scudata.server.unit.JdbcManager.execute(req);
+
+				if (obj == null || !(obj instanceof Request)) {
 					break;
-				default: // Type Server
-					setName("UnitWorker[execute cmd]:"+req);
-					response = UnitServer.getInstance().execute(req);
 				}
-
+				
+				Response response = execute((Request) obj, socketData);
 				socketData.write(response);
 			}
 		} catch (Exception x) {
@@ -127,6 +75,149 @@ public class UnitWorker extends Thread {
 		}
 	}
 
+	/**
+	 * ִ
+	 * @param req 
+	 * @param sd ׽֣·ִͨʱΪգʱ֧ʽݵ
+	 * @return Ӧ
+	 * @throws Exception
+	 */
+	private Response execute(Request req, SocketData sd) throws Exception {
+		Thread thread = Thread.currentThread();
+		Response response = null;
+		switch (req.getActionType()) {
+		case Request.TYPE_DFX:
+			thread.setName("UnitWorker[execute dfx]:"+req);
+			if(errorCheck){
+				response = new Response();
+				MessageManager mm = ParallelMessage.get();
+				Exception error = new Exception(mm.getMessage("UnitWorker.errorcheck",clientIP));
+				response.setException(error);
+				break;
+			}else{
+				response = TaskManager.execute(req);
+			}
+			break;
+		case Request.TYPE_CURSOR:
+			thread.setName("UnitWorker[serve cursor]:"+req);
+			int taskId = ((Number) req.getAttr(Request.METHOD_TaskId)).intValue();
+			try {
+				RemoteCursorProxyManager rcpm;
+				if(taskId==-1){
+//					Ⱥαûţʹþ̬α
+					rcpm = RemoteCursorProxyManager.getInstance();
+				}else{
+					ITask t = TaskManager.getTask(taskId);
+					rcpm = t.getCursorManager();
+				}
+				response = rcpm.execute(req);
+			} catch (Exception x) {
+				response = new Response();
+				response.setException(x);
+			}
+			break;
+		case Request.TYPE_FILE:
+			thread.setName("UnitWorker[serve file]:"+req);
+			//Ϊ߶ȡļٶȲڶļĹвrequest,responseʴʽҪ
+			//socketDataдļݣҪsocketDataӦ·partitionͬ
+			if (sd == null && req.getAction() == Request.FILE_DIRECTREAD) {
+				response = streamNotSupported(req);
+			} else {
+				response = RemoteFileProxyManager.execute(req, sd);
+			}
+			break;
+		case Request.TYPE_PARTITION:
+			thread.setName("UnitWorker[serve partition]:"+req);
+			if (sd == null) {
+				response = streamNotSupported(req);
+			} else {
+				response = PartitionManager.execute(req, sd);
+			}
+			break;
+		case Request.TYPE_ZONE:
+			thread.setName("UnitWorker[ZONE]:"+req);
+			response = ZoneManager.execute(req);
+			break;
+		case Request.TYPE_UNITCOMMAND:
+			thread.setName("UnitWorker[UnitCommand]:"+req);
+			UnitCommand uc = (UnitCommand)req.getAttr(Request.EXE_Object);
+			long time = System.nanoTime();
+			response = uc.execute();
+			PerfMonitor.addCommand(uc.getCommandName(), System.nanoTime() - time);
+			break;
+		case Request.TYPE_JDBC:
+			thread.setName("UnitWorker[JDBC]:"+req);
+			response = com.scudata.server.unit.JdbcManager.execute(req);
+			break;
+		default: // Type Server
+			thread.setName("UnitWorker[execute cmd]:"+req);
+			response = UnitServer.getInstance().execute(req);
+		}
+		
+		return response;
+	}
+	
+	private static Response streamNotSupported(Request req) {
+		Response response = new Response();
+		response.setException(new Exception(req + " is not supported on multiplexed channel."));
+		return response;
+	}
+
+	/**
+	 * ·ͨÿڵִ߳У߳ʱΪ̣߳ӦдأֱӦ
+	 * ܷŵн̳߳ŶӣȡҵܵҪȡҵ棬Ⱥ㻹Ƕ׵ֻ
+	 * ߳ռʱụȴҵĲTaskManagerҵ
+	 * @param packet һݰ
+	 * @throws Exception
+	 */
+	private void serveMux(MuxPacket packet) throws Exception {
+		while (!stop) {
+			final long id = packet.getId();
+			if (packet.isHeartbeat()) {
+				writeMux(new MuxPacket(id, null));
+			} else {
+				final Request req = (Request) packet.getData();
+				Thread thread = VirtualThreads.newThread(new Runnable() {
+					public void run() {
+						Response response;
+						try {
+							response = execute(req, null);
+						} catch (Exception e) {
+							response = new Response();
+							response.setException(e);
+						} catch (Error e) {
+							response = new Response();
+							response.setError(e);
+						}
+						
+						try {
+							writeMux(new MuxPacket(id, response));
+						} catch (Exception e) {
+							// ѶϿ̻߳
+							Logger.debug(UnitWorker.this + " write response failed.", e);
+						}
+					}
+				});
+				
+				thread.setDaemon(true);
+				thread.start();
+			}
+			
+			Object obj = socketData.read();
+			if (!(obj instanceof MuxPacket)) {
+				break;
+			}
+			
+			packet = (MuxPacket) obj;
+		}
+	}
+	
+	private void writeMux(MuxPacket packet) throws Exception {
+		synchronized(socketData) {
+			socketData.write(packet);
+		}
+	}
+
 	/**
 	 * ֹͣ߳ҵ
 	 */
@@ -0,0 +1,263 @@
+package com.scudata.parallel;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Map;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.DataStruct;
+import com.scudata.dm.ObjectReader;
+import com.scudata.dm.ObjectWriter;
+import com.scudata.dm.Record;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dw.LZ4Util;
+
+/**
+ * ·ͨӦĶƱ
+ * ԡӦĽ룬ֵüļʽObjectWriterͱ־ʾʱд
+ * ֵֶֶдʡȥJavaлΪÿ¼дװĿ
+ * 󳤶ȳLZ4_MIN_LENGTHʱLZ4ѹѹСŲã
+ * ֵUnitCommand쳣ȣJavaл
+ * @author RunQian
+ *
+ */
+final class WireCodec {
+	private static final int LZ4_MIN_LENGTH = 64 * 1024; // ĳȴﵽֵʱѹ
+	private static final int BUFFER_SIZE = 8192;
+
+	// ݰݵ
+	private static final byte DATA_NULL = 0;
+	private static final byte DATA_REQUEST = 1;
+	private static final byte DATA_RESPONSE = 2;
+	private static final byte DATA_OBJECT = 3;
+
+	// ֵı뷽ʽ
+	private static final byte VALUE_JAVA = 0; // Javaл
+	private static final byte VALUE_BINARY = 1; // ļʽ
+	private static final byte VALUE_LZ4 = 2; // ļʽLZ4ѹ
+
+	private WireCodec() {
+	}
+
+	/**
+	 * дݰ
+	 * @param out 
+	 * @param data RequestResponse
+	 * @throws IOException
+	 */
+	public static void writeData(ObjectOutput out, Object data) throws IOException {
+		if (data == null) {
+			out.writeByte(DATA_NULL);
+		} else if (data.getClass() == Request.class) {
+			out.writeByte(DATA_REQUEST);
+			writeRequest(out, (Request)data);
+		} else if (data.getClass() == Response.class) {
+			out.writeByte(DATA_RESPONSE);
+			writeResponse(out, (Response)data);
+		} else {
+			out.writeByte(DATA_OBJECT);
+			out.writeObject(data);
+		}
+	}
+
+	/**
+	 * ݰ
+	 * @param in 
+	 * @return RequestResponse
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	public static Object readData(ObjectInput in) throws IOException, ClassNotFoundException {
+		int type = in.readByte();
+		switch (type) {
+		case DATA_NULL:
+			return null;
+		case DATA_REQUEST:
+			return readRequest(in);
+		case DATA_RESPONSE:
+			return readResponse(in);
+		case DATA_OBJECT:
+			return in.readObject();
+		default:
+			throw new IOException("Invalid packet data type: " + type);
+		}
+	}
+
+	private static void writeRequest(ObjectOutput out, Request req) throws IOException {
+		out.writeInt(req.getAction());
+		Map<String, Object> attrs = req.getAttrs();
+		out.writeInt(attrs.size());
+		Iterator<Map.Entry<String, Object>> itr = attrs.entrySet().iterator();
+		while (itr.hasNext()) {
+			Map.Entry<String, Object> entry = itr.next();
+			out.writeObject(entry.getKey());
+			writeValue(out, entry.getValue());
+		}
+	}
+
+	private static Request readRequest(ObjectInput in) throws IOException, ClassNotFoundException {
+		Request req = new Request(in.readInt());
+		Map<String, Object> attrs = req.getAttrs();
+		for (int i = 0, count = in.readInt(); i < count; ++i) {
+			String key = (String)in.readObject();
+			attrs.put(key, readValue(in));
+		}
+
+		return req;
+	}
+
+	private static void writeResponse(ObjectOutput out, Response response) throws IOException {
+		out.writeObject(response.getException());
+		out.writeObject(response.getError());
+		writeValue(out, response.getResult());
+	}
+
+	private static Response readResponse(ObjectInput in) throws IOException, ClassNotFoundException {
+		Response response = new Response();
+		response.setException((Exception)in.readObject());
+		response.setError((Error)in.readObject());
+		response.setResult(readValue(in));
+		return response;
+	}
+
+	/**
+	 * дһֵüļʽʾʱдJavaл
+	 * @param out 
+	 * @param value ֵ
+	 * @throws IOException
+	 */
+	public static void writeValue(ObjectOutput out, Object value) throws IOException {
+		if (!isBinaryValue(value)) {
+			out.writeByte(VALUE_JAVA);
+			out.writeObject(value);
+			return;
+		}
+
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(BUFFER_SIZE);
+		ObjectWriter writer = new ObjectWriter(bos, BUFFER_SIZE);
+		writer.writeObject(value);
+		writer.flush();
+
+		byte []bytes = bos.toByteArray();
+		int rawLen = bytes.length;
+		if (rawLen >= LZ4_MIN_LENGTH) {
+			LZ4Util lz4 = LZ4Util.instance();
+			byte []buffer = lz4.compress(bytes, 0, rawLen);
+			int storeLen = lz4.getCount();
+			if (storeLen < rawLen) {
+				out.writeByte(VALUE_LZ4);
+				out.writeInt(rawLen);
+				out.writeInt(storeLen);
+				out.write(buffer, 0, storeLen);
+				return;
+			}
+		}
+
+		out.writeByte(VALUE_BINARY);
+		out.writeInt(rawLen);
+		out.write(bytes);
+	}
+
+	/**
+	 * writeValueдֵ
+	 * @param in 
+	 * @return ֵ
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 */
+	public static Object readValue(ObjectInput in) throws IOException, ClassNotFoundException {
+		int type = in.readByte();
+		if (type == VALUE_JAVA) {
+			return in.readObject();
+		}
+
+		byte []bytes;
+		if (type == VALUE_BINARY) {
+			bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+		} else if (type == VALUE_LZ4) {
+			int rawLen = in.readInt();
+			byte []storeBuf = new byte[in.readInt()];
+			in.readFully(storeBuf);
+			bytes = new byte[rawLen];
+			LZ4Util.instance().decompress(storeBuf, bytes, rawLen);
+		} else {
+			throw new IOException("Invalid value type: " + type);
+		}
+
+		ObjectReader reader = new ObjectReader(new ByteArrayInputStream(bytes), BUFFER_SIZE);
+		return reader.readObject();
+	}
+
+	/**
+	 * жֵǷüļʽʾغͲ
+	 * ¼ᱻƣʧùϵֲֻ֧ͳԱǼ¼
+	 * @param value ֵ
+	 * @return trueԣfalse
+	 */
+	private static boolean isBinaryValue(Object value) {
+		if (value == null) {
+			return true;
+		}
+
+		Class<?> c = value.getClass();
+		if (c == Sequence.class) {
+			return isBinarySequence((Sequence)value);
+		} else if (c == Table.class) {
+			return isBinaryTable((Table)value);
+		} else {
+			return isBinaryScalar(c);
+		}
+	}
+
+	private static boolean isBinaryScalar(Class<?> c) {
+		return c == String.class || c == Integer.class || c == Long.class || c == Double.class ||
+			c == BigDecimal.class || c == Boolean.class || c == byte[].class ||
+			c == java.sql.Date.class || c == java.sql.Time.class || c == java.sql.Timestamp.class;
+	}
+
+	private static boolean isBinarySequence(Sequence seq) {
+		for (int i = 1, len = seq.length(); i <= len; ++i) {
+			Object obj = seq.getMem(i);
+			if (obj instanceof BaseRecord || !isBinaryValue(obj)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean isBinaryTable(Table table) {
+		DataStruct ds = table.dataStruct();
+		if (ds.getPrimary() != null) {
+			return false;
+		}
+
+		for (int i = 1, len = table.length(); i <= len; ++i) {
+			Object obj = table.getMem(i);
+			if (obj == null || obj.getClass() != Record.class) {
+				return false;
+			}
+
+			BaseRecord r = (BaseRecord)obj;
+			if (r.dataStruct() != ds) {
+				return false;
+			}
+
+			Object []vals = r.getFieldValues();
+			for (Object val : vals) {
+				if (val instanceof BaseRecord || !isBinaryValue(val)) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+}
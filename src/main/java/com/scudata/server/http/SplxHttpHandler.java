@@ -37,6 +37,7 @@ import com.scudata.parallel.Task;
 import com.scudata.resources.ParallelMessage;
 import com.scudata.server.IServer;
 import com.scudata.thread.Job;
+import com.scudata.thread.VirtualThreads;
 import com.scudata.util.CellSetUtil;
 import com.scudata.util.DatabaseUtil;
 import com.scudata.util.Variant;
@@ -98,7 +99,7 @@ public class SplxHttpHandler implements HttpHandler {
 				return;
 			}
 			if( LinksPool.canCreateLink() ) {
-				new Thread(new HandlerThread(httpExchange)).start();
+				VirtualThreads.newThread(new HandlerThread(httpExchange)).start();
 				LinksPool.addLink();
 			}
 			else {
@@ -0,0 +1,35 @@
+package com.scudata.server.unit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.scudata.parallel.PerfMonitor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+/**
+ * ڵܼHTTP񣬰PrometheusıʽPerfMonitorļ
+ * @author RunQian
+ *
+ */
+public class MetricsHandler implements HttpHandler {
+	public static final String PATH = "/metrics";
+
+	public void handle(HttpExchange httpExchange) throws IOException {
+		try {
+			if (!"GET".equalsIgnoreCase(httpExchange.getRequestMethod())) {
+				httpExchange.sendResponseHeaders(405, -1);
+				return;
+			}
+
+			byte []bytes = PerfMonitor.toPrometheusText().getBytes("UTF-8");
+			httpExchange.getResponseHeaders().add("Content-Type", "text/plain; version=0.0.4; charset=UTF-8");
+			httpExchange.sendResponseHeaders(200, bytes.length);
+			OutputStream os = httpExchange.getResponseBody();
+			os.write(bytes);
+			os.close();
+		} finally {
+			httpExchange.close();
+		}
+	}
+}
@@ -13,6 +13,7 @@ import com.scudata.parallel.*;
 import com.scudata.resources.ParallelMessage;
 import com.scudata.server.IServer;
 import com.scudata.server.StartUnitListener;
+import com.sun.net.httpserver.HttpServer;
 
 import java.text.*;
 
@@ -32,6 +33,7 @@ public class UnitServer implements IServer {
  
 	TempFileMonitor tempFileMonitor = null;
 	ProxyMonitor proxyMonitor;
+	HttpServer metricsServer = null; // ܼHTTP
 	
 	private volatile boolean stop = true;
 
@@ -191,6 +193,9 @@ public class UnitServer implements IServer {
 			result[1]=hostManager.getCurrentTasks();
 			res.setResult( result );
 			break;
+		case Request.SERVER_GETLOAD:
+			res.setResult(hostManager.getLoad());
+			break;
 		case Request.SERVER_GETAREANO:
 			String J = (String)req.getAttr(Request.GETAREANO_TaskName);
 			res.setResult( Env.getAreaNo(J) );
@@ -396,6 +401,7 @@ public class UnitServer implements IServer {
 
 		proxyMonitor = new ProxyMonitor();
 		proxyMonitor.start();
+		startMetricsServer();
 		
 		Logger.info(ParallelMessage.get().getMessage("UnitServer.run3", unitContext));
 		ThreadGroup threadGroup = new ThreadGroup("UnitWorkerGroup");
@@ -450,6 +456,10 @@ public class UnitServer implements IServer {
 			tempFileMonitor.stopThread();
 		}
 		proxyMonitor.stopThread();
+		if (metricsServer != null) {
+			metricsServer.stop(0);
+			metricsServer = null;
+		}
 		
 		Thread[] threads = new Thread[threadGroup.activeCount()];
 		threadGroup.enumerate(threads);
@@ -459,6 +469,8 @@ public class UnitServer implements IServer {
 				((UnitWorker)t).shutdown();
 			}
 		}
+		
+		NodeChannel.closeAll();
 		Logger.info(ParallelMessage.get().getMessage("UnitServer.runend", unitContext));
 		instance = null;		
 		if( isQuit ) {
@@ -466,6 +478,28 @@ public class UnitServer implements IServer {
 		}
 	} // 
 
+	/**
+	 * ܼ˿ʱHTTPʧܲӰڵ
+	 */
+	private void startMetricsServer() {
+		int port = unitContext.getMetricsPort();
+		if (port <= 0) {
+			return;
+		}
+
+		try {
+			InetAddress add = InetAddress.getByName(unitContext.getLocalHost());
+			metricsServer = HttpServer.create(new InetSocketAddress(add, port), 0);
+			metricsServer.createContext(MetricsHandler.PATH, new MetricsHandler());
+			metricsServer.setExecutor(null);
+			metricsServer.start();
+			Logger.info("Metrics are exported on http://" + unitContext.getLocalHost() + ":" + port + MetricsHandler.PATH);
+		} catch (Exception x) {
+			metricsServer = null;
+			Logger.error("Failed to start metrics server on port " + port + ": " + x.getMessage());
+		}
+	}
+
 	/**
 	 * жϵǰǷ
 	 */
@@ -1,6 +1,7 @@
 package com.scudata.thread;
 
 import com.scudata.common.RQException;
+import com.scudata.parallel.PerfMonitor;
 
 /**
  * 󣬿ύThreadPoolJobThreadִ
@@ -9,21 +10,29 @@ import com.scudata.common.RQException;
  */
 public abstract class Job implements Runnable {
 	private boolean isFinished; // Ƿ
-	private Throwable error; // ִйе쳣ϢûΪ
+	private volatile Throwable error; // ִйе쳣ϢûΪ
+	private PerfMonitor.TaskMetrics metrics; // ύ߳ڵܼ
+	private ThreadPool pool; // ύ̳߳أJobThreadִʱΪ
+	private Job group; // 飬Ǵ̳߳ύĸ񣬹ִ߳ʱύ͸ͬ
 	
 	/**
-	 * ȴִ
+	 * ȴִ̳꣬߳صĹ̵߳ȴʱִ̳߳
 	 */
-	public final synchronized void join() {
-		if (!isFinished) {
-			try {
-				wait();
-			} catch (InterruptedException e) {
-				// idẹ߳˴׳쳣ܵjvm
-				//throw new RQException(e);
+	public final void join() {
+		if (!ThreadPool.helpJoin(this)) {
+			synchronized(this) {
+				if (!isFinished) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						// idẹ߳˴׳쳣ܵjvm
+						//throw new RQException(e);
+					}
+				}
 			}
 		}
 		
+		Throwable error = this.error;
 		if (error != null) {
 			if (error instanceof RQException) {
 				throw (RQException)error;
@@ -33,14 +42,46 @@ public abstract class Job implements Runnable {
 		}
 	}
 
-	void reset() {
+	void reset(ThreadPool pool) {
 		isFinished = false;
 		error = null;
+		metrics = PerfMonitor.getCurrentTask();
+		this.pool = pool;
+	}
+	
+	ThreadPool getPool() {
+		return pool;
+	}
+	
+	void setGroup(Job group) {
+		this.group = group;
+	}
+	
+	Job getGroup() {
+		return group;
+	}
+	
+	PerfMonitor.TaskMetrics getMetrics() {
+		return metrics;
 	}
 
 	synchronized void finish() {
 		isFinished = true;
-		notify();
+		notifyAll();
+	}
+	
+	synchronized boolean isFinished() {
+		return isFinished;
+	}
+	
+	// ȴָĺʱᱻ
+	synchronized void waitFinish(long millis) {
+		if (!isFinished) {
+			try {
+				wait(millis);
+			} catch (InterruptedException e) {
+			}
+		}
 	}
 	
 	void setError(Throwable error) {
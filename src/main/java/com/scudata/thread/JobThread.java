@@ -1,5 +1,7 @@
 package com.scudata.thread;
 
+import com.scudata.parallel.PerfMonitor;
+
 /**
  * ̶ִ߳
  * @author WangXiaoJun
@@ -10,10 +12,11 @@ public class JobThread extends Thread {
 	
 	public JobThread(Job job) {
 		this.job = job;
-		job.reset();
+		job.reset(null);
 	}
 	
 	public void run() {
+		PerfMonitor.setCurrentTask(job.getMetrics());
 		try {
 			job.run();
 		} catch (Throwable e) {
@@ -0,0 +1,218 @@
+package com.scudata.thread;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import com.scudata.common.Logger;
+import com.scudata.common.MessageManager;
+import com.scudata.dm.ColumnSpillWriter;
+import com.scudata.dm.Context;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.Sequence;
+import com.scudata.expression.Expression;
+import com.scudata.resources.EngineMessage;
+import com.scudata.util.Variant;
+
+/**
+ * ʱһдʱļ
+ * ·ʱ¼ֵֶÿһ¼ֵֶдòֵֵֶ
+ * 鲢ʱÿһ·ֻʱļа·Ŀ
+ * @author RunQian
+ *
+ */
+public class SortxJob extends Job {
+	private static final int SAMPLE_RECORDS = 1024; // ļ¼
+
+	private Sequence data; // Ҫ
+	private Expression[] exps; // ֶαʽ
+	private String opt; // ѡ0null
+	private Context ctx; // 
+
+	private boolean isSample; // Ƿֵֶ
+	private FileObject file; // ʱļ
+	private boolean isBlockFile; // ʱļǷǰŵʽʱļ԰
+	private Object [][]blockKeys; // ÿһ¼ֵֶ
+	private Object [][]sampleKeys; // ÿSAMPLE_RECORDS¼ȡֵֶ
+	private Object []lastKey; // һ¼ֵֶ
+
+	/**
+	 * 
+	 * @param data Ҫ
+	 * @param exps ֶαʽ
+	 * @param opt ѡ0null
+	 * @param ctx 
+	 * @param isSample Ƿڶ·ֵֶ
+	 */
+	public SortxJob(Sequence data, Expression[] exps, String opt, Context ctx, boolean isSample) {
+		this.data = data;
+		this.exps = exps;
+		this.opt = opt;
+		this.ctx = ctx;
+		this.isSample = isSample;
+	}
+
+	/**
+	 * ȡдʱļִ
+	 * @return FileObject
+	 */
+	public FileObject getFile() {
+		return file;
+	}
+
+	public void run() {
+		Expression []exps = this.exps;
+		Sequence sequence;
+		if (exps.length == 1) {
+			sequence = data.sort(exps[0], null, opt, ctx);
+		} else {
+			sequence = data.sort(exps, null, opt, ctx);
+		}
+
+		// ͷԴݣԱ
+		data = null;
+
+		int len = sequence.length();
+		if (isSample && len > 0) {
+			int blockRecords = ColumnSpillWriter.BLOCK_RECORDS;
+			int count = (len - 1) / blockRecords + 1;
+			Object [][]blockKeys = new Object[count][];
+			for (int b = 0; b < count; ++b) {
+				blockKeys[b] = getKey(sequence, b * blockRecords + 1);
+			}
+
+			this.blockKeys = blockKeys;
+			count = (len - 1) / SAMPLE_RECORDS + 1;
+			Object [][]sampleKeys = new Object[count][];
+			for (int i = 0; i < count; ++i) {
+				sampleKeys[i] = getKey(sequence, i * SAMPLE_RECORDS + 1);
+			}
+
+			this.sampleKeys = sampleKeys;
+			lastKey = getKey(sequence, len);
+			isBlockFile = ColumnSpillWriter.canWrite(sequence);
+		}
+
+		FileObject fo = FileObject.createTempFileObject();
+		MessageManager mm = EngineMessage.get();
+		Logger.info(mm.getMessage("engine.createTmpFile") + fo.getFileName());
+		ColumnSpillWriter.exportTemp(fo, sequence);
+		file = fo;
+	}
+
+	private Object[] getKey(Sequence sequence, int index) {
+		Expression []exps = this.exps;
+		int fcount = exps.length;
+		Object []key = new Object[fcount];
+		for (int f = 0; f < fcount; ++f) {
+			key[f] = sequence.calc(index, exps[f], ctx);
+		}
+
+		return key;
+	}
+
+	/**
+	 * Ƚֵֶ
+	 * @param key1 ֵֶ1
+	 * @param key2 ֵֶ2
+	 * @param opt ѡ0null
+	 * @return 1ڣ0ڣ-1С
+	 */
+	public static int compare(Object []key1, Object []key2, String opt) {
+		if (opt == null || opt.indexOf('0') == -1) {
+			return Variant.compareArrays(key1, key2);
+		} else {
+			return Variant.compareArrays_0(key1, key2);
+		}
+	}
+
+	/**
+	 * ĲֵֵֶÿֵͬݣȡȾλϵֵȥظ
+	 * i·ڵi-1ֵֶСڵڵiֵֶ
+	 * @param jobs ɵ
+	 * @param pathCount ·
+	 * @param opt ѡ0null
+	 * @return ֵֶ飬ֶܷʱؿ
+	 */
+	public static Object[][] createSplitters(ArrayList<SortxJob> jobs, int pathCount, final String opt) {
+		ArrayList<Object[]> keyList = new ArrayList<Object[]>();
+		for (SortxJob job : jobs) {
+			if (job.sampleKeys != null) {
+				keyList.addAll(Arrays.asList(job.sampleKeys));
+			}
+		}
+
+		int len = keyList.size();
+		if (len < 2) {
+			return null;
+		}
+
+		Object [][]keys = new Object[len][];
+		keyList.toArray(keys);
+		Arrays.sort(keys, new Comparator<Object[]>() {
+			public int compare(Object []o1, Object []o2) {
+				return SortxJob.compare(o1, o2, opt);
+			}
+		});
+
+		ArrayList<Object[]> list = new ArrayList<Object[]>(pathCount);
+		Object []prev = null;
+		for (int i = 1; i < pathCount; ++i) {
+			int index = (int)((long)len * i / pathCount);
+			Object []key = keys[index];
+			if (prev == null || compare(key, prev, opt) > 0) {
+				list.add(key);
+				prev = key;
+			}
+		}
+
+		if (list.size() == 0) {
+			return null;
+		}
+
+		Object [][]splitters = new Object[list.size()][];
+		list.toArray(splitters);
+		return splitters;
+	}
+
+	/**
+	 * ʱļǷд½粢СڵϽ
+	 * @param lower ½磬ձʾû½
+	 * @param upper Ͻ磬ձʾûϽ
+	 * @return trueУfalseû
+	 */
+	public boolean hasRange(Object []lower, Object []upper) {
+		if (lower != null && compare(lastKey, lower, opt) <= 0) {
+			return false;
+		} else if (upper != null && compare(blockKeys[0], upper, opt) > 0) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * ضȡ½ʱĿ׼¼Сڵ½Ŀֻһд½
+	 * @param lower ½磬ձʾû½
+	 * @return 
+	 */
+	public int getStartBlock(Object []lower) {
+		if (lower == null || !isBlockFile) {
+			return 0;
+		}
+
+		Object [][]blockKeys = this.blockKeys;
+		int low = 0;
+		int high = blockKeys.length - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			if (compare(blockKeys[mid], lower, opt) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+
+		return low > 0 ? low - 1 : 0;
+	}
+}
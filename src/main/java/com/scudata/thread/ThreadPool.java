@@ -1,71 +1,106 @@
 package com.scudata.thread;
 
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
 
 import com.scudata.dm.Env;
+import com.scudata.parallel.PerfMonitor;
 
 /**
  * ̳߳ضڶ̴߳
  * ߳Env.getParallelNum()
+ * ÿ߳ԼУ߳ύŵԼĶβӶβȡִУ
+ * ߳ύŵУԼĶк͹жûʱ̵߳Ķͷȡ
+ * ̵߳ȴʱִжͬǶ׵Ĳ񲻻Ϊ̶߳ڵȴ
+ * newIOInstance̳߳߳ʱִ̣߳߳I/Oܼ
  * @author WangXiaoJun
  *
  */
 public class ThreadPool{
+	private static final long JOIN_WAIT_MILLIS = 10; // ̵߳ȴʱûִʱÿεȴĺ
 	private static ThreadPool instance;
+	private static final ThreadLocal<Worker> currentWorker = new ThreadLocal<Worker>(); // ǰ̶߳ӦĹߣǹ߳Ϊ
 
-	private WorkThread[] threads;
-	private LinkedList<Job> jobList = new LinkedList<Job>();
-	private boolean shutdown; // Ƿر߳
+	private ThreadGroup group; // ƽ̨߳߳
+	private boolean isVirtual; // ߳Ƿ߳
+	private Worker[] workers;
+	private ConcurrentLinkedDeque<Job> []queues; // ÿ̵߳
+	private ConcurrentLinkedQueue<Job> jobList = new ConcurrentLinkedQueue<Job>(); // ǹ߳ύ
+	private ConcurrentLinkedQueue<Worker> idleWorkers = new ConcurrentLinkedQueue<Worker>(); // еȴĹ
+	private volatile boolean shutdown; // Ƿر߳
 
-	// ̳߳Ĺ߳
-	private class WorkThread extends Thread {
-		private WorkThread(ThreadGroup group, String name) {
-			super(group, name);
+	// ̳߳صĹߣƽִ̨̻߳߳
+	private class Worker implements Runnable {
+		private int index; // ţӦΪqueues[index]
+		private Thread thread; // ִд˹ߵ߳
+		private Job currentJob; // ִеȷύ
+
+		private Worker(int index) {
+			this.index = index;
+		}
+
+		private ThreadPool getPool() {
+			return ThreadPool.this;
+		}
+
+		// ̲߳
+		private void start() {
+			Thread thread = null;
+			if (isVirtual) {
+				thread = VirtualThreads.newVirtualThread(this);
+			}
+
+			if (thread == null) {
+				thread = new Thread(group, this, "ThreadPool" + index);
+				thread.setDaemon(true);
+			}
+
+			this.thread = thread;
+			thread.start();
 		}
 
 		public void run() {
+			currentWorker.set(this);
 			while (true) {
-				// бͬ
-				synchronized(jobList) {
-					if (shutdown) {
-						// ̳߳ص˹رգ߳
-						return;
-					}
-
-					// ûȴ
-					if (jobList.size() == 0) {
-						try {
-							jobList.wait();
-						} catch (InterruptedException e) {
-							if (shutdown) {
-								return;
-							}
-						}
-					}
+				if (shutdown) {
+					// ̳߳ص˹رգ߳
+					return;
 				}
 
-				// ѵһȡִ
-				Job job = null;
-				synchronized(jobList) {
-					if (jobList.size() > 0) {
-						job = jobList.removeFirst();
-					}
+				Job job = nextJob(index);
+				if (job != null) {
+					runJob(this, job);
+					continue;
 				}
 
+				// ȵǼΪټһ񣬱֤ύʱܻ
+				idleWorkers.add(this);
+				job = nextJob(index);
 				if (job != null) {
-					try {
-						job.run();
-					} catch (Throwable e) {
-						job.setError(e);
+					idleWorkers.remove(this);
+					runJob(this, job);
+				} else if (!shutdown) {
+					LockSupport.park(this);
+
+					// ide߳ʱж̣߳ж״̬
+					if (Thread.interrupted() && shutdown) {
+						return;
 					}
 
-					job.finish();
+					idleWorkers.remove(this);
 				}
 			}
 		}
 	}
 
 	private ThreadPool(int threadCount) {
+		this(threadCount, false);
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private ThreadPool(int threadCount, boolean isVirtual) {
 		ThreadGroup group = Thread.currentThread().getThreadGroup();
 		// 鲻ideģideide߳Ľ̷߳˷ݹ߳߳
 		/*while (true) {
@@ -77,11 +112,17 @@ public class ThreadPool{
 			}
 		}*/
 
-		threads = new WorkThread[threadCount];
+		this.group = group;
+		this.isVirtual = isVirtual;
+		queues = new ConcurrentLinkedDeque[threadCount];
+		workers = new Worker[threadCount];
+		for (int i = 0; i < threadCount; ++i) {
+			queues[i] = new ConcurrentLinkedDeque<Job>();
+			workers[i] = new Worker(i);
+		}
+
 		for (int i = 0; i < threadCount; ++i) {
-			threads[i] = new WorkThread(group, "ThreadPool" + i);
-			threads[i].setDaemon(true);
-			threads[i].start();
+			workers[i].start();
 		}
 	}
 
@@ -98,20 +139,20 @@ public class ThreadPool{
 
 			instance = new ThreadPool(n);
 		} else {
-			// Ƿ߳
-			WorkThread[] threads = instance.threads;
-			for (int i = 0, len = threads.length; i < len; ++i) {
-				if (!threads[i].isAlive()) {
-					threads[i] = instance.new WorkThread(threads[i].getThreadGroup(), "ThreadPool" + i);
-					threads[i].setDaemon(true);
-					threads[i].start();
+			// Ƿ̶ִ߳߳̽߳
+			Worker[] workers = instance.workers;
+			for (int i = 0, len = workers.length; i < len; ++i) {
+				if (!workers[i].thread.isAlive()) {
+					instance.idleWorkers.remove(workers[i]);
+					workers[i] = instance.new Worker(i);
+					workers[i].start();
 				}
 			}
 		}
 
 		return instance;
 	}
-	
+
 	/**
 	 * ²һ̳߳
 	 * @param threadCount ߳õ
@@ -126,10 +167,24 @@ public class ThreadPool{
 				threadCount = n;
 			}
 		}
-		
+
 		return new ThreadPool(threadCount);
 	}
 
+	/**
+	 * ²һִI/Oܼ̳߳أforkcallxȻԶ̵áݿдϵ
+	 * ߳ʱ߳Ϊ̣߳߳ƣͬnewInstance
+	 * @param threadCount ߳
+	 * @return ThreadPool
+	 */
+	public static synchronized ThreadPool newIOInstance(int threadCount) {
+		if (VirtualThreads.isEnabled()) {
+			return new ThreadPool(threadCount < 1 ? 1 : threadCount, true);
+		} else {
+			return newInstance(threadCount);
+		}
+	}
+
 	/**
 	 * ڵҪϸִУҪ֧1
 	 * @param size ߳
@@ -140,7 +195,7 @@ public class ThreadPool{
 		if (n < 1) {
 			n = 1;
 		}
-		
+
 		return new ThreadPool(n);
 	}
 
@@ -149,9 +204,13 @@ public class ThreadPool{
 	 */
 	public synchronized void shutdown() {
 		shutdown = true;
-		synchronized(jobList) {
-			jobList.notifyAll();
-			jobList.clear();
+		jobList.clear();
+		for (ConcurrentLinkedDeque<Job> queue : queues) {
+			queue.clear();
+		}
+
+		for (Worker worker : workers) {
+			LockSupport.unpark(worker.thread);
 		}
 	}
 
@@ -160,18 +219,28 @@ public class ThreadPool{
 	 * @param job Job
 	 */
 	public void submit(Job job) {
-		job.reset();
-		synchronized(jobList) {
+		job.reset(this);
+		Worker worker = currentWorker.get();
+		if (worker != null && worker.getPool() == this) {
+			// ߳ύŵԼĶУ߳̿ȡִеͬ
+			Job current = worker.currentJob;
+			job.setGroup(current != null ? current.getGroup() : job);
+			queues[worker.index].addLast(job);
+		} else {
+			job.setGroup(job);
 			jobList.add(job);
-			jobList.notify();
+		}
+
+		Worker idle = idleWorkers.poll();
+		if (idle != null) {
+			LockSupport.unpark(idle.thread);
 		}
 	}
-	
+
 	protected void finalize() throws Throwable {
 		try {
 			if (!shutdown) {
-				jobList.notifyAll();
-				jobList.clear();
+				shutdown();
 			}
 		} catch (Throwable e) {
 		}
@@ -182,6 +251,114 @@ public class ThreadPool{
 	 * @return
 	 */
 	public int getThreadCount() {
-		return threads.length;
+		return workers.length;
+	}
+
+	// ȡһҪִеȡԼβȡе̵߳Ķͷȡ
+	private Job nextJob(int index) {
+		Job job = queues[index].pollLast();
+		if (job != null) {
+			return job;
+		}
+
+		job = jobList.poll();
+		if (job != null) {
+			return job;
+		}
+
+		ConcurrentLinkedDeque<Job> []queues = this.queues;
+		for (int i = 1, count = queues.length; i < count; ++i) {
+			job = queues[(index + i) % count].pollFirst();
+			if (job != null) {
+				return job;
+			}
+		}
+
+		return null;
+	}
+
+	// ȡһָͬڵȴʱִУȡ˳nextJobͬ
+	private Job nextJob(int index, Job group) {
+		ConcurrentLinkedDeque<Job> []queues = this.queues;
+		ConcurrentLinkedDeque<Job> queue = queues[index];
+		Iterator<Job> itr = queue.descendingIterator();
+		while (itr.hasNext()) {
+			Job job = itr.next();
+			if (job.getGroup() == group && queue.removeLastOccurrence(job)) {
+				return job;
+			}
+		}
+
+		for (Job job : jobList) {
+			if (job.getGroup() == group && jobList.remove(job)) {
+				return job;
+			}
+		}
+
+		for (int i = 1, count = queues.length; i < count; ++i) {
+			queue = queues[(index + i) % count];
+			for (Job job : queue) {
+				if (job.getGroup() == group && queue.removeFirstOccurrence(job)) {
+					return job;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	private static void runJob(Worker worker, Job job) {
+		// ҵܼύĽڵ
+		PerfMonitor.TaskMetrics metrics = PerfMonitor.setCurrentTask(job.getMetrics());
+		Job prevJob = worker.currentJob;
+		worker.currentJob = job;
+		try {
+			job.run();
+		} catch (Throwable e) {
+			job.setError(e);
+		} finally {
+			worker.currentJob = prevJob;
+			PerfMonitor.setCurrentTask(metrics);
+		}
+
+		job.finish();
+	}
+
+	/**
+	 * ǰ̳߳߳صḶ́߳ǰִ񣬷򷵻false
+	 * ڶʱֱڵǰִִ߳жͬ
+	 * ִֻͬ񣬵ȴ߿ܳǶִ޹㣬
+	 * ̳߳ص񲻰ִУҴ̳߳صִ˳
+	 * @param job Ҫȴ
+	 * @return trueѵȵfalseǰ̲̳߳߳صĹ߳
+	 */
+	static boolean helpJoin(Job job) {
+		Worker worker = currentWorker.get();
+		if (worker == null) {
+			return false;
+		}
+
+		ThreadPool pool = worker.getPool();
+		if (job.getPool() != pool) {
+			return false;
+		}
+
+		int index = worker.index;
+		if (pool.queues[index].removeLastOccurrence(job) || pool.jobList.remove(job)) {
+			runJob(worker, job);
+			return true;
+		}
+
+		Job group = job.getGroup();
+		while (!job.isFinished()) {
+			Job other = pool.shutdown ? null : pool.nextJob(index, group);
+			if (other != null) {
+				runJob(worker, other);
+			} else {
+				job.waitFinish(JOIN_WAIT_MILLIS);
+			}
+		}
+
+		return true;
 	}
 }
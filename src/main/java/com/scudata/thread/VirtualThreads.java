@@ -0,0 +1,117 @@
+package com.scudata.thread;
+
+import java.lang.reflect.Method;
+
+import com.scudata.common.Logger;
+import com.scudata.dm.Env;
+import com.scudata.parallel.PerfMonitor;
+
+/**
+ * ִ̹߳࣬forkcallxhttpݿhttpļαȡI/Oܼ
+ * Java 8룬̣߳JDK 21ϣͨ䴴JVM֧ʱƽ̨߳
+ * ܼThreadPool.instance()ƽִ̨߳
+ * @author RunQian
+ *
+ */
+public final class VirtualThreads {
+	private static Object builder; // Thread.ofVirtual()صĹJVM֧߳ʱΪ
+	private static Method unstartedMethod; // Thread.Builder.unstarted(Runnable)
+
+	static {
+		try {
+			Method ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+			builder = nameMethod.invoke(ofVirtual.invoke(null), "VirtualThread", 0L);
+			unstartedMethod = builderClass.getMethod("unstarted", Runnable.class);
+		} catch (Throwable e) {
+			builder = null;
+			unstartedMethod = null;
+		}
+	}
+
+	private VirtualThreads() {
+	}
+
+	/**
+	 * JVMǷ֧߳
+	 * @return true֧֣false֧
+	 */
+	public static boolean isSupported() {
+		return builder != null;
+	}
+
+	/**
+	 * Ƿִ߳I/OܼҪEnv.setVirtualThread(true)JVM֧߳
+	 * @return truẹ߳falseƽ̨߳
+	 */
+	public static boolean isEnabled() {
+		return builder != null && Env.isVirtualThread();
+	}
+
+	/**
+	 * ִI/Oܼ̣߳û
+	 * @param task 
+	 * @return ߳ʱ̣߳򷵻ƽ̨߳
+	 */
+	public static Thread newThread(Runnable task) {
+		if (isEnabled()) {
+			Thread thread = newVirtualThread(task);
+			if (thread != null) {
+				return thread;
+			}
+		}
+
+		return new Thread(task);
+	}
+
+	/**
+	 * ִ߳αݿhttpļȡI/Oܼʹjob.join()ȴ
+	 * @param job 
+	 */
+	public static void submit(final Job job) {
+		job.reset(null);
+		Runnable task = new Runnable() {
+			public void run() {
+				PerfMonitor.setCurrentTask(job.getMetrics());
+				try {
+					job.run();
+				} catch (Throwable e) {
+					job.setError(e);
+				}
+
+				job.finish();
+			}
+		};
+
+		Thread thread = isEnabled() ? newVirtualThread(task) : null;
+		if (thread == null) {
+			// ƽ̨߳Ϊػ̣߳δȡα겻ֹJVM˳
+			thread = new Thread(task);
+			thread.setDaemon(true);
+		}
+
+		thread.start();
+	}
+
+	/**
+	 * ̣߳û
+	 * @param task 
+	 * @return ̣߳JVM֧ʱؿ
+	 */
+	static Thread newVirtualThread(Runnable task) {
+		if (builder == null) {
+			return null;
+		}
+
+		try {
+			// ּ߳ʹʱҪͬ
+			synchronized(builder) {
+				return (Thread)unstartedMethod.invoke(builder, task);
+			}
+		} catch (Throwable e) {
+			Logger.error(e);
+			return null;
+		}
+	}
+}
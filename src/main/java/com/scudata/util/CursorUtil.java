@@ -45,7 +45,9 @@ import com.scudata.parallel.ClusterCursor;
 import com.scudata.resources.EngineMessage;
 import com.scudata.thread.GroupsJob;
 import com.scudata.thread.GroupxJob;
+import com.scudata.thread.JobThread;
 import com.scudata.thread.MultithreadUtil;
+import com.scudata.thread.SortxJob;
 import com.scudata.thread.ThreadPool;
 
 public final class CursorUtil {
@@ -1547,16 +1549,20 @@ public final class CursorUtil {
 	
 	/**
 	 * α
+	 * ߳ʱں̨дʱļͬʱȡһ
 	 * @param cursor α
 	 * @param exps ֶαʽ
 	 * @param ctx 
 	 * @param capacity ڴܹļ¼ûԶһ
-	 * @param opt ѡ 0null
+	 * @param opt ѡ 0nullmķֵֶѽɶ·α
 	 * @return źα
 	 */
 	public static ICursor sortx(ICursor cursor, Expression[] exps, Context ctx, int capacity, String opt) {
-		int fcount = exps.length;
-		ArrayList<ICursor> cursorList = new ArrayList<ICursor>();
+		boolean isPipeline = Env.getParallelNum() > 1;
+		int pathCount = 1;
+		if (opt != null && opt.indexOf('m') != -1) {
+			pathCount = Env.getCursorParallelNum();
+		}
 		
 		Sequence table;
 		if (capacity <= 1) {
@@ -1570,66 +1576,185 @@ public final class CursorUtil {
 			table = cursor.fetch(capacity);
 		}
 		
-		MessageManager mm = EngineMessage.get();
-		String msg = mm.getMessage("engine.createTmpFile");
-		Expression[] tempExps = exps.clone();
+		// ̨ʱڴлͬʱݣÿֻȡһ
+		Sequence nextTable = null;
+		if (isPipeline && table != null) {
+			capacity = (capacity + 1) / 2;
+			if (table.length() > capacity) {
+				nextTable = table.split(capacity + 1);
+			}
+		}
 		
-		while (table != null && table.length() > 0) {
-			// ֶαʽʱΪŻᱣ¼ָ
-			// Ϊ´ȡǰܹͷǰһεݣȸ±ʽźͷűʽ
-			for (int i = 0, len = tempExps.length; i < len; i++) {
-				tempExps[i] = exps[i].newExpression(ctx);
+		ArrayList<SortxJob> runList = new ArrayList<SortxJob>();
+		SortxJob prevJob = null;
+		
+		try {
+			while (table != null && table.length() > 0) {
+				// ֶαʽʱΪŻᱣ¼ָ
+				// ÿʹµıʽɺͷǰһ
+				Context tmpCtx = ctx.newComputeContext();
+				Expression []tmpExps = Operation.dupExpressions(exps, tmpCtx);
+				
+				// ڴݣҪǰһд
+				if (prevJob != null) {
+					prevJob.join();
+					runList.add(prevJob);
+					prevJob = null;
+				}
+				
+				SortxJob job = new SortxJob(table, tmpExps, opt, tmpCtx, pathCount > 1);
+				table = null;
+				
+				if (isPipeline) {
+					new JobThread(job).start();
+					prevJob = job;
+				} else {
+					job.run();
+					runList.add(job);
+				}
+				
+				// ȡ
+				if (nextTable != null) {
+					table = nextTable;
+					nextTable = null;
+				} else {
+					table = cursor.fetch(capacity);
+				}
 			}
 			
-			Sequence sequence;
-			if (fcount == 1) {
-				sequence = table.sort(tempExps[0], null, opt, ctx);
-			} else {
-				sequence = table.sort(tempExps, null, opt, ctx);
+			if (prevJob != null) {
+				prevJob.join();
+				runList.add(prevJob);
+				prevJob = null;
 			}
-
-			// ǷԴͱʽ
-			table = null;
-			for (int i = 0, len = tempExps.length; i < len; i++) {
-				tempExps[i] = null;
+		} catch (RuntimeException e) {
+			if (prevJob != null) {
+				try {
+					prevJob.join();
+					runList.add(prevJob);
+				} catch (RuntimeException ex) {
+				}
 			}
 			
-			// ʱļ
-			FileObject fo = FileObject.createTempFileObject();
-			Logger.info(msg + fo.getFileName());
+			for (SortxJob job : runList) {
+				if (job.getFile() != null) {
+					job.getFile().delete();
+				}
+			}
 			
-			// źдʱļ
-			fo.exportSeries(sequence, "b", null);
-			sequence = null;
-			BFileCursor bfc = new BFileCursor(fo, null, "x", ctx);
-			cursorList.add(bfc);
-
-			// ȡ
-			table = cursor.fetch(capacity);
+			throw e;
 		}
-
-		int size = cursorList.size();
-		if (size == 0) {
+		
+		return createSortxCursor(runList, exps, opt, pathCount, ctx);
+	}
+	
+	/**
+	 * ʱļ鲢
+	 * ·ʱĲֵֵֶÿһ·鲢ʱļڱ·
+	 * @param runList ɵÿӦһʱļ
+	 * @param exps ֶαʽ
+	 * @param opt ѡ 0null
+	 * @param pathCount ·
+	 * @param ctx 
+	 * @return źαֶ꣬·ʱض·α
+	 */
+	public static ICursor createSortxCursor(ArrayList<SortxJob> runList, Expression[] exps, String opt, int pathCount, Context ctx) {
+		int fileCount = runList.size();
+		if (fileCount == 0) {
 			//return null;
 			return new MemoryCursor(null);
-		} else if (size == 1) {
-			return (ICursor)cursorList.get(0);
-		} else {
-			// ʱļ鲢
-			int bufSize = Env.getMergeFileBufSize(size);
-			for (int i = 0; i < size; ++i) {
-				BFileCursor bfc = (BFileCursor)cursorList.get(i);
-				bfc.setFileBufferSize(bufSize);
+		}
+		
+		Object [][]splitters = null;
+		if (pathCount > 1) {
+			splitters = SortxJob.createSplitters(runList, pathCount, opt);
+		}
+		
+		if (splitters == null) {
+			if (fileCount == 1) {
+				return ColumnSpillCursor.createTempCursor(runList.get(0).getFile(), 0, ctx);
+			}
+			
+			int bufSize = Env.getMergeFileBufSize(fileCount);
+			ICursor []cursors = new ICursor[fileCount];
+			for (int i = 0; i < fileCount; ++i) {
+				cursors[i] = ColumnSpillCursor.createTempCursor(runList.get(i).getFile(), bufSize, ctx);
+			}
+			
+			return createMergesCursor(cursors, exps, opt, ctx);
+		}
+		
+		// ÿһ·ǰһֵֶСڵڱ·ֵֶ
+		pathCount = splitters.length + 1;
+		ArrayList<ArrayList<SortxJob>> pathJobs = new ArrayList<ArrayList<SortxJob>>(pathCount);
+		int cursorCount = 0;
+		for (int p = 0; p < pathCount; ++p) {
+			Object []lower = p > 0 ? splitters[p - 1] : null;
+			Object []upper = p < pathCount - 1 ? splitters[p] : null;
+			ArrayList<SortxJob> jobs = new ArrayList<SortxJob>();
+			for (SortxJob job : runList) {
+				if (job.hasRange(lower, upper)) {
+					jobs.add(job);
+				}
+			}
+			
+			pathJobs.add(jobs);
+			cursorCount += jobs.size();
+		}
+		
+		// ʱļ·ã¼ÿļαرպɾļ
+		int [][]refCounts = new int[fileCount][];
+		for (int i = 0; i < fileCount; ++i) {
+			refCounts[i] = new int[1];
+			for (ArrayList<SortxJob> jobs : pathJobs) {
+				if (jobs.contains(runList.get(i))) {
+					refCounts[i][0]++;
+				}
+			}
+		}
+		
+		int bufSize = Env.getMergeFileBufSize(cursorCount);
+		ArrayList<ICursor> pathList = new ArrayList<ICursor>(pathCount);
+		for (int p = 0; p < pathCount; ++p) {
+			Object []lower = p > 0 ? splitters[p - 1] : null;
+			Object []upper = p < pathCount - 1 ? splitters[p] : null;
+			ArrayList<SortxJob> jobs = pathJobs.get(p);
+			int size = jobs.size();
+			if (size == 0) {
+				continue;
 			}
 			
 			ICursor []cursors = new ICursor[size];
-			cursorList.toArray(cursors);
-			if (opt == null || opt.indexOf('0') == -1) {
-				return new MergesCursor(cursors, exps, ctx);
+			for (int i = 0; i < size; ++i) {
+				SortxJob job = jobs.get(i);
+				int []refCount = refCounts[runList.indexOf(job)];
+				cursors[i] = new SortxRangeCursor(job.getFile(), refCount, job.getStartBlock(lower), 
+						lower, upper, exps, opt, cursorCount > 1 ? bufSize : 0, ctx);
+			}
+			
+			if (size == 1) {
+				pathList.add(cursors[0]);
 			} else {
-				return new MergesCursor(cursors, exps, "0", ctx);
+				pathList.add(createMergesCursor(cursors, exps, opt, ctx));
 			}
 		}
+		
+		if (pathList.size() == 1) {
+			return pathList.get(0);
+		} else {
+			// ÿ·ڷֵֶȷڣ·Բй鲢
+			ICursor []cursors = new ICursor[pathList.size()];
+			pathList.toArray(cursors);
+			return new MultipathCursors(cursors, ctx);
+		}
+	}
+	
+	private static ICursor createMergesCursor(ICursor []cursors, Expression[] exps, String opt, Context ctx) {
+		if (opt == null || opt.indexOf('0') == -1) {
+			return new MergesCursor(cursors, exps, ctx);
+		} else {
+			return new MergesCursor(cursors, exps, "0", ctx);
+		}
 	}
 
 	/**
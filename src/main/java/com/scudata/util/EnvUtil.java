@@ -37,6 +37,23 @@ public class EnvUtil {
 		}
 	}
 	
+	/**
+	 * ȡָСڴԼԴŶ¼
+	 * @param memory ڴֽ
+	 * @param fcount ֶ
+	 * @return ¼
+	 */
+	public static int getCapacity(long memory, int fcount) {
+		long recordCount = memory / fcount / FIELDSIZE / 3;
+		if (recordCount > MAXRECORDCOUNT) {
+			return MAXRECORDCOUNT;
+		} else if (recordCount < 1) {
+			return 1;
+		} else {
+			return (int)recordCount;
+		}
+	}
+	
 	/**
 	 * Ƿпڴα
 	 * @param rt Runtime
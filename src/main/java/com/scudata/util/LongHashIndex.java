@@ -0,0 +1,172 @@
+package com.scudata.util;
+
+/**
+ * ΪĿŵַϣڰֶη
+ * ˳1ʼţϣżţͻʱ̽
+ * Ŷʹû鱣棬ҪΪÿɶ
+ * @author RunQian
+ *
+ */
+public final class LongHashIndex {
+	private static final int MIN_CAPACITY = 16;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private long []keys; // Ŵŵļ0λò
+	private int []slots; // ϣۣżţ0ʾղ
+	private int mask; // ϣ1
+	private int threshold; // ﵽֵʱϣ
+	private int size; // ֵ
+	private int nullSeq; // ֵţ0ʾûпֵ
+
+	/**
+	 * ϣ
+	 * @param capacity ԤƵļ
+	 */
+	public LongHashIndex(int capacity) {
+		int n = MIN_CAPACITY;
+		while (n < capacity && n < MAX_CAPACITY) {
+			n <<= 1;
+		}
+
+		slots = new int[n];
+		mask = n - 1;
+		threshold = n / 4 * 3;
+		keys = new long[Math.min(n, 1024) + 1];
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32));
+	}
+
+	/**
+	 * ҼţҲ˼
+	 * @param key 
+	 * @return ţ1ʼ
+	 */
+	public int put(long key) {
+		long []keys = this.keys;
+		int []slots = this.slots;
+		int mask = this.mask;
+		int i = hash(key) & mask;
+
+		while (true) {
+			int seq = slots[i];
+			if (seq == 0) {
+				break;
+			} else if (keys[seq] == key) {
+				return seq;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		int seq = newSeq();
+		this.keys[seq] = key;
+		slots[i] = seq;
+
+		if (size - (nullSeq > 0 ? 1 : 0) >= threshold) {
+			rehash();
+		}
+
+		return seq;
+	}
+
+	/**
+	 * Ҽ
+	 * @param key 
+	 * @return ţҲ0
+	 */
+	public int get(long key) {
+		long []keys = this.keys;
+		int []slots = this.slots;
+		int mask = this.mask;
+		int i = hash(key) & mask;
+
+		while (true) {
+			int seq = slots[i];
+			if (seq == 0) {
+				return 0;
+			} else if (keys[seq] == key) {
+				return seq;
+			}
+
+			i = (i + 1) & mask;
+		}
+	}
+
+	/**
+	 * ȡֵţûпֵֵ
+	 * @return ţ1ʼ
+	 */
+	public int putNull() {
+		if (nullSeq == 0) {
+			nullSeq = newSeq();
+		}
+
+		return nullSeq;
+	}
+
+	/**
+	 * ȡֵ
+	 * @return ţûпֵʱ0
+	 */
+	public int getNullSeq() {
+		return nullSeq;
+	}
+
+	/**
+	 * ȡֵ
+	 * @return int
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * ȡָŵļ
+	 * @param seq ţ1ʼ
+	 * @return 
+	 */
+	public long getKey(int seq) {
+		return keys[seq];
+	}
+
+	private int newSeq() {
+		if (size + 1 == keys.length) {
+			long []newKeys = new long[keys.length * 2 - 1];
+			System.arraycopy(keys, 0, newKeys, 0, keys.length);
+			keys = newKeys;
+		}
+
+		return ++size;
+	}
+
+	private void rehash() {
+		if (slots.length >= MAX_CAPACITY) {
+			threshold = Integer.MAX_VALUE;
+			return;
+		}
+
+		int n = slots.length << 1;
+		int mask = n - 1;
+		int []slots = new int[n];
+		long []keys = this.keys;
+		int nullSeq = this.nullSeq;
+
+		for (int seq = 1, size = this.size; seq <= size; ++seq) {
+			if (seq != nullSeq) {
+				int i = hash(keys[seq]) & mask;
+				while (slots[i] != 0) {
+					i = (i + 1) & mask;
+				}
+
+				slots[i] = seq;
+			}
+		}
+
+		this.slots = slots;
+		this.mask = mask;
+		this.threshold = n / 4 * 3;
+	}
+}
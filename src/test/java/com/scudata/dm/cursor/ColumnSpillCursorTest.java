@@ -0,0 +1,164 @@
+package com.scudata.dm.cursor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.ColumnSpillWriter;
+import com.scudata.dm.Context;
+import com.scudata.dm.FileObject;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+
+/**
+ * ʽʱļдͶȡĲ
+ * @author RunQian
+ *
+ */
+public class ColumnSpillCursorTest {
+	private static final String []FIELDS = {"id", "l", "d", "s", "dt", "o", "n"};
+	private static final int COUNT = ColumnSpillWriter.BLOCK_RECORDS * 2 + 100; // 飬һ鲻
+
+	private Context ctx;
+	private FileObject file;
+
+	@Before
+	public void setUp() {
+		ctx = new Context();
+		file = FileObject.createTempFileObject();
+	}
+
+	@After
+	public void tearDown() {
+		file.delete();
+	}
+
+	private static Table newData(int count) {
+		Table table = new Table(FIELDS, count);
+		for (int i = 1; i <= count; ++i) {
+			BaseRecord r = table.newLast();
+			r.setNormalFieldValue(0, i);
+			r.setNormalFieldValue(1, i * 10000000000L);
+			r.setNormalFieldValue(2, i / 8.0);
+			r.setNormalFieldValue(3, i % 5 == 0 ? null : "s" + i);
+			r.setNormalFieldValue(4, new java.sql.Date(86400000L * i));
+			r.setNormalFieldValue(5, i % 2 == 0 ? (Object)i : (Object)("o" + i)); // 
+			r.setNormalFieldValue(6, null);
+		}
+
+		return table;
+	}
+
+	private static void assertRecord(BaseRecord expected, BaseRecord actual) {
+		assertArrayEquals(expected.getFieldValues(), actual.getFieldValues());
+	}
+
+	@Test
+	public void testRoundTrip() {
+		Table data = newData(COUNT);
+		ColumnSpillWriter.exportTemp(file, data);
+		assertTrue(ColumnSpillCursor.isColumnSpillFile(file));
+
+		ColumnSpillCursor cursor = new ColumnSpillCursor(file, null, null, ctx);
+		int seq = 0;
+		Sequence result;
+		while ((result = cursor.fetch(1000)) != null) {
+			assertArrayEquals(FIELDS, result.dataStruct().getFieldNames());
+			for (int i = 1, len = result.length(); i <= len; ++i) {
+				assertRecord((BaseRecord)data.getMem(++seq), (BaseRecord)result.getMem(i));
+			}
+		}
+
+		assertEquals(COUNT, seq);
+		cursor.close();
+		assertTrue(file.isExists()); // ûxѡʱɾļ
+	}
+
+	@Test
+	public void testSelectFields() {
+		Table data = newData(100);
+		ColumnSpillWriter.exportTemp(file, data);
+
+		ColumnSpillCursor cursor = new ColumnSpillCursor(file, new String[] {"s", "id"}, null, ctx);
+		Sequence result = cursor.fetch();
+		cursor.close();
+
+		assertArrayEquals(new String[] {"s", "id"}, result.dataStruct().getFieldNames());
+		assertEquals(100, result.length());
+		for (int i = 1; i <= 100; ++i) {
+			BaseRecord r = (BaseRecord)result.getMem(i);
+			assertEquals(i % 5 == 0 ? null : "s" + i, r.getNormalFieldValue(0));
+			assertEquals(i, r.getNormalFieldValue(1));
+		}
+	}
+
+	@Test
+	public void testSkip() {
+		Table data = newData(COUNT);
+		ColumnSpillWriter.exportTemp(file, data);
+
+		ColumnSpillCursor cursor = new ColumnSpillCursor(file, null, null, ctx);
+		assertEquals(10000, cursor.skip(10000));
+		Sequence result = cursor.fetch(1);
+		assertRecord((BaseRecord)data.getMem(10001), (BaseRecord)result.getMem(1));
+		assertEquals(COUNT - 10001, cursor.skip());
+		assertNull(cursor.fetch(1));
+		cursor.close();
+	}
+
+	@Test
+	public void testStartBlock() {
+		Table data = newData(COUNT);
+		ColumnSpillWriter.exportTemp(file, data);
+
+		ColumnSpillCursor cursor = new ColumnSpillCursor(file, null, null, ctx);
+		cursor.setStartBlock(2);
+		Sequence result = cursor.fetch();
+		cursor.close();
+		assertEquals(100, result.length());
+		assertRecord((BaseRecord)data.getMem(ColumnSpillWriter.BLOCK_RECORDS * 2 + 1), (BaseRecord)result.getMem(1));
+
+		// ĿļĿʱû
+		cursor = new ColumnSpillCursor(file, null, null, ctx);
+		cursor.setStartBlock(5);
+		assertNull(cursor.fetch());
+		cursor.close();
+	}
+
+	@Test
+	public void testTempCursorDeletesFile() {
+		ColumnSpillWriter.exportTemp(file, newData(COUNT));
+		ICursor cursor = ColumnSpillCursor.createTempCursor(file, 0, ctx);
+		assertTrue(cursor instanceof ColumnSpillCursor);
+		assertEquals(10, cursor.fetch(10).length());
+		cursor.close();
+		assertFalse(file.isExists());
+	}
+
+	@Test
+	public void testNonTableFallsBackToBFile() {
+		// Ǵедɼļ
+		Sequence data = new Sequence();
+		for (int i = 1; i <= 100; ++i) {
+			data.add(i);
+		}
+
+		ColumnSpillWriter.exportTemp(file, data);
+		assertFalse(ColumnSpillCursor.isColumnSpillFile(file));
+
+		ICursor cursor = ColumnSpillCursor.createTempCursor(file, 0, ctx);
+		assertFalse(cursor instanceof ColumnSpillCursor);
+		Sequence result = cursor.fetch();
+		cursor.close();
+		assertEquals(100, result.length());
+		assertEquals(100, ((BaseRecord)result.getMem(100)).getNormalFieldValue(0)); // ļǵֶμ¼
+		assertFalse(file.isExists());
+	}
+}
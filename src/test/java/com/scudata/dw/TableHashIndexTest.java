@@ -0,0 +1,167 @@
+package com.scudata.dw;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Context;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dm.cursor.ICursor;
+import com.scudata.dm.cursor.MemoryCursor;
+import com.scudata.expression.Expression;
+
+/**
+ * ϣ׷ʱάĲ
+ * @author RunQian
+ *
+ */
+public class TableHashIndexTest {
+	private static final long KEY_PRIME = 40000037L; // k = id * KEY_FACTOR % KEY_PRIMEkظ
+	private static final long KEY_FACTOR = 40503L;
+	private static final int GARBAGE_POS = 13; // ļͷзͰֽλ
+
+	private Context ctx;
+	private File file;
+	private File indexFile;
+	private ColComTable table;
+
+	@Before
+	public void setUp() throws IOException {
+		ctx = new Context();
+		file = File.createTempFile("hashindex", ".ctx");
+		file.delete();
+		indexFile = new File(file.getAbsolutePath() + "__ik");
+		table = new ColComTable(file, new String[] {"#id", "k"}, null, null, ctx);
+	}
+
+	@After
+	public void tearDown() {
+		if (table != null) {
+			table.close();
+		}
+
+		indexFile.delete();
+		file.delete();
+	}
+
+	private static long key(long id) {
+		return id * KEY_FACTOR % KEY_PRIME;
+	}
+
+	private static Table newData(long startId, int count) {
+		Table data = new Table(new String[] {"id", "k"}, count);
+		for (int i = 0; i < count; ++i) {
+			BaseRecord r = data.newLast();
+			r.setNormalFieldValue(0, startId + i);
+			r.setNormalFieldValue(1, key(startId + i));
+		}
+
+		return data;
+	}
+
+	// Ҽֵҵid
+	private List<Long> find(PhyTable baseTable, Sequence keys) {
+		ctx.setParamValue("P", keys);
+		ICursor cs = baseTable.icursor(new String[] {"id", "k"}, new Expression(ctx, "P.contain(k)"), "ik", null, ctx);
+		Sequence result = cs.fetch();
+		List<Long> ids = new ArrayList<Long>();
+		if (result != null) {
+			for (int i = 1, len = result.length(); i <= len; ++i) {
+				BaseRecord r = (BaseRecord)result.getMem(i);
+				ids.add(((Number)r.getNormalFieldValue(0)).longValue());
+			}
+		}
+
+		Collections.sort(ids);
+		return ids;
+	}
+
+	// ǰtotal¼ÿstepļҵڵļҲ
+	private void checkFind(PhyTable baseTable, long total, int step) {
+		Sequence keys = new Sequence();
+		List<Long> expected = new ArrayList<Long>();
+		for (long id = 1; id <= total; id += step) {
+			keys.add(key(id));
+			expected.add(id);
+			keys.add(KEY_PRIME + id); // ڵļ
+		}
+
+		assertEquals(expected, find(baseTable, keys));
+	}
+
+	private long readGarbageSize() throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(indexFile, "r");
+		try {
+			raf.seek(GARBAGE_POS);
+			long size = 0;
+			for (int i = 0; i < 5; ++i) {
+				size = (size << 8) + raf.read();
+			}
+
+			return size;
+		} finally {
+			raf.close();
+		}
+	}
+
+	@Test
+	public void testAppendKeepsIndex() throws IOException {
+		PhyTable baseTable = table.getBaseTable();
+		baseTable.append(new MemoryCursor(newData(1, 20000)));
+
+		// ϣԶСڼ¼׷ʱҪϣ
+		baseTable.createIndex("ik", new String[] {"k"}, Integer.valueOf(64), null, null, ctx);
+		assertTrue(indexFile.exists());
+		assertEquals(0, readGarbageSize());
+		checkFind(baseTable, 20000, 7);
+
+		// һļ¼ỺڴУдҲÿ׷һ
+		long total = 20000;
+		for (int i = 0; i < 6; ++i) {
+			baseTable.append(new MemoryCursor(newData(total + 1, 10000)));
+			total += 10000;
+
+			// һ׷ʱϣ֮ľͰļһʱѹ
+			long garbageSize = readGarbageSize();
+			assertTrue(garbageSize * 2 <= indexFile.length());
+			checkFind(baseTable, total, 7);
+		}
+
+		// ´򿪺ļͷȡϢ
+		table.close();
+		table = null;
+		PhyTable reopened = ComTable.openBaseTable(file, ctx);
+		table = (ColComTable)reopened.getGroupTable();
+		checkFind(reopened, total, 3);
+	}
+
+	@Test(timeout = 60000)
+	public void testDuplicateKeys() throws IOException {
+		PhyTable baseTable = table.getBaseTable();
+		baseTable.append(new MemoryCursor(newData(1, 1000)));
+		baseTable.createIndex("ik", new String[] {"k"}, Integer.valueOf(16), null, null, ctx);
+
+		Sequence keys = new Sequence();
+		keys.add(key(10));
+		keys.add(key(10));
+		keys.add(key(20));
+		keys.add(key(10));
+
+		List<Long> expected = new ArrayList<Long>();
+		expected.add(10L);
+		expected.add(20L);
+		assertEquals(expected, find(baseTable, keys));
+	}
+}
@@ -0,0 +1,114 @@
+package com.scudata.parallel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import com.scudata.array.DoubleArray;
+import com.scudata.array.IArray;
+import com.scudata.array.IntArray;
+import com.scudata.array.LongArray;
+import com.scudata.array.ObjectArray;
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Table;
+
+/**
+ * мֶβֵĲ
+ * @author RunQian
+ *
+ */
+public class PartialGroupsTest {
+	private static final int COUNT = 7; // 
+
+	// ͬһֵڲͬڵϿܴɲͬ͵飬ֵķݱͬ
+	@Test
+	public void testPartitionIndependentOfType() {
+		IntArray ints = new IntArray(2001);
+		LongArray longs = new LongArray(2001);
+		DoubleArray doubles = new DoubleArray(2001);
+		ObjectArray[] objects = new ObjectArray[5];
+		for (int k = 0; k < objects.length; ++k) {
+			objects[k] = new ObjectArray(2001);
+		}
+
+		for (int n = -1000; n <= 1000; ++n) {
+			ints.push(n);
+			longs.push((long)n);
+			doubles.push((double)n);
+			objects[0].add(Integer.valueOf(n));
+			objects[1].add(Long.valueOf(n));
+			objects[2].add(Double.valueOf(n));
+			objects[3].add(new BigDecimal(n).setScale(2));
+			objects[4].add(BigInteger.valueOf(n));
+		}
+
+		for (int i = 1; i <= 2001; ++i) {
+			int p = PartialGroups.getPartition(new IArray[] {ints}, 1, i, COUNT);
+			assertTrue(p >= 0 && p < COUNT);
+			assertEquals(p, PartialGroups.getPartition(new IArray[] {longs}, 1, i, COUNT));
+			assertEquals(p, PartialGroups.getPartition(new IArray[] {doubles}, 1, i, COUNT));
+			for (ObjectArray array : objects) {
+				assertEquals(p, PartialGroups.getPartition(new IArray[] {array}, 1, i, COUNT));
+			}
+		}
+	}
+
+	@Test
+	public void testMultiKeysAndNulls() {
+		IntArray ints = new IntArray(3);
+		ints.push(1);
+		ints.pushNull();
+		ints.push(3);
+		ObjectArray objs = new ObjectArray(3);
+		objs.add(Long.valueOf(1));
+		objs.add(null);
+		objs.add(Double.valueOf(3));
+		ObjectArray strs = new ObjectArray(new Object[] {"a", "b", null});
+
+		for (int i = 1; i <= 3; ++i) {
+			int p = PartialGroups.getPartition(new IArray[] {ints, strs}, 2, i, COUNT);
+			assertTrue(p >= 0 && p < COUNT);
+			assertEquals(p, PartialGroups.getPartition(new IArray[] {objs, strs}, 2, i, COUNT));
+		}
+	}
+
+	@Test
+	public void testSplit() {
+		Table table = new Table(new String[] {"k1", "k2", "v"});
+		for (int i = 1; i <= 10000; ++i) {
+			BaseRecord r = table.newLast();
+			r.setNormalFieldValue(0, i % 97);
+			r.setNormalFieldValue(1, i % 3 == 0 ? null : "s" + (i % 5));
+			r.setNormalFieldValue(2, Double.valueOf(i));
+		}
+
+		PartialGroups groups = new PartialGroups(table, 2);
+		PartialGroups []parts = groups.split(COUNT);
+		assertEquals(COUNT, parts.length);
+
+		// ¼ڣͬķֻһ
+		HashMap<String, Integer> keyPart = new HashMap<String, Integer>();
+		double sum = 0;
+		int total = 0;
+		for (int p = 0; p < COUNT; ++p) {
+			assertEquals(2, parts[p].getKeyCount());
+			Table part = parts[p].toTable();
+			total += part.length();
+			for (int i = 1, len = part.length(); i <= len; ++i) {
+				BaseRecord r = (BaseRecord)part.getMem(i);
+				String key = r.getNormalFieldValue(0) + "," + r.getNormalFieldValue(1);
+				Integer prev = keyPart.put(key, p);
+				assertTrue(prev == null || prev.intValue() == p);
+				sum += ((Number)r.getNormalFieldValue(2)).doubleValue();
+			}
+		}
+
+		assertEquals(10000, total);
+		assertEquals(10000 * 10001 / 2.0, sum, 0);
+	}
+}
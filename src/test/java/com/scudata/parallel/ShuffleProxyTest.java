@@ -0,0 +1,100 @@
+package com.scudata.parallel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Context;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dm.cursor.ICursor;
+
+/**
+ * ȺαطֲʱջĲ
+ * @author RunQian
+ *
+ */
+public class ShuffleProxyTest {
+	private static final int BATCH = 10000; // ÿ͵ļ¼
+
+	private static Table newBatch(long startId) {
+		Table table = new Table(new String[] {"id", "g"}, BATCH);
+		for (int i = 0; i < BATCH; ++i) {
+			BaseRecord r = table.newLast();
+			r.setNormalFieldValue(0, startId + i);
+			r.setNormalFieldValue(1, "g" + (i % 10));
+		}
+
+		return table;
+	}
+
+	private static long[] sumIds(ICursor cursor) {
+		long count = 0;
+		long sum = 0;
+		Sequence seq;
+		while ((seq = cursor.fetch(50000)) != null) {
+			for (int i = 1, len = seq.length(); i <= len; ++i) {
+				sum += ((Number)((BaseRecord)seq.getMem(i)).getNormalFieldValue(0)).longValue();
+			}
+
+			count += seq.length();
+		}
+
+		cursor.close();
+		return new long[] {count, sum};
+	}
+
+	@Test
+	public void testMemoryOnly() {
+		ShuffleProxy proxy = new ShuffleProxy();
+		proxy.add(newBatch(1));
+		proxy.add(newBatch(BATCH + 1));
+
+		long total = 2 * BATCH;
+		long []result = sumIds(proxy.createCursor(new Context()));
+		assertEquals(total, result[0]);
+		assertEquals(total * (total + 1) / 2, result[1]);
+	}
+
+	// ڵͬʱͣʱдʱļαм¼
+	@Test(timeout = 120000)
+	public void testConcurrentSpill() throws InterruptedException {
+		final ShuffleProxy proxy = new ShuffleProxy();
+		final int threadCount = 4;
+		final int batchCount = ShuffleProxy.MAX_BUFFER_RECORDS / BATCH / 2 + 1; // ܼ¼
+		final Throwable []errors = new Throwable[threadCount];
+		Thread []threads = new Thread[threadCount];
+
+		for (int t = 0; t < threadCount; ++t) {
+			final int index = t;
+			threads[t] = new Thread() {
+				public void run() {
+					try {
+						for (int b = 0; b < batchCount; ++b) {
+							long startId = ((long)index * batchCount + b) * BATCH + 1;
+							proxy.add(newBatch(startId));
+						}
+					} catch (Throwable e) {
+						errors[index] = e;
+					}
+				}
+			};
+			threads[t].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		for (Throwable e : errors) {
+			assertNull(e);
+		}
+
+		long total = (long)threadCount * batchCount * BATCH;
+		long []result = sumIds(proxy.createCursor(new Context()));
+		assertEquals(total, result[0]);
+		assertEquals(total * (total + 1) / 2, result[1]);
+	}
+}
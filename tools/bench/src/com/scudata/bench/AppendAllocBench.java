@@ -0,0 +1,94 @@
+package com.scudata.bench;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Context;
+import com.scudata.dm.Table;
+import com.scudata.dm.cursor.MemoryCursor;
+import com.scudata.dw.ColComTable;
+
+/**
+ * д׷ʱĶѷͺʱ
+ * ׷ʱ̳߳дп飬߳̽ȡ̵߳ķԹرTLABEden
+ * Ҫ㹻׷ӹвܷ
+ * Уjava -XX:+UseParallelGC -XX:-UseTLAB -Xmx3g -Xmn2g -cp <Ŀ¼>:lib/* com.scudata.bench.AppendAllocBench [¼]
+ * @author RunQian
+ *
+ */
+public class AppendAllocBench {
+	private static final int ROUNDS = 4; // һԤȲ
+
+	public static void main(String []args) throws Exception {
+		int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		Table data = newData(rowCount);
+		File file = File.createTempFile("appendbench", ".ctx");
+		Context ctx = new Context();
+
+		long allocated = 0;
+		long time = 0;
+		for (int r = 0; r < ROUNDS; ++r) {
+			System.gc();
+			long gcCount = gcCount();
+			long edenBefore = edenUsed();
+			long start = System.nanoTime();
+
+			ColComTable table = new ColComTable(file, new String[] {"#id", "v1", "v2", "s"}, null, null, ctx);
+			table.getBaseTable().append(new MemoryCursor(data));
+			table.close();
+
+			long end = System.nanoTime();
+			long edenAfter = edenUsed();
+			if (gcCount() != gcCount) {
+				System.out.println("round " + r + ": garbage collection happened during append, enlarge -Xmn");
+				return;
+			}
+
+			if (r > 0) {
+				allocated += edenAfter - edenBefore;
+				time += end - start;
+			}
+		}
+
+		file.delete();
+		int n = ROUNDS - 1;
+		System.out.println("rows=" + rowCount + " x 4 columns: allocated " + allocated / n / (1024 * 1024) +
+				"MB per append, " + time / n / 1000000 + "ms");
+	}
+
+	private static Table newData(int rowCount) {
+		Table table = new Table(new String[] {"id", "v1", "v2", "s"}, rowCount);
+		for (int i = 1; i <= rowCount; ++i) {
+			BaseRecord r = table.newLast();
+			r.setNormalFieldValue(0, Integer.valueOf(i));
+			r.setNormalFieldValue(1, Long.valueOf(i * 31L % 100003));
+			r.setNormalFieldValue(2, Double.valueOf(i / 7.0));
+			r.setNormalFieldValue(3, "S" + (i % 1000));
+		}
+
+		return table;
+	}
+
+	private static long edenUsed() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getName().indexOf("Eden") != -1) {
+				used += pool.getUsage().getUsed();
+			}
+		}
+
+		return used;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += gc.getCollectionCount();
+		}
+
+		return count;
+	}
+}
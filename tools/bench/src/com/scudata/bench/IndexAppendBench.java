@@ -0,0 +1,103 @@
+package com.scudata.bench;
+
+import java.io.File;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.Context;
+import com.scudata.dm.Sequence;
+import com.scudata.dm.Table;
+import com.scudata.dm.cursor.ICursor;
+import com.scudata.dm.cursor.MemoryCursor;
+import com.scudata.dw.ColComTable;
+import com.scudata.dw.PhyTable;
+import com.scudata.expression.Expression;
+
+/**
+ * ׷ʱάĺʱԼ׷Ӻҵĺʱ
+ * д¼ԷǼֶkϣٷֶ׷ӣÿ׷Ӻ
+ * ϣĹϣȱʡȡ¼1/4ڹ۲׷Ӻ
+ * Уjava -Xmx4g -cp <Ŀ¼>:lib/* com.scudata.bench.IndexAppendBench sorted|hash [¼] [ÿ׷Ӽ¼] [׷Ӵ] [ϣ]
+ * @author RunQian
+ *
+ */
+public class IndexAppendBench {
+	private static final long KEY_PRIME = 40000037L; // k = id * KEY_FACTOR % KEY_PRIME¼СKEY_PRIMEʱkظ
+	private static final long KEY_FACTOR = 40503L;
+	private static final int PROBE_COUNT = 20000; // ҵļһڱһ벻
+
+	public static void main(String []args) throws Exception {
+		boolean isHash = args.length > 0 && args[0].equals("hash");
+		int baseCount = args.length > 1 ? Integer.parseInt(args[1]) : 2000000;
+		int appendCount = args.length > 2 ? Integer.parseInt(args[2]) : 200000;
+		int appendTimes = args.length > 3 ? Integer.parseInt(args[3]) : 6;
+		int capacity = args.length > 4 ? Integer.parseInt(args[4]) : baseCount / 4;
+
+		File file = File.createTempFile("indexbench", ".ctx");
+		file.delete();
+		Context ctx = new Context();
+		ColComTable table = new ColComTable(file, new String[] {"#id", "k", "v"}, null, null, ctx);
+		PhyTable baseTable = table.getBaseTable();
+		baseTable.append(new MemoryCursor(newData(1, baseCount)));
+
+		long start = System.nanoTime();
+		baseTable.createIndex("ik", new String[] {"k"}, isHash ? (Object)Integer.valueOf(capacity) : null, null, null, ctx);
+		long buildTime = System.nanoTime() - start;
+
+		long appendTime = 0;
+		long id = baseCount + 1;
+		StringBuffer eachTime = new StringBuffer(); // ÿ׷ӵĺʱ
+		for (int i = 0; i < appendTimes; ++i) {
+			Table data = newData(id, appendCount);
+			id += appendCount;
+			start = System.nanoTime();
+			baseTable.append(new MemoryCursor(data));
+			long time = System.nanoTime() - start;
+			appendTime += time;
+			eachTime.append(i == 0 ? " (" : ", ").append(time / 1000000);
+		}
+
+		if (appendTimes > 0) {
+			eachTime.append(')');
+		}
+
+		long total = id - 1;
+		Sequence probes = new Sequence(PROBE_COUNT);
+		long step = total / (PROBE_COUNT / 2);
+		for (int i = 0; i < PROBE_COUNT; ++i) {
+			long key = (i / 2 * step + 1) * KEY_FACTOR % KEY_PRIME; // ȷֲڻ¼׷ӵļ¼
+			if ((i & 1) == 1) {
+				key = KEY_PRIME + i; // ڱ
+			}
+
+			probes.add(Long.valueOf(key));
+		}
+
+		ctx.setParamValue("P", probes);
+		Expression filter = new Expression(ctx, "P.contain(k)");
+		start = System.nanoTime();
+		ICursor cs = baseTable.icursor(new String[] {"id", "k"}, filter, "ik", null, ctx);
+		Sequence result = cs.fetch();
+		long findTime = System.nanoTime() - start;
+		int found = result == null ? 0 : result.length();
+
+		table.close();
+		new File(file.getAbsolutePath() + "__ik").delete();
+		file.delete();
+		System.out.println((isHash ? "hash" : "sorted") + " index, " + baseCount + " rows + " + appendTimes + " x " + appendCount +
+				": build " + buildTime / 1000000 + "ms, appends " + appendTime / 1000000 + "ms" + eachTime + ", find " + PROBE_COUNT +
+				" keys " + findTime / 1000000 + "ms, found " + found);
+	}
+
+	private static Table newData(long startId, int count) {
+		Table table = new Table(new String[] {"id", "k", "v"}, count);
+		for (int i = 0; i < count; ++i) {
+			long id = startId + i;
+			BaseRecord r = table.newLast();
+			r.setNormalFieldValue(0, Long.valueOf(id));
+			r.setNormalFieldValue(1, Long.valueOf(id * KEY_FACTOR % KEY_PRIME));
+			r.setNormalFieldValue(2, Double.valueOf(id / 7.0));
+		}
+
+		return table;
+	}
+}
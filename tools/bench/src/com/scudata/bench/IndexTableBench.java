@@ -0,0 +1,125 @@
+package com.scudata.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.Random;
+
+import com.scudata.dm.BaseRecord;
+import com.scudata.dm.HashIndexTable;
+import com.scudata.dm.IndexTable;
+import com.scudata.dm.OpenHashIndexTable;
+import com.scudata.dm.Table;
+
+/**
+ * ȽϵֶַOpenHashIndexTableHashIndexTableϵĴʱ䡢ռڴͲʱ
+ * Уjava -XX:+UseParallelGC -Xms4g -Xmx4g -cp <Ŀ¼>:lib/* com.scudata.bench.IndexTableBench [ά¼] [Ҵ]
+ * @author RunQian
+ *
+ */
+public class IndexTableBench {
+	private static final int ROUNDS = 5; // ÿԵһԤȲ
+
+	public static void main(String []args) {
+		int rowCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		int probeCount = args.length > 1 ? Integer.parseInt(args[1]) : 5000000;
+
+		Table intTable = newTable(rowCount, false);
+		Table stringTable = newTable(rowCount, true);
+		Object []intProbes = newProbes(intTable, probeCount);
+		Object []stringProbes = newProbes(stringTable, probeCount);
+
+		System.out.println("rows=" + rowCount + ", probes=" + probeCount);
+		run("int    open   ", intTable, intProbes, true);
+		run("int    chained", intTable, intProbes, false);
+		run("string open   ", stringTable, stringProbes, true);
+		run("string chained", stringTable, stringProbes, false);
+	}
+
+	private static Table newTable(int rowCount, boolean isString) {
+		Table table = new Table(new String[] {"id", "value"}, rowCount);
+		for (int i = 1; i <= rowCount; ++i) {
+			BaseRecord r = table.newLast();
+			r.setNormalFieldValue(0, isString ? (Object)("K" + i * 7L) : (Object)Integer.valueOf(i * 7));
+			r.setNormalFieldValue(1, Integer.valueOf(i));
+		}
+
+		return table;
+	}
+
+	// ҵļһάһ벻
+	private static Object[] newProbes(Table table, int probeCount) {
+		Random random = new Random(0);
+		int len = table.length();
+		Object []probes = new Object[probeCount];
+		for (int i = 0; i < probeCount; ++i) {
+			Object key = ((BaseRecord)table.getMem(random.nextInt(len) + 1)).getNormalFieldValue(0);
+			if ((i & 1) == 1) {
+				key = key instanceof String ? (Object)(key + "x") : (Object)Integer.valueOf((Integer)key + 1);
+			}
+
+			probes[i] = key;
+		}
+
+		return probes;
+	}
+
+	private static IndexTable build(Table table, boolean isOpen) {
+		if (isOpen) {
+			return OpenHashIndexTable.create(table, 0, table.length());
+		} else {
+			HashIndexTable it = new HashIndexTable(table.length());
+			it.create(table, 0);
+			return it;
+		}
+	}
+
+	private static void run(String name, Table table, Object []probes, boolean isOpen) {
+		long buildTime = 0;
+		long findTime = 0;
+		long heap = 0;
+		int found = 0;
+
+		for (int r = 0; r < ROUNDS; ++r) {
+			long usedBefore = usedHeap();
+			long start = System.nanoTime();
+			IndexTable it = build(table, isOpen);
+			long built = System.nanoTime();
+			long usedAfter = usedHeap(); // 滹Ҫڲңʱᱻ
+
+			long findStart = System.nanoTime();
+			found = 0;
+			for (Object key : probes) {
+				if (it.findPos(key) > 0) {
+					found++;
+				}
+			}
+
+			long end = System.nanoTime();
+			it = null; // ͷűֵһֵڴ
+			if (r > 0) {
+				buildTime += built - start;
+				findTime += end - findStart;
+				heap += usedAfter - usedBefore;
+			}
+		}
+
+		int n = ROUNDS - 1;
+		System.out.println(name + ": build " + buildTime / n / 1000000 + "ms, find " +
+				findTime / n / 1000000 + "ms, index heap " + heap / n / (1024 * 1024) + "MB, found " + found);
+	}
+
+	// ȡȫպռãĶƵ̱߳ط仺Ŀв
+	private static long usedHeap() {
+		System.gc();
+		long used = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			String name = pool.getName();
+			if (pool.getType() == MemoryType.HEAP && name.indexOf("Eden") == -1 && name.indexOf("Survivor") == -1) {
+				used += pool.getUsage().getUsed();
+			}
+		}
+
+		return used;
+	}
+}